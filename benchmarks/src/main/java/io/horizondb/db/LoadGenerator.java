@@ -0,0 +1,1069 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.util.concurrent.NamedThreadFactory;
+import io.horizondb.io.Buffer;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.InsertPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Load generator sending a configurable mix of binary <code>INSERT</code>, HQL <code>INSERT</code> and
+ * <code>SELECT</code> requests to a <code>HorizonServer</code> over many connections, and reporting the throughput
+ * and the latency distribution of each type of request.
+ * <p>
+ * The settings are passed as <code>name=value</code> arguments:
+ * <ul>
+ * <li><code>embedded</code>: <code>true</code> to start a server with temporary directories on the specified port,
+ * <code>false</code> to target a running one (default: true)</li>
+ * <li><code>host</code>: the server host (default: localhost)</li>
+ * <li><code>port</code>: the server port (default: 8553)</li>
+ * <li><code>database</code>: the name of the database created by the generator (default: loadtest)</li>
+ * <li><code>connections</code>: the number of connections (default: 16)</li>
+ * <li><code>binaryInsert</code>, <code>hqlInsert</code>, <code>select</code>: the relative weights of each type of
+ * request (default: 60, 30, 10)</li>
+ * <li><code>series</code>: the number of time series (default: 100)</li>
+ * <li><code>recordTypes</code>: the number of record types per time series (default: 4)</li>
+ * <li><code>fields</code>: the number of <code>LONG</code> fields per record type (default: 4)</li>
+ * <li><code>batchSize</code>: the number of records per <code>INSERT</code> request (default: 100)</li>
+ * <li><code>outOfWindow</code>: the percentage of records whose timestamp falls in one of the previous days
+ * (default: 5)</li>
+ * <li><code>selectRange</code>: the time range read by each <code>SELECT</code> in seconds (default: 10)</li>
+ * <li><code>duration</code>: the duration of the measurement in seconds (default: 60)</li>
+ * <li><code>warmup</code>: the warmup duration in seconds (default: 15)</li>
+ * <li><code>seed</code>: the seed of the random generators (default: 42)</li>
+ * <li><code>histograms</code>: the directory where the full latency distribution of each type of request must be
+ * written in HdrHistogram format (default: none)</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Each connection has a single request in flight at a time. The random generators are seeded and the timestamps
+ * follow a logical clock per time series starting at {@link Benchmarks#TIME_IN_NANOS}, so that two runs with the
+ * same settings send the same requests and their results can be compared across commits.
+ * </p>
+ */
+public final class LoadGenerator {
+
+    /**
+     * The highest latency that can be recorded, in nanoseconds.
+     */
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * The time between two consecutive records of a time series, in nanoseconds.
+     */
+    private static final long RECORD_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The maximum number of days in the past of the out of window records.
+     */
+    private static final int MAX_DAYS_IN_THE_PAST = 7;
+
+    /**
+     * The maximum time to wait for the response to a schema request, in seconds.
+     */
+    private static final int SCHEMA_REQUEST_TIMEOUT_IN_SECONDS = 30;
+
+    /**
+     * The default settings.
+     */
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("embedded", "true");
+        DEFAULTS.put("host", "localhost");
+        DEFAULTS.put("port", "8553");
+        DEFAULTS.put("database", "loadtest");
+        DEFAULTS.put("connections", "16");
+        DEFAULTS.put("binaryInsert", "60");
+        DEFAULTS.put("hqlInsert", "30");
+        DEFAULTS.put("select", "10");
+        DEFAULTS.put("series", "100");
+        DEFAULTS.put("recordTypes", "4");
+        DEFAULTS.put("fields", "4");
+        DEFAULTS.put("batchSize", "100");
+        DEFAULTS.put("outOfWindow", "5");
+        DEFAULTS.put("selectRange", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("warmup", "15");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("histograms", "");
+    }
+
+    /**
+     * The types of requests sent by the generator.
+     */
+    private static enum RequestType {
+
+        BINARY_INSERT, HQL_INSERT, SELECT;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> settings = parseArguments(args);
+
+        boolean embedded = Boolean.parseBoolean(settings.get("embedded"));
+        int port = getInt(settings, "port");
+
+        Path directory = null;
+        HorizonServer server = null;
+
+        if (embedded) {
+
+            directory = Files.createTempDirectory("load-generator");
+
+            Configuration configuration = Configuration.newBuilder()
+                                                       .port(port)
+                                                       .dataDirectory(directory.resolve("data"))
+                                                       .commitLogDirectory(directory.resolve("commitLog"))
+                                                       .build();
+            server = new HorizonServer(configuration);
+            server.start();
+        }
+
+        try {
+
+            run(settings, settings.get("host"), port);
+
+        } finally {
+
+            if (server != null) {
+                server.shutdown();
+                FileUtils.forceDelete(directory);
+            }
+        }
+    }
+
+    /**
+     * Creates the schema, generates the load and prints the report.
+     *
+     * @param settings the settings
+     * @param host the server host
+     * @param port the server port
+     * @throws Exception if a problem occurs during the run
+     */
+    private static void run(Map<String, String> settings, String host, int port) throws Exception {
+
+        int numberOfConnections = getInt(settings, "connections");
+        int duration = getInt(settings, "duration");
+        int warmup = getInt(settings, "warmup");
+        long seed = Long.parseLong(settings.get("seed"));
+
+        Schema schema = new Schema(settings.get("database"),
+                                   getInt(settings, "series"),
+                                   getInt(settings, "recordTypes"),
+                                   getInt(settings, "fields"));
+
+        Map<RequestType, Recorder> recorders = new HashMap<>();
+        Map<RequestType, AtomicLong> records = new HashMap<>();
+        Map<RequestType, AtomicLong> errors = new HashMap<>();
+
+        for (RequestType operation : RequestType.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_LATENCY, 3));
+            records.put(operation, new AtomicLong());
+            errors.put(operation, new AtomicLong());
+        }
+
+        EventLoopGroup group = new NioEventLoopGroup(0, new NamedThreadFactory("load"));
+
+        try {
+
+            List<Connection> connections = new ArrayList<>(numberOfConnections);
+
+            for (int i = 0; i < numberOfConnections; i++) {
+                connections.add(connect(group, host, port));
+            }
+
+            schema.create(connections.get(0));
+
+            CountDownLatch stopped = new CountDownLatch(numberOfConnections);
+            List<Driver> drivers = new ArrayList<>(numberOfConnections);
+
+            for (int i = 0; i < numberOfConnections; i++) {
+
+                Workload workload = new Workload(schema, settings, new Random(seed + i));
+                Driver driver = new Driver(connections.get(i), workload, recorders, records, errors, stopped);
+                drivers.add(driver);
+                driver.next();
+            }
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+
+            for (RequestType operation : RequestType.values()) {
+                recorders.get(operation).reset();
+                records.get(operation).set(0);
+                errors.get(operation).set(0);
+            }
+
+            long start = System.nanoTime();
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(duration));
+
+            Map<RequestType, Histogram> histograms = new HashMap<>();
+
+            for (RequestType operation : RequestType.values()) {
+                histograms.put(operation, recorders.get(operation).getIntervalHistogram());
+            }
+
+            double elapsedInSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            for (Driver driver : drivers) {
+                driver.stop();
+            }
+
+            stopped.await();
+
+            for (Connection connection : connections) {
+                connection.close();
+            }
+
+            report(settings, histograms, records, errors, elapsedInSeconds);
+
+        } finally {
+
+            group.shutdownGracefully();
+        }
+    }
+
+    /**
+     * Prints the throughput and the latency distribution of each type of request.
+     *
+     * @param settings the settings
+     * @param histograms the latency histograms
+     * @param records the number of records written or read per type of request
+     * @param errors the number of errors per type of request
+     * @param elapsedInSeconds the duration of the measurement in seconds
+     * @throws IOException if the histograms cannot be written
+     */
+    private static void report(Map<String, String> settings,
+                               Map<RequestType, Histogram> histograms,
+                               Map<RequestType, AtomicLong> records,
+                               Map<RequestType, AtomicLong> errors,
+                               double elapsedInSeconds) throws IOException {
+
+        System.out.println("operation,requests,requestsPerSec,recordsPerSec,errors,p50Us,p90Us,p99Us,p999Us,maxUs");
+
+        String directory = settings.get("histograms");
+
+        for (RequestType operation : RequestType.values()) {
+
+            Histogram histogram = histograms.get(operation);
+
+            System.out.println(String.format("%s,%d,%.0f,%.0f,%d,%d,%d,%d,%d,%d",
+                                             operation,
+                                             histogram.getTotalCount(),
+                                             histogram.getTotalCount() / elapsedInSeconds,
+                                             records.get(operation).get() / elapsedInSeconds,
+                                             errors.get(operation).get(),
+                                             toMicros(histogram.getValueAtPercentile(50)),
+                                             toMicros(histogram.getValueAtPercentile(90)),
+                                             toMicros(histogram.getValueAtPercentile(99)),
+                                             toMicros(histogram.getValueAtPercentile(99.9)),
+                                             toMicros(histogram.getMaxValue())));
+
+            if (!directory.isEmpty()) {
+
+                try (PrintStream stream = new PrintStream(new File(directory, operation + ".hgrm"))) {
+
+                    histogram.outputPercentileDistribution(stream, Double.valueOf(TimeUnit.MICROSECONDS.toNanos(1)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a new connection to the specified server.
+     *
+     * @param group the event loop group
+     * @param host the server host
+     * @param port the server port
+     * @return the new connection
+     * @throws InterruptedException if the thread is interrupted while connecting
+     */
+    private static Connection connect(EventLoopGroup group, String host, int port) throws InterruptedException {
+
+        final Connection connection = new Connection();
+
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(group)
+                 .channel(NioSocketChannel.class)
+                 .option(ChannelOption.TCP_NODELAY, Boolean.TRUE)
+                 .handler(new ChannelInitializer<SocketChannel>() {
+                     @Override
+                     public void initChannel(SocketChannel ch) throws Exception {
+
+                         int adjustment = MsgHeader.HEADER_SIZE
+                                 - (MsgHeader.LENGTH_FIELD_OFFSET + MsgHeader.LENGTH_FIELD_LENGTH);
+
+                         ch.pipeline()
+                           .addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN,
+                                                                     Integer.MAX_VALUE,
+                                                                     MsgHeader.LENGTH_FIELD_OFFSET,
+                                                                     MsgHeader.LENGTH_FIELD_LENGTH,
+                                                                     adjustment,
+                                                                     0,
+                                                                     true))
+                           .addLast("encoder", new MsgToByteEncoder())
+                           .addLast(connection);
+                     }
+                 });
+
+        connection.channel = bootstrap.connect(host, port).sync().channel();
+
+        return connection;
+    }
+
+    /**
+     * Converts the specified nanoseconds to microseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the microseconds
+     */
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Returns the value of the specified integer setting.
+     *
+     * @param settings the settings
+     * @param name the setting name
+     * @return the setting value
+     */
+    private static int getInt(Map<String, String> settings, String name) {
+        return Integer.parseInt(settings.get(name));
+    }
+
+    /**
+     * Parses the <code>name=value</code> arguments.
+     *
+     * @param args the arguments
+     * @return the settings
+     */
+    private static Map<String, String> parseArguments(String[] args) {
+
+        Map<String, String> settings = new HashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+
+            int index = arg.indexOf('=');
+
+            if (index <= 0 || !DEFAULTS.containsKey(arg.substring(0, index))) {
+                throw new IllegalArgumentException("Invalid argument: " + arg + ". Valid settings are: "
+                        + DEFAULTS.keySet());
+            }
+
+            settings.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+
+        return settings;
+    }
+
+    /**
+     * The time series used by the generator and their logical clocks.
+     */
+    private static final class Schema {
+
+        /**
+         * The database name.
+         */
+        private final String database;
+
+        /**
+         * The time series definitions.
+         */
+        private final TimeSeriesDefinition[] definitions;
+
+        /**
+         * The timestamp of the next in window record of each time series.
+         */
+        private final AtomicLong[] clocks;
+
+        /**
+         * The number of record types per time series.
+         */
+        private final int numberOfRecordTypes;
+
+        /**
+         * The number of fields per record type.
+         */
+        private final int numberOfFields;
+
+        public Schema(String database, int numberOfSeries, int numberOfRecordTypes, int numberOfFields) {
+
+            this.database = database;
+            this.numberOfRecordTypes = numberOfRecordTypes;
+            this.numberOfFields = numberOfFields;
+            this.definitions = new TimeSeriesDefinition[numberOfSeries];
+            this.clocks = new AtomicLong[numberOfSeries];
+
+            DatabaseDefinition databaseDefinition = new DatabaseDefinition(database);
+
+            for (int i = 0; i < numberOfSeries; i++) {
+
+                TimeSeriesDefinition.Builder builder = databaseDefinition.newTimeSeriesDefinitionBuilder(getSeriesName(i))
+                                                                         .timeUnit(TimeUnit.NANOSECONDS);
+
+                for (int j = 0; j < numberOfRecordTypes; j++) {
+
+                    RecordTypeDefinition.Builder recordType = RecordTypeDefinition.newBuilder(getRecordTypeName(j));
+
+                    for (int k = 0; k < numberOfFields; k++) {
+                        recordType.addField(getFieldName(k), FieldType.LONG);
+                    }
+
+                    builder.addRecordType(recordType.build());
+                }
+
+                this.definitions[i] = builder.build();
+                this.clocks[i] = new AtomicLong(Benchmarks.TIME_IN_NANOS);
+            }
+        }
+
+        /**
+         * Creates the database and the time series through HQL statements. A failure is reported but does not stop
+         * the run, as the schema might already exist on the targeted server.
+         *
+         * @param connection the connection used to send the statements
+         * @throws Exception if the statements cannot be sent
+         */
+        public void create(Connection connection) throws Exception {
+
+            execute(connection, "", "CREATE DATABASE " + this.database + ";");
+
+            for (int i = 0; i < this.definitions.length; i++) {
+
+                StringBuilder statement = new StringBuilder().append("CREATE TIMESERIES ")
+                                                             .append(getSeriesName(i))
+                                                             .append(" (");
+
+                for (int j = 0; j < this.numberOfRecordTypes; j++) {
+
+                    if (j != 0) {
+                        statement.append(", ");
+                    }
+
+                    statement.append(getRecordTypeName(j)).append('(');
+
+                    for (int k = 0; k < this.numberOfFields; k++) {
+
+                        if (k != 0) {
+                            statement.append(", ");
+                        }
+
+                        statement.append(getFieldName(k)).append(" LONG");
+                    }
+
+                    statement.append(')');
+                }
+
+                statement.append(") TIME_UNIT = NANOSECONDS;");
+
+                execute(connection, this.database, statement.toString());
+            }
+        }
+
+        /**
+         * Executes the specified HQL statement and reports its failure.
+         *
+         * @param connection the connection used to send the statement
+         * @param database the database against which the statement must be executed
+         * @param statement the HQL statement
+         * @throws Exception if the statement cannot be sent
+         */
+        private static void execute(Connection connection, String database, String statement) throws Exception {
+
+            Msg<HqlQueryPayload> request = Msg.newRequestMsg(OpCode.HQL_QUERY, new HqlQueryPayload(database, statement));
+
+            if (!connection.send(request).get(SCHEMA_REQUEST_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS).booleanValue()) {
+                System.err.println("The statement: " + statement + " has failed.");
+            }
+        }
+
+        /**
+         * Returns the name of the specified time series.
+         *
+         * @param index the time series index
+         * @return the name of the specified time series
+         */
+        public static String getSeriesName(int index) {
+            return "series" + index;
+        }
+
+        /**
+         * Returns the name of the specified record type.
+         *
+         * @param index the record type index
+         * @return the name of the specified record type
+         */
+        public static String getRecordTypeName(int index) {
+            return "type" + index;
+        }
+
+        /**
+         * Returns the name of the specified field.
+         *
+         * @param index the field index
+         * @return the name of the specified field
+         */
+        public static String getFieldName(int index) {
+            return "field" + index;
+        }
+    }
+
+    /**
+     * Generates the requests sent by a connection.
+     */
+    private static final class Workload {
+
+        /**
+         * The schema.
+         */
+        private final Schema schema;
+
+        /**
+         * The random generator.
+         */
+        private final Random random;
+
+        /**
+         * The cumulated weights of the operations.
+         */
+        private final int[] weights = new int[RequestType.values().length];
+
+        /**
+         * The number of records per <code>INSERT</code> request.
+         */
+        private final int batchSize;
+
+        /**
+         * The percentage of records whose timestamp falls in one of the previous days.
+         */
+        private final int outOfWindowPercentage;
+
+        /**
+         * The time range read by each <code>SELECT</code> in nanoseconds.
+         */
+        private final long selectRangeInNanos;
+
+        /**
+         * The format of the timestamps within the HQL statements.
+         */
+        private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+        /**
+         * The type of the last generated request.
+         */
+        private RequestType operation;
+
+        /**
+         * The number of records of the last generated request.
+         */
+        private int numberOfRecords;
+
+        public Workload(Schema schema, Map<String, String> settings, Random random) {
+
+            this.schema = schema;
+            this.random = random;
+            this.batchSize = getInt(settings, "batchSize");
+            this.outOfWindowPercentage = getInt(settings, "outOfWindow");
+            this.selectRangeInNanos = TimeUnit.SECONDS.toNanos(getInt(settings, "selectRange"));
+            this.format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+            this.weights[RequestType.BINARY_INSERT.ordinal()] = getInt(settings, "binaryInsert");
+            this.weights[RequestType.HQL_INSERT.ordinal()] = getInt(settings, "hqlInsert");
+            this.weights[RequestType.SELECT.ordinal()] = getInt(settings, "select");
+
+            for (int i = 1; i < this.weights.length; i++) {
+                this.weights[i] += this.weights[i - 1];
+            }
+        }
+
+        /**
+         * Returns the type of the last generated request.
+         *
+         * @return the type of the last generated request.
+         */
+        public RequestType getOperation() {
+            return this.operation;
+        }
+
+        /**
+         * Returns the number of records written by the last generated request, or 0 for a <code>SELECT</code>.
+         *
+         * @return the number of records written by the last generated request.
+         */
+        public int getNumberOfRecords() {
+            return this.numberOfRecords;
+        }
+
+        /**
+         * Generates the next request.
+         *
+         * @return the next request
+         * @throws IOException if an I/O problem occurs while building the request
+         */
+        public Msg<?> next() throws IOException {
+
+            int value = this.random.nextInt(this.weights[this.weights.length - 1]);
+
+            this.operation = RequestType.SELECT;
+
+            for (RequestType candidate : RequestType.values()) {
+
+                if (value < this.weights[candidate.ordinal()]) {
+                    this.operation = candidate;
+                    break;
+                }
+            }
+
+            int series = this.random.nextInt(this.schema.definitions.length);
+
+            switch (this.operation) {
+                case BINARY_INSERT:
+                    this.numberOfRecords = this.batchSize;
+                    return newBinaryInsert(series);
+                case HQL_INSERT:
+                    this.numberOfRecords = this.batchSize;
+                    return newHqlInsert(series);
+                default:
+                    this.numberOfRecords = 0;
+                    return newSelect(series);
+            }
+        }
+
+        /**
+         * Creates a binary <code>INSERT</code> request containing records of all the record types.
+         *
+         * @param series the time series index
+         * @return a binary <code>INSERT</code> request
+         * @throws IOException if an I/O problem occurs while building the request
+         */
+        private Msg<InsertPayload> newBinaryInsert(int series) throws IOException {
+
+            TimeSeriesDefinition definition = this.schema.definitions[series];
+            DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+            for (long timestamp : nextTimestamps(series)) {
+
+                builder.newRecord(Schema.getRecordTypeName(this.random.nextInt(this.schema.numberOfRecordTypes)))
+                       .setTimestampInNanos(0, timestamp);
+
+                for (int i = 1; i <= this.schema.numberOfFields; i++) {
+                    builder.setLong(i, this.random.nextInt(1000));
+                }
+            }
+
+            DataBlock block = builder.build();
+            Buffer buffer = Buffers.allocate(block.computeSerializedSize());
+            block.writeTo(buffer);
+
+            return Msg.newRequestMsg(OpCode.INSERT, new InsertPayload(this.schema.database,
+                                                                      definition.getName(),
+                                                                      0,
+                                                                      buffer));
+        }
+
+        /**
+         * Creates an HQL <code>INSERT</code> request containing records of one record type.
+         *
+         * @param series the time series index
+         * @return an HQL <code>INSERT</code> request
+         */
+        private Msg<HqlQueryPayload> newHqlInsert(int series) {
+
+            StringBuilder statement = new StringBuilder().append("INSERT INTO ")
+                                                         .append(Schema.getSeriesName(series))
+                                                         .append('.')
+                                                         .append(Schema.getRecordTypeName(this.random.nextInt(this.schema.numberOfRecordTypes)))
+                                                         .append(" (timestamp");
+
+            for (int i = 0; i < this.schema.numberOfFields; i++) {
+                statement.append(", ").append(Schema.getFieldName(i));
+            }
+
+            statement.append(") VALUES ");
+
+            long[] timestamps = nextTimestamps(series);
+
+            for (int i = 0; i < timestamps.length; i++) {
+
+                if (i != 0) {
+                    statement.append(", ");
+                }
+
+                statement.append("('").append(format(timestamps[i])).append('\'');
+
+                for (int j = 0; j < this.schema.numberOfFields; j++) {
+                    statement.append(", ").append(this.random.nextInt(1000));
+                }
+
+                statement.append(')');
+            }
+
+            statement.append(';');
+
+            return Msg.newRequestMsg(OpCode.HQL_QUERY, new HqlQueryPayload(this.schema.database, statement.toString()));
+        }
+
+        /**
+         * Creates a <code>SELECT</code> request reading the most recent records of the specified time series.
+         *
+         * @param series the time series index
+         * @return a <code>SELECT</code> request
+         */
+        private Msg<HqlQueryPayload> newSelect(int series) {
+
+            long end = this.schema.clocks[series].get();
+
+            String statement = "SELECT * FROM " + Schema.getSeriesName(series) + " WHERE timestamp >= '"
+                    + format(end - this.selectRangeInNanos) + "' AND timestamp < '" + format(end) + "';";
+
+            return Msg.newRequestMsg(OpCode.HQL_QUERY, new HqlQueryPayload(this.schema.database, statement));
+        }
+
+        /**
+         * Returns the sorted timestamps of the records of the next <code>INSERT</code> into the specified time series.
+         *
+         * @param series the time series index
+         * @return the sorted timestamps of the records of the next <code>INSERT</code>
+         */
+        private long[] nextTimestamps(int series) {
+
+            AtomicLong clock = this.schema.clocks[series];
+            long[] timestamps = new long[this.batchSize];
+
+            for (int i = 0; i < timestamps.length; i++) {
+
+                if (this.random.nextInt(100) < this.outOfWindowPercentage) {
+
+                    long daysInThePast = TimeUnit.DAYS.toNanos(1 + this.random.nextInt(MAX_DAYS_IN_THE_PAST));
+                    timestamps[i] = Math.max(0, clock.get() - daysInThePast)
+                            + TimeUnit.MILLISECONDS.toNanos(this.random.nextInt(1000));
+                } else {
+
+                    timestamps[i] = clock.getAndAdd(RECORD_INTERVAL_IN_NANOS);
+                }
+            }
+
+            Arrays.sort(timestamps);
+
+            return timestamps;
+        }
+
+        /**
+         * Formats the specified timestamp for an HQL statement.
+         *
+         * @param timestampInNanos the timestamp in nanoseconds
+         * @return the formatted timestamp
+         */
+        private String format(long timestampInNanos) {
+            return this.format.format(new Date(TimeUnit.NANOSECONDS.toMillis(timestampInNanos)));
+        }
+    }
+
+    /**
+     * Sends the requests of a workload through a connection, one at a time, until it is stopped.
+     */
+    private static final class Driver {
+
+        /**
+         * The connection.
+         */
+        private final Connection connection;
+
+        /**
+         * The workload.
+         */
+        private final Workload workload;
+
+        /**
+         * The latency recorders per type of request.
+         */
+        private final Map<RequestType, Recorder> recorders;
+
+        /**
+         * The number of records written per type of request.
+         */
+        private final Map<RequestType, AtomicLong> records;
+
+        /**
+         * The number of errors per type of request.
+         */
+        private final Map<RequestType, AtomicLong> errors;
+
+        /**
+         * The latch counted down once the driver has stopped.
+         */
+        private final CountDownLatch stopped;
+
+        /**
+         * <code>true</code> if the driver must stop.
+         */
+        private volatile boolean stop;
+
+        public Driver(Connection connection,
+                      Workload workload,
+                      Map<RequestType, Recorder> recorders,
+                      Map<RequestType, AtomicLong> records,
+                      Map<RequestType, AtomicLong> errors,
+                      CountDownLatch stopped) {
+
+            this.connection = connection;
+            this.workload = workload;
+            this.recorders = recorders;
+            this.records = records;
+            this.errors = errors;
+            this.stopped = stopped;
+        }
+
+        /**
+         * Requests the driver to stop once the pending request has completed.
+         */
+        public void stop() {
+            this.stop = true;
+        }
+
+        /**
+         * Sends the next request, or stops the driver if requested.
+         */
+        public void next() {
+
+            if (this.stop) {
+                this.stopped.countDown();
+                return;
+            }
+
+            try {
+
+                Msg<?> request = this.workload.next();
+
+                final RequestType operation = this.workload.getOperation();
+                final int numberOfRecords = this.workload.getNumberOfRecords();
+
+                final long start = System.nanoTime();
+                final ListenableFuture<Boolean> future = this.connection.send(request);
+
+                future.addListener(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        onCompletion(future, operation, numberOfRecords, start);
+                    }
+
+                }, MoreExecutors.sameThreadExecutor());
+
+            } catch (Exception e) {
+
+                e.printStackTrace();
+                this.stopped.countDown();
+            }
+        }
+
+        /**
+         * Records the completion of a request and sends the next one.
+         *
+         * @param future the response future
+         * @param operation the type of request
+         * @param numberOfRecords the number of records written by the request
+         * @param start the time at which the request was sent, in nanoseconds
+         */
+        private void onCompletion(ListenableFuture<Boolean> future,
+                                  RequestType operation,
+                                  int numberOfRecords,
+                                  long start) {
+
+            this.recorders.get(operation).recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_LATENCY));
+
+            try {
+
+                if (future.get().booleanValue()) {
+                    this.records.get(operation).addAndGet(numberOfRecords);
+                } else {
+                    this.errors.get(operation).incrementAndGet();
+                }
+
+            } catch (Exception e) {
+
+                e.printStackTrace();
+                this.stopped.countDown();
+                return;
+            }
+
+            next();
+        }
+    }
+
+    /**
+     * Client connection with at most one request in flight.
+     */
+    private static final class Connection extends ChannelInboundHandlerAdapter {
+
+        /**
+         * The connection channel.
+         */
+        private Channel channel;
+
+        /**
+         * The future of the pending request. Its value is <code>true</code> if the request has succeeded.
+         */
+        private volatile SettableFuture<Boolean> pending;
+
+        /**
+         * Sends the specified request.
+         *
+         * @param request the request
+         * @return the future completed once the full response has been received
+         */
+        public ListenableFuture<Boolean> send(Msg<?> request) {
+
+            this.pending = SettableFuture.create();
+            this.channel.writeAndFlush(request);
+            return this.pending;
+        }
+
+        /**
+         * Closes the connection.
+         *
+         * @throws InterruptedException if the thread is interrupted while closing the connection
+         */
+        public void close() throws InterruptedException {
+            this.channel.close().sync();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+
+            try {
+
+                Buffer frame = Buffers.wrap((ByteBuf) msg);
+                Msg<?> response = Msg.parseFrom(frame.duplicate());
+
+                if (response.getOpCode() == OpCode.DATA_HEADER) {
+                    return;
+                }
+
+                if (response.getOpCode() == OpCode.DATA_CHUNK
+                        && !containsEndOfStream(frame.readerIndex(MsgHeader.HEADER_SIZE))) {
+                    return;
+                }
+
+                this.pending.set(Boolean.valueOf(response.getHeader().isSuccess()));
+
+            } finally {
+
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+
+            SettableFuture<Boolean> future = this.pending;
+
+            if (future != null) {
+                future.setException(cause);
+            }
+
+            ctx.close();
+        }
+
+        /**
+         * Checks if the specified chunk contains the end of stream marker.
+         *
+         * @param chunk the chunk content
+         * @return <code>true</code> if the specified chunk contains the end of stream marker.
+         * @throws IOException if an I/O problem occurs while reading the chunk
+         */
+        private static boolean containsEndOfStream(ReadableBuffer chunk) throws IOException {
+
+            while (chunk.isReadable()) {
+
+                if (chunk.readByte() == Msg.END_OF_STREAM_MARKER) {
+                    return true;
+                }
+
+                int size = VarInts.readUnsignedInt(chunk);
+                chunk.readerIndex(chunk.readerIndex() + size);
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Must not be instantiated.
+     */
+    private LoadGenerator() {
+    }
+}
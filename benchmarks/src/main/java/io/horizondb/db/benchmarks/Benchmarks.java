@@ -0,0 +1,203 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.benchmarks;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.databases.InMemoryDatabaseManager;
+import io.horizondb.db.parser.QueryParser;
+import io.horizondb.db.series.InMemoryTimeSeriesManager;
+import io.horizondb.db.series.InMemoryTimeSeriesPartitionManager;
+import io.horizondb.db.series.TimeSeriesManager;
+import io.horizondb.db.series.TimeSeriesPartitionManager;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.protocol.SelectPayload;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility methods used to generate the data used by the benchmarks.
+ */
+public final class Benchmarks {
+
+    /**
+     * The name of the record type used by the benchmarks.
+     */
+    public static final String RECORD_TYPE = "record";
+
+    /**
+     * The time reference in nanoseconds.
+     */
+    public static final long TIME_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2014-01-06 00:00:00.000"));
+
+    /**
+     * The time between two consecutive records in nanoseconds.
+     */
+    private static final long RECORD_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Creates a new <code>DatabaseManager</code> that keeps the databases and time series meta data in memory.
+     * 
+     * @param configuration the database configuration
+     * @return a new <code>DatabaseManager</code>
+     */
+    public static DatabaseManager newInMemoryDatabaseManager(Configuration configuration) {
+
+        TimeSeriesPartitionManager partitionManager = new InMemoryTimeSeriesPartitionManager(configuration);
+        TimeSeriesManager timeSeriesManager = new InMemoryTimeSeriesManager(partitionManager, configuration);
+        return new InMemoryDatabaseManager(configuration, timeSeriesManager);
+    }
+
+    /**
+     * Parses the specified <code>SELECT</code> statement.
+     * 
+     * @param configuration the database configuration
+     * @param databaseManager the database manager
+     * @param database the name of the database against which the statement must be executed
+     * @param query the <code>SELECT</code> statement
+     * @return the <code>SELECT</code> message
+     * @throws IOException if an I/O problem occurs while parsing the statement
+     * @throws HorizonDBException if the statement is invalid
+     */
+    public static Msg<SelectPayload> parseSelect(Configuration configuration,
+                                                 DatabaseManager databaseManager,
+                                                 String database,
+                                                 String query) throws IOException, HorizonDBException {
+
+        HqlQueryPayload payload = new HqlQueryPayload(database, query);
+
+        Msg<SelectPayload> msg = QueryParser.parse(configuration, 
+                                                   databaseManager, 
+                                                   Msg.newRequestMsg(OpCode.HQL_QUERY, payload));
+        return msg;
+    }
+
+    /**
+     * Creates the definition of a time series whose records contain the specified number of <code>LONG</code> fields
+     * in addition to their timestamp.
+     * 
+     * @param databaseDefinition the definition of the database to which the time series belongs
+     * @param name the time series name
+     * @param recordWidth the number of <code>LONG</code> fields of the records
+     * @return the time series definition
+     */
+    public static TimeSeriesDefinition newTimeSeriesDefinition(DatabaseDefinition databaseDefinition,
+                                                               String name,
+                                                               int recordWidth) {
+
+        RecordTypeDefinition.Builder builder = RecordTypeDefinition.newBuilder(RECORD_TYPE);
+
+        for (int i = 0; i < recordWidth; i++) {
+            builder.addField("field" + i, FieldType.LONG);
+        }
+
+        return databaseDefinition.newTimeSeriesDefinitionBuilder(name)
+                                 .timeUnit(TimeUnit.NANOSECONDS)
+                                 .addRecordType(builder.build())
+                                 .build();
+    }
+
+    /**
+     * Creates a block containing the specified number of records. The records are one millisecond apart and start 
+     * at the specified time.
+     * 
+     * @param definition the time series definition
+     * @param recordWidth the number of <code>LONG</code> fields of the records
+     * @param firstTimestampInNanos the timestamp of the first record
+     * @param numberOfRecords the number of records
+     * @return a new block
+     * @throws IOException if an I/O problem occurs while building the block
+     */
+    public static DataBlock newBlock(TimeSeriesDefinition definition, 
+                                     int recordWidth,
+                                     long firstTimestampInNanos, 
+                                     int numberOfRecords) throws IOException {
+
+        DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+        for (int i = 0; i < numberOfRecords; i++) {
+
+            builder.newRecord(RECORD_TYPE)
+                   .setTimestampInNanos(0, firstTimestampInNanos + (i * RECORD_INTERVAL_IN_NANOS));
+
+            for (int j = 1; j <= recordWidth; j++) {
+                builder.setLong(j, i * j);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Creates a block containing the specified number of records spread evenly over the specified number of 
+     * daily partitions.
+     * 
+     * @param definition the time series definition
+     * @param recordWidth the number of <code>LONG</code> fields of the records
+     * @param numberOfRecords the number of records
+     * @param numberOfPartitions the number of partitions over which the records must be spread
+     * @return a new block
+     * @throws IOException if an I/O problem occurs while building the block
+     */
+    public static DataBlock newBlockSpanningPartitions(TimeSeriesDefinition definition, 
+                                                       int recordWidth,
+                                                       int numberOfRecords,
+                                                       int numberOfPartitions) throws IOException {
+
+        int recordsPerPartition = Math.max(1, numberOfRecords / numberOfPartitions);
+        long intervalInNanos = TimeUnit.DAYS.toNanos(1) / recordsPerPartition;
+
+        DataBlockBuilder builder = new DataBlockBuilder(definition);
+
+        for (int i = 0; i < numberOfRecords; i++) {
+
+            builder.newRecord(RECORD_TYPE)
+                   .setTimestampInNanos(0, TIME_IN_NANOS + (i * intervalInNanos));
+
+            for (int j = 1; j <= recordWidth; j++) {
+                builder.setLong(j, i * j);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the timestamp of the first record of the specified daily partition.
+     * 
+     * @param partition the partition index
+     * @return the timestamp of the first record of the specified daily partition
+     */
+    public static long getPartitionStartInNanos(int partition) {
+
+        return TIME_IN_NANOS + TimeUnit.DAYS.toNanos(partition);
+    }
+
+    /**
+     * Must not be instantiated.
+     */
+    private Benchmarks() {
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.benchmarks;
+
+/**
+ * The shapes of the queries used by the read benchmarks.
+ */
+public enum QueryShape {
+
+    /**
+     * Reads all the records.
+     */
+    ALL(""),
+
+    /**
+     * Reads the records of the first ten seconds of the first partition.
+     */
+    TIME_RANGE(" WHERE timestamp >= '2014-01-06 00:00:00' AND timestamp < '2014-01-06 00:00:10'"),
+
+    /**
+     * Reads the records having a specific field value.
+     */
+    FIELD_EQUALITY(" WHERE field0 = 42"),
+
+    /**
+     * Reads the records having one of a list of field values.
+     */
+    FIELD_IN(" WHERE field0 IN (1, 10, 100)"),
+
+    /**
+     * Reads the records of the first partition with a field value within a range.
+     */
+    TIME_AND_FIELD_RANGE(" WHERE timestamp < '2014-01-07 00:00:00' AND field0 BETWEEN 100 AND 200");
+
+    /**
+     * The <code>WHERE</code> clause of the query.
+     */
+    private final String whereClause;
+
+    /**
+     * Creates a new <code>QueryShape</code>.
+     * 
+     * @param whereClause the <code>WHERE</code> clause of the query
+     */
+    private QueryShape(String whereClause) {
+        this.whereClause = whereClause;
+    }
+
+    /**
+     * Returns the <code>SELECT</code> statement reading the specified time series.
+     * 
+     * @param series the time series name
+     * @return the <code>SELECT</code> statement reading the specified time series.
+     */
+    public String toSelect(String series) {
+        return "SELECT * FROM " + series + this.whereClause + ";";
+    }
+}
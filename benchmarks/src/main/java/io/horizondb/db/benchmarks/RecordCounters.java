@@ -0,0 +1,46 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counters used by the read benchmarks to report the number of records and bytes read per second in addition to 
+ * the number of operations.
+ */
+@AuxCounters
+@State(Scope.Thread)
+public class RecordCounters {
+
+    /**
+     * The number of records read.
+     */
+    public long records;
+
+    /**
+     * The number of bytes read.
+     */
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+
+        this.records = 0;
+        this.bytes = 0;
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.btree;
+
+import io.horizondb.db.btree.BTreeStore.GenericNodeReaderFactory;
+import io.horizondb.db.btree.BTreeStore.GenericNodeWriterFactory;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.series.PartitionId;
+import io.horizondb.db.series.TimeSeriesPartitionMetaData;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.schema.FieldType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Range;
+
+/**
+ * Benchmarks the <code>BTree</code> operations used by the partition manager on top of an 
+ * <code>OnDiskNodeManager</code>, with and without <code>NodeCache</code>.
+ * <p>
+ * The tree maps <code>PartitionId</code>s to <code>TimeSeriesPartitionMetaData</code> like the partition store 
+ * does. The write benchmarks also report through <code>FileGrowth</code> the number of bytes appended to the file, 
+ * which must be divided by the number of writes to get the write amplification. As the file growth is measured for 
+ * the whole tree, the write benchmarks must be run with a single thread.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BTreeBenchmark {
+
+    /**
+     * The number of entries loaded in the tree before the benchmark starts.
+     */
+    private static final int NUMBER_OF_ENTRIES = 100000;
+
+    /**
+     * The number of entries returned by the range iterations.
+     */
+    private static final int RANGE_SIZE = 100;
+
+    /**
+     * The number of nodes kept by the cache when it is enabled.
+     */
+    private static final int CACHE_SIZE = 10000;
+
+    /**
+     * The first day of the partitions.
+     */
+    private static final long FIRST_DAY_IN_NANOS = TimeUnit.DAYS.toNanos(16000);
+
+    /**
+     * The branching factor of the tree.
+     */
+    @Param({ "16", "128" })
+    private int branchingFactor;
+
+    /**
+     * <code>true</code> if the node manager must use a <code>NodeCache</code>.
+     */
+    @Param({ "false", "true" })
+    private boolean cache;
+
+    /**
+     * The directory containing the tree file.
+     */
+    private Path directory;
+
+    /**
+     * The tree file.
+     */
+    private Path file;
+
+    /**
+     * The node manager.
+     */
+    private OnDiskNodeManager<PartitionId, TimeSeriesPartitionMetaData> manager;
+
+    /**
+     * The tree.
+     */
+    private BTree<PartitionId, TimeSeriesPartitionMetaData> btree;
+
+    /**
+     * The keys loaded in the tree.
+     */
+    private PartitionId[] keys;
+
+    /**
+     * The counter used to generate the keys that are not yet in the tree.
+     */
+    private final AtomicInteger newKeys = new AtomicInteger(NUMBER_OF_ENTRIES);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        this.directory = Files.createTempDirectory("benchmark");
+        this.file = this.directory.resolve("partitions.b3");
+
+        NodeCache<PartitionId, TimeSeriesPartitionMetaData> nodeCache = 
+                new NodeCache<>("benchmark", this.cache ? CACHE_SIZE : 0);
+
+        this.manager = new OnDiskNodeManager<>("benchmark",
+                                               this.file,
+                                               new GenericNodeWriterFactory<PartitionId, TimeSeriesPartitionMetaData>(),
+                                               new GenericNodeReaderFactory<>(PartitionId.getParser(), 
+                                                                              TimeSeriesPartitionMetaData.getParser()),
+                                               nodeCache);
+
+        this.btree = new BTree<>(this.manager, this.branchingFactor);
+
+        this.keys = new PartitionId[NUMBER_OF_ENTRIES];
+
+        for (int i = 0; i < NUMBER_OF_ENTRIES; i++) {
+
+            PartitionId key = newKey(i);
+            this.keys[i] = key;
+            this.btree.insert(key, newValue(key, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        this.manager.close();
+        FileUtils.forceDelete(this.directory);
+    }
+
+    /**
+     * Returns the size of the tree file.
+     * 
+     * @return the size of the tree file.
+     * @throws IOException if an I/O problem occurs
+     */
+    long getFileSize() throws IOException {
+        return Files.size(this.file);
+    }
+
+    /**
+     * Looks up a random partition.
+     */
+    @Benchmark
+    public TimeSeriesPartitionMetaData get() throws IOException {
+
+        return this.btree.get(randomKey());
+    }
+
+    /**
+     * Iterates over a range of partitions, as a read spanning several partitions does.
+     */
+    @Benchmark
+    public void iterator(Blackhole blackhole) throws IOException {
+
+        int from = ThreadLocalRandom.current().nextInt(NUMBER_OF_ENTRIES - RANGE_SIZE);
+
+        KeyValueIterator<PartitionId, TimeSeriesPartitionMetaData> iterator = 
+                this.btree.iterator(this.keys[from], this.keys[from + RANGE_SIZE - 1]);
+
+        while (iterator.next()) {
+            blackhole.consume(iterator.getValue());
+        }
+    }
+
+    /**
+     * Replaces the meta data of a random partition, as a flush does.
+     */
+    @Benchmark
+    public void insert(FileGrowth growth) throws IOException {
+
+        PartitionId key = randomKey();
+        this.btree.insert(key, newValue(key, growth.writes));
+        growth.writes++;
+    }
+
+    /**
+     * Inserts a partition that is not yet in the tree, as the first write to a partition does.
+     */
+    @Benchmark
+    public boolean insertIfAbsent(FileGrowth growth) throws IOException {
+
+        PartitionId key = newKey(this.newKeys.getAndIncrement());
+        growth.writes++;
+        return this.btree.insertIfAbsent(key, newValue(key, 0));
+    }
+
+    /**
+     * Tries to insert a partition that is already in the tree, which must not write anything.
+     */
+    @Benchmark
+    public boolean insertIfAbsentWithExistingKey(FileGrowth growth) throws IOException {
+
+        PartitionId key = randomKey();
+        growth.writes++;
+        return this.btree.insertIfAbsent(key, newValue(key, 0));
+    }
+
+    /**
+     * Returns one of the keys loaded in the tree, at random.
+     * 
+     * @return one of the keys loaded in the tree.
+     */
+    private PartitionId randomKey() {
+
+        return this.keys[ThreadLocalRandom.current().nextInt(NUMBER_OF_ENTRIES)];
+    }
+
+    /**
+     * Creates the ID of the specified daily partition.
+     * 
+     * @param day the index of the day
+     * @return the ID of the specified daily partition.
+     */
+    private static PartitionId newKey(int day) {
+
+        long start = FIRST_DAY_IN_NANOS + TimeUnit.DAYS.toNanos(day);
+
+        Field from = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(start);
+        Field to = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(start + TimeUnit.DAYS.toNanos(1));
+
+        return new PartitionId("benchmark", 0, "series", 0, Range.closedOpen(from, to));
+    }
+
+    /**
+     * Creates the meta data of the specified partition.
+     * 
+     * @param key the partition ID
+     * @param fileSize the partition file size
+     * @return the meta data of the specified partition.
+     */
+    private static TimeSeriesPartitionMetaData newValue(PartitionId key, long fileSize) {
+
+        return TimeSeriesPartitionMetaData.newBuilder(key.getRange())
+                                          .fileSize(fileSize)
+                                          .replayPosition(new ReplayPosition(1, fileSize))
+                                          .build();
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.btree;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Counters reporting, for each iteration of the <code>BTreeBenchmark</code> write benchmarks, the number of writes 
+ * and the number of bytes appended to the tree file.
+ */
+@AuxCounters(AuxCounters.Type.EVENTS)
+@State(Scope.Thread)
+public class FileGrowth {
+
+    /**
+     * The number of writes performed.
+     */
+    public long writes;
+
+    /**
+     * The number of bytes appended to the file.
+     */
+    public long appendedBytes;
+
+    /**
+     * The file size at the beginning of the iteration.
+     */
+    private long initialSize;
+
+    @Setup(Level.Iteration)
+    public void start(BTreeBenchmark benchmark) throws IOException {
+
+        this.writes = 0;
+        this.appendedBytes = 0;
+        this.initialSize = benchmark.getFileSize();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop(BTreeBenchmark benchmark) throws IOException {
+
+        this.appendedBytes = benchmark.getFileSize() - this.initialSize;
+    }
+}
@@ -0,0 +1,484 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.commitlog;
+
+import io.horizondb.db.AbstractComponent;
+import io.horizondb.db.Cancellation;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.StorageEngine;
+import io.horizondb.db.commitlog.CommitLog.SyncMode;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.protocol.Msg;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import static io.horizondb.io.files.FileUtils.ONE_KB;
+
+/**
+ * Harness measuring the throughput of <code>CommitLog.write</code> and the latency distribution of the completion 
+ * of the returned futures, for each combination of the specified settings.
+ * <p>
+ * The settings are passed as <code>name=value</code> arguments, each value being a comma separated list:
+ * <ul>
+ * <li><code>syncMode</code>: <code>BATCH</code> and/or <code>PERIODIC</code> (default: both)</li>
+ * <li><code>threads</code>: the number of producer threads (default: 1,4,16)</li>
+ * <li><code>batchWindow</code>: the batch window in milliseconds, for the <code>BATCH</code> mode (default: 1,10)</li>
+ * <li><code>flushPeriod</code>: the flush period in milliseconds, for the <code>PERIODIC</code> mode 
+ * (default: 10,100)</li>
+ * <li><code>segmentSize</code>: the segment size in KB (default: 1024,32768)</li>
+ * <li><code>segments</code>: the maximum number of segments (default: 4)</li>
+ * <li><code>messageSize</code>: the size in bytes of each write (default: 256)</li>
+ * <li><code>duration</code>: the duration of each run in seconds (default: 30)</li>
+ * <li><code>warmup</code>: the warmup duration of each run in seconds (default: 10)</li>
+ * </ul>
+ * The segments are small enough for the runs to roll over to new segments through 
+ * <code>CommitLogAllocator.fetchSegment</code> and to recycle the old ones. 
+ * </p>
+ * <p>
+ * In <code>BATCH</code> mode the producers wait for each write to be synced, as the storage engine does. In 
+ * <code>PERIODIC</code> mode they do not wait, but the number of pending writes per producer is bounded.
+ * </p>
+ */
+public final class CommitLogBenchmark {
+
+    /**
+     * The maximum number of pending writes per producer in <code>PERIODIC</code> mode.
+     */
+    private static final int MAX_PENDING_WRITES = 1024;
+
+    /**
+     * The highest latency that can be recorded, in nanoseconds.
+     */
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * The default settings.
+     */
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("syncMode", "BATCH,PERIODIC");
+        DEFAULTS.put("threads", "1,4,16");
+        DEFAULTS.put("batchWindow", "1,10");
+        DEFAULTS.put("flushPeriod", "10,100");
+        DEFAULTS.put("segmentSize", "1024,32768");
+        DEFAULTS.put("segments", "4");
+        DEFAULTS.put("messageSize", "256");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("warmup", "10");
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> settings = parseArguments(args);
+
+        int messageSize = Integer.parseInt(settings.get("messageSize"));
+        int duration = Integer.parseInt(settings.get("duration"));
+        int warmup = Integer.parseInt(settings.get("warmup"));
+
+        System.out.println("mode,threads,windowOrPeriodMs,segmentSizeKB,segments,writesPerSec,MBPerSec,"
+                + "segmentsUsed,p50Us,p90Us,p99Us,p999Us,maxUs");
+
+        for (String mode : split(settings.get("syncMode"))) {
+
+            SyncMode syncMode = SyncMode.valueOf(mode.toUpperCase());
+            String intervals = settings.get(syncMode == SyncMode.BATCH ? "batchWindow" : "flushPeriod");
+
+            for (String threads : split(settings.get("threads"))) {
+                for (String interval : split(intervals)) {
+                    for (String segmentSize : split(settings.get("segmentSize"))) {
+                        for (String segments : split(settings.get("segments"))) {
+
+                            Configuration.Builder builder = Configuration.newBuilder()
+                                                                         .commitLogSyncMode(syncMode)
+                                                                         .commitLogSegmentSize(Long.parseLong(segmentSize) * ONE_KB)
+                                                                         .maximumNumberOfCommitLogSegments(Integer.parseInt(segments));
+                            if (syncMode == SyncMode.BATCH) {
+                                builder.commitLogBatchWindowInMillis(Long.parseLong(interval));
+                            } else {
+                                builder.commitLogFlushPeriodInMillis(Long.parseLong(interval));
+                            }
+
+                            String prefix = syncMode + "," + threads + "," + interval + "," + segmentSize + "," 
+                                    + segments + ",";
+
+                            System.out.println(prefix + run(builder, 
+                                                            syncMode, 
+                                                            Integer.parseInt(threads), 
+                                                            messageSize, 
+                                                            warmup, 
+                                                            duration));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs one run with the specified settings.
+     * 
+     * @param builder the configuration builder
+     * @param syncMode the sync mode
+     * @param numberOfThreads the number of producer threads
+     * @param messageSize the size of each write in bytes
+     * @param warmup the warmup duration in seconds
+     * @param duration the measurement duration in seconds
+     * @return the results of the run
+     * @throws Exception if a problem occurs during the run
+     */
+    private static String run(Configuration.Builder builder,
+                              SyncMode syncMode,
+                              int numberOfThreads,
+                              int messageSize,
+                              int warmup,
+                              int duration) throws Exception {
+
+        Path directory = Files.createTempDirectory("commitlog-benchmark");
+
+        CommitLog commitLog = new CommitLog(builder.commitLogDirectory(directory).build(), new NoopStorageEngine());
+        commitLog.start();
+
+        try {
+
+            Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY, 3);
+            Set<Long> segments = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+            AtomicLong writes = new AtomicLong();
+
+            CountDownLatch stop = new CountDownLatch(1);
+            List<Thread> producers = new ArrayList<>(numberOfThreads);
+
+            byte[] message = new byte[messageSize];
+
+            for (int i = 0; i < numberOfThreads; i++) {
+
+                Thread producer = new Thread(new Producer(commitLog, 
+                                                          syncMode, 
+                                                          message, 
+                                                          recorder, 
+                                                          segments, 
+                                                          writes, 
+                                                          stop), "producer-" + i);
+                producers.add(producer);
+                producer.start();
+            }
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+
+            recorder.reset();
+            segments.clear();
+            long initialWrites = writes.get();
+            long start = System.nanoTime();
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(duration));
+
+            Histogram histogram = recorder.getIntervalHistogram();
+            long totalWrites = writes.get() - initialWrites;
+            double elapsedInSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            stop.countDown();
+
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            double writesPerSecond = totalWrites / elapsedInSeconds;
+            double megabytesPerSecond = (writesPerSecond * messageSize) / (ONE_KB * ONE_KB);
+
+            return String.format("%.0f,%.2f,%d,%d,%d,%d,%d,%d", 
+                                 writesPerSecond,
+                                 megabytesPerSecond,
+                                 segments.size(),
+                                 toMicros(histogram.getValueAtPercentile(50)),
+                                 toMicros(histogram.getValueAtPercentile(90)),
+                                 toMicros(histogram.getValueAtPercentile(99)),
+                                 toMicros(histogram.getValueAtPercentile(99.9)),
+                                 toMicros(histogram.getMaxValue()));
+
+        } finally {
+
+            commitLog.shutdown();
+            FileUtils.forceDelete(directory);
+        }
+    }
+
+    /**
+     * Converts the specified nanoseconds to microseconds.
+     * 
+     * @param nanos the nanoseconds
+     * @return the microseconds
+     */
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Parses the <code>name=value</code> arguments.
+     * 
+     * @param args the arguments
+     * @return the settings
+     */
+    private static Map<String, String> parseArguments(String[] args) {
+
+        Map<String, String> settings = new HashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+
+            int index = arg.indexOf('=');
+
+            if (index <= 0 || !DEFAULTS.containsKey(arg.substring(0, index))) {
+                throw new IllegalArgumentException("Invalid argument: " + arg + ". Valid settings are: " 
+                        + DEFAULTS.keySet());
+            }
+
+            settings.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+
+        return settings;
+    }
+
+    /**
+     * Splits the specified comma separated list.
+     * 
+     * @param list the comma separated list
+     * @return the list elements
+     */
+    private static List<String> split(String list) {
+        return Arrays.asList(list.split(","));
+    }
+
+    /**
+     * Thread writing to the commit log until it is stopped.
+     */
+    private static final class Producer implements Runnable {
+
+        /**
+         * The commit log.
+         */
+        private final CommitLog commitLog;
+
+        /**
+         * The sync mode.
+         */
+        private final SyncMode syncMode;
+
+        /**
+         * The bytes written by each write.
+         */
+        private final byte[] message;
+
+        /**
+         * The recorder of the write latencies.
+         */
+        private final Recorder recorder;
+
+        /**
+         * The IDs of the segments to which data have been written.
+         */
+        private final Set<Long> segments;
+
+        /**
+         * The number of completed writes.
+         */
+        private final AtomicLong writes;
+
+        /**
+         * The signal used to stop the producer.
+         */
+        private final CountDownLatch stop;
+
+        /**
+         * Bounds the number of pending writes.
+         */
+        private final Semaphore pendingWrites = new Semaphore(MAX_PENDING_WRITES);
+
+        public Producer(CommitLog commitLog,
+                        SyncMode syncMode,
+                        byte[] message,
+                        Recorder recorder,
+                        Set<Long> segments,
+                        AtomicLong writes,
+                        CountDownLatch stop) {
+
+            this.commitLog = commitLog;
+            this.syncMode = syncMode;
+            this.message = message;
+            this.recorder = recorder;
+            this.segments = segments;
+            this.writes = writes;
+            this.stop = stop;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+
+            try {
+
+                while (this.stop.getCount() > 0) {
+
+                    this.pendingWrites.acquire();
+
+                    final long start = System.nanoTime();
+                    final ListenableFuture<ReplayPosition> future = this.commitLog.write(Buffers.wrap(this.message));
+
+                    future.addListener(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            onCompletion(future, start);
+                        }
+
+                    }, MoreExecutors.sameThreadExecutor());
+
+                    if (this.syncMode == SyncMode.BATCH) {
+                        CommitLog.waitForCommitLogWrite(future);
+                    }
+                }
+
+                this.pendingWrites.acquire(MAX_PENDING_WRITES);
+
+            } catch (Exception e) {
+
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Records the completion of a write.
+         * 
+         * @param future the write future
+         * @param start the time at which the write was submitted, in nanoseconds
+         */
+        private void onCompletion(ListenableFuture<ReplayPosition> future, long start) {
+
+            try {
+
+                this.recorder.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_LATENCY));
+                this.segments.add(Long.valueOf(future.get().getSegment()));
+                this.writes.incrementAndGet();
+
+            } catch (Exception e) {
+
+                e.printStackTrace();
+
+            } finally {
+
+                this.pendingWrites.release();
+            }
+        }
+    }
+
+    /**
+     * <code>StorageEngine</code> whose data are always flushed, so that the commit log segments can be recycled 
+     * immediately.
+     */
+    private static final class NoopStorageEngine extends AbstractComponent implements StorageEngine {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void register(MetricRegistry registry) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void unregister(MetricRegistry registry) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DatabaseManager getDatabaseManager() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object execute(Msg<?> request, 
+                              ListenableFuture<ReplayPosition> future, 
+                              Cancellation cancellation) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void validate(Msg<?> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListenableFuture<Boolean> forceFlush(long id) {
+            return Futures.immediateFuture(Boolean.TRUE);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void replay(ReplayPosition replayPosition, ReadableBuffer buffer) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void doStart() {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void doShutdown() {
+        }
+    }
+}
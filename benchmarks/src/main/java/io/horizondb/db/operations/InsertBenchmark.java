@@ -0,0 +1,228 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.Operation;
+import io.horizondb.db.OperationContext;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.databases.Database;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.series.TimeSeries;
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.protocol.InsertPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Benchmarks the write path: <code>InsertOperation.perform</code> &rarr; <code>TimeSeries.write</code> &rarr; 
+ * <code>TimeSeriesPartition.write</code> &rarr; <code>MemTimeSeries.write</code>.
+ * <p>
+ * Each invocation writes one batch to one of the <code>partitions</code> daily partitions, the partitions being 
+ * used in turn. Running the benchmark with several threads (<code>-t</code>) makes them write concurrently. 
+ * Run with <code>-prof gc</code> to get the allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertBenchmark {
+
+    /**
+     * The name of the database.
+     */
+    private static final String DATABASE = "benchmark";
+
+    /**
+     * The name of the time series.
+     */
+    private static final String SERIES = "series";
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    @Param({ "1", "4", "16" })
+    private int recordWidth;
+
+    /**
+     * The number of records written by each invocation.
+     */
+    @Param({ "1", "100", "1000" })
+    private int batchSize;
+
+    /**
+     * The number of partitions to which the batches are written.
+     */
+    @Param({ "1", "4", "16" })
+    private int partitions;
+
+    /**
+     * The directory where the data are flushed.
+     */
+    private Path directory;
+
+    /**
+     * The database manager.
+     */
+    private DatabaseManager databaseManager;
+
+    /**
+     * The time series to which the records are written.
+     */
+    private TimeSeries series;
+
+    /**
+     * The batches, one per partition.
+     */
+    private DataBlock[] blocks;
+
+    /**
+     * The serialized batches, one per partition.
+     */
+    private Buffer[] buffers;
+
+    /**
+     * The counter used to select the partition.
+     */
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * The commit log future.
+     */
+    private final ListenableFuture<ReplayPosition> future = Futures.immediateFuture(new ReplayPosition(1, 0));
+
+    /**
+     * The operation context.
+     */
+    private OperationContext context;
+
+    /**
+     * The insert operation.
+     */
+    private final Operation operation = new InsertOperation();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException, HorizonDBException {
+
+        this.directory = Files.createTempDirectory("benchmark");
+
+        Configuration configuration = Configuration.newBuilder()
+                                                   .dataDirectory(this.directory.resolve("data"))
+                                                   .build();
+
+        this.databaseManager = Benchmarks.newInMemoryDatabaseManager(configuration);
+        this.databaseManager.start();
+
+        this.databaseManager.createDatabase(new DatabaseDefinition(DATABASE), true);
+        Database database = this.databaseManager.getDatabase(DATABASE);
+
+        TimeSeriesDefinition definition = Benchmarks.newTimeSeriesDefinition(database.getDefinition(), 
+                                                                             SERIES, 
+                                                                             this.recordWidth);
+        database.createTimeSeries(definition, true);
+        this.series = database.getTimeSeries(SERIES);
+
+        this.blocks = new DataBlock[this.partitions];
+        this.buffers = new Buffer[this.partitions];
+
+        for (int i = 0; i < this.partitions; i++) {
+
+            DataBlock block = Benchmarks.newBlock(definition,
+                                                  this.recordWidth,
+                                                  Benchmarks.getPartitionStartInNanos(i),
+                                                  this.batchSize);
+            this.blocks[i] = block;
+
+            Buffer buffer = Buffers.allocate(block.computeSerializedSize());
+            block.writeTo(buffer);
+            this.buffers[i] = buffer;
+        }
+
+        this.context = OperationContext.newBuilder(this.databaseManager)
+                                       .future(this.future)
+                                       .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+
+        this.databaseManager.shutdown();
+        FileUtils.forceDelete(this.directory);
+    }
+
+    /**
+     * Writes a batch through the <code>INSERT</code> operation, including the deserialization of the request.
+     */
+    @Benchmark
+    public Object insertOperation() throws IOException, HorizonDBException {
+
+        Msg<InsertPayload> request = Msg.newRequestMsg(OpCode.INSERT, new InsertPayload(DATABASE, 
+                                                                                        SERIES, 
+                                                                                        0, 
+                                                                                        this.buffers[nextPartition()].duplicate()));
+        return this.operation.perform(this.context, request);
+    }
+
+    /**
+     * Writes a batch directly to the time series.
+     */
+    @Benchmark
+    public void timeSeriesWrite() throws IOException, HorizonDBException {
+
+        this.series.write(this.blocks[nextPartition()], this.future, false, this.context.getMetrics());
+    }
+
+    /**
+     * Returns the index of the partition to which the next batch must be written.
+     * 
+     * @return the index of the partition to which the next batch must be written.
+     */
+    private int nextPartition() {
+
+        return (this.counter.getAndIncrement() & Integer.MAX_VALUE) % this.partitions;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.RangeMap;
+
+/**
+ * Benchmarks <code>DataBlock.split</code>, which is used by <code>TimeSeries.write</code> to dispatch the records 
+ * of a batch to their partitions.
+ * <p>
+ * Run with <code>-prof gc</code> to get the allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBlockSplitBenchmark {
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    @Param({ "1", "4", "16" })
+    private int recordWidth;
+
+    /**
+     * The number of records of the block.
+     */
+    @Param({ "1", "100", "1000" })
+    private int batchSize;
+
+    /**
+     * The number of partitions over which the records are spread.
+     */
+    @Param({ "1", "4", "16" })
+    private int partitions;
+
+    /**
+     * The time series definition.
+     */
+    private TimeSeriesDefinition definition;
+
+    /**
+     * The block to split.
+     */
+    private DataBlock block;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        this.definition = Benchmarks.newTimeSeriesDefinition(new DatabaseDefinition("benchmark"), 
+                                                             "series", 
+                                                             this.recordWidth);
+        this.block = Benchmarks.newBlockSpanningPartitions(this.definition, 
+                                                           this.recordWidth, 
+                                                           this.batchSize, 
+                                                           this.partitions);
+    }
+
+    @Benchmark
+    public RangeMap<Field, DataBlock> split() throws IOException {
+
+        return this.block.split(this.definition);
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.benchmarks.QueryShape;
+import io.horizondb.db.benchmarks.RecordCounters;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Filter;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.FilteringRecordIterator;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.SelectPayload;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.horizondb.model.core.iterators.BlockIterators.singleton;
+
+/**
+ * Benchmarks the filtering by <code>FilteringRecordIterator</code> of the records of a block for the filters 
+ * generated by different query shapes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilteringRecordIteratorBenchmark {
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    private static final int RECORD_WIDTH = 4;
+
+    /**
+     * The number of records of the block.
+     */
+    private static final int NUMBER_OF_RECORDS = 10000;
+
+    /**
+     * The shape of the query.
+     */
+    @Param
+    private QueryShape shape;
+
+    /**
+     * The fixture used to resolve the queries.
+     */
+    private ReadFixture fixture;
+
+    /**
+     * The time series definition.
+     */
+    private TimeSeriesDefinition definition;
+
+    /**
+     * The block to filter.
+     */
+    private DataBlock block;
+
+    /**
+     * The filter used to filter the records by type.
+     */
+    private Filter<String> recordTypeFilter;
+
+    /**
+     * The filter used to filter the records.
+     */
+    private Filter<Record> filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, HorizonDBException, InterruptedException, ExecutionException {
+
+        this.fixture = new ReadFixture(RECORD_WIDTH, 1, 0, false);
+        this.definition = this.fixture.getSeries().getDefinition();
+
+        this.block = Benchmarks.newBlock(this.definition, 
+                                         RECORD_WIDTH, 
+                                         Benchmarks.getPartitionStartInNanos(0), 
+                                         NUMBER_OF_RECORDS);
+
+        Msg<SelectPayload> msg = Benchmarks.parseSelect(this.fixture.getConfiguration(),
+                                                        this.fixture.getDatabaseManager(),
+                                                        ReadFixture.DATABASE,
+                                                        this.shape.toSelect(ReadFixture.SERIES));
+
+        this.recordTypeFilter = msg.getPayload().getProjection().getRecordTypeFilter(this.definition);
+        this.filter = msg.getPayload().getPredicate().toFilter(this.definition);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+
+        this.fixture.close();
+    }
+
+    @Benchmark
+    public void filter(RecordCounters counters) throws IOException {
+
+        try (ResourceIterator<Record> iterator = 
+                new FilteringRecordIterator(this.definition,
+                                            new BinaryTimeSeriesRecordIterator(this.definition, 
+                                                                               singleton(this.block), 
+                                                                               this.recordTypeFilter),
+                                            this.filter)) {
+
+            while (iterator.hasNext()) {
+
+                Record record = iterator.next();
+                counters.records++;
+                counters.bytes += record.computeSerializedSize();
+            }
+        }
+    }
+}
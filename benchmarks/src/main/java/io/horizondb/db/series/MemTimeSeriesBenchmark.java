@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Benchmarks <code>MemTimeSeries.write</code>. 
+ * <p>
+ * Each thread writes to its own <code>MemTimeSeries</code>, which is replaced by an empty one once it is full 
+ * as it would be after a flush. Run with <code>-prof gc</code> to get the allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MemTimeSeriesBenchmark {
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    @Param({ "1", "4", "16" })
+    private int recordWidth;
+
+    /**
+     * The number of records written by each invocation.
+     */
+    @Param({ "1", "100", "1000" })
+    private int batchSize;
+
+    /**
+     * The database configuration.
+     */
+    private Configuration configuration;
+
+    /**
+     * The time series definition.
+     */
+    private TimeSeriesDefinition definition;
+
+    /**
+     * The batch written by each invocation.
+     */
+    private DataBlock block;
+
+    /**
+     * The commit log future.
+     */
+    private final ListenableFuture<ReplayPosition> future = Futures.immediateFuture(new ReplayPosition(1, 0));
+
+    /**
+     * The allocator used by the <code>MemTimeSeries</code>.
+     */
+    private SlabAllocator allocator;
+
+    /**
+     * The <code>MemTimeSeries</code> to which the records are written.
+     */
+    private MemTimeSeries memTimeSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        this.configuration = Configuration.newBuilder().build();
+        this.definition = Benchmarks.newTimeSeriesDefinition(new DatabaseDefinition("benchmark"), 
+                                                             "series", 
+                                                             this.recordWidth);
+        this.block = Benchmarks.newBlock(this.definition, 
+                                         this.recordWidth, 
+                                         Benchmarks.TIME_IN_NANOS, 
+                                         this.batchSize);
+        reset();
+    }
+
+    @Benchmark
+    public MemTimeSeries write() throws IOException, HorizonDBException {
+
+        if (this.memTimeSeries.isFull()) {
+            reset();
+        }
+
+        this.memTimeSeries = this.memTimeSeries.write(this.allocator, this.block, this.future);
+        return this.memTimeSeries;
+    }
+
+    /**
+     * Replaces the <code>MemTimeSeries</code> by an empty one, as a flush would do.
+     */
+    private void reset() {
+
+        this.allocator = new SlabAllocator(this.configuration.getMemTimeSeriesSize());
+        this.memTimeSeries = new MemTimeSeries(this.configuration, this.definition);
+    }
+}
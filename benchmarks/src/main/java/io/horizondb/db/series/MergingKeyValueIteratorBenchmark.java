@@ -0,0 +1,144 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.btree.KeyValueIterator;
+import io.horizondb.db.benchmarks.RecordCounters;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the merge by <code>MergingKeyValueIterator</code> of iterators whose keys are interleaved, as the 
+ * partition iterators of the in memory and on disk stores are.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergingKeyValueIteratorBenchmark {
+
+    /**
+     * The total number of entries.
+     */
+    private static final int NUMBER_OF_ENTRIES = 100000;
+
+    /**
+     * The number of iterators merged.
+     */
+    @Param({ "2", "8", "32" })
+    private int iterators;
+
+    /**
+     * The keys returned by each iterator.
+     */
+    private Long[][] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        int entriesPerIterator = NUMBER_OF_ENTRIES / this.iterators;
+
+        this.keys = new Long[this.iterators][entriesPerIterator];
+
+        for (int i = 0; i < this.iterators; i++) {
+            for (int j = 0; j < entriesPerIterator; j++) {
+                this.keys[i][j] = Long.valueOf(((long) j * this.iterators) + i);
+            }
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void merge(RecordCounters counters, Blackhole blackhole) throws IOException {
+
+        KeyValueIterator<Long, Long>[] array = new KeyValueIterator[this.iterators];
+
+        for (int i = 0; i < this.iterators; i++) {
+            array[i] = new ArrayKeyValueIterator(this.keys[i]);
+        }
+
+        MergingKeyValueIterator<Long, Long> iterator = new MergingKeyValueIterator<>(array);
+
+        while (iterator.next()) {
+            counters.records++;
+            blackhole.consume(iterator.getValue());
+        }
+    }
+
+    /**
+     * <code>KeyValueIterator</code> over an array of keys, each key being its own value.
+     */
+    private static final class ArrayKeyValueIterator implements KeyValueIterator<Long, Long> {
+
+        /**
+         * The keys.
+         */
+        private final Long[] keys;
+
+        /**
+         * The index of the current entry.
+         */
+        private int index = -1;
+
+        /**
+         * Creates a new <code>ArrayKeyValueIterator</code> over the specified keys.
+         * 
+         * @param keys the keys
+         */
+        public ArrayKeyValueIterator(Long[] keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() {
+            return ++this.index < this.keys.length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Long getKey() {
+            return this.keys[this.index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Long getValue() {
+            return this.keys[this.index];
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.benchmarks.QueryShape;
+import io.horizondb.db.benchmarks.RecordCounters;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.operations.ChunkedRecordStream;
+import io.horizondb.model.core.Predicate;
+import io.horizondb.model.core.Projection;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.protocol.DataChunkPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.SelectPayload;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks <code>TimeSeries.read</code> and the encoding of its results by 
+ * <code>ChunkedRecordStream.readChunk</code> for different query shapes, over partitions kept in memory or stored 
+ * on the local disk.
+ * <p>
+ * The <code>*Throughput</code> benchmarks report the number of queries, records and bytes per second. The 
+ * <code>*Latency</code> benchmarks report the latency distribution of the queries, including the 99th percentile.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadBenchmark {
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    private static final int RECORD_WIDTH = 4;
+
+    /**
+     * The number of records per partition.
+     */
+    private static final int RECORDS_PER_PARTITION = 100000;
+
+    /**
+     * Where the partitions are stored.
+     */
+    @Param({ "memory", "disk" })
+    private String storage;
+
+    /**
+     * The number of partitions.
+     */
+    @Param({ "1", "4" })
+    private int partitions;
+
+    /**
+     * The shape of the query.
+     */
+    @Param
+    private QueryShape shape;
+
+    /**
+     * The fixture.
+     */
+    private ReadFixture fixture;
+
+    /**
+     * The header of the select request.
+     */
+    private MsgHeader requestHeader;
+
+    /**
+     * The query projection.
+     */
+    private Projection projection;
+
+    /**
+     * The query predicate.
+     */
+    private Predicate predicate;
+
+    /**
+     * The metrics updated by the record streams.
+     */
+    private final OperationMetrics metrics = new OperationMetrics();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, HorizonDBException, InterruptedException, ExecutionException {
+
+        this.fixture = new ReadFixture(RECORD_WIDTH, 
+                                       this.partitions, 
+                                       RECORDS_PER_PARTITION, 
+                                       "disk".equals(this.storage));
+
+        Msg<SelectPayload> msg = Benchmarks.parseSelect(this.fixture.getConfiguration(),
+                                                        this.fixture.getDatabaseManager(),
+                                                        ReadFixture.DATABASE,
+                                                        this.shape.toSelect(ReadFixture.SERIES));
+
+        this.requestHeader = msg.getHeader();
+        this.projection = msg.getPayload().getProjection();
+        this.predicate = msg.getPayload().getPredicate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+
+        this.fixture.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void readThroughput(RecordCounters counters) throws IOException, HorizonDBException {
+
+        read(counters);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void readLatency(RecordCounters counters) throws IOException, HorizonDBException {
+
+        read(counters);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void streamThroughput(RecordCounters counters) throws Exception {
+
+        stream(counters);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void streamLatency(RecordCounters counters) throws Exception {
+
+        stream(counters);
+    }
+
+    /**
+     * Reads all the records returned by the query.
+     * 
+     * @param counters the counters to update
+     * @throws IOException if an I/O problem occurs while reading the records
+     * @throws HorizonDBException if a problem occurs while reading the records
+     */
+    private void read(RecordCounters counters) throws IOException, HorizonDBException {
+
+        try (ResourceIterator<? extends Record> iterator = this.fixture.getSeries().read(this.projection, 
+                                                                                         this.predicate)) {
+            while (iterator.hasNext()) {
+
+                Record record = iterator.next();
+                counters.records++;
+                counters.bytes += record.computeSerializedSize();
+            }
+        }
+    }
+
+    /**
+     * Encodes in chunks, as they would be sent to the client, all the records returned by the query.
+     * 
+     * @param counters the counters to update
+     * @throws Exception if a problem occurs while reading or encoding the records
+     */
+    private void stream(RecordCounters counters) throws Exception {
+
+        ChunkedRecordStream stream = new ChunkedRecordStream(this.requestHeader, 
+                                                             this.fixture.getSeries().read(this.projection, 
+                                                                                           this.predicate),
+                                                             this.metrics);
+        try {
+
+            while (!stream.isEndOfInput()) {
+
+                Msg<DataChunkPayload> chunk = stream.readChunk(null);
+                counters.bytes += chunk.computeSerializedSize();
+            }
+
+        } finally {
+
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.btree.KeyValueIterator;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.databases.Database;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Range;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Time series filled with generated records and used as fixture by the read benchmarks.
+ * <p>
+ * The records are spread over daily partitions and are one millisecond apart. The partitions are either kept in
+ * memory or flushed to a local directory.
+ * </p>
+ */
+final class ReadFixture {
+
+    /**
+     * The name of the database.
+     */
+    static final String DATABASE = "benchmark";
+
+    /**
+     * The name of the time series.
+     */
+    static final String SERIES = "series";
+
+    /**
+     * The number of records written at once while loading the fixture.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The directory where the data are stored.
+     */
+    private final Path directory;
+
+    /**
+     * The database configuration.
+     */
+    private final Configuration configuration;
+
+    /**
+     * The database manager.
+     */
+    private final DatabaseManager databaseManager;
+
+    /**
+     * The time series.
+     */
+    private final TimeSeries series;
+
+    /**
+     * The time series partitions.
+     */
+    private final List<TimeSeriesPartition> partitions;
+
+    /**
+     * Creates and loads a new fixture.
+     * 
+     * @param recordWidth the number of <code>LONG</code> fields of the records
+     * @param numberOfPartitions the number of daily partitions
+     * @param recordsPerPartition the number of records per partition
+     * @param onDisk <code>true</code> if the partitions must be flushed to the disk, <code>false</code> if they must 
+     * be kept in memory
+     * @throws IOException if an I/O problem occurs while loading the fixture
+     * @throws HorizonDBException if a problem occurs while loading the fixture
+     * @throws InterruptedException if the thread is interrupted
+     * @throws ExecutionException if a partition cannot be flushed
+     */
+    public ReadFixture(int recordWidth, 
+                       int numberOfPartitions, 
+                       int recordsPerPartition, 
+                       boolean onDisk) 
+                               throws IOException, HorizonDBException, InterruptedException, ExecutionException {
+
+        this.directory = Files.createTempDirectory("benchmark");
+
+        this.configuration = Configuration.newBuilder()
+                                          .dataDirectory(this.directory.resolve("data"))
+                                          .memTimeSeriesSizeInKB(64 * 1024)
+                                          .maximumMemoryUsageByMemTimeSeriesInMB(1024)
+                                          .memTimeSeriesIdleTimeInSecond((int) TimeUnit.DAYS.toSeconds(1))
+                                          .build();
+
+        this.databaseManager = Benchmarks.newInMemoryDatabaseManager(this.configuration);
+        this.databaseManager.start();
+
+        this.databaseManager.createDatabase(new DatabaseDefinition(DATABASE), true);
+        Database database = this.databaseManager.getDatabase(DATABASE);
+
+        TimeSeriesDefinition definition = Benchmarks.newTimeSeriesDefinition(database.getDefinition(), 
+                                                                             SERIES, 
+                                                                             recordWidth);
+        database.createTimeSeries(definition, true);
+        this.series = database.getTimeSeries(SERIES);
+
+        OperationMetrics metrics = new OperationMetrics();
+
+        for (int i = 0; i < numberOfPartitions; i++) {
+
+            long partitionStart = Benchmarks.getPartitionStartInNanos(i);
+
+            for (int j = 0; j < recordsPerPartition; j += BATCH_SIZE) {
+
+                long firstTimestamp = partitionStart + TimeUnit.MILLISECONDS.toNanos(j);
+                int batchSize = Math.min(BATCH_SIZE, recordsPerPartition - j);
+
+                this.series.write(Benchmarks.newBlock(definition, recordWidth, firstTimestamp, batchSize),
+                                  Futures.immediateFuture(new ReplayPosition(1, 0)),
+                                  false,
+                                  metrics);
+            }
+        }
+
+        this.partitions = getPartitions(database.getDefinition(), definition, numberOfPartitions);
+
+        if (onDisk) {
+
+            for (TimeSeriesPartition partition : this.partitions) {
+                partition.forceFlush();
+            }
+        }
+    }
+
+    /**
+     * Returns the database configuration.
+     * 
+     * @return the database configuration.
+     */
+    public Configuration getConfiguration() {
+        return this.configuration;
+    }
+
+    /**
+     * Returns the database manager.
+     * 
+     * @return the database manager.
+     */
+    public DatabaseManager getDatabaseManager() {
+        return this.databaseManager;
+    }
+
+    /**
+     * Returns the time series.
+     * 
+     * @return the time series.
+     */
+    public TimeSeries getSeries() {
+        return this.series;
+    }
+
+    /**
+     * Returns the time series partitions.
+     * 
+     * @return the time series partitions.
+     */
+    public List<TimeSeriesPartition> getPartitions() {
+        return this.partitions;
+    }
+
+    /**
+     * Shutdowns the database manager and deletes the fixture files.
+     * 
+     * @throws InterruptedException if the thread is interrupted
+     * @throws IOException if an I/O problem occurs while deleting the files
+     */
+    public void close() throws InterruptedException, IOException {
+
+        this.databaseManager.shutdown();
+        FileUtils.forceDelete(this.directory);
+    }
+
+    /**
+     * Returns the partitions of the specified time series.
+     * 
+     * @param databaseDefinition the database definition
+     * @param definition the time series definition
+     * @param numberOfPartitions the number of partitions
+     * @return the partitions of the specified time series.
+     * @throws IOException if an I/O problem occurs while retrieving the partitions
+     */
+    private List<TimeSeriesPartition> getPartitions(DatabaseDefinition databaseDefinition,
+                                                    TimeSeriesDefinition definition,
+                                                    int numberOfPartitions) throws IOException {
+
+        TimeSeriesPartitionManager partitionManager = this.databaseManager.getTimeSeriesManager()
+                                                                          .getPartitionManager();
+
+        PartitionId from = toPartitionId(databaseDefinition, definition, Benchmarks.getPartitionStartInNanos(0));
+        PartitionId to = toPartitionId(databaseDefinition, 
+                                       definition, 
+                                       Benchmarks.getPartitionStartInNanos(numberOfPartitions - 1));
+
+        KeyValueIterator<PartitionId, TimeSeriesPartition> iterator = partitionManager.getRangeForRead(from, 
+                                                                                                       to, 
+                                                                                                       definition);
+        List<TimeSeriesPartition> list = new ArrayList<>(numberOfPartitions);
+
+        while (iterator.next()) {
+            list.add(iterator.getValue());
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns the ID of the partition containing the specified timestamp.
+     * 
+     * @param databaseDefinition the database definition
+     * @param definition the time series definition
+     * @param timestampInNanos the timestamp
+     * @return the ID of the partition containing the specified timestamp.
+     */
+    private static PartitionId toPartitionId(DatabaseDefinition databaseDefinition,
+                                             TimeSeriesDefinition definition,
+                                             long timestampInNanos) {
+
+        Field timestamp = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(timestampInNanos);
+        Range<Field> range = definition.getPartitionTimeRange(timestamp);
+
+        return new PartitionId(databaseDefinition, definition, range);
+    }
+}
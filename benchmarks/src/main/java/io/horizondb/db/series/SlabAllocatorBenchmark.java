@@ -0,0 +1,82 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks <code>SlabAllocator.allocate</code> against plain heap allocations.
+ * <p>
+ * Run with <code>-prof gc</code> to get the allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class SlabAllocatorBenchmark {
+
+    /**
+     * The number of bytes requested by each allocation.
+     */
+    @Param({ "16", "128", "1024" })
+    private int size;
+
+    /**
+     * The size of the regions preallocated by the allocator.
+     */
+    @Param({ "1048576", "8388608" })
+    private int regionSize;
+
+    /**
+     * The allocator.
+     */
+    private SlabAllocator allocator;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+
+        this.allocator = new SlabAllocator(this.regionSize);
+    }
+
+    @Benchmark
+    public Buffer slabAllocate() {
+
+        return this.allocator.allocate(this.size);
+    }
+
+    @Benchmark
+    public Buffer heapAllocate() {
+
+        return Buffers.allocate(this.size);
+    }
+}
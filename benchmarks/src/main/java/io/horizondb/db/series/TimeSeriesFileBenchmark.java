@@ -0,0 +1,149 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.benchmarks.Benchmarks;
+import io.horizondb.db.benchmarks.RecordCounters;
+import io.horizondb.io.files.SeekableFileDataInput;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+
+/**
+ * Benchmarks the lookup of the blocks of a <code>TimeSeriesFile</code> (<code>TimeSeriesFile.newInput</code>) and 
+ * the reading of those blocks (<code>TimeSeriesFile.iterator</code>) for time ranges of different lengths.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeSeriesFileBenchmark {
+
+    /**
+     * The number of <code>LONG</code> fields of the records.
+     */
+    private static final int RECORD_WIDTH = 4;
+
+    /**
+     * The number of records in the file.
+     */
+    private static final int NUMBER_OF_RECORDS = 1000000;
+
+    /**
+     * The length of the time range read.
+     */
+    @Param({ "1", "60", "1000" })
+    private int rangeInSeconds;
+
+    /**
+     * The fixture.
+     */
+    private ReadFixture fixture;
+
+    /**
+     * The file of the fixture partition.
+     */
+    private TimeSeriesFile file;
+
+    /**
+     * The time range read.
+     */
+    private RangeSet<Field> rangeSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, HorizonDBException, InterruptedException, ExecutionException {
+
+        this.fixture = new ReadFixture(RECORD_WIDTH, 1, NUMBER_OF_RECORDS, true);
+
+        DatabaseDefinition databaseDefinition = this.fixture.getDatabaseManager()
+                                                            .getDatabase(ReadFixture.DATABASE)
+                                                            .getDefinition();
+
+        TimeSeriesPartition partition = this.fixture.getPartitions().get(0);
+
+        this.file = TimeSeriesFile.open(this.fixture.getConfiguration(), 
+                                        databaseDefinition, 
+                                        this.fixture.getSeries().getDefinition(), 
+                                        partition.getMetaData());
+
+        long start = Benchmarks.getPartitionStartInNanos(0);
+        long end = start + TimeUnit.SECONDS.toNanos(this.rangeInSeconds);
+
+        Field from = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(start);
+        Field to = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(end);
+
+        this.rangeSet = ImmutableRangeSet.of(Range.closedOpen(from, to));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+
+        this.file.close();
+        this.fixture.close();
+    }
+
+    /**
+     * Looks up the blocks overlapping the time range and opens an input over them.
+     */
+    @Benchmark
+    public long newInput() throws IOException {
+
+        try (SeekableFileDataInput input = this.file.newInput(this.rangeSet)) {
+            return input.size();
+        }
+    }
+
+    /**
+     * Reads the blocks overlapping the time range.
+     */
+    @Benchmark
+    public void iterator(RecordCounters counters) throws IOException {
+
+        try (ResourceIterator<DataBlock> iterator = this.file.iterator(this.rangeSet)) {
+
+            while (iterator.hasNext()) {
+
+                DataBlock block = iterator.next();
+                counters.bytes += block.computeSerializedSize();
+            }
+        }
+    }
+}
@@ -130,17 +130,37 @@ fragment Z_
     | 'Z'
     ;
 
+AFTER
+    : A_ F_ T_ E_ R_ 
+    ;
+
 AND
     : A_ N_ D_ 
     ;
+
+AS
+    : A_ S_ 
+    ;
+
+ASC
+    : A_ S_ C_ 
+    ;
     
 BETWEEN
     : B_ E_ T_ W_ E_ E_ N_ 
     ;    
     
+BY
+    : B_ Y_ 
+    ;
+
 BYTE
     : B_ Y_ T_ E_ 
     ;
+
+CANCEL
+    : C_ A_ N_ C_ E_ L_ 
+    ;
     
 CREATE
     : C_ R_ E_ A_ T_ E_ 
@@ -153,15 +173,31 @@ DATABASE
 DECIMAL
     : D_ E_ C_ I_ M_ A_ L_ 
     ;
+
+DESC
+    : D_ E_ S_ C_ 
+    ;
     
 DROP
     : D_ R_ O_ P_
     ;
 
+EXECUTE
+    : E_ X_ E_ C_ U_ T_ E_ 
+    ;
+
+EXPLAIN
+    : E_ X_ P_ L_ A_ I_ N_ 
+    ;
+
 FROM
     : F_ R_ O_ M_ 
     ;
     
+GROUP
+    : G_ R_ O_ U_ P_ 
+    ;
+
 IN
     : I_ N_ 
     ;
@@ -178,6 +214,10 @@ INTEGER
     : I_ N_ T_ E_ G_ E_ R_ 
     ;
     
+LIMIT
+    : L_ I_ M_ I_ T_ 
+    ;
+
 LONG
     : L_ O_ N_ G_ 
     ;   
@@ -214,6 +254,18 @@ OR
     : O_ R_
     ;       
 
+ORDER
+    : O_ R_ D_ E_ R_ 
+    ;
+
+PREPARE
+    : P_ R_ E_ P_ A_ R_ E_ 
+    ;
+
+PROFILE
+    : P_ R_ O_ F_ I_ L_ E_ 
+    ;
+
 SECONDS
     : S_ E_ C_ O_ N_ D_ S_ 
     ;
@@ -226,6 +278,10 @@ SELECT
     : S_ E_ L_ E_ C_ T_ 
     ;
 
+TIMEOUT
+    : T_ I_ M_ E_ O_ U_ T_ 
+    ;
+
 TIMESERIES
     : T_ I_ M_ E_ S_ E_ R_ I_ E_ S_
     ;
@@ -261,14 +317,19 @@ statement
     | dropTimeSeries
     | createDatabase
     | dropDatabase
+    | prepare
+    | execute
+    | cancel
+    | explain
+    | profile
     ;
 
 createDatabase
-    : CREATE DATABASE ID 
+    : CREATE DATABASE identifier 
     ;
 
 dropDatabase
-    : DROP DATABASE ID 
+    : DROP DATABASE identifier 
     ;
 
 createTimeSeries
@@ -284,7 +345,7 @@ recordsDefinition
     ;
 
 recordDefinition
-    : ID '(' fieldsDefinition ')' 
+    : identifier '(' fieldsDefinition ')' 
     ;
 
 fieldsDefinition
@@ -292,7 +353,7 @@ fieldsDefinition
     ;
 
 fieldDefinition
-    : ID type
+    : identifier type
     ;
 
 timeSeriesOptions
@@ -323,35 +384,82 @@ type
     ; 
       
 useDatabase
-    : USE ID
+    : USE identifier
+    ;
+
+prepare
+    : PREPARE identifier AS insert
+    ;
+
+execute
+    : EXECUTE identifier ('(' parameterList ')')?
+    ;
+
+cancel
+    : CANCEL
+    ;
+
+explain
+    : EXPLAIN select
+    ;
+
+profile
+    : PROFILE select
     ;
 
 insert
-    : INSERT INTO (databaseName'.')?recordName ('(' fieldList ')')? VALUES '(' valueList ')' 
+    : INSERT INTO (databaseName'.')?recordName ('(' fieldList ')')? VALUES '(' valueList ')' (',' '(' valueList ')')* 
     ;
 
-timeSeriesName
+identifier
     : ID
+    | AFTER
+    | AS
+    | ASC
+    | BY
+    | CANCEL
+    | DESC
+    | EXECUTE
+    | EXPLAIN
+    | GROUP
+    | LIMIT
+    | ORDER
+    | PREPARE
+    | PROFILE
+    | TIMEOUT
+    ;
+
+timeSeriesName
+    : identifier
     ;
 
 databaseName
-    : ID
+    : identifier
     ;
 
 recordName
-    : timeSeriesName'.'ID 
+    : timeSeriesName'.'identifier 
     ;    
 
 fieldList
-    : ID (',' ID )* 
+    : identifier (',' identifier )* 
     ;    
     
 valueList
-    : value (',' value )*
+    : valueOrParameter (',' valueOrParameter )*
     ;    
+
+valueOrParameter
+    : value
+    | '?'
+    ;
+
+parameterList
+    : value (',' value )*
+    ;
     
 select
-    : SELECT selectList FROM (databaseName'.')?ID (whereClause)?
+    : SELECT selectList FROM (databaseName'.')?identifier (whereClause)? (groupByClause)? (orderByClause)? (limitClause)? (timeoutClause)?
     ;
 selectList
     : '*'
@@ -359,8 +467,33 @@ selectList
     ;
 
 selectListElement
-    : ID'.*'
-    | ID'.'ID
+    : identifier'.*'
+    | identifier'.'identifier
+    | aggregateFunction
+    ;
+
+aggregateFunction
+    : identifier '(' ('*' | identifier'.*' | identifier'.'identifier) ')'
+    ;
+
+groupByClause
+    : GROUP BY identifier '(' timeInterval ')'
+    ;
+
+timeInterval
+    : NUMBER ('ns' | 'µs' | 'ms' | 's' | identifier)
+    ;
+
+orderByClause
+    : ORDER BY identifier (ASC | DESC)?
+    ;
+
+limitClause
+    : LIMIT NUMBER (AFTER STRING)?
+    ;
+
+timeoutClause
+    : TIMEOUT NUMBER
     ;
         
 whereClause
@@ -377,15 +510,15 @@ predicate
     ;
 
 inPredicate 
-    : ID NOT? IN '(' (value (',' value )*)? ')'
+    : identifier NOT? IN '(' (value (',' value )*)? ')'
     ;
     
 betweenPredicate 
-    : ID NOT? BETWEEN value AND value
+    : identifier NOT? BETWEEN value AND value
     ;    
     
 simplePredicate
-    : ID operator value
+    : identifier operator value
     ;
 
 operator
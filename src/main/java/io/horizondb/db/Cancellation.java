@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.lang.String.format;
+
+/**
+ * Signal used to stop a query that has been cancelled or that has exceeded its timeout.
+ * <p>
+ * Each connection has its own <code>Cancellation</code> from which the <code>Cancellation</code>s of its queries
+ * are created. Closing the connection cancels all its queries. The readers check the signal between the blocks 
+ * that they read and fail with an <code>InterruptedIOException</code> once it has been raised, which releases their 
+ * resources.
+ * </p>
+ */
+@ThreadSafe
+public final class Cancellation {
+
+    /**
+     * The value used to specify that a query is not subject to a timeout.
+     */
+    public static final long NO_TIMEOUT = 0;
+
+    /**
+     * The <code>Cancellation</code> of the connection or <code>null</code> for the connection itself.
+     */
+    private final Cancellation parent;
+
+    /**
+     * The sequence number of this <code>Cancellation</code> within the connection.
+     */
+    private final long sequence;
+
+    /**
+     * The generator of the sequence numbers of the queries.
+     */
+    private final AtomicLong sequenceGenerator = new AtomicLong();
+
+    /**
+     * The queries with a sequence number lower or equal to this one have been cancelled.
+     */
+    private volatile long cancelledUpTo;
+
+    /**
+     * <code>true</code> if this <code>Cancellation</code> has been raised.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The time in nanoseconds at which the query has started.
+     */
+    private final long startTimeInNanos;
+
+    /**
+     * The time in milliseconds after which the query is cancelled.
+     */
+    private volatile long timeoutInMillis;
+
+    /**
+     * The trace of the query or <code>null</code> if the query is not traced.
+     */
+    private volatile QueryTrace trace;
+
+    /**
+     * Creates the <code>Cancellation</code> of a connection.
+     */
+    public Cancellation() {
+        this(null, 0, NO_TIMEOUT);
+    }
+
+    /**
+     * Creates a new <code>Cancellation</code>.
+     * 
+     * @param parent the <code>Cancellation</code> of the connection
+     * @param sequence the sequence number of the query within the connection
+     * @param timeoutInMillis the time in milliseconds after which the query is cancelled
+     */
+    private Cancellation(Cancellation parent, long sequence, long timeoutInMillis) {
+
+        this.parent = parent;
+        this.sequence = sequence;
+        this.timeoutInMillis = timeoutInMillis;
+        this.startTimeInNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates the <code>Cancellation</code> of a new query of this connection.
+     * 
+     * @param timeoutInMillis the time in milliseconds after which the query is cancelled or <code>NO_TIMEOUT</code>
+     * @return the <code>Cancellation</code> of the new query
+     */
+    public Cancellation newQueryCancellation(long timeoutInMillis) {
+
+        return new Cancellation(this, this.sequenceGenerator.incrementAndGet(), timeoutInMillis);
+    }
+
+    /**
+     * Cancels the query or, for a connection, all its queries.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Cancels the queries of the connection that have been started before this one.
+     */
+    public void cancelPreviousQueries() {
+
+        if (this.parent != null) {
+            this.parent.cancelQueriesUpTo(this.sequence - 1);
+        }
+    }
+
+    /**
+     * Restricts the timeout of the query. The timeout can only be shortened.
+     * 
+     * @param timeoutInMillis the time in milliseconds after which the query must be cancelled
+     */
+    public void restrictTimeout(long timeoutInMillis) {
+
+        if (this.timeoutInMillis == NO_TIMEOUT || timeoutInMillis < this.timeoutInMillis) {
+            this.timeoutInMillis = timeoutInMillis;
+        }
+    }
+
+    /**
+     * Attaches the specified trace to the query, so that the readers can record the execution breakdown.
+     * 
+     * @param trace the trace of the query
+     */
+    public void setTrace(QueryTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the trace of the query.
+     * 
+     * @return the trace of the query or <code>null</code> if the query is not traced.
+     */
+    public QueryTrace getTrace() {
+        return this.trace;
+    }
+
+    /**
+     * Returns <code>true</code> if the query has been cancelled or has exceeded its timeout.
+     * 
+     * @return <code>true</code> if the query has been cancelled or has exceeded its timeout.
+     */
+    public boolean isCancelled() {
+
+        return isCancelledByUser() || isTimedOut();
+    }
+
+    /**
+     * Checks that the query has not been cancelled and has not exceeded its timeout.
+     * 
+     * @throws InterruptedIOException if the query has been cancelled or has exceeded its timeout
+     */
+    public void check() throws InterruptedIOException {
+
+        if (isCancelledByUser()) {
+            throw new InterruptedIOException("The query has been cancelled.");
+        }
+
+        if (isTimedOut()) {
+            throw new InterruptedIOException(format("The query has exceeded its timeout of %d ms.", 
+                                                    Long.valueOf(this.timeoutInMillis)));
+        }
+    }
+
+    /**
+     * Cancels the queries of this connection whose sequence number is lower or equal to the specified one.
+     * 
+     * @param sequence the sequence number of the last query to cancel
+     */
+    private synchronized void cancelQueriesUpTo(long sequence) {
+
+        if (sequence > this.cancelledUpTo) {
+            this.cancelledUpTo = sequence;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the query or its connection has been cancelled.
+     * 
+     * @return <code>true</code> if the query or its connection has been cancelled.
+     */
+    private boolean isCancelledByUser() {
+
+        if (this.cancelled) {
+            return true;
+        }
+
+        return this.parent != null && (this.parent.cancelled || this.sequence <= this.parent.cancelledUpTo);
+    }
+
+    /**
+     * Returns <code>true</code> if the query has exceeded its timeout.
+     * 
+     * @return <code>true</code> if the query has exceeded its timeout.
+     */
+    private boolean isTimedOut() {
+
+        long timeout = this.timeoutInMillis;
+
+        return timeout != NO_TIMEOUT 
+                && System.nanoTime() - this.startTimeInNanos > TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+}
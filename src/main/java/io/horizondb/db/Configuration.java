@@ -123,6 +123,81 @@ public final class Configuration {
      */
     private final CompressionType compressionType;
 
+    /**
+     * The maximum number of prepared statements that can be kept in memory for each connection.
+     */
+    private final long preparedStatementCacheMaximumSize;
+
+    /**
+     * The maximum number of parsed queries that can be cached.
+     */
+    private final long queryCacheMaximumSize;
+
+    /**
+     * The number of threads used to read partitions ahead of their consumption.
+     */
+    private final int partitionReadThreads;
+
+    /**
+     * The number of partitions read concurrently ahead of the one being consumed, 0 to disable the read-ahead.
+     */
+    private final int partitionReadAhead;
+
+    /**
+     * The maximum number of partition files that can be kept open at the same time.
+     */
+    private final int maximumNumberOfOpenPartitionFiles;
+
+    /**
+     * The time in milliseconds after which a query is cancelled, 0 if the queries are not subject to a timeout.
+     */
+    private final long queryTimeoutInMillis;
+
+    /**
+     * The number of threads used to execute the mutations.
+     */
+    private final int mutationThreads;
+
+    /**
+     * The maximum number of mutations that can wait for a thread.
+     */
+    private final int mutationQueueSize;
+
+    /**
+     * The number of threads used to execute the queries.
+     */
+    private final int queryThreads;
+
+    /**
+     * The maximum number of queries that can wait for a thread.
+     */
+    private final int queryQueueSize;
+
+    /**
+     * The number of threads used to execute the administration operations.
+     */
+    private final int adminThreads;
+
+    /**
+     * The maximum number of administration operations that can wait for a thread.
+     */
+    private final int adminQueueSize;
+
+    /**
+     * <code>true</code> if the metrics must be exposed through JMX.
+     */
+    private final boolean jmxReporting;
+
+    /**
+     * The local port on which the metrics are served in the Prometheus text format, 0 if they must not be served.
+     */
+    private final int metricsHttpPort;
+
+    /**
+     * The time in milliseconds above which a query is written to the slow query log, 0 if the log is disabled.
+     */
+    private final long slowQueryThresholdInMillis;
+
     /**
      * Creates a new <code>Builder</code> instance.
      * 
@@ -156,6 +231,21 @@ public final class Configuration {
         this.compressionType = builder.compressionType;
         this.timeSeriesCacheMaximumSize = builder.timeSeriesCacheMaximumSize;
         this.cachesConcurrencyLevel = builder.cachesConcurrencyLevel;
+        this.preparedStatementCacheMaximumSize = builder.preparedStatementCacheMaximumSize;
+        this.queryCacheMaximumSize = builder.queryCacheMaximumSize;
+        this.partitionReadThreads = builder.partitionReadThreads;
+        this.partitionReadAhead = builder.partitionReadAhead;
+        this.maximumNumberOfOpenPartitionFiles = builder.maximumNumberOfOpenPartitionFiles;
+        this.queryTimeoutInMillis = builder.queryTimeoutInMillis;
+        this.mutationThreads = builder.mutationThreads;
+        this.mutationQueueSize = builder.mutationQueueSize;
+        this.queryThreads = builder.queryThreads;
+        this.queryQueueSize = builder.queryQueueSize;
+        this.adminThreads = builder.adminThreads;
+        this.adminQueueSize = builder.adminQueueSize;
+        this.jmxReporting = builder.jmxReporting;
+        this.metricsHttpPort = builder.metricsHttpPort;
+        this.slowQueryThresholdInMillis = builder.slowQueryThresholdInMillis;
     }
 
     /**
@@ -322,6 +412,144 @@ public final class Configuration {
         return this.blockSizeInBytes;
     }
 
+    /**
+     * Returns the maximum number of prepared statements that can be kept in memory for each connection.
+     * 
+     * @return the maximum number of prepared statements that can be kept in memory for each connection.
+     */
+    public long getPreparedStatementCacheMaximumSize() {
+        return this.preparedStatementCacheMaximumSize;
+    }
+
+    /**
+     * Returns the maximum number of parsed queries that can be cached.
+     * 
+     * @return the maximum number of parsed queries that can be cached.
+     */
+    public long getQueryCacheMaximumSize() {
+        return this.queryCacheMaximumSize;
+    }
+
+    /**
+     * Returns the number of threads used to read partitions ahead of their consumption.
+     * 
+     * @return the number of threads used to read partitions ahead of their consumption.
+     */
+    public int getPartitionReadThreads() {
+        return this.partitionReadThreads;
+    }
+
+    /**
+     * Returns the number of partitions read concurrently ahead of the one being consumed.
+     * 
+     * @return the number of partitions read concurrently ahead of the one being consumed.
+     */
+    public int getPartitionReadAhead() {
+        return this.partitionReadAhead;
+    }
+
+    /**
+     * Returns the maximum number of partition files that can be kept open at the same time.
+     * 
+     * @return the maximum number of partition files that can be kept open at the same time.
+     */
+    public int getMaximumNumberOfOpenPartitionFiles() {
+        return this.maximumNumberOfOpenPartitionFiles;
+    }
+
+    /**
+     * Returns the time in milliseconds after which a query is cancelled, 0 if the queries are not subject to a 
+     * timeout.
+     * 
+     * @return the time in milliseconds after which a query is cancelled.
+     */
+    public long getQueryTimeoutInMillis() {
+        return this.queryTimeoutInMillis;
+    }
+
+    /**
+     * Returns the number of threads used to execute the mutations.
+     * 
+     * @return the number of threads used to execute the mutations.
+     */
+    public int getMutationThreads() {
+        return this.mutationThreads;
+    }
+
+    /**
+     * Returns the maximum number of mutations that can wait for a thread.
+     * 
+     * @return the maximum number of mutations that can wait for a thread.
+     */
+    public int getMutationQueueSize() {
+        return this.mutationQueueSize;
+    }
+
+    /**
+     * Returns the number of threads used to execute the queries.
+     * 
+     * @return the number of threads used to execute the queries.
+     */
+    public int getQueryThreads() {
+        return this.queryThreads;
+    }
+
+    /**
+     * Returns the maximum number of queries that can wait for a thread.
+     * 
+     * @return the maximum number of queries that can wait for a thread.
+     */
+    public int getQueryQueueSize() {
+        return this.queryQueueSize;
+    }
+
+    /**
+     * Returns the number of threads used to execute the administration operations.
+     * 
+     * @return the number of threads used to execute the administration operations.
+     */
+    public int getAdminThreads() {
+        return this.adminThreads;
+    }
+
+    /**
+     * Returns the maximum number of administration operations that can wait for a thread.
+     * 
+     * @return the maximum number of administration operations that can wait for a thread.
+     */
+    public int getAdminQueueSize() {
+        return this.adminQueueSize;
+    }
+
+    /**
+     * Returns <code>true</code> if the metrics must be exposed through JMX.
+     * 
+     * @return <code>true</code> if the metrics must be exposed through JMX.
+     */
+    public boolean isJmxReporting() {
+        return this.jmxReporting;
+    }
+
+    /**
+     * Returns the local port on which the metrics are served in the Prometheus text format.
+     * 
+     * @return the local port on which the metrics are served in the Prometheus text format, 0 if they must not be 
+     * served.
+     */
+    public int getMetricsHttpPort() {
+        return this.metricsHttpPort;
+    }
+
+    /**
+     * Returns the time in milliseconds above which a query is written to the slow query log.
+     * 
+     * @return the time in milliseconds above which a query is written to the slow query log, 0 if the log is 
+     * disabled.
+     */
+    public long getSlowQueryThresholdInMillis() {
+        return this.slowQueryThresholdInMillis;
+    }
+
     /**
      * The builder for <code>Configuration</code> instance.
      * 
@@ -384,6 +612,82 @@ public final class Configuration {
          */
         private static final long DEFAULT_DATABASE_CACHE_MAX_SIZE = 20;
 
+        /**
+         * The default value for the maximum number of prepared statements that can be kept in memory for each 
+         * connection.
+         */
+        private static final long DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE = 1000;
+
+        /**
+         * The default value for the maximum number of parsed queries that can be cached.
+         */
+        private static final long DEFAULT_QUERY_CACHE_MAX_SIZE = 500;
+
+        /**
+         * The default value for the number of threads used to read partitions ahead of their consumption.
+         */
+        private static final int DEFAULT_PARTITION_READ_THREADS = 4;
+
+        /**
+         * The default value for the number of partitions read concurrently ahead of the one being consumed.
+         */
+        private static final int DEFAULT_PARTITION_READ_AHEAD = 0;
+
+        /**
+         * The default value for the maximum number of partition files that can be kept open at the same time.
+         */
+        private static final int DEFAULT_MAXIMUM_NUMBER_OF_OPEN_PARTITION_FILES = 1000;
+
+        /**
+         * The default query timeout in milliseconds.
+         */
+        private static final long DEFAULT_QUERY_TIMEOUT_IN_MILLIS = 0;
+
+        /**
+         * The default number of threads used to execute the mutations.
+         */
+        private static final int DEFAULT_MUTATION_THREADS = 4;
+
+        /**
+         * The default maximum number of mutations that can wait for a thread.
+         */
+        private static final int DEFAULT_MUTATION_QUEUE_SIZE = 1024;
+
+        /**
+         * The default number of threads used to execute the queries.
+         */
+        private static final int DEFAULT_QUERY_THREADS = 8;
+
+        /**
+         * The default maximum number of queries that can wait for a thread.
+         */
+        private static final int DEFAULT_QUERY_QUEUE_SIZE = 256;
+
+        /**
+         * The default number of threads used to execute the administration operations.
+         */
+        private static final int DEFAULT_ADMIN_THREADS = 1;
+
+        /**
+         * The default maximum number of administration operations that can wait for a thread.
+         */
+        private static final int DEFAULT_ADMIN_QUEUE_SIZE = 64;
+
+        /**
+         * The metrics are exposed through JMX by default.
+         */
+        private static final boolean DEFAULT_JMX_REPORTING = true;
+
+        /**
+         * The metrics are not served over HTTP by default.
+         */
+        private static final int DEFAULT_METRICS_HTTP_PORT = 0;
+
+        /**
+         * The slow query log is disabled by default.
+         */
+        private static final long DEFAULT_SLOW_QUERY_THRESHOLD_IN_MILLIS = 0;
+
         /**
          * The port on which the server is listening.
          */
@@ -470,6 +774,81 @@ public final class Configuration {
          */
         private CompressionType compressionType = DEFAULT_COMPRESSION_TYPE;
 
+        /**
+         * The maximum number of prepared statements that can be kept in memory for each connection.
+         */
+        private long preparedStatementCacheMaximumSize = DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE;
+
+        /**
+         * The maximum number of parsed queries that can be cached.
+         */
+        private long queryCacheMaximumSize = DEFAULT_QUERY_CACHE_MAX_SIZE;
+
+        /**
+         * The number of threads used to read partitions ahead of their consumption.
+         */
+        private int partitionReadThreads = DEFAULT_PARTITION_READ_THREADS;
+
+        /**
+         * The number of partitions read concurrently ahead of the one being consumed.
+         */
+        private int partitionReadAhead = DEFAULT_PARTITION_READ_AHEAD;
+
+        /**
+         * The maximum number of partition files that can be kept open at the same time.
+         */
+        private int maximumNumberOfOpenPartitionFiles = DEFAULT_MAXIMUM_NUMBER_OF_OPEN_PARTITION_FILES;
+
+        /**
+         * The time in milliseconds after which a query is cancelled.
+         */
+        private long queryTimeoutInMillis = DEFAULT_QUERY_TIMEOUT_IN_MILLIS;
+
+        /**
+         * The number of threads used to execute the mutations.
+         */
+        private int mutationThreads = DEFAULT_MUTATION_THREADS;
+
+        /**
+         * The maximum number of mutations that can wait for a thread.
+         */
+        private int mutationQueueSize = DEFAULT_MUTATION_QUEUE_SIZE;
+
+        /**
+         * The number of threads used to execute the queries.
+         */
+        private int queryThreads = DEFAULT_QUERY_THREADS;
+
+        /**
+         * The maximum number of queries that can wait for a thread.
+         */
+        private int queryQueueSize = DEFAULT_QUERY_QUEUE_SIZE;
+
+        /**
+         * The number of threads used to execute the administration operations.
+         */
+        private int adminThreads = DEFAULT_ADMIN_THREADS;
+
+        /**
+         * The maximum number of administration operations that can wait for a thread.
+         */
+        private int adminQueueSize = DEFAULT_ADMIN_QUEUE_SIZE;
+
+        /**
+         * <code>true</code> if the metrics must be exposed through JMX.
+         */
+        private boolean jmxReporting = DEFAULT_JMX_REPORTING;
+
+        /**
+         * The local port on which the metrics are served in the Prometheus text format.
+         */
+        private int metricsHttpPort = DEFAULT_METRICS_HTTP_PORT;
+
+        /**
+         * The time in milliseconds above which a query is written to the slow query log.
+         */
+        private long slowQueryThresholdInMillis = DEFAULT_SLOW_QUERY_THRESHOLD_IN_MILLIS;
+
         /**
          * Specifies the port on which the database server is listening.
          * 
@@ -725,6 +1104,218 @@ public final class Configuration {
             return this;
         }
         
+        /**
+         * Specifies the maximum number of prepared statements that can be kept in memory for each connection.
+         * 
+         * @param preparedStatementCacheMaximumSize the maximum number of prepared statements that can be kept 
+         * in memory for each connection.
+         * @return this <code>Builder</code>.
+         */
+        public Builder preparedStatementCacheMaximumSize(long preparedStatementCacheMaximumSize) {
+
+            Validate.isTrue(preparedStatementCacheMaximumSize > 0, "The prepared statement cache maximum size must be greater than 0.");
+
+            this.preparedStatementCacheMaximumSize = preparedStatementCacheMaximumSize;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of parsed queries that can be cached.
+         * 
+         * @param queryCacheMaximumSize the maximum number of parsed queries that can be cached.
+         * @return this <code>Builder</code>.
+         */
+        public Builder queryCacheMaximumSize(long queryCacheMaximumSize) {
+
+            Validate.isTrue(queryCacheMaximumSize > 0, "The query cache maximum size must be greater than 0.");
+
+            this.queryCacheMaximumSize = queryCacheMaximumSize;
+            return this;
+        }
+
+        /**
+         * Specifies the number of threads used to read partitions ahead of their consumption.
+         * 
+         * @param partitionReadThreads the number of threads used to read partitions ahead of their consumption.
+         * @return this <code>Builder</code>.
+         */
+        public Builder partitionReadThreads(int partitionReadThreads) {
+
+            Validate.isTrue(partitionReadThreads > 0, "The number of partition read threads must be greater than 0.");
+
+            this.partitionReadThreads = partitionReadThreads;
+            return this;
+        }
+
+        /**
+         * Specifies the number of partitions read concurrently ahead of the one being consumed.
+         * 
+         * @param partitionReadAhead the number of partitions read concurrently ahead of the one being consumed.
+         * @return this <code>Builder</code>.
+         */
+        public Builder partitionReadAhead(int partitionReadAhead) {
+
+            Validate.isTrue(partitionReadAhead >= 0, "The number of partitions read ahead must be greater than or equal to 0.");
+
+            this.partitionReadAhead = partitionReadAhead;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of partition files that can be kept open at the same time.
+         * 
+         * @param maximumNumberOfOpenPartitionFiles the maximum number of partition files that can be kept open at the same time.
+         * @return this <code>Builder</code>.
+         */
+        public Builder maximumNumberOfOpenPartitionFiles(int maximumNumberOfOpenPartitionFiles) {
+
+            Validate.isTrue(maximumNumberOfOpenPartitionFiles > 0, "The maximum number of open partition files must be greater than 0.");
+
+            this.maximumNumberOfOpenPartitionFiles = maximumNumberOfOpenPartitionFiles;
+            return this;
+        }
+
+        /**
+         * Specifies the time in milliseconds after which a query is cancelled, 0 if the queries must not be 
+         * subject to a timeout.
+         * 
+         * @param queryTimeoutInMillis the time in milliseconds after which a query is cancelled.
+         * @return this <code>Builder</code>.
+         */
+        public Builder queryTimeoutInMillis(long queryTimeoutInMillis) {
+
+            Validate.isTrue(queryTimeoutInMillis >= 0, "The query timeout must be greater than or equal to 0.");
+
+            this.queryTimeoutInMillis = queryTimeoutInMillis;
+            return this;
+        }
+
+        /**
+         * Specifies the number of threads used to execute the mutations.
+         * 
+         * @param mutationThreads the number of threads used to execute the mutations.
+         * @return this <code>Builder</code>.
+         */
+        public Builder mutationThreads(int mutationThreads) {
+
+            Validate.isTrue(mutationThreads > 0, "The number of mutation threads must be greater than 0.");
+
+            this.mutationThreads = mutationThreads;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of mutations that can wait for a thread.
+         * 
+         * @param mutationQueueSize the maximum number of mutations that can wait for a thread.
+         * @return this <code>Builder</code>.
+         */
+        public Builder mutationQueueSize(int mutationQueueSize) {
+
+            Validate.isTrue(mutationQueueSize > 0, "The mutation queue size must be greater than 0.");
+
+            this.mutationQueueSize = mutationQueueSize;
+            return this;
+        }
+
+        /**
+         * Specifies the number of threads used to execute the queries.
+         * 
+         * @param queryThreads the number of threads used to execute the queries.
+         * @return this <code>Builder</code>.
+         */
+        public Builder queryThreads(int queryThreads) {
+
+            Validate.isTrue(queryThreads > 0, "The number of query threads must be greater than 0.");
+
+            this.queryThreads = queryThreads;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of queries that can wait for a thread.
+         * 
+         * @param queryQueueSize the maximum number of queries that can wait for a thread.
+         * @return this <code>Builder</code>.
+         */
+        public Builder queryQueueSize(int queryQueueSize) {
+
+            Validate.isTrue(queryQueueSize > 0, "The query queue size must be greater than 0.");
+
+            this.queryQueueSize = queryQueueSize;
+            return this;
+        }
+
+        /**
+         * Specifies the number of threads used to execute the administration operations.
+         * 
+         * @param adminThreads the number of threads used to execute the administration operations.
+         * @return this <code>Builder</code>.
+         */
+        public Builder adminThreads(int adminThreads) {
+
+            Validate.isTrue(adminThreads > 0, "The number of admin threads must be greater than 0.");
+
+            this.adminThreads = adminThreads;
+            return this;
+        }
+
+        /**
+         * Specifies the maximum number of administration operations that can wait for a thread.
+         * 
+         * @param adminQueueSize the maximum number of administration operations that can wait for a thread.
+         * @return this <code>Builder</code>.
+         */
+        public Builder adminQueueSize(int adminQueueSize) {
+
+            Validate.isTrue(adminQueueSize > 0, "The admin queue size must be greater than 0.");
+
+            this.adminQueueSize = adminQueueSize;
+            return this;
+        }
+
+        /**
+         * Specifies if the metrics must be exposed through JMX.
+         * 
+         * @param jmxReporting <code>true</code> if the metrics must be exposed through JMX.
+         * @return this <code>Builder</code>.
+         */
+        public Builder jmxReporting(boolean jmxReporting) {
+
+            this.jmxReporting = jmxReporting;
+            return this;
+        }
+
+        /**
+         * Specifies the local port on which the metrics must be served in the Prometheus text format.
+         * 
+         * @param metricsHttpPort the local port on which the metrics must be served, 0 if they must not be served.
+         * @return this <code>Builder</code>.
+         */
+        public Builder metricsHttpPort(int metricsHttpPort) {
+
+            Validate.isTrue(metricsHttpPort >= 0, "The metrics HTTP port must be greater than or equal to 0.");
+
+            this.metricsHttpPort = metricsHttpPort;
+            return this;
+        }
+
+        /**
+         * Specifies the time in milliseconds above which a query must be written to the slow query log.
+         * 
+         * @param slowQueryThresholdInMillis the time in milliseconds above which a query must be written to the 
+         * slow query log, 0 if the log must be disabled.
+         * @return this <code>Builder</code>.
+         */
+        public Builder slowQueryThresholdInMillis(long slowQueryThresholdInMillis) {
+
+            Validate.isTrue(slowQueryThresholdInMillis >= 0, 
+                            "The slow query threshold must be greater than or equal to 0.");
+
+            this.slowQueryThresholdInMillis = slowQueryThresholdInMillis;
+            return this;
+        }
+
         /**
          * Builds a new <code>Configuration</code> instance.
          * 
@@ -15,8 +15,12 @@ package io.horizondb.db;
 
 
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.parser.PreparedStatements;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+
+import java.util.List;
 
 /**
  * The storage engine used to persist an retrieve data.
@@ -35,7 +39,25 @@ public interface DatabaseEngine extends Component {
      *  
      * @param msg the message  
      * @param buffer the message in its binary form
+     * @param cancellation the signal used to stop the operation if it is cancelled or exceeds its timeout
+     * @param preparedStatements the statements prepared on the connection or <code>null</code> if the connection 
+     * does not support prepared statements
      * @return the message response
      */
-    Object execute(Msg<?> msg, ReadableBuffer buffer);
+    Object execute(Msg<?> msg, 
+                   ReadableBuffer buffer, 
+                   Cancellation cancellation, 
+                   PreparedStatements preparedStatements);
+
+    /**
+     * Executes the specified mutations as a batch. All the messages of the batch are checked before being written 
+     * to the commit log as a single entry, so that the batch is either applied in full or rejected in full. 
+     *  
+     * @param requestHeader the header of the request from which the batch originates
+     * @param batch the mutation messages
+     * @param cancellation the signal used to stop the batch if it is cancelled or exceeds its timeout before being
+     * written to the commit log
+     * @return the response
+     */
+    Object executeBatch(MsgHeader requestHeader, List<Msg<?>> batch, Cancellation cancellation);
 }
\ No newline at end of file
@@ -18,14 +18,19 @@ package io.horizondb.db;
 import io.horizondb.db.commitlog.CommitLog;
 import io.horizondb.db.commitlog.ReplayPosition;
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.parser.PreparedStatements;
 import io.horizondb.io.Buffer;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.buffers.Buffers;
 import io.horizondb.model.ErrorCodes;
 import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
 import io.horizondb.model.protocol.Msgs;
+import io.horizondb.model.protocol.OpCode;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -49,10 +54,21 @@ public class DefaultDatabaseEngine extends AbstractComponent implements Database
     /**
      * 
      * @param configuration the database configuration
+     * @param metrics the metrics in which the operations record their latency
      */
-    public DefaultDatabaseEngine(Configuration configuration) {
+    public DefaultDatabaseEngine(Configuration configuration, OperationMetrics metrics) {
 
-        this.storageEngine = new DefaultStorageEngine(configuration);
+        this(configuration, new DefaultStorageEngine(configuration, metrics));
+    }
+
+    /**
+     * 
+     * @param configuration the database configuration
+     * @param storageEngine the storage engine
+     */
+    DefaultDatabaseEngine(Configuration configuration, StorageEngine storageEngine) {
+
+        this.storageEngine = storageEngine;
         this.commitLog = new CommitLog(configuration, this.storageEngine);
     }
 
@@ -104,7 +120,10 @@ public class DefaultDatabaseEngine extends AbstractComponent implements Database
      * {@inheritDoc}
      */
     @Override
-    public Object execute(Msg<?> request, ReadableBuffer buffer) {
+    public Object execute(Msg<?> request, 
+                          ReadableBuffer buffer, 
+                          Cancellation cancellation, 
+                          PreparedStatements preparedStatements) {
 
         try {
 
@@ -128,7 +147,7 @@ public class DefaultDatabaseEngine extends AbstractComponent implements Database
                 future = this.commitLog.write(bytes);
             }
 
-            return this.storageEngine.execute(request, future);
+            return this.storageEngine.execute(request, future, cancellation);
 
         } catch (HorizonDBException e) {
             
@@ -141,4 +160,77 @@ public class DefaultDatabaseEngine extends AbstractComponent implements Database
             return Msgs.newErrorMsg(ErrorCodes.INTERNAL_ERROR, e.getMessage());
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object executeBatch(MsgHeader requestHeader, List<Msg<?>> batch, Cancellation cancellation) {
+
+        try {
+
+            this.logger.debug("Batch received with " + batch.size() + " messages");
+
+            // The messages are all checked before the batch is written to the commit log, as the replay will apply 
+            // all the messages of the entry.
+            for (int i = 0, m = batch.size(); i < m; i++) {
+                this.storageEngine.validate(batch.get(i));
+            }
+
+            cancellation.check();
+
+            int size = 0;
+
+            for (int i = 0, m = batch.size(); i < m; i++) {
+                size += batch.get(i).computeSerializedSize();
+            }
+
+            Buffer bytes = Buffers.allocateDirect(size);
+
+            for (int i = 0, m = batch.size(); i < m; i++) {
+                batch.get(i).writeTo(bytes);
+            }
+
+            ListenableFuture<ReplayPosition> future = this.commitLog.write(bytes);
+
+            Object error = null;
+
+            // Once written to the commit log the batch is applied in full, even if one of its messages fails.
+            for (int i = 0, m = batch.size(); i < m; i++) {
+                
+                Object response = this.storageEngine.execute(batch.get(i), future, cancellation);
+                
+                if (error == null && isError(response)) {
+                    error = response;
+                }
+            }
+
+            if (error != null) {
+                return error;
+            }
+
+            return Msg.emptyMsg(MsgHeader.newResponseHeader(requestHeader, OpCode.NOOP, 0, 0));
+
+        } catch (HorizonDBException e) {
+            
+            return Msgs.newErrorMsg(e.getCode(), e.getMessage());
+            
+        } catch (Exception e) {
+
+            this.logger.error("", e);
+
+            return Msgs.newErrorMsg(ErrorCodes.INTERNAL_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the specified response is an error message.
+     * 
+     * @param response the response
+     * @return <code>true</code> if the specified response is an error message.
+     */
+    private static boolean isError(Object response) {
+        
+        return response instanceof Msg && !((Msg<?>) response).getHeader().isSuccess();
+    }
 }
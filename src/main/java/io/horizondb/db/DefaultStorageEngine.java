@@ -19,6 +19,7 @@ import io.horizondb.db.commitlog.ReplayPosition;
 import io.horizondb.db.databases.DatabaseManager;
 import io.horizondb.db.databases.DatabaseManagerCache;
 import io.horizondb.db.databases.OnDiskDatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.db.operations.Operations;
 import io.horizondb.db.series.OnDiskTimeSeriesManager;
 import io.horizondb.db.series.OnDiskTimeSeriesPartitionManager;
@@ -33,8 +34,11 @@ import io.horizondb.model.protocol.Msgs;
 import io.horizondb.model.protocol.OpCode;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -49,11 +53,11 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
     private final DatabaseManager databaseManager;
 
     /**
-     * The builder used to build the operation context.
+     * The metrics in which the operations record their latency.
      */
-    private final OperationContext.Builder contextBuilder;
+    private final OperationMetrics metrics;
 
-    public DefaultStorageEngine(Configuration configuration) {
+    public DefaultStorageEngine(Configuration configuration, OperationMetrics metrics) {
 
         TimeSeriesPartitionManager partitionManager = new TimeSeriesPartitionManagerCaches(configuration,
                                                                                            new OnDiskTimeSeriesPartitionManager(configuration));
@@ -64,7 +68,7 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
 
         this.databaseManager = new DatabaseManagerCache(configuration, new OnDiskDatabaseManager(configuration,
                                                                                                  seriesManager));        
-        this.contextBuilder = OperationContext.newBuilder(this.databaseManager);
+        this.metrics = metrics;
     }
 
     /**
@@ -100,8 +104,6 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
     protected void doStart() throws IOException, InterruptedException {
 
         start(this.databaseManager);
-
-        this.contextBuilder.replay(false);
     }
 
     /**
@@ -117,9 +119,37 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
      * {@inheritDoc}
      */
     @Override
-    public Object execute(Msg<?> request, ListenableFuture<ReplayPosition> future) throws IOException, HorizonDBException {
+    public Object execute(Msg<?> request, 
+                          ListenableFuture<ReplayPosition> future, 
+                          Cancellation cancellation) throws IOException, HorizonDBException {
+
+        return execute(request, future, cancellation, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(Msg<?> request) throws IOException, HorizonDBException {
 
-        this.contextBuilder.future(future);
+        Operations.validate(this.databaseManager, request);
+    }
+
+    /**
+     * Executes the specified request with a context of its own, as the requests can be executed concurrently.
+     * 
+     * @param request the request to execute
+     * @param future the future returning the replay position of the request within the commit log
+     * @param cancellation the signal used to stop the request if it is cancelled or exceeds its timeout
+     * @param replay <code>true</code> if the request is replayed from the commit log
+     * @return the response to the request
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    private Object execute(Msg<?> request, 
+                           ListenableFuture<ReplayPosition> future, 
+                           Cancellation cancellation,
+                           boolean replay) throws IOException, HorizonDBException {
 
         OpCode opCode = request.getOpCode();
 
@@ -134,9 +164,28 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
             return Msgs.newErrorMsg(request.getHeader(), ErrorCodes.UNKNOWN_OPERATION_CODE, message);
         }
 
-        OperationContext context = this.contextBuilder.build();
+        OperationContext context = OperationContext.newBuilder(this.databaseManager)
+                                                   .future(future)
+                                                   .cancellation(cancellation)
+                                                   .replay(replay)
+                                                   .metrics(this.metrics)
+                                                   .build();
+
+        Timer.Context timerContext = this.metrics.getTimer(opCode).time();
+
+        try {
+
+            return operation.perform(context, request);
 
-        return operation.perform(context, request);
+        } catch (IOException | HorizonDBException | RuntimeException e) {
+
+            this.metrics.getErrors(opCode).mark();
+            throw e;
+
+        } finally {
+
+            timerContext.stop();
+        }
     }
 
     /**
@@ -157,17 +206,39 @@ public class DefaultStorageEngine extends AbstractComponent implements StorageEn
     @Override
     public void replay(ReplayPosition replayPosition, ReadableBuffer bytes) throws IOException {
 
+        // A commit log entry can contain several messages if they have been written as a batch. As for the batches
+        // received from the clients, either all the messages are applied or none of them.
+        List<Msg<?>> requests = new ArrayList<>();
+
+        while (bytes.isReadable()) {
+            requests.add(Msg.parseFrom(bytes));
+        }
+
         try {
-        
-            Msg<?> request = Msg.parseFrom(bytes);
 
-            this.contextBuilder.replay(true);
+            for (int i = 0, m = requests.size(); i < m; i++) {
+                validate(requests.get(i));
+            }
 
-            execute(request, Futures.immediateFuture(replayPosition));
-        
         } catch (HorizonDBException e) {
-            
-            this.logger.warn("The following exception has occured during commit log replay: ", e);
+
+            this.logger.warn("The commit log entry at position " + replayPosition 
+                             + " has been skipped as it cannot be applied: ", e);
+            return;
+        }
+
+        ListenableFuture<ReplayPosition> future = Futures.immediateFuture(replayPosition);
+
+        for (int i = 0, m = requests.size(); i < m; i++) {
+
+            try {
+
+                execute(requests.get(i), future, new Cancellation(), true);
+
+            } catch (HorizonDBException e) {
+
+                this.logger.warn("The following exception has occured during commit log replay: ", e);
+            }
         }
     }
 }
@@ -15,6 +15,7 @@
  */
 package io.horizondb.db;
 
+import io.horizondb.db.metrics.MetricsHttpServer;
 import io.horizondb.db.util.concurrent.LoggingUncaughtExceptionHandler;
 import io.horizondb.model.ErrorCodes;
 
@@ -24,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ScheduledReporter;
 import com.codahale.metrics.Slf4jReporter;
@@ -59,6 +61,16 @@ public final class HorizonDbDaemon {
      */
     private ScheduledReporter reporter;
 
+    /**
+     * The JMX reporter or <code>null</code> if the metrics are not exposed through JMX.
+     */
+    private JmxReporter jmxReporter;
+
+    /**
+     * The HTTP server serving the metrics or <code>null</code> if the metrics are not served over HTTP.
+     */
+    private MetricsHttpServer metricsHttpServer;
+
     /**
      * The daemon instance.
      */
@@ -93,7 +105,7 @@ public final class HorizonDbDaemon {
             Configuration configuration = loadConfiguration();
 
             startServer(configuration);
-            startMonitoring();
+            startMonitoring(configuration);
 
         } catch (Exception e) {
 
@@ -162,8 +174,12 @@ public final class HorizonDbDaemon {
 
     /**
      * Starts the monitoring of the database.
+     * 
+     * @param configuration the database configuration
+     * @throws InterruptedException if the thread has been interrupted
+     * @throws IOException if the HTTP server serving the metrics cannot be started
      */
-    private void startMonitoring() {
+    private void startMonitoring(Configuration configuration) throws InterruptedException, IOException {
 
         this.reporter = Slf4jReporter.forRegistry(this.registry)
                                      .outputTo(LoggerFactory.getLogger("io.horizondb.metrics"))
@@ -173,15 +189,42 @@ public final class HorizonDbDaemon {
 
         this.reporter.start(1, TimeUnit.MINUTES);
 
+        if (configuration.isJmxReporting()) {
+
+            this.jmxReporter = JmxReporter.forRegistry(this.registry)
+                                          .inDomain("io.horizondb")
+                                          .convertRatesTo(TimeUnit.SECONDS)
+                                          .convertDurationsTo(TimeUnit.MILLISECONDS)
+                                          .build();
+            this.jmxReporter.start();
+        }
+
+        if (configuration.getMetricsHttpPort() > 0) {
+
+            this.metricsHttpServer = new MetricsHttpServer(this.registry, configuration.getMetricsHttpPort());
+            this.metricsHttpServer.start();
+        }
+
         this.server.register(this.registry);
     }
 
     /**
      * Stop the monitoring of the database.
+     * 
+     * @throws InterruptedException if the thread has been interrupted
      */
-    private void stopMonitoring() {
+    private void stopMonitoring() throws InterruptedException {
 
         this.reporter.stop();
+
+        if (this.jmxReporter != null) {
+            this.jmxReporter.stop();
+        }
+
+        if (this.metricsHttpServer != null) {
+            this.metricsHttpServer.shutdown();
+        }
+
         this.server.unregister(this.registry);
     }
 
@@ -15,6 +15,9 @@
  */
 package io.horizondb.db;
 
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.metrics.PrefixFilter;
+import io.horizondb.db.operations.OperationExecutors;
 import io.horizondb.db.util.concurrent.NamedThreadFactory;
 import io.horizondb.model.protocol.MsgHeader;
 import io.netty.bootstrap.ServerBootstrap;
@@ -25,7 +28,6 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.EventExecutorGroup;
 
@@ -49,6 +51,16 @@ public class HorizonServer extends AbstractComponent {
      */
     private final DatabaseEngine engine;
 
+    /**
+     * The pools of threads executing the mutations, the queries and the administration operations.
+     */
+    private final OperationExecutors operationExecutors;
+
+    /**
+     * The latency and throughput metrics of the operations.
+     */
+    private final OperationMetrics operationMetrics = new OperationMetrics();
+
     private EventLoopGroup acceptGroup;
 
     private EventLoopGroup connectGroup;
@@ -60,7 +72,10 @@ public class HorizonServer extends AbstractComponent {
         notNull(configuration, "the configuration parameter must not be null.");
 
         this.configuration = configuration;
-        this.engine = new HqlConverter(configuration, new DefaultDatabaseEngine(configuration));
+        this.engine = new HqlConverter(configuration, 
+                                       new DefaultDatabaseEngine(configuration, this.operationMetrics),
+                                       this.operationMetrics);
+        this.operationExecutors = new OperationExecutors(configuration);
     }
 
     /**
@@ -68,7 +83,8 @@ public class HorizonServer extends AbstractComponent {
      */
     @Override
     public void register(MetricRegistry registry) {
-        this.engine.register(registry);
+        registry.registerAll(this.operationMetrics);
+        register(registry, this.engine, this.operationExecutors);
     }
 
     /**
@@ -76,7 +92,8 @@ public class HorizonServer extends AbstractComponent {
      */
     @Override
     public void unregister(MetricRegistry registry) {
-        this.engine.unregister(registry);
+        unregister(registry, this.operationExecutors, this.engine);
+        registry.removeMatching(new PrefixFilter(OperationMetrics.NAME + "."));
     }
 
     /**
@@ -87,7 +104,7 @@ public class HorizonServer extends AbstractComponent {
     @Override
     protected void doStart() throws IOException, InterruptedException {
 
-        this.engine.start();
+        start(this.engine, this.operationExecutors);
 
         ThreadFactory acceptFactory = new NamedThreadFactory("accept");
         ThreadFactory connectFactory = new NamedThreadFactory("connect");
@@ -119,8 +136,9 @@ public class HorizonServer extends AbstractComponent {
                                                                 0,
                                                                 true))
                       .addLast("encoder", new MsgToByteEncoder())
-                      .addLast(HorizonServer.this.executor, "chunkedWriter", new ChunkedWriteHandler())
-                      .addLast(HorizonServer.this.executor, new HorizonServerHandler(HorizonServer.this.engine));
+                      .addLast(HorizonServer.this.executor, new HorizonServerHandler(HorizonServer.this.configuration, 
+                                                                                     HorizonServer.this.engine,
+                                                                                     HorizonServer.this.operationExecutors));
                 }
             });
 
@@ -137,6 +155,6 @@ public class HorizonServer extends AbstractComponent {
         this.executor.shutdownGracefully();
         this.connectGroup.shutdownGracefully();
 
-        this.engine.shutdown();
+        shutdown(this.operationExecutors, this.engine);
     }
 }
@@ -16,13 +16,22 @@
 package io.horizondb.db;
 
 import io.horizondb.io.Buffer;
+import io.horizondb.db.operations.ConnectionExecutor;
+import io.horizondb.db.operations.OperationExecutors;
+import io.horizondb.db.operations.Operations;
+import io.horizondb.db.parser.PreparedStatements;
 import io.horizondb.io.buffers.Buffers;
 import io.horizondb.model.ErrorCodes;
 import io.horizondb.model.protocol.Msg;
 import io.horizondb.model.protocol.Msgs;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.stream.ChunkedInput;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,48 +45,205 @@ class HorizonServerHandler extends ChannelInboundHandlerAdapter {
      */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /**
+     * The database configuration.
+     */
+    private final Configuration configuration;
+
     /**
      * The database engine.
      */
     private final DatabaseEngine engine;
 
-    public HorizonServerHandler(DatabaseEngine engine) {
+    /**
+     * The executor running the requests of the connection in order, on the pool associated to their type.
+     */
+    private final ConnectionExecutor executor;
+
+    /**
+     * The signal used to cancel the queries of the connection.
+     */
+    private final Cancellation connectionCancellation = new Cancellation();
+
+    /**
+     * The statements prepared on the connection.
+     */
+    private final PreparedStatements preparedStatements;
 
+    public HorizonServerHandler(Configuration configuration, DatabaseEngine engine, OperationExecutors executors) {
+
+        notNull(configuration, "the configuration parameter must not be null.");
         notNull(engine, "the engine parameter must not be null.");
+        notNull(executors, "the executors parameter must not be null.");
 
+        this.configuration = configuration;
         this.engine = engine;
+        this.executor = executors.newConnectionExecutor();
+        this.preparedStatements = new PreparedStatements(configuration.getPreparedStatementCacheMaximumSize());
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        
-        Buffer buffer = Buffers.wrap((ByteBuf) msg);
+    public void channelRead(final ChannelHandlerContext ctx, Object msg) throws Exception {
         
-        Msg<?> request = Msg.parseFrom(buffer);
+        final Buffer buffer = Buffers.wrap((ByteBuf) msg);
         
-        Object response = this.engine.execute(request, buffer);
+        final Msg<?> request = Msg.parseFrom(buffer);
         
+        final Cancellation cancellation = 
+                this.connectionCancellation.newQueryCancellation(this.configuration.getQueryTimeoutInMillis());
+
+        // The requests of the connection are executed one after the other, so a CANCEL must stop the previous 
+        // queries as soon as it is received rather than once they have completed.
+        if (Operations.isCancel(request)) {
+            cancellation.cancelPreviousQueries();
+        }
+
+        Runnable rejectionHandler = new Runnable() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void run() {
+                reject(ctx.channel(), request);
+            }
+        };
+
+        try {
+
+            this.executor.execute(request, new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run() {
+                    write(ctx, HorizonServerHandler.this.engine.execute(request, 
+                                                                        buffer, 
+                                                                        cancellation, 
+                                                                        HorizonServerHandler.this.preparedStatements));
+                }
+            }, rejectionHandler);
+
+        } catch (RejectedExecutionException e) {
+
+            rejectionHandler.run();
+        }
+    }
+
+    /**
+     * Notifies the client that the specified request has been rejected as the server is overloaded.
+     * 
+     * @param channel the channel
+     * @param request the rejected request
+     */
+    private void reject(Channel channel, Msg<?> request) {
+
+        this.logger.warn("The request with operation code {} has been rejected as the server is overloaded.", 
+                         request.getOpCode());
+
+        channel.writeAndFlush(Msgs.newErrorMsg(request.getHeader(), 
+                                               ErrorCodes.INTERNAL_ERROR, 
+                                               "The server is overloaded, the request has been rejected."));
+    }
+
+    /**
+     * Writes the specified response to the channel of the specified context.
+     * 
+     * @param ctx the channel handler context
+     * @param response the response
+     */
+    private void write(ChannelHandlerContext ctx, Object response) {
+
         if (response instanceof Iterable) {
          
             for (Object chunk : (Iterable<?>) response) {
-                ctx.channel().writeAndFlush(chunk);
+                write(ctx, chunk);
             }
             
+        } else if (response instanceof ChunkedInput) {
+
+            stream(ctx, (ChunkedInput<?>) response);
+
         } else {
             ctx.channel().writeAndFlush(response);
         }    
     }
 
+    /**
+     * Streams the specified chunked response from the calling thread, so that the records are read and encoded by
+     * the pool executing the request rather than by the threads shared by all the connections. A chunk is only 
+     * read once the previous one has been written, as the chunks can reuse the same buffer.
+     * 
+     * @param ctx the channel handler context
+     * @param input the chunked response
+     */
+    private void stream(ChannelHandlerContext ctx, ChunkedInput<?> input) {
+
+        Channel channel = ctx.channel();
+
+        try {
+
+            while (channel.isActive() && !input.isEndOfInput()) {
+
+                Object chunk = input.readChunk(ctx);
+
+                if (chunk == null) {
+                    break;
+                }
+
+                channel.writeAndFlush(chunk).sync();
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            this.logger.debug("The streaming of a response has been interrupted.");
+
+        } catch (Exception e) {
+
+            exceptionCaught(ctx, e);
+
+        } finally {
+
+            try {
+
+                input.close();
+
+            } catch (Exception e) {
+
+                this.logger.warn("The chunked response could not be closed.", e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+
+        this.connectionCancellation.cancel();
+        super.channelInactive(ctx);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
 
-        this.logger.error("Unexpected exception from downstream.", cause);
+        if (cause instanceof InterruptedIOException) {
+
+            this.logger.debug(cause.getMessage());
+
+        } else {
+
+            this.logger.error("Unexpected exception from downstream.", cause);
+        }
 
         if (ctx.channel().isActive()) {
 
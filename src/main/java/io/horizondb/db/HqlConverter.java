@@ -14,17 +14,31 @@
 package io.horizondb.db;
 
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.operations.ChunkedRecordSet;
+import io.horizondb.db.operations.Operations;
+import io.horizondb.db.parser.PreparedStatements;
+import io.horizondb.db.parser.QueryCache;
 import io.horizondb.db.parser.QueryParser;
+import io.horizondb.db.parser.SchemaVersions;
+import io.horizondb.db.parser.StatementKey;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.model.ErrorCodes;
+import io.horizondb.model.protocol.CreateTimeSeriesPayload;
+import io.horizondb.model.protocol.DropDatabasePayload;
+import io.horizondb.model.protocol.DropTimeSeriesPayload;
 import io.horizondb.model.protocol.HqlQueryPayload;
 import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
 import io.horizondb.model.protocol.Msgs;
 import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.protocol.SelectPayload;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 
 /**
  * Decorator that convert HQL query messages in low-level messages. 
@@ -40,11 +54,28 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
      * The database engine.
      */
     private final DatabaseEngine databaseEngine;
+    
+    /**
+     * The versions of the time series schemas, used to detect the prepared statements that have become stale.
+     */
+    private final SchemaVersions schemaVersions = new SchemaVersions();
+    
+    /**
+     * The cache holding the parsed select queries.
+     */
+    private final QueryCache queryCache;
+
+    /**
+     * The metrics in which the parsing and the queries record their latency.
+     */
+    private final OperationMetrics metrics;
 
-    public HqlConverter(Configuration configuration, DatabaseEngine databaseEngine) {
+    public HqlConverter(Configuration configuration, DatabaseEngine databaseEngine, OperationMetrics metrics) {
 
         this.configuration = configuration;
         this.databaseEngine = databaseEngine;
+        this.metrics = metrics;
+        this.queryCache = new QueryCache(configuration);
     }
 
     /**
@@ -53,7 +84,7 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
     @Override
     public void register(MetricRegistry registry) {
 
-        this.databaseEngine.register(registry);
+        register(registry, this.databaseEngine, this.queryCache);
     }
 
     /**
@@ -62,7 +93,7 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
     @Override
     public void unregister(MetricRegistry registry) {
 
-        this.databaseEngine.unregister(registry);
+        unregister(registry, this.queryCache, this.databaseEngine);
     }
 
     /**
@@ -71,7 +102,7 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
     @Override
     protected void doStart() throws IOException, InterruptedException {
 
-        this.databaseEngine.start();
+        start(this.databaseEngine, this.queryCache);
     }
 
     /**
@@ -80,7 +111,7 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
     @Override
     protected void doShutdown() throws InterruptedException {
 
-        this.databaseEngine.shutdown();
+        shutdown(this.queryCache, this.databaseEngine);
     }
 
     /**
@@ -95,7 +126,37 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
      * {@inheritDoc}
      */
     @Override
-    public Object execute(Msg<?> request, ReadableBuffer buffer) {
+    public Object execute(Msg<?> request, 
+                          ReadableBuffer buffer, 
+                          Cancellation cancellation, 
+                          PreparedStatements preparedStatements) {
+
+        Object response = doExecute(request, buffer, cancellation, preparedStatements);
+
+        QueryTrace trace = cancellation.getTrace();
+
+        if (trace != null && !(response instanceof ChunkedRecordSet)) {
+            trace.complete();
+        }
+
+        return response;
+    }
+
+    /**
+     * Executes the specified request. The request is traced once it has been parsed, if it is a select.
+     * 
+     * @param request the request to execute
+     * @param buffer the request in its binary form or <code>null</code>
+     * @param cancellation the signal used to stop the request if it is cancelled or exceeds its timeout
+     * @param preparedStatements the statements prepared on the connection or <code>null</code>
+     * @return the response
+     */
+    private Object doExecute(Msg<?> request, 
+                             ReadableBuffer buffer, 
+                             Cancellation cancellation, 
+                             PreparedStatements preparedStatements) {
+
+        long startTimeInNanos = System.nanoTime();
 
         try {
 
@@ -106,14 +167,31 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
             if (opCode.isHql()) {
                 
                 @SuppressWarnings("unchecked")
-                Msg<?> msg = QueryParser.parse(this.configuration, 
-                                               this.databaseEngine.getDatabaseManager(),
-                                               (Msg<HqlQueryPayload>) request);
+                Msg<HqlQueryPayload> hqlRequest = (Msg<HqlQueryPayload>) request;
+                
+                Object statement = parse(hqlRequest, preparedStatements);
+
+                startTrace(statement, hqlRequest.getPayload().getQuery(), cancellation, startTimeInNanos);
 
-                return this.databaseEngine.execute(msg, null);
+                if (statement instanceof Query) {
+                    
+                    return execute((Query) statement, hqlRequest, cancellation);
+                }
+                
+                if (statement instanceof List) {
+                    
+                    @SuppressWarnings("unchecked")
+                    List<Msg<?>> batch = (List<Msg<?>>) statement;
+                    
+                    return executeBatch(hqlRequest.getHeader(), batch, cancellation);
+                }
+                
+                return execute((Msg<?>) statement, cancellation, preparedStatements);
             } 
 
-            return this.databaseEngine.execute(request, buffer);
+            startTrace(request, null, cancellation, startTimeInNanos);
+
+            return execute(request, buffer, opCode, cancellation, preparedStatements);
 
         } catch (HorizonDBException e) {
             
@@ -126,4 +204,257 @@ public class HqlConverter extends AbstractComponent implements DatabaseEngine {
             return Msgs.newErrorMsg(ErrorCodes.INTERNAL_ERROR, e.getMessage());
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object executeBatch(MsgHeader requestHeader, List<Msg<?>> batch, Cancellation cancellation) {
+        
+        return this.databaseEngine.executeBatch(requestHeader, batch, cancellation);
+    }
+
+    /**
+     * Starts the trace of the specified parsed statement if the slow query log is enabled and the statement is a 
+     * select, whether it comes from an HQL <code>SELECT</code>, <code>EXPLAIN</code> or <code>PROFILE</code> query 
+     * or from a binary <code>SELECT</code> message. The streamed results complete the trace once they have been 
+     * sent, the other responses as soon as they are returned.
+     * 
+     * @param statement the parsed statement
+     * @param query the HQL text of the statement or <code>null</code> if the statement is a binary message
+     * @param cancellation the signal used to stop the request, which carries its trace
+     * @param startTimeInNanos the time in nanoseconds at which the request has been received
+     */
+    private void startTrace(Object statement, String query, Cancellation cancellation, long startTimeInNanos) {
+
+        long thresholdInMillis = this.configuration.getSlowQueryThresholdInMillis();
+
+        if (thresholdInMillis == 0 || !isSelect(statement)) {
+            return;
+        }
+
+        String text = query == null ? toQuery((SelectPayload) ((Msg<?>) statement).getPayload()) : query;
+
+        cancellation.setTrace(new QueryTrace(text, thresholdInMillis, startTimeInNanos));
+    }
+
+    /**
+     * Checks if the specified parsed statement is a select.
+     * 
+     * @param statement the parsed statement
+     * @return <code>true</code> if the specified statement is a select
+     */
+    private static boolean isSelect(Object statement) {
+
+        if (statement instanceof Query) {
+
+            QueryType type = ((Query) statement).getType();
+            return type != QueryType.CANCEL && type != QueryType.PREPARE;
+        }
+
+        return statement instanceof Msg && ((Msg<?>) statement).getOpCode() == OpCode.SELECT;
+    }
+
+    /**
+     * Returns the description of the select requested by the specified binary payload.
+     * 
+     * @param payload the select payload
+     * @return the description of the select
+     */
+    private static String toQuery(SelectPayload payload) {
+
+        return "SELECT FROM " + payload.getDatabaseName() + "." + payload.getSeriesName() + " WHERE " 
+                + payload.getPredicate();
+    }
+
+    /**
+     * Parses the specified HQL request. The select queries are looked up first within the query cache.
+     * <p>
+     * The cached queries are keyed by the generation of the schemas read before the parsing. Once a schema change
+     * has been applied the queries cached under the previous generations are never returned anymore, and they are 
+     * evicted as the cache fills up. A query parsed concurrently to a schema change is also cached under an older 
+     * generation.
+     * </p>
+     * 
+     * @param request the HQL request
+     * @param preparedStatements the statements prepared on the connection or <code>null</code>
+     * @return the low level message or the <code>Query</code> corresponding to the request.
+     * @throws IOException if an I/O problem occurs while parsing the request
+     * @throws HorizonDBException if the request is invalid
+     */
+    private Object parse(Msg<HqlQueryPayload> request, PreparedStatements preparedStatements) 
+            throws IOException, HorizonDBException {
+        
+        HqlQueryPayload payload = request.getPayload();
+
+        if (!Operations.startsWithKeyword(payload.getQuery(), "SELECT")) {
+            return doParse(request, preparedStatements);
+        }
+
+        StatementKey key = new StatementKey(payload.getDatabaseName(), 
+                                            payload.getQuery(), 
+                                            this.schemaVersions.getGeneration());
+        
+        SelectPayload selectPayload = this.queryCache.getIfPresent(key);
+        
+        if (selectPayload != null) {
+            
+            return Msg.newRequestMsg(request.getHeader(), OpCode.SELECT, selectPayload);
+        }
+        
+        Object statement = doParse(request, preparedStatements);
+        
+        if (statement instanceof Msg && ((Msg<?>) statement).getOpCode() == OpCode.SELECT) {
+            
+            this.queryCache.put(key, (SelectPayload) ((Msg<?>) statement).getPayload());
+        }
+        
+        return statement;
+    }
+
+    /**
+     * Parses the specified HQL request without looking it up within the query cache.
+     * 
+     * @param request the HQL request
+     * @param preparedStatements the statements prepared on the connection or <code>null</code>
+     * @return the low level message or the <code>Query</code> corresponding to the request.
+     * @throws IOException if an I/O problem occurs while parsing the request
+     * @throws HorizonDBException if the request is invalid
+     */
+    private Object doParse(Msg<HqlQueryPayload> request, PreparedStatements preparedStatements) 
+            throws IOException, HorizonDBException {
+
+        Timer.Context timerContext = this.metrics.getHqlParseTimer().time();
+
+        try {
+
+            return QueryParser.parse(this.configuration, 
+                                     this.databaseEngine.getDatabaseManager(),
+                                     this.schemaVersions,
+                                     preparedStatements,
+                                     request);
+        } finally {
+
+            timerContext.stop();
+        }
+    }
+
+    /**
+     * Executes the specified query.
+     * 
+     * @param query the query to execute
+     * @param request the HQL request from which the query comes from
+     * @param cancellation the signal used to stop the query if it is cancelled or exceeds its timeout
+     * @return the query response
+     * @throws IOException if an I/O problem occurs while executing the query
+     * @throws HorizonDBException if a problem occurs while executing the query
+     */
+    private Object execute(Query query, 
+                           Msg<HqlQueryPayload> request, 
+                           Cancellation cancellation) throws IOException, HorizonDBException {
+        
+        OperationContext context = OperationContext.newBuilder(this.databaseEngine.getDatabaseManager())
+                                                   .cancellation(cancellation)
+                                                   .metrics(this.metrics)
+                                                   .build();
+        
+        QueryType type = query.getType();
+        Timer.Context timerContext = this.metrics.getTimer(type).time();
+
+        try {
+
+            return query.execute(new QueryContext(context, 
+                                                  request.getHeader(), 
+                                                  request.getPayload().getDatabaseName()));
+
+        } catch (IOException | HorizonDBException | RuntimeException e) {
+
+            this.metrics.getErrors(type).mark();
+            throw e;
+
+        } finally {
+
+            timerContext.stop();
+        }
+    }
+    
+    /**
+     * Executes the specified low level message resulting from the parsing of an HQL query.
+     * 
+     * @param msg the low level message
+     * @param cancellation the signal used to stop the operation if it is cancelled or exceeds its timeout
+     * @param preparedStatements the statements prepared on the connection or <code>null</code>
+     * @return the message response
+     */
+    private Object execute(Msg<?> msg, Cancellation cancellation, PreparedStatements preparedStatements) {
+        
+        return execute(msg, null, msg.getOpCode(), cancellation, preparedStatements);
+    }
+    
+    /**
+     * Executes the specified low level message and changes the schema versions, which invalidates the prepared 
+     * statements targeting the modified time series and the cached queries, if the message has modified the schema.
+     * 
+     * @param msg the low level message
+     * @param buffer the message in its binary form or <code>null</code> 
+     * @param opCode the message operation code
+     * @param cancellation the signal used to stop the operation if it is cancelled or exceeds its timeout
+     * @param preparedStatements the statements prepared on the connection or <code>null</code>
+     * @return the message response
+     */
+    private Object execute(Msg<?> msg, 
+                           ReadableBuffer buffer, 
+                           OpCode opCode, 
+                           Cancellation cancellation, 
+                           PreparedStatements preparedStatements) {
+        
+        Object response = this.databaseEngine.execute(msg, buffer, cancellation, preparedStatements);
+        
+        if (isSchemaChange(opCode)) {
+            updateSchemaVersions(msg);
+        }
+        
+        return response;
+    }
+
+    /**
+     * Changes the version of the time series or of the database modified by the specified message. The version is 
+     * changed once the message has been executed, so that the statements resolved concurrently are also considered 
+     * as stale.
+     * 
+     * @param msg the message that has modified the schema
+     */
+    private void updateSchemaVersions(Msg<?> msg) {
+
+        Object payload = msg.getPayload();
+
+        if (payload instanceof CreateTimeSeriesPayload) {
+
+            CreateTimeSeriesPayload createTimeSeries = (CreateTimeSeriesPayload) payload;
+            this.schemaVersions.timeSeriesChanged(createTimeSeries.getDatabaseName(), 
+                                                  createTimeSeries.getDefinition().getName());
+
+        } else if (payload instanceof DropTimeSeriesPayload) {
+
+            DropTimeSeriesPayload dropTimeSeries = (DropTimeSeriesPayload) payload;
+            this.schemaVersions.timeSeriesChanged(dropTimeSeries.getDatabase(), dropTimeSeries.getTimeSeries());
+
+        } else if (payload instanceof DropDatabasePayload) {
+
+            this.schemaVersions.databaseChanged(((DropDatabasePayload) payload).getDatabase());
+        }
+    }
+    
+    /**
+     * Returns <code>true</code> if the operation with the specified code modifies the schema.
+     * 
+     * @param opCode the operation code
+     * @return <code>true</code> if the operation with the specified code modifies the schema.
+     */
+    private static boolean isSchemaChange(OpCode opCode) {
+        
+        return opCode == OpCode.CREATE_TIMESERIES 
+                || opCode == OpCode.DROP_TIMESERIES 
+                || opCode == OpCode.DROP_DATABASE;
+    }
 }
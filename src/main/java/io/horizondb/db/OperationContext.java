@@ -17,6 +17,7 @@ package io.horizondb.db;
 
 import io.horizondb.db.commitlog.ReplayPosition;
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -28,6 +29,11 @@ import com.google.common.util.concurrent.ListenableFuture;
  */
 public final class OperationContext {
 
+    /**
+     * The metrics shared by the operations built without metrics. Those metrics are not registered.
+     */
+    private static final OperationMetrics UNREGISTERED_METRICS = new OperationMetrics();
+
     /**
      * The database manager.
      */
@@ -43,6 +49,16 @@ public final class OperationContext {
      */
     private final ListenableFuture<ReplayPosition> future;
 
+    /**
+     * The signal used to stop the operation if it is cancelled or exceeds its timeout.
+     */
+    private final Cancellation cancellation;
+
+    /**
+     * The metrics in which the operation records its latency and the one of its stages.
+     */
+    private final OperationMetrics metrics;
+
     /**
      * Returns the database manager.
      * 
@@ -70,6 +86,24 @@ public final class OperationContext {
         return this.future;
     }
 
+    /**
+     * Returns the signal used to stop the operation if it is cancelled or exceeds its timeout.
+     * 
+     * @return the signal used to stop the operation if it is cancelled or exceeds its timeout.
+     */
+    public Cancellation getCancellation() {
+        return this.cancellation;
+    }
+
+    /**
+     * Returns the metrics in which the operation records its latency and the one of its stages.
+     * 
+     * @return the metrics in which the operation records its latency and the one of its stages.
+     */
+    public OperationMetrics getMetrics() {
+        return this.metrics;
+    }
+
     /**
      * Creates a new <code>Builder</code> for the <code>OperationContext</code>s.
      * 
@@ -91,6 +125,8 @@ public final class OperationContext {
         this.databaseManager = builder.databaseManager;
         this.replay = builder.replay;
         this.future = builder.future;
+        this.cancellation = builder.cancellation;
+        this.metrics = builder.metrics;
     }
 
     /**
@@ -113,6 +149,17 @@ public final class OperationContext {
          */
         private boolean replay;
 
+        /**
+         * The signal used to stop the operation if it is cancelled or exceeds its timeout.
+         */
+        private Cancellation cancellation = new Cancellation();
+
+        /**
+         * The metrics in which the operation records its latency. By default, the operation records it in shared 
+         * metrics that are not registered.
+         */
+        private OperationMetrics metrics = UNREGISTERED_METRICS;
+
         /**
          * Creates a new <code>Builder</code> with the specified database manager.
          * 
@@ -135,6 +182,18 @@ public final class OperationContext {
             return this;
         }
 
+        public Builder cancellation(Cancellation cancellation) {
+
+            this.cancellation = cancellation;
+            return this;
+        }
+
+        public Builder metrics(OperationMetrics metrics) {
+
+            this.metrics = metrics;
+            return this;
+        }
+
         public OperationContext build() {
 
             return new OperationContext(this);
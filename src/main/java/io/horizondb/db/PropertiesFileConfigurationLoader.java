@@ -144,6 +144,11 @@ final class PropertiesFileConfigurationLoader implements ConfigurationLoader {
                 return Long.parseLong(value);
             }
 
+            if (boolean.class.equals(type)) {
+
+                return Boolean.parseBoolean(value);
+            }
+
             if (Path.class.equals(type)) {
 
                 return FileSystems.getDefault().getPath(value);
@@ -33,4 +33,11 @@ public interface Query {
      * @throws IOException if an I/O problem occurs while performing the operation
      */
     Object execute(QueryContext context) throws IOException, HorizonDBException;
+
+    /**
+     * Returns the type of this query.
+     * 
+     * @return the type of this query.
+     */
+    QueryType getType();
 }
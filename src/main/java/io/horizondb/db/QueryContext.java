@@ -14,6 +14,7 @@
 package io.horizondb.db;
 
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.model.protocol.MsgHeader;
 
 /**
@@ -74,6 +75,24 @@ public final class QueryContext {
         return this.operationContext.isReplay();
     }
 
+    /**
+     * Returns the signal used to stop the query if it is cancelled or exceeds its timeout.
+     * 
+     * @return the signal used to stop the query if it is cancelled or exceeds its timeout.
+     */
+    public Cancellation getCancellation() {
+        return this.operationContext.getCancellation();
+    }
+
+    /**
+     * Returns the metrics in which the query records its latency and the one of its stages.
+     * 
+     * @return the metrics in which the query records its latency and the one of its stages.
+     */
+    public OperationMetrics getMetrics() {
+        return this.operationContext.getMetrics();
+    }
+
     /**
      * Returns the header of the request message.
      * 
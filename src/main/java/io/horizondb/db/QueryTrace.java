@@ -0,0 +1,439 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execution breakdown of a query, written to the slow query log if the query took longer than the threshold.
+ * <p>
+ * The trace is attached to the <code>Cancellation</code> of the query, which is passed down to all the readers.
+ * The partitions can be read concurrently by the read-ahead threads, so the stage times are the sum of the times
+ * spent by all the threads and can exceed the elapsed time of the query.
+ * </p>
+ * <p>
+ * The trace of a <code>PROFILE</code> statement is returned to the client as a <code>profile</code> record instead,
+ * with the times in nanoseconds.
+ * </p>
+ */
+@ThreadSafe
+public final class QueryTrace {
+
+    /**
+     * The logger of the slow queries.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger("io.horizondb.slowqueries");
+
+    /**
+     * The threshold of the traces that must never be written to the slow query log.
+     */
+    public static final long NEVER_LOGGED = Long.MAX_VALUE;
+
+    /**
+     * The name of the record type returned by the <code>PROFILE</code> statements.
+     */
+    public static final String PROFILE_RECORD_TYPE_NAME = "profile";
+
+    /**
+     * The stages of the read pipeline.
+     */
+    public static enum Stage {
+
+        /**
+         * The iteration over the partition B+Tree and the loading of the partitions.
+         */
+        PARTITION_LOOKUP("partitionLookup"),
+
+        /**
+         * The lookup of the blocks to read and the opening of the partition files.
+         */
+        FILE_OPEN("fileOpen"),
+
+        /**
+         * The read and the decompression of the blocks.
+         */
+        BLOCK_READ("blockRead"),
+
+        /**
+         * The decoding of the records from the blocks.
+         */
+        DECODING("decoding"),
+
+        /**
+         * The filtering of the decoded records.
+         */
+        FILTERING("filtering"),
+
+        /**
+         * The serialization of the returned records into data chunks.
+         */
+        ENCODING("encoding"),
+
+        /**
+         * The time waited, between two data chunks, for the client to consume the data already sent.
+         */
+        BACKPRESSURE("backpressure");
+
+        /**
+         * The name of the stage within the log.
+         */
+        private final String name;
+
+        /**
+         * Creates a new <code>Stage</code> with the specified name.
+         *
+         * @param name the name of the stage within the log
+         */
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+
+    /**
+     * The HQL text or the description of the query.
+     */
+    private final String query;
+
+    /**
+     * The time in nanoseconds above which the query is written to the log.
+     */
+    private final long thresholdInNanos;
+
+    /**
+     * The time in nanoseconds at which the query has started.
+     */
+    private final long startTimeInNanos;
+
+    /**
+     * The time in nanoseconds spent in each stage.
+     */
+    private final AtomicLongArray stageTimes = new AtomicLongArray(Stage.values().length);
+
+    /**
+     * The number of partitions visited.
+     */
+    private final AtomicLong partitions = new AtomicLong();
+
+    /**
+     * The number of blocks visited.
+     */
+    private final AtomicLong blocks = new AtomicLong();
+
+    /**
+     * The number of bytes of blocks read.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /**
+     * The number of records decoded.
+     */
+    private final AtomicLong decodedRecords = new AtomicLong();
+
+    /**
+     * The number of records returned to the client.
+     */
+    private final AtomicLong returnedRecords = new AtomicLong();
+
+    /**
+     * The number of bytes returned to the client.
+     */
+    private final AtomicLong returnedBytes = new AtomicLong();
+
+    /**
+     * <code>true</code> once the query has completed.
+     */
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    /**
+     * Creates a new <code>QueryTrace</code> for the specified query.
+     *
+     * @param query the HQL text or the description of the query
+     * @param thresholdInMillis the time in milliseconds above which the query must be written to the log
+     */
+    public QueryTrace(String query, long thresholdInMillis) {
+
+        this(query, thresholdInMillis, System.nanoTime());
+    }
+
+    /**
+     * Creates a new <code>QueryTrace</code> for the specified query that has started at the specified time.
+     *
+     * @param query the HQL text or the description of the query
+     * @param thresholdInMillis the time in milliseconds above which the query must be written to the log
+     * @param startTimeInNanos the time in nanoseconds at which the query has started
+     */
+    public QueryTrace(String query, long thresholdInMillis, long startTimeInNanos) {
+
+        this.query = query;
+        this.thresholdInNanos = TimeUnit.MILLISECONDS.toNanos(thresholdInMillis);
+        this.startTimeInNanos = startTimeInNanos;
+    }
+
+    /**
+     * Adds the specified time to the time spent in the specified stage.
+     *
+     * @param stage the stage
+     * @param timeInNanos the time in nanoseconds
+     */
+    public void addTime(Stage stage, long timeInNanos) {
+        this.stageTimes.addAndGet(stage.ordinal(), timeInNanos);
+    }
+
+    /**
+     * Records that a partition has been visited.
+     */
+    public void addPartition() {
+        this.partitions.incrementAndGet();
+    }
+
+    /**
+     * Records that the specified blocks have been visited.
+     *
+     * @param numberOfBlocks the number of blocks visited
+     * @param numberOfBytes the number of bytes of the blocks
+     */
+    public void addBlocks(long numberOfBlocks, long numberOfBytes) {
+        this.blocks.addAndGet(numberOfBlocks);
+        this.bytesRead.addAndGet(numberOfBytes);
+    }
+
+    /**
+     * Records that the specified number of records have been decoded.
+     *
+     * @param numberOfRecords the number of records decoded
+     */
+    public void addDecodedRecords(long numberOfRecords) {
+        this.decodedRecords.addAndGet(numberOfRecords);
+    }
+
+    /**
+     * Records that the specified records have been returned to the client.
+     *
+     * @param numberOfRecords the number of records returned
+     * @param numberOfBytes the number of bytes returned
+     */
+    public void addReturnedRecords(long numberOfRecords, long numberOfBytes) {
+        this.returnedRecords.addAndGet(numberOfRecords);
+        this.returnedBytes.addAndGet(numberOfBytes);
+    }
+
+    /**
+     * Returns the time in nanoseconds spent in the specified stage.
+     *
+     * @param stage the stage
+     * @return the time in nanoseconds spent in the specified stage
+     */
+    public long getTime(Stage stage) {
+        return this.stageTimes.get(stage.ordinal());
+    }
+
+    /**
+     * Returns the number of partitions visited.
+     *
+     * @return the number of partitions visited
+     */
+    public long getPartitions() {
+        return this.partitions.get();
+    }
+
+    /**
+     * Returns the number of blocks visited.
+     *
+     * @return the number of blocks visited
+     */
+    public long getBlocks() {
+        return this.blocks.get();
+    }
+
+    /**
+     * Returns the number of bytes of blocks read.
+     *
+     * @return the number of bytes of blocks read
+     */
+    public long getBytesRead() {
+        return this.bytesRead.get();
+    }
+
+    /**
+     * Returns the number of records decoded.
+     *
+     * @return the number of records decoded
+     */
+    public long getDecodedRecords() {
+        return this.decodedRecords.get();
+    }
+
+    /**
+     * Returns the number of records returned to the client.
+     *
+     * @return the number of records returned to the client
+     */
+    public long getReturnedRecords() {
+        return this.returnedRecords.get();
+    }
+
+    /**
+     * Returns the number of bytes returned to the client.
+     *
+     * @return the number of bytes returned to the client
+     */
+    public long getReturnedBytes() {
+        return this.returnedBytes.get();
+    }
+
+    /**
+     * Returns the time in nanoseconds elapsed since the query has started.
+     *
+     * @return the time in nanoseconds elapsed since the query has started
+     */
+    public long getElapsedTimeInNanos() {
+        return System.nanoTime() - this.startTimeInNanos;
+    }
+
+    /**
+     * Returns the definition of the records returned by the <code>PROFILE</code> statements.
+     *
+     * @param seriesDefinition the definition of the time series being profiled
+     * @return the definition of the profile records
+     */
+    public static TimeSeriesDefinition newProfileDefinition(TimeSeriesDefinition seriesDefinition) {
+
+        RecordTypeDefinition.Builder recordType = RecordTypeDefinition.newBuilder(PROFILE_RECORD_TYPE_NAME)
+                                                                      .addField("elapsedNanos", FieldType.LONG)
+                                                                      .addField("partitions", FieldType.LONG)
+                                                                      .addField("blocks", FieldType.LONG)
+                                                                      .addField("bytesRead", FieldType.LONG)
+                                                                      .addField("decodedRecords", FieldType.LONG)
+                                                                      .addField("returnedRecords", FieldType.LONG)
+                                                                      .addField("returnedBytes", FieldType.LONG);
+
+        for (Stage stage : Stage.values()) {
+            recordType.addField(stage + "Nanos", FieldType.LONG);
+        }
+
+        return TimeSeriesDefinition.newBuilder(seriesDefinition.getName())
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .timeZone(seriesDefinition.getTimeZone())
+                                   .addRecordType(recordType)
+                                   .build();
+    }
+
+    /**
+     * Returns the current breakdown of the query as a profile record.
+     *
+     * @param profileDefinition the definition of the profile records
+     * @return the profile record
+     */
+    public TimeSeriesRecord toProfileRecord(TimeSeriesDefinition profileDefinition) {
+
+        TimeSeriesRecord record = profileDefinition.newRecord(0);
+        record.setTimestampInNanos(0, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+        record.setLong(1, getElapsedTimeInNanos());
+        record.setLong(2, getPartitions());
+        record.setLong(3, getBlocks());
+        record.setLong(4, getBytesRead());
+        record.setLong(5, getDecodedRecords());
+        record.setLong(6, getReturnedRecords());
+        record.setLong(7, getReturnedBytes());
+
+        int index = 8;
+
+        for (Stage stage : Stage.values()) {
+            record.setLong(index++, getTime(stage));
+        }
+
+        return record;
+    }
+
+    /**
+     * Marks the query as completed and writes it to the slow query log if it took longer than the threshold.
+     * Only the first call has an effect.
+     *
+     * @return <code>true</code> if the query has been written to the log, <code>false</code> otherwise
+     */
+    public boolean complete() {
+
+        if (!this.completed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        long elapsedTimeInNanos = getElapsedTimeInNanos();
+
+        if (elapsedTimeInNanos < this.thresholdInNanos) {
+            return false;
+        }
+
+        LOGGER.warn("Slow query ({} ms): {}", toMillis(elapsedTimeInNanos), this);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder().append(this.query)
+                                                   .append(" [partitions: ")
+                                                   .append(getPartitions())
+                                                   .append(", blocks: ")
+                                                   .append(getBlocks())
+                                                   .append(", bytesRead: ")
+                                                   .append(getBytesRead())
+                                                   .append(", decodedRecords: ")
+                                                   .append(getDecodedRecords())
+                                                   .append(", returnedRecords: ")
+                                                   .append(getReturnedRecords())
+                                                   .append(", returnedBytes: ")
+                                                   .append(getReturnedBytes());
+
+        for (Stage stage : Stage.values()) {
+            builder.append(", ").append(stage).append(": ").append(toMillis(getTime(stage))).append(" ms");
+        }
+
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Converts the specified time from nanoseconds to milliseconds, keeping the sub-millisecond precision.
+     *
+     * @param timeInNanos the time in nanoseconds
+     * @return the time in milliseconds
+     */
+    private static String toMillis(long timeInNanos) {
+        return String.format(Locale.ENGLISH, "%.3f", Double.valueOf(timeInNanos / 1e6));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+/**
+ * The types of query, each type recording its latency and its errors under its own metrics.
+ */
+public enum QueryType {
+
+    /**
+     * The selects returning records.
+     */
+    SELECT,
+
+    /**
+     * The selects computing aggregates.
+     */
+    AGGREGATE,
+
+    /**
+     * The selects computing aggregates over the latest records only.
+     */
+    LAST,
+
+    /**
+     * The selects returning the plan of their read.
+     */
+    EXPLAIN,
+
+    /**
+     * The selects returning the profile of their execution.
+     */
+    PROFILE,
+
+    /**
+     * The cancellations of the previous queries of a connection.
+     */
+    CANCEL,
+
+    /**
+     * The preparations of statements.
+     */
+    PREPARE;
+}
@@ -41,11 +41,23 @@ public interface StorageEngine extends Component {
      *  
      * @param request the message
      * @param future the commit log future or <code>null</code> if the message was not a mutation.
+     * @param cancellation the signal used to stop the operation if it is cancelled or exceeds its timeout
      * @return the message response
      * @throws IOException if an I/O problem occurs
      * @throws HorizonDBException if a problem occurs while processing the request
      */
-    Object execute(Msg<?> request, ListenableFuture<ReplayPosition> future) throws IOException, HorizonDBException;
+    Object execute(Msg<?> request, 
+                   ListenableFuture<ReplayPosition> future, 
+                   Cancellation cancellation) throws IOException, HorizonDBException;
+
+    /**
+     * Checks, without applying it, that the mutation requested by the specified message can be applied.
+     *  
+     * @param request the message
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if the mutation cannot be applied
+     */
+    void validate(Msg<?> request) throws IOException, HorizonDBException;
 
     /**
      * Flush to the disk all the data that have not been persisted yet and that come from the 
@@ -58,10 +70,11 @@ public interface StorageEngine extends Component {
     ListenableFuture<Boolean> forceFlush(long id) throws InterruptedException;
 
     /**
-     * Replays the specified message. 
+     * Replays the specified commit log entry. The messages of an entry are either all replayed or, if one of them 
+     * cannot be applied, all skipped.
      * 
-     * @param replayPosition the replay position associated with the message
-     * @param buffer the message in its binary form
+     * @param replayPosition the replay position associated with the entry
+     * @param buffer the messages of the entry in their binary form
      * @throws IOException if an I/O problem occurs during the replay
      */
     void replay(ReplayPosition replayPosition, ReadableBuffer buffer) throws IOException;
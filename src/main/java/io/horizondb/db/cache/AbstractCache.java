@@ -126,6 +126,13 @@ public abstract class AbstractCache<K, V> extends AbstractComponent implements i
         this.cache.invalidate(key);
     }
 
+    /**
+     * Invalidates all the entries of the cache.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
     /**
      * Returns the cache statistics.
      * 
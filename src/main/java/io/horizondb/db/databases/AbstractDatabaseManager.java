@@ -192,10 +192,16 @@ abstract class AbstractDatabaseManager extends AbstractComponent implements Data
 
         String lowerCaseName = name.toLowerCase();
 
+        DatabaseDefinition definition = this.btree.get(lowerCaseName);
+
         if (!this.btree.deleteIfPresent(lowerCaseName) && throwExceptionIfDoesNotExist) {
 
             throw new HorizonDBException(ErrorCodes.UNKNOWN_DATABASE, "The database '" + name + "' does not exists.");
         }
+
+        if (definition != null) {
+            this.timeSeriesManager.getPartitionManager().getLatestRecordCache().removeAll(definition);
+        }
     }
 
     /**    
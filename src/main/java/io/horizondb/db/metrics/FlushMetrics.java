@@ -0,0 +1,193 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+
+/**
+ * The metrics of the flushes of the <code>MemTimeSeries</code> to the disk triggered by a given cause.
+ */
+public final class FlushMetrics implements MetricSet {
+
+    /**
+     * The prefix of the metric names.
+     */
+    private final String name;
+
+    /**
+     * The timer of the flushes.
+     */
+    private final Timer duration = new Timer();
+
+    /**
+     * The timer of the time spent by the flushes waiting in the queue of the flush executor.
+     */
+    private final Timer queueWait = new Timer();
+
+    /**
+     * The number of <code>MemTimeSeries</code> written per flush.
+     */
+    private final Histogram memTimeSeries = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * The number of blocks written per flush.
+     */
+    private final Histogram blocks = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * The number of bytes written per flush.
+     */
+    private final Histogram bytes = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * The total number of bytes of the blocks before compression.
+     */
+    private final Counter uncompressedBytes = new Counter();
+
+    /**
+     * The total number of bytes written to the disk.
+     */
+    private final Counter writtenBytes = new Counter();
+
+    /**
+     * Creates a new <code>FlushMetrics</code> whose metric names start with the specified prefix.
+     *
+     * @param name the prefix of the metric names
+     */
+    public FlushMetrics(String name) {
+
+        this.name = name;
+    }
+
+    /**
+     * Returns the timer of the flushes.
+     *
+     * @return the timer of the flushes.
+     */
+    public Timer getDurationTimer() {
+        return this.duration;
+    }
+
+    /**
+     * Returns the timer of the time spent by the flushes waiting in the queue of the flush executor.
+     *
+     * @return the timer of the time spent by the flushes waiting in the queue of the flush executor.
+     */
+    public Timer getQueueWaitTimer() {
+        return this.queueWait;
+    }
+
+    /**
+     * Returns the histogram of the number of <code>MemTimeSeries</code> written per flush.
+     *
+     * @return the histogram of the number of <code>MemTimeSeries</code> written per flush.
+     */
+    public Histogram getMemTimeSeries() {
+        return this.memTimeSeries;
+    }
+
+    /**
+     * Returns the histogram of the number of blocks written per flush.
+     *
+     * @return the histogram of the number of blocks written per flush.
+     */
+    public Histogram getBlocks() {
+        return this.blocks;
+    }
+
+    /**
+     * Returns the histogram of the number of bytes written per flush.
+     *
+     * @return the histogram of the number of bytes written per flush.
+     */
+    public Histogram getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the ratio between the size of the blocks before and after compression.
+     *
+     * @return the ratio between the size of the blocks before and after compression or zero if nothing has been
+     * written yet.
+     */
+    public double getCompressionRatio() {
+
+        long written = this.writtenBytes.getCount();
+
+        if (written == 0) {
+            return 0;
+        }
+
+        return (double) this.uncompressedBytes.getCount() / written;
+    }
+
+    /**
+     * Records the content written to the disk by a flush.
+     *
+     * @param numberOfMemTimeSeries the number of <code>MemTimeSeries</code> written
+     * @param numberOfBlocks the number of blocks written
+     * @param numberOfUncompressedBytes the size of the blocks before compression
+     * @param numberOfWrittenBytes the size of the blocks written to the disk
+     */
+    public void update(int numberOfMemTimeSeries,
+                       int numberOfBlocks,
+                       long numberOfUncompressedBytes,
+                       long numberOfWrittenBytes) {
+
+        this.memTimeSeries.update(numberOfMemTimeSeries);
+        this.blocks.update(numberOfBlocks);
+        this.bytes.update(numberOfWrittenBytes);
+        this.uncompressedBytes.inc(numberOfUncompressedBytes);
+        this.writtenBytes.inc(numberOfWrittenBytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Metric> getMetrics() {
+
+        Map<String, Metric> map = new HashMap<String, Metric>();
+
+        map.put(MetricRegistry.name(this.name, "duration"), this.duration);
+        map.put(MetricRegistry.name(this.name, "queueWait"), this.queueWait);
+        map.put(MetricRegistry.name(this.name, "memTimeSeries"), this.memTimeSeries);
+        map.put(MetricRegistry.name(this.name, "blocks"), this.blocks);
+        map.put(MetricRegistry.name(this.name, "bytes"), this.bytes);
+        map.put(MetricRegistry.name(this.name, "uncompressedBytes"), this.uncompressedBytes);
+        map.put(MetricRegistry.name(this.name, "writtenBytes"), this.writtenBytes);
+        map.put(MetricRegistry.name(this.name, "compressionRatio"), new Gauge<Double>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Double getValue() {
+                return Double.valueOf(getCompressionRatio());
+            }
+        });
+
+        return map;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import io.horizondb.db.AbstractComponent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+/**
+ * Lightweight HTTP server serving the content of a <code>MetricRegistry</code> in the Prometheus text format.
+ * <p>
+ * The server only listens on the loopback interface and serves the metrics under the <code>/metrics</code> path.
+ * </p>
+ */
+public final class MetricsHttpServer extends AbstractComponent {
+
+    /**
+     * The path under which the metrics are served.
+     */
+    public static final String PATH = "/metrics";
+
+    /**
+     * The registry containing the metrics to serve.
+     */
+    private final MetricRegistry registry;
+
+    /**
+     * The port on which the server listens.
+     */
+    private final int port;
+
+    /**
+     * The underlying HTTP server.
+     */
+    private HttpServer server;
+
+    /**
+     * Creates a new <code>MetricsHttpServer</code> that will serve the metrics of the specified registry.
+     *
+     * @param registry the registry containing the metrics to serve
+     * @param port the port on which the server must listen
+     */
+    public MetricsHttpServer(MetricRegistry registry, int port) {
+
+        notNull(registry, "the registry parameter must not be null.");
+        isTrue(port > 0, "the port parameter must be strictly greater than zero.");
+
+        this.registry = registry;
+        this.port = port;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void register(MetricRegistry metricRegistry) {
+        // Do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregister(MetricRegistry metricRegistry) {
+        // Do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doStart() throws IOException {
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port);
+
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(PATH, new MetricsHandler());
+        this.server.start();
+
+        this.logger.info("Serving the metrics on http://{}:{}{}", address.getHostString(), this.port, PATH);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doShutdown() {
+
+        this.server.stop(0);
+    }
+
+    /**
+     * Handler writing the metrics in the Prometheus text format.
+     */
+    private final class MetricsHandler implements HttpHandler {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+
+            try {
+
+                if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+
+                PrometheusTextFormat.write(MetricsHttpServer.this.registry, writer);
+
+                exchange.getResponseHeaders().set("Content-Type", PrometheusTextFormat.CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, buffer.size());
+
+                try (OutputStream output = exchange.getResponseBody()) {
+                    buffer.writeTo(output);
+                }
+
+            } finally {
+
+                exchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import io.horizondb.db.Operation;
+import io.horizondb.db.QueryType;
+import io.horizondb.db.operations.Operations;
+import io.horizondb.model.protocol.OpCode;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+
+/**
+ * The latency and throughput metrics of the operations, and of the stages of their execution.
+ */
+public final class OperationMetrics implements MetricSet {
+
+    /**
+     * The prefix of the metric names.
+     */
+    public static final String NAME = MetricRegistry.name(Operation.class);
+
+    /**
+     * The timers of the operations per operation code.
+     */
+    private final Map<OpCode, Timer> timers = new EnumMap<>(OpCode.class);
+
+    /**
+     * The meters of the failed operations per operation code.
+     */
+    private final Map<OpCode, Meter> errors = new EnumMap<>(OpCode.class);
+
+    /**
+     * The timers of the queries per query type.
+     */
+    private final Map<QueryType, Timer> queryTimers = new EnumMap<>(QueryType.class);
+
+    /**
+     * The meters of the failed queries per query type.
+     */
+    private final Map<QueryType, Meter> queryErrors = new EnumMap<>(QueryType.class);
+
+    /**
+     * The timer of the parsing of the HQL queries.
+     */
+    private final Timer hqlParse = new Timer();
+
+    /**
+     * The timer of the waits for the commit log writes to be synced.
+     */
+    private final Timer commitLogWait = new Timer();
+
+    /**
+     * The timer of the writes to the memTimeSeries.
+     */
+    private final Timer memTimeSeriesWrite = new Timer();
+
+    /**
+     * The timer of the streaming of the <code>SELECT</code> results to the clients.
+     */
+    private final Timer streaming = new Timer();
+
+    /**
+     * The meter of the records returned by the <code>SELECT</code> operations.
+     */
+    private final Meter selectedRecords = new Meter();
+
+    /**
+     * The meter of the bytes returned by the <code>SELECT</code> operations.
+     */
+    private final Meter selectedBytes = new Meter();
+
+    public OperationMetrics() {
+
+        for (OpCode opCode : OpCode.values()) {
+
+            if (Operations.getOperationFor(opCode) != null) {
+
+                this.timers.put(opCode, new Timer());
+                this.errors.put(opCode, new Meter());
+            }
+        }
+
+        for (QueryType type : QueryType.values()) {
+
+            this.queryTimers.put(type, new Timer());
+            this.queryErrors.put(type, new Meter());
+        }
+    }
+
+    /**
+     * Returns the timer of the operations with the specified code.
+     *
+     * @param opCode the operation code
+     * @return the timer of the operations with the specified code or <code>null</code> if the code is unknown
+     */
+    public Timer getTimer(OpCode opCode) {
+        return this.timers.get(opCode);
+    }
+
+    /**
+     * Returns the meter of the failed operations with the specified code.
+     *
+     * @param opCode the operation code
+     * @return the meter of the failed operations with the specified code or <code>null</code> if the code is
+     * unknown
+     */
+    public Meter getErrors(OpCode opCode) {
+        return this.errors.get(opCode);
+    }
+
+    /**
+     * Returns the timer of the queries of the specified type.
+     *
+     * @param type the query type
+     * @return the timer of the queries of the specified type
+     */
+    public Timer getTimer(QueryType type) {
+        return this.queryTimers.get(type);
+    }
+
+    /**
+     * Returns the meter of the failed queries of the specified type.
+     *
+     * @param type the query type
+     * @return the meter of the failed queries of the specified type
+     */
+    public Meter getErrors(QueryType type) {
+        return this.queryErrors.get(type);
+    }
+
+    /**
+     * Returns the timer of the parsing of the HQL queries.
+     *
+     * @return the timer of the parsing of the HQL queries.
+     */
+    public Timer getHqlParseTimer() {
+        return this.hqlParse;
+    }
+
+    /**
+     * Returns the timer of the waits for the commit log writes to be synced.
+     *
+     * @return the timer of the waits for the commit log writes to be synced.
+     */
+    public Timer getCommitLogWaitTimer() {
+        return this.commitLogWait;
+    }
+
+    /**
+     * Returns the timer of the writes to the memTimeSeries.
+     *
+     * @return the timer of the writes to the memTimeSeries.
+     */
+    public Timer getMemTimeSeriesWriteTimer() {
+        return this.memTimeSeriesWrite;
+    }
+
+    /**
+     * Returns the timer of the streaming of the <code>SELECT</code> results.
+     *
+     * @return the timer of the streaming of the <code>SELECT</code> results.
+     */
+    public Timer getStreamingTimer() {
+        return this.streaming;
+    }
+
+    /**
+     * Returns the meter of the records returned by the <code>SELECT</code> operations.
+     *
+     * @return the meter of the records returned by the <code>SELECT</code> operations.
+     */
+    public Meter getSelectedRecords() {
+        return this.selectedRecords;
+    }
+
+    /**
+     * Returns the meter of the bytes returned by the <code>SELECT</code> operations.
+     *
+     * @return the meter of the bytes returned by the <code>SELECT</code> operations.
+     */
+    public Meter getSelectedBytes() {
+        return this.selectedBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Metric> getMetrics() {
+
+        Map<String, Metric> map = new HashMap<String, Metric>();
+
+        for (Entry<OpCode, Timer> entry : this.timers.entrySet()) {
+
+            OpCode opCode = entry.getKey();
+
+            map.put(MetricRegistry.name(NAME, toName(opCode), "latency"), entry.getValue());
+            map.put(MetricRegistry.name(NAME, toName(opCode), "errors"), this.errors.get(opCode));
+        }
+
+        for (Entry<QueryType, Timer> entry : this.queryTimers.entrySet()) {
+
+            QueryType type = entry.getKey();
+
+            map.put(MetricRegistry.name(NAME, "query", toName(type), "latency"), entry.getValue());
+            map.put(MetricRegistry.name(NAME, "query", toName(type), "errors"), this.queryErrors.get(type));
+        }
+
+        map.put(MetricRegistry.name(NAME, "hqlParse"), this.hqlParse);
+        map.put(MetricRegistry.name(NAME, "commitLogWait"), this.commitLogWait);
+        map.put(MetricRegistry.name(NAME, "memTimeSeriesWrite"), this.memTimeSeriesWrite);
+        map.put(MetricRegistry.name(NAME, "streaming"), this.streaming);
+        map.put(MetricRegistry.name(NAME, "selectedRecords"), this.selectedRecords);
+        map.put(MetricRegistry.name(NAME, "selectedBytes"), this.selectedBytes);
+
+        return map;
+    }
+
+    /**
+     * Returns the name used within the metric names for the specified operation code.
+     *
+     * @param opCode the operation code
+     * @return the name used within the metric names for the specified operation code
+     */
+    private static String toName(OpCode opCode) {
+        return opCode.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Returns the name used within the metric names for the specified query type.
+     *
+     * @param type the query type
+     * @return the name used within the metric names for the specified query type
+     */
+    private static String toName(QueryType type) {
+        return type.name().toLowerCase(Locale.ENGLISH);
+    }
+}
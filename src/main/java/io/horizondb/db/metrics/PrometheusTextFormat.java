@@ -0,0 +1,210 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Writes the content of a <code>MetricRegistry</code> in the Prometheus text exposition format.
+ * <p>
+ * The gauges and the counters are written as gauges, the meters as counters and the histograms and the timers as
+ * summaries with their quantiles. The durations of the timers are written in seconds.
+ * </p>
+ */
+public final class PrometheusTextFormat {
+
+    /**
+     * The content type of the Prometheus text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * The quantiles written for the histograms and the timers.
+     */
+    private static final double[] QUANTILES = { 0.5, 0.75, 0.95, 0.98, 0.99, 0.999 };
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Writes the metrics of the specified registry to the specified writer.
+     *
+     * @param registry the metric registry
+     * @param writer the writer
+     * @throws IOException if an I/O problem occurs while writing the metrics
+     */
+    public static void write(MetricRegistry registry, Writer writer) throws IOException {
+
+        for (@SuppressWarnings("rawtypes") Entry<String, Gauge> entry : registry.getGauges().entrySet()) {
+
+            Object value = entry.getValue().getValue();
+
+            if (value instanceof Number) {
+                writeSample(writer, toName(entry.getKey()), "gauge", ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                writeSample(writer, toName(entry.getKey()), "gauge", ((Boolean) value).booleanValue() ? 1 : 0);
+            }
+        }
+
+        for (Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+            writeSample(writer, toName(entry.getKey()), "gauge", entry.getValue().getCount());
+        }
+
+        for (Entry<String, Meter> entry : registry.getMeters().entrySet()) {
+            writeSample(writer, toName(entry.getKey()) + "_total", "counter", entry.getValue().getCount());
+        }
+
+        for (Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+
+            Histogram histogram = entry.getValue();
+            writeSummary(writer, toName(entry.getKey()), histogram.getSnapshot(), histogram.getCount(), 1);
+        }
+
+        for (Entry<String, Timer> entry : registry.getTimers().entrySet()) {
+
+            Timer timer = entry.getValue();
+            writeSummary(writer,
+                         toName(entry.getKey()) + "_seconds",
+                         timer.getSnapshot(),
+                         timer.getCount(),
+                         NANOS_PER_SECOND);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Writes a metric with a single sample.
+     *
+     * @param writer the writer
+     * @param name the metric name
+     * @param type the metric type
+     * @param value the sample value
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void writeSample(Writer writer, String name, String type, double value) throws IOException {
+
+        writeType(writer, name, type);
+        writer.append(name).append(' ').append(toString(value)).append('\n');
+    }
+
+    /**
+     * Writes a summary.
+     *
+     * @param writer the writer
+     * @param name the metric name
+     * @param snapshot the snapshot of the values
+     * @param count the number of recorded values
+     * @param divisor the divisor applied to the snapshot values
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void writeSummary(Writer writer,
+                                     String name,
+                                     Snapshot snapshot,
+                                     long count,
+                                     double divisor) throws IOException {
+
+        writeType(writer, name, "summary");
+
+        for (double quantile : QUANTILES) {
+
+            writer.append(name)
+                  .append("{quantile=\"")
+                  .append(Double.toString(quantile))
+                  .append("\"} ")
+                  .append(toString(snapshot.getValue(quantile) / divisor))
+                  .append('\n');
+        }
+
+        writer.append(name).append("_count ").append(Long.toString(count)).append('\n');
+    }
+
+    /**
+     * Writes the type of a metric.
+     *
+     * @param writer the writer
+     * @param name the metric name
+     * @param type the metric type
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void writeType(Writer writer, String name, String type) throws IOException {
+        writer.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Converts the specified Codahale metric name into a valid Prometheus metric name.
+     *
+     * @param name the Codahale metric name
+     * @return the Prometheus metric name
+     */
+    static String toName(String name) {
+
+        StringBuilder builder = new StringBuilder(name.length());
+
+        for (int i = 0, m = name.length(); i < m; i++) {
+
+            char c = name.charAt(i);
+
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (c >= '0' && c <= '9' && i > 0)) {
+
+                builder.append(c);
+
+            } else {
+
+                builder.append('_');
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Converts the specified sample value into its text representation.
+     *
+     * @param value the sample value
+     * @return the text representation of the value
+     */
+    private static String toString(double value) {
+
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+
+        return Double.toString(value);
+    }
+
+    /**
+     * Must not be instantiated.
+     */
+    private PrometheusTextFormat() {
+    }
+}
@@ -13,6 +13,8 @@
  */
 package io.horizondb.db.operations;
 
+import io.horizondb.db.QueryTrace;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.io.Buffer;
 import io.horizondb.io.buffers.Buffers;
 import io.horizondb.io.encoding.VarInts;
@@ -27,6 +29,8 @@ import io.netty.handler.stream.ChunkedInput;
 
 import java.io.IOException;
 
+import com.codahale.metrics.Timer;
+
 import static io.horizondb.io.files.FileUtils.ONE_KB;
 
 /**
@@ -54,6 +58,31 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
      */
     private final Buffer buffer;
 
+    /**
+     * The metrics in which the streaming records its latency and the number of records and bytes returned.
+     */
+    private final OperationMetrics metrics;
+
+    /**
+     * The context of the streaming timer, or <code>null</code> if the streaming has not started or is finished.
+     */
+    private Timer.Context timerContext;
+
+    /**
+     * The trace of the query or <code>null</code> if the query is not traced.
+     */
+    private final QueryTrace trace;
+
+    /**
+     * The time in nanoseconds at which the last chunk has been returned, or 0 if no chunk has been returned yet.
+     */
+    private long lastChunkTimeInNanos;
+
+    /**
+     * The time in nanoseconds spent pulling records from the iterator while building the current chunk.
+     */
+    private long pullTimeInNanos;
+
     /**
      * The next record to be written.
      */
@@ -70,12 +99,32 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
      * 
      * @param requestHeader the request header
      * @param iterator the time series iterator
+     * @param metrics the metrics in which the streaming records its latency and the data returned
+     * @throws IOException if an I/O problems occurs.
+     */
+    public ChunkedRecordStream(MsgHeader requestHeader,
+                               ResourceIterator<? extends Record> iterator,
+                               OperationMetrics metrics) throws IOException {
+
+        this(requestHeader, iterator, DEFAULT_BUFFER_SIZE, metrics, null);
+    }
+
+    /**
+     * Creates a new <code>ChunkedRecordStream</code> that translate to message the records returned by the specified
+     * iterator and completes the specified query trace once closed.
+     * 
+     * @param requestHeader the request header
+     * @param iterator the time series iterator
+     * @param metrics the metrics in which the streaming records its latency and the data returned
+     * @param trace the trace of the query or <code>null</code> if the query is not traced
      * @throws IOException if an I/O problems occurs.
      */
     public ChunkedRecordStream(MsgHeader requestHeader,
-                               ResourceIterator<? extends Record> iterator) throws IOException {
+                               ResourceIterator<? extends Record> iterator,
+                               OperationMetrics metrics,
+                               QueryTrace trace) throws IOException {
 
-        this(requestHeader, iterator, DEFAULT_BUFFER_SIZE);
+        this(requestHeader, iterator, DEFAULT_BUFFER_SIZE, metrics, trace);
     }
 
     /**
@@ -85,15 +134,39 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
      * @param requestHeader the request header
      * @param iterator the time series iterator
      * @param bufferSize the buffer size
+     * @param metrics the metrics in which the streaming records its latency and the data returned
+     * @throws IOException if an I/O problems occurs.
+     */
+    public ChunkedRecordStream(MsgHeader requestHeader,
+                               ResourceIterator<? extends Record> iterator,
+                               int bufferSize,
+                               OperationMetrics metrics) throws IOException {
+
+        this(requestHeader, iterator, bufferSize, metrics, null);
+    }
+
+    /**
+     * Creates a new <code>ChunkedRecordStream</code> that translate to message the records returned by the specified
+     * iterator and completes the specified query trace once closed.
+     * 
+     * @param requestHeader the request header
+     * @param iterator the time series iterator
+     * @param bufferSize the buffer size
+     * @param metrics the metrics in which the streaming records its latency and the data returned
+     * @param trace the trace of the query or <code>null</code> if the query is not traced
      * @throws IOException if an I/O problems occurs.
      */
     public ChunkedRecordStream(MsgHeader requestHeader,
                                ResourceIterator<? extends Record> iterator,
-                               int bufferSize) throws IOException {
+                               int bufferSize,
+                               OperationMetrics metrics,
+                               QueryTrace trace) throws IOException {
 
         this.requestHeader = requestHeader;
         this.iterator = iterator;
         this.buffer = Buffers.allocate(bufferSize);
+        this.metrics = metrics;
+        this.trace = trace;
 
         this.next = loadNextRecord();
     }
@@ -111,7 +184,19 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
      */
     @Override
     public void close() throws Exception {
-        this.iterator.close();
+
+        stopTimer();
+
+        try {
+
+            this.iterator.close();
+
+        } finally {
+
+            if (this.trace != null) {
+                this.trace.complete();
+            }
+        }
     }
 
     /**
@@ -120,8 +205,27 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
     @Override
     public Msg<DataChunkPayload> readChunk(ChannelHandlerContext ctx) throws Exception {
 
+        if (this.timerContext == null && !isEndOfInput()) {
+            this.timerContext = this.metrics.getStreamingTimer().time();
+        }
+
+        long startTimeInNanos = 0;
+
+        if (this.trace != null) {
+
+            startTimeInNanos = System.nanoTime();
+
+            if (this.lastChunkTimeInNanos != 0) {
+                this.trace.addTime(QueryTrace.Stage.BACKPRESSURE, startTimeInNanos - this.lastChunkTimeInNanos);
+            }
+
+            this.pullTimeInNanos = 0;
+        }
+
         this.buffer.clear();
 
+        int numberOfRecords = 0;
+
         while (!isEndOfInput()) {
 
             int writeableBytes = this.buffer.writeableBytes();
@@ -146,13 +250,42 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
             this.buffer.writeByte(this.next.getType());
             VarInts.writeUnsignedInt(this.buffer, serializedSize);
             this.next.writeTo(this.buffer);
+            numberOfRecords++;
 
             this.next = loadNextRecord();
         }
 
+        this.metrics.getSelectedRecords().mark(numberOfRecords);
+        this.metrics.getSelectedBytes().mark(this.buffer.readableBytes());
+
+        if (this.trace != null) {
+
+            this.lastChunkTimeInNanos = System.nanoTime();
+
+            long encodingTimeInNanos = this.lastChunkTimeInNanos - startTimeInNanos - this.pullTimeInNanos;
+
+            this.trace.addTime(QueryTrace.Stage.ENCODING, encodingTimeInNanos);
+            this.trace.addReturnedRecords(numberOfRecords, this.buffer.readableBytes());
+        }
+
+        if (isEndOfInput()) {
+            stopTimer();
+        }
+
         return Msg.newResponseMsg(this.requestHeader, OpCode.DATA_CHUNK, new DataChunkPayload(this.buffer));
     }
 
+    /**
+     * Stops the streaming timer if it is running.
+     */
+    private void stopTimer() {
+
+        if (this.timerContext != null) {
+            this.timerContext.stop();
+            this.timerContext = null;
+        }
+    }
+
     /**
      * Returns the next record or null if there are no more record available.
      * 
@@ -160,6 +293,30 @@ public final class ChunkedRecordStream implements ChunkedInput<Msg<DataChunkPayl
      */
     private Record loadNextRecord() throws IOException {
 
+        if (this.trace == null) {
+            return pullNextRecord();
+        }
+
+        long start = System.nanoTime();
+
+        try {
+
+            return pullNextRecord();
+
+        } finally {
+
+            this.pullTimeInNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Pulls the next record from the iterator.
+     * 
+     * @return the next record or null if there are no more record available.
+     * @throws IOException if an I/O problem occurs while loading the next record.
+     */
+    private Record pullNextRecord() throws IOException {
+
         if (this.iterator.hasNext()) {
             return this.iterator.next();
         }
@@ -0,0 +1,189 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+import io.horizondb.model.protocol.Msg;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Executes the requests of one connection one after the other, in the order in which they have been received.
+ * Each request is handed off to the pool associated to its type of operation only once the previous request has
+ * completed, so that the order is kept across the types of operation: a <code>SELECT</code> sent after an
+ * <code>INSERT</code> sees the inserted records.
+ */
+@ThreadSafe
+public final class ConnectionExecutor {
+
+    /**
+     * The pools of threads executing the requests.
+     */
+    private final OperationExecutors executors;
+
+    /**
+     * The index used to pin the connection to one executor of each pool.
+     */
+    private final int connectionIndex;
+
+    /**
+     * The requests waiting for the previous ones to complete.
+     */
+    @GuardedBy("this")
+    private final Deque<OrderedTask> pendingTasks = new ArrayDeque<>();
+
+    /**
+     * <code>true</code> if a request of the connection has been handed off and has not completed yet.
+     */
+    @GuardedBy("this")
+    private boolean busy;
+
+    /**
+     * Creates a new <code>ConnectionExecutor</code> for the connection with the specified index.
+     *
+     * @param executors the pools of threads executing the requests
+     * @param connectionIndex the index used to pin the connection to one executor of each pool
+     */
+    ConnectionExecutor(OperationExecutors executors, int connectionIndex) {
+
+        this.executors = executors;
+        this.connectionIndex = connectionIndex;
+    }
+
+    /**
+     * Executes the specified task once all the requests previously received on the connection have completed.
+     *
+     * @param request the request message
+     * @param task the task processing the request
+     * @param rejectionHandler the task called instead of the processing one if the request is rejected after
+     * having waited for the previous requests
+     * @throws RejectedExecutionException if the request cannot be queued or executed
+     */
+    public void execute(Msg<?> request, Runnable task, Runnable rejectionHandler) {
+
+        OrderedTask orderedTask = new OrderedTask(request, task, rejectionHandler);
+
+        synchronized (this) {
+
+            if (this.busy) {
+
+                if (this.pendingTasks.size() >= this.executors.getQueueSize(request)) {
+                    throw new RejectedExecutionException("Too many requests are waiting on the connection.");
+                }
+
+                this.pendingTasks.addLast(orderedTask);
+                return;
+            }
+
+            this.busy = true;
+        }
+
+        try {
+
+            this.executors.execute(this.connectionIndex, request, orderedTask);
+
+        } catch (RejectedExecutionException e) {
+
+            executeNext();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands off the next pending request, if any. The requests rejected by their pool are notified and skipped.
+     */
+    private void executeNext() {
+
+        while (true) {
+
+            OrderedTask next;
+
+            synchronized (this) {
+
+                next = this.pendingTasks.pollFirst();
+
+                if (next == null) {
+
+                    this.busy = false;
+                    return;
+                }
+            }
+
+            try {
+
+                this.executors.execute(this.connectionIndex, next.request, next);
+                return;
+
+            } catch (RejectedExecutionException e) {
+
+                next.rejectionHandler.run();
+            }
+        }
+    }
+
+    /**
+     * Task handing off the next request of the connection once it has completed.
+     */
+    private final class OrderedTask implements Runnable {
+
+        /**
+         * The request message.
+         */
+        private final Msg<?> request;
+
+        /**
+         * The task processing the request.
+         */
+        private final Runnable task;
+
+        /**
+         * The task called if the request is rejected.
+         */
+        private final Runnable rejectionHandler;
+
+        /**
+         * Creates a new <code>OrderedTask</code>.
+         *
+         * @param request the request message
+         * @param task the task processing the request
+         * @param rejectionHandler the task called if the request is rejected
+         */
+        public OrderedTask(Msg<?> request, Runnable task, Runnable rejectionHandler) {
+
+            this.request = request;
+            this.task = task;
+            this.rejectionHandler = rejectionHandler;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+
+            try {
+
+                this.task.run();
+
+            } finally {
+
+                executeNext();
+            }
+        }
+    }
+}
@@ -17,16 +17,21 @@ import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.Operation;
 import io.horizondb.db.OperationContext;
 import io.horizondb.db.databases.Database;
+import io.horizondb.db.databases.DatabaseManager;
 import io.horizondb.db.series.TimeSeries;
+import io.horizondb.model.ErrorCodes;
 import io.horizondb.model.core.blocks.BinaryDataBlock;
 import io.horizondb.model.protocol.InsertPayload;
 import io.horizondb.model.protocol.Msg;
 import io.horizondb.model.protocol.MsgHeader;
 import io.horizondb.model.protocol.Msgs;
 import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 
+import static java.lang.String.format;
+
 /**
  * <code>Operation</code> that handle <code>INSERT</code> operations.
  */
@@ -47,8 +52,51 @@ final class InsertOperation implements Operation {
         BinaryDataBlock block = new BinaryDataBlock(series.getDefinition().newBinaryBlockHeader());
         block.fill(payload.getBuffer());
 
-        series.write(block, context.getFuture(), context.isReplay());
+        series.write(block, context.getFuture(), context.isReplay(), context.getMetrics());
 
         return Msg.emptyMsg(MsgHeader.newResponseHeader(request.getHeader(), OpCode.NOOP, 0, 0));
     }
+
+    /**
+     * Checks, without writing anything, that the specified insert can be performed: the time series must exist and 
+     * the block must only contain valid records of that time series.
+     * 
+     * @param databaseManager the database manager
+     * @param request the insert request
+     * @throws IOException if an I/O problem occurs while resolving the time series
+     * @throws HorizonDBException if the insert cannot be performed
+     */
+    static void validate(DatabaseManager databaseManager, Msg<?> request) throws IOException, HorizonDBException {
+
+        InsertPayload payload = Msgs.getPayload(request);
+
+        Database database = databaseManager.getDatabase(payload.getDatabase());
+
+        TimeSeriesDefinition definition = database.getTimeSeries(payload.getSeries()).getDefinition();
+
+        int recordType = payload.getRecordType();
+
+        if (recordType < 0 || recordType >= definition.getNumberOfRecordTypes()) {
+
+            throw new HorizonDBException(ErrorCodes.INVALID_QUERY, 
+                                         format("The time series %s has no record type with the index %d.", 
+                                                payload.getSeries(), 
+                                                Integer.valueOf(recordType)));
+        }
+
+        try {
+
+            BinaryDataBlock block = new BinaryDataBlock(definition.newBinaryBlockHeader());
+            block.fill(payload.getBuffer().duplicate());
+            block.split(definition);
+
+        } catch (IOException | RuntimeException e) {
+
+            throw new HorizonDBException(ErrorCodes.INVALID_QUERY, 
+                                         format("The block inserted into the time series %s is invalid: %s", 
+                                                payload.getSeries(), 
+                                                e.getMessage()), 
+                                         e);
+        }
+    }
 }
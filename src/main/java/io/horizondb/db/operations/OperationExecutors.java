@@ -0,0 +1,228 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+import io.horizondb.db.AbstractComponent;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.metrics.PrefixFilter;
+import io.horizondb.db.metrics.ThreadPoolExecutorMetrics;
+import io.horizondb.db.util.concurrent.NamedThreadFactory;
+import io.horizondb.model.protocol.Msg;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.codahale.metrics.MetricRegistry;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static io.horizondb.db.util.concurrent.ExecutorsUtils.shutdownAndAwaitForTermination;
+
+/**
+ * The pools of threads executing the requests. The mutations, the queries and the administration operations are 
+ * executed by separate pools so that heavy queries cannot delay the writes and bursts of writes cannot delay the 
+ * queries. Each pool has a bounded queue, the requests being rejected once the queue is full.
+ * <p>
+ * Each pool is made of single thread executors and each connection is pinned to one executor of each pool, so 
+ * that the requests of the same type sent on a connection are executed in the order in which they have been 
+ * received. The order across the types of operation is kept by the <code>ConnectionExecutor</code> of the 
+ * connection, which hands off a request only once the previous one has completed.
+ * </p>
+ */
+@ThreadSafe
+public final class OperationExecutors extends AbstractComponent {
+
+    /**
+     * The database configuration.
+     */
+    private final Configuration configuration;
+
+    /**
+     * The pools of single thread executors per type of operation.
+     */
+    private final Map<OperationType, ThreadPoolExecutor[]> executors = new EnumMap<>(OperationType.class);
+
+    /**
+     * The counter used to spread the connections over the executors of each pool.
+     */
+    private final AtomicInteger connectionCounter = new AtomicInteger();
+
+    /**
+     * Creates a new <code>OperationExecutors</code> instance.
+     * 
+     * @param configuration the database configuration
+     */
+    public OperationExecutors(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Returns the index of a new connection, used to pin the connection to one executor of each pool.
+     * 
+     * @return the index of a new connection
+     */
+    public int newConnectionIndex() {
+        return this.connectionCounter.getAndIncrement() & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates the executor running the requests of a new connection in the order in which they have been received.
+     * 
+     * @return the executor running the requests of a new connection
+     */
+    public ConnectionExecutor newConnectionExecutor() {
+        return new ConnectionExecutor(this, newConnectionIndex());
+    }
+
+    /**
+     * Executes the specified task within the executor of the specified connection in the pool associated to the 
+     * operation requested by the specified message.
+     * 
+     * @param connectionIndex the index of the connection on which the request has been received
+     * @param request the request message
+     * @param task the task processing the request
+     * @throws RejectedExecutionException if the queue of the executor is full
+     */
+    public void execute(int connectionIndex, Msg<?> request, Runnable task) {
+
+        checkRunning();
+
+        ThreadPoolExecutor[] pool = this.executors.get(Operations.getOperationTypeFor(request));
+        pool[connectionIndex % pool.length].execute(task);
+    }
+
+    /**
+     * Returns the maximum number of operations that can wait for a thread in the pool associated to the operation
+     * requested by the specified message.
+     * 
+     * @param request the request message
+     * @return the maximum number of operations that can wait for a thread in the pool
+     */
+    int getQueueSize(Msg<?> request) {
+
+        switch (Operations.getOperationTypeFor(request)) {
+            case MUTATION:
+                return this.configuration.getMutationQueueSize();
+            case QUERY:
+                return this.configuration.getQueryQueueSize();
+            default:
+                return this.configuration.getAdminQueueSize();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void register(MetricRegistry registry) {
+
+        for (Map.Entry<OperationType, ThreadPoolExecutor[]> entry : this.executors.entrySet()) {
+
+            ThreadPoolExecutor[] pool = entry.getValue();
+
+            for (int i = 0; i < pool.length; i++) {
+                registry.registerAll(new ThreadPoolExecutorMetrics(name(getName(), toName(entry.getKey()), 
+                                                                        Integer.toString(i)), 
+                                                                   pool[i]));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregister(MetricRegistry registry) {
+        registry.removeMatching(new PrefixFilter(getName()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doStart() throws IOException, InterruptedException {
+
+        this.executors.put(OperationType.MUTATION, newPool(OperationType.MUTATION, 
+                                                               this.configuration.getMutationThreads(), 
+                                                               this.configuration.getMutationQueueSize()));
+
+        this.executors.put(OperationType.QUERY, newPool(OperationType.QUERY, 
+                                                            this.configuration.getQueryThreads(), 
+                                                            this.configuration.getQueryQueueSize()));
+
+        this.executors.put(OperationType.ADMIN, newPool(OperationType.ADMIN, 
+                                                            this.configuration.getAdminThreads(), 
+                                                            this.configuration.getAdminQueueSize()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doShutdown() throws InterruptedException {
+
+        for (ThreadPoolExecutor[] pool : this.executors.values()) {
+
+            for (ThreadPoolExecutor executor : pool) {
+                shutdownAndAwaitForTermination(executor, this.configuration.getShutdownWaitingTimeInSeconds());
+            }
+        }
+    }
+
+    /**
+     * Creates the pool of single thread executors for the specified type of operation. The queue size is split 
+     * between the executors.
+     * 
+     * @param type the type of operation
+     * @param numberOfThreads the number of threads
+     * @param queueSize the maximum number of operations that can wait for a thread
+     * @return the pool of single thread executors
+     */
+    private ThreadPoolExecutor[] newPool(OperationType type, int numberOfThreads, int queueSize) {
+
+        ThreadPoolExecutor[] pool = new ThreadPoolExecutor[numberOfThreads];
+
+        int executorQueueSize = Math.max(1, (queueSize + numberOfThreads - 1) / numberOfThreads);
+
+        for (int i = 0; i < numberOfThreads; i++) {
+
+            pool[i] = new ThreadPoolExecutor(1,
+                                             1,
+                                             0L,
+                                             TimeUnit.MILLISECONDS,
+                                             new ArrayBlockingQueue<Runnable>(executorQueueSize),
+                                             new NamedThreadFactory(name(getName(), toName(type), Integer.toString(i))));
+        }
+
+        return pool;
+    }
+
+    /**
+     * Returns the name of the pool of threads for the specified type of operation.
+     * 
+     * @param type the type of operation
+     * @return the name of the pool of threads
+     */
+    private static String toName(OperationType type) {
+        return type.name().toLowerCase(Locale.ENGLISH);
+    }
+}
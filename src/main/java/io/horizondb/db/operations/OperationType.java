@@ -0,0 +1,35 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+/**
+ * The types of operation, each type being executed by its own pool of threads.
+ */
+public enum OperationType {
+
+    /**
+     * The operations writing data.
+     */
+    MUTATION,
+
+    /**
+     * The operations reading data.
+     */
+    QUERY,
+
+    /**
+     * The operations modifying the schema or the state of the connection.
+     */
+    ADMIN;
+}
@@ -13,9 +13,15 @@
  */
 package io.horizondb.db.operations;
 
+import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.Operation;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.Msgs;
 import io.horizondb.model.protocol.OpCode;
 
+import java.io.IOException;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -46,6 +52,122 @@ public final class Operations {
         
         return INSTANCE.operations.get(opCode);
     }
+
+    /**
+     * Checks, without performing it, that the operation requested by the specified message can be performed. 
+     * Only the inserts are checked in advance, the other operations check their request when they are performed.
+     * 
+     * @param databaseManager the database manager
+     * @param request the request message
+     * @throws IOException if an I/O problem occurs while checking the request
+     * @throws HorizonDBException if the operation cannot be performed
+     */
+    public static void validate(DatabaseManager databaseManager, Msg<?> request) 
+            throws IOException, HorizonDBException {
+
+        if (request.getOpCode() == OpCode.INSERT) {
+            InsertOperation.validate(databaseManager, request);
+        }
+    }
+
+    /**
+     * Returns the type of the operation requested by the specified message. For HQL requests the type is 
+     * determined by the first keyword of the query.
+     * 
+     * @param request the request message 
+     * @return the type of the operation requested by the specified message
+     */
+    public static OperationType getOperationTypeFor(Msg<?> request) {
+
+        OpCode opCode = request.getOpCode();
+
+        if (opCode.isHql()) {
+
+            HqlQueryPayload payload = Msgs.getPayload(request);
+            return getOperationTypeFor(payload.getQuery());
+        }
+
+        if (opCode == OpCode.SELECT) {
+            return OperationType.QUERY;
+        }
+
+        if (opCode == OpCode.INSERT) {
+            return OperationType.MUTATION;
+        }
+
+        return OperationType.ADMIN;
+    }
+
+    /**
+     * Checks if the specified request is a <code>CANCEL</code> query.
+     * 
+     * @param request the request message
+     * @return <code>true</code> if the specified request is a <code>CANCEL</code> query
+     */
+    public static boolean isCancel(Msg<?> request) {
+
+        if (!request.getOpCode().isHql()) {
+            return false;
+        }
+
+        HqlQueryPayload payload = Msgs.getPayload(request);
+        return startsWithKeyword(payload.getQuery(), "CANCEL");
+    }
+
+    /**
+     * Returns the type of the operation requested by the specified HQL query.
+     * 
+     * @param query the HQL query 
+     * @return the type of the operation requested by the specified HQL query
+     */
+    private static OperationType getOperationTypeFor(String query) {
+
+        if (startsWithKeyword(query, "SELECT") || startsWithKeyword(query, "PROFILE")) {
+            return OperationType.QUERY;
+        }
+
+        if (startsWithKeyword(query, "INSERT") || startsWithKeyword(query, "EXECUTE")) {
+            return OperationType.MUTATION;
+        }
+
+        return OperationType.ADMIN;
+    }
+
+    /**
+     * Checks if the first keyword of the specified HQL query is the specified keyword, ignoring the case and the 
+     * leading whitespaces. The keyword must be followed by a character that cannot be part of an identifier or by 
+     * the end of the query. The query is not copied.
+     * 
+     * @param query the HQL query
+     * @param keyword the keyword in upper case
+     * @return <code>true</code> if the first keyword of the specified query is the specified keyword
+     */
+    public static boolean startsWithKeyword(String query, String keyword) {
+
+        int offset = 0;
+
+        while (offset < query.length() && Character.isWhitespace(query.charAt(offset))) {
+            offset++;
+        }
+
+        if (!query.regionMatches(true, offset, keyword, 0, keyword.length())) {
+            return false;
+        }
+
+        int end = offset + keyword.length();
+
+        return end == query.length() || !isIdentifierPart(query.charAt(end));
+    }
+
+    /**
+     * Checks if the specified character can be part of an HQL identifier.
+     * 
+     * @param c the character
+     * @return <code>true</code> if the specified character can be part of an HQL identifier
+     */
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
         
     /**
      * Creates a new <code>Operations</code> instance.
@@ -13,6 +13,7 @@
  */
 package io.horizondb.db.operations;
 
+import io.horizondb.db.Cancellation;
 import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.Operation;
 import io.horizondb.db.OperationContext;
@@ -47,10 +48,27 @@ final class SelectOperation implements Operation {
         
         Projection projection = payload.getProjection();
         Predicate predicate = payload.getPredicate();
-        try (ResourceIterator<? extends Record> iterator = series.read(projection, predicate)) {
+        Cancellation cancellation = context.getCancellation();
+
+        ResourceIterator<? extends Record> iterator = series.read(projection, 
+                                                                  predicate, 
+                                                                  false, 
+                                                                  TimeSeries.NO_LIMIT, 
+                                                                  null, 
+                                                                  cancellation);
+        try {
+
             return new ChunkedRecordSet(request.getHeader(),
                                         projection.getDefinition(series.getDefinition()),
-                                        new ChunkedRecordStream(request.getHeader(), iterator));
+                                        new ChunkedRecordStream(request.getHeader(), 
+                                                                iterator, 
+                                                                context.getMetrics(), 
+                                                                cancellation.getTrace()));
+
+        } catch (IOException | RuntimeException e) {
+
+            iterator.close();
+            throw e;
         }
     }
 }
@@ -0,0 +1,257 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An <code>EXECUTE</code> statement recognized without going through the HQL parser.
+ * <p>
+ * Executing a prepared statement must only cost the binding of its parameters. The queries made of a single
+ * <code>EXECUTE</code> statement are therefore scanned directly. Anything that this scanner does not recognize is
+ * left to the HQL parser, which reports the syntax errors.
+ * </p>
+ */
+@Immutable
+public final class ExecuteStatement {
+
+    /**
+     * The <code>EXECUTE</code> keyword.
+     */
+    private static final String EXECUTE = "EXECUTE";
+
+    /**
+     * The pattern matching a parameter value: a string, a number or a number followed by a time unit.
+     */
+    private static final Pattern VALUE =
+            Pattern.compile("'[^']*'|[0-9]+(?:\\.[0-9]+)*(?:E-*[0-9]+)*(?:\\s*(?:ns|µs|ms|s)(?![a-zA-Z0-9_]))?");
+
+    /**
+     * The pattern matching whitespaces.
+     */
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    /**
+     * The statement name.
+     */
+    private final String name;
+
+    /**
+     * The parameter values.
+     */
+    private final List<String> parameters;
+
+    /**
+     * Scans the specified query.
+     *
+     * @param query the HQL query
+     * @return the <code>EXECUTE</code> statement or <code>null</code> if the query is not made of a single
+     * <code>EXECUTE</code> statement that can be scanned directly.
+     */
+    public static ExecuteStatement parse(String query) {
+
+        int length = query.length();
+        int index = skipWhitespaces(query, 0);
+
+        if (!query.regionMatches(true, index, EXECUTE, 0, EXECUTE.length())) {
+            return null;
+        }
+
+        index += EXECUTE.length();
+
+        int start = skipWhitespaces(query, index);
+
+        if (start == index || start == length || !isIdentifierStart(query.charAt(start))) {
+            return null;
+        }
+
+        index = start + 1;
+
+        while (index < length && isIdentifierPart(query.charAt(index))) {
+            index++;
+        }
+
+        String name = query.substring(start, index);
+        List<String> parameters = Collections.emptyList();
+
+        index = skipWhitespaces(query, index);
+
+        if (index < length && query.charAt(index) == '(') {
+
+            parameters = new ArrayList<>();
+            index = parseParameters(query, index + 1, parameters);
+
+            if (index < 0) {
+                return null;
+            }
+
+            index = skipWhitespaces(query, index);
+        }
+
+        if (index == length || query.charAt(index) != ';') {
+            return null;
+        }
+
+        if (skipWhitespaces(query, index + 1) != length) {
+            return null;
+        }
+
+        return new ExecuteStatement(name, parameters);
+    }
+
+    /**
+     * Returns the statement name.
+     *
+     * @return the statement name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the parameter values.
+     *
+     * @return the parameter values.
+     */
+    public List<String> getParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * Binds the parameters of this statement to the corresponding prepared statement.
+     *
+     * @param preparedStatements the statements prepared on the connection
+     * @param schemaVersions the versions of the time series schemas
+     * @param msg the query message
+     * @return the low level message resulting from the execution of the prepared statement
+     * @throws IOException if an I/O problem occurs while building the message
+     * @throws HorizonDBException if the statement has not been prepared or if the parameters are invalid
+     */
+    public Msg<?> bind(PreparedStatements preparedStatements,
+                       SchemaVersions schemaVersions,
+                       Msg<HqlQueryPayload> msg) throws IOException, HorizonDBException {
+
+        StatementKey key = new StatementKey(msg.getPayload().getDatabaseName(), this.name);
+
+        return preparedStatements.get(key, schemaVersions).bind(msg.getHeader(), this.parameters);
+    }
+
+    /**
+     * Parses the parameter list starting at the specified index.
+     *
+     * @param query the HQL query
+     * @param index the index of the first character after the opening parenthesis
+     * @param parameters the collecting parameter for the parameter values
+     * @return the index of the first character after the closing parenthesis or -1 if the list cannot be scanned
+     */
+    private static int parseParameters(String query, int index, List<String> parameters) {
+
+        Matcher matcher = VALUE.matcher(query);
+        int position = index;
+
+        while (true) {
+
+            position = skipWhitespaces(query, position);
+            matcher.region(position, query.length());
+
+            if (!matcher.lookingAt()) {
+                return -1;
+            }
+
+            String value = matcher.group();
+
+            if (value.charAt(0) != '\'') {
+                value = WHITESPACES.matcher(value).replaceAll("");
+            }
+
+            parameters.add(value);
+            position = skipWhitespaces(query, matcher.end());
+
+            if (position == query.length()) {
+                return -1;
+            }
+
+            char c = query.charAt(position++);
+
+            if (c == ')') {
+                return position;
+            }
+
+            if (c != ',') {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first non whitespace character starting from the specified index.
+     *
+     * @param query the HQL query
+     * @param index the start index
+     * @return the index of the first non whitespace character or the query length
+     */
+    private static int skipWhitespaces(String query, int index) {
+
+        int position = index;
+
+        while (position < query.length() && Character.isWhitespace(query.charAt(position))) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified character can start an identifier.
+     *
+     * @param c the character
+     * @return <code>true</code> if the specified character can start an identifier.
+     */
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    /**
+     * Returns <code>true</code> if the specified character can be part of an identifier.
+     *
+     * @param c the character
+     * @return <code>true</code> if the specified character can be part of an identifier.
+     */
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Creates a new <code>ExecuteStatement</code>.
+     *
+     * @param name the statement name
+     * @param parameters the parameter values
+     */
+    private ExecuteStatement(String name, List<String> parameters) {
+
+        this.name = name;
+        this.parameters = parameters;
+    }
+}
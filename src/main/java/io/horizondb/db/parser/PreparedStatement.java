@@ -0,0 +1,59 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A statement that has been parsed once and that can be executed several times with different parameter values.
+ */
+public interface PreparedStatement {
+
+    /**
+     * Returns the name of the database containing the time series targeted by this statement.
+     *
+     * @return the name of the database containing the time series targeted by this statement.
+     */
+    String getDatabaseName();
+
+    /**
+     * Returns the name of the time series targeted by this statement.
+     *
+     * @return the name of the time series targeted by this statement.
+     */
+    String getSeries();
+
+    /**
+     * Returns the number of parameters expected by this statement.
+     *
+     * @return the number of parameters expected by this statement.
+     */
+    int getNumberOfParameters();
+
+    /**
+     * Binds the specified parameter values to this statement and returns the corresponding low level message.
+     *
+     * @param requestHeader the header of the request executing the statement
+     * @param parameters the parameter values
+     * @return the low level message corresponding to this statement once the values have been bound
+     * @throws IOException if an I/O problem occurs while building the message
+     * @throws HorizonDBException if the parameter values are invalid
+     */
+    Msg<?> bind(MsgHeader requestHeader, List<String> parameters) throws IOException, HorizonDBException;
+}
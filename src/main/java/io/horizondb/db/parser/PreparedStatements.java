@@ -0,0 +1,182 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.lang.String.format;
+
+/**
+ * The statements prepared on a connection.
+ * <p>
+ * The statements are only visible from the connection on which they have been prepared. Each statement keeps the
+ * version of the schema of the time series that it targets and is rejected once that time series, or its database,
+ * has been created or dropped again. The least recently used statements are discarded once the maximum number of
+ * statements is reached.
+ * </p>
+ */
+@ThreadSafe
+public final class PreparedStatements {
+
+    /**
+     * The prepared statements.
+     */
+    @GuardedBy("this")
+    private final Map<StatementKey, Entry> statements;
+
+    /**
+     * Creates a new <code>PreparedStatements</code> that will keep at most the specified number of statements.
+     *
+     * @param maximumSize the maximum number of statements
+     */
+    public PreparedStatements(final long maximumSize) {
+
+        this.statements = new LinkedHashMap<StatementKey, Entry>(16, 0.75f, true) {
+
+            /**
+             * The serial version UID.
+             */
+            private static final long serialVersionUID = 5006542290358411836L;
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Registers the specified statement.
+     *
+     * @param key the statement key
+     * @param statement the prepared statement
+     * @param schemaVersion the version of the schema of the targeted time series, read before the statement has
+     * been resolved
+     */
+    public synchronized void put(StatementKey key, PreparedStatement statement, long schemaVersion) {
+
+        this.statements.put(key, new Entry(statement, schemaVersion));
+    }
+
+    /**
+     * Returns the statement with the specified key.
+     *
+     * @param key the statement key
+     * @param schemaVersions the versions of the time series schemas
+     * @return the statement with the specified key
+     * @throws BadHqlGrammarException if no statement has been prepared with the specified key or if the time series
+     * targeted by the statement has been modified since it has been prepared
+     */
+    public PreparedStatement get(StatementKey key, SchemaVersions schemaVersions) throws BadHqlGrammarException {
+
+        Entry entry;
+
+        synchronized (this) {
+            entry = this.statements.get(key);
+        }
+
+        if (entry == null) {
+            throw new BadHqlGrammarException(format("No statement %s has been prepared", key.getStatement()));
+        }
+
+        PreparedStatement statement = entry.getStatement();
+
+        long version = schemaVersions.getVersion(statement.getDatabaseName(), statement.getSeries());
+
+        if (version != entry.getSchemaVersion()) {
+
+            remove(key, entry);
+
+            throw new BadHqlGrammarException(format("The time series targeted by the statement %s has been modified "
+                    + "since the statement has been prepared", key.getStatement()));
+        }
+
+        return statement;
+    }
+
+    /**
+     * Returns the number of statements.
+     *
+     * @return the number of statements.
+     */
+    public synchronized int size() {
+        return this.statements.size();
+    }
+
+    /**
+     * Removes the specified entry if it is still associated to the specified key.
+     *
+     * @param key the statement key
+     * @param entry the entry to remove
+     */
+    private synchronized void remove(StatementKey key, Entry entry) {
+
+        if (this.statements.get(key) == entry) {
+            this.statements.remove(key);
+        }
+    }
+
+    /**
+     * A prepared statement and the version of the schema against which it has been resolved.
+     */
+    private static final class Entry {
+
+        /**
+         * The prepared statement.
+         */
+        private final PreparedStatement statement;
+
+        /**
+         * The version of the schema of the time series targeted by the statement.
+         */
+        private final long schemaVersion;
+
+        /**
+         * Creates a new <code>Entry</code>.
+         *
+         * @param statement the prepared statement
+         * @param schemaVersion the version of the schema of the time series targeted by the statement
+         */
+        public Entry(PreparedStatement statement, long schemaVersion) {
+
+            this.statement = statement;
+            this.schemaVersion = schemaVersion;
+        }
+
+        /**
+         * Returns the prepared statement.
+         *
+         * @return the prepared statement.
+         */
+        public PreparedStatement getStatement() {
+            return this.statement;
+        }
+
+        /**
+         * Returns the version of the schema of the time series targeted by the statement.
+         *
+         * @return the version of the schema of the time series targeted by the statement.
+         */
+        public long getSchemaVersion() {
+            return this.schemaVersion;
+        }
+    }
+}
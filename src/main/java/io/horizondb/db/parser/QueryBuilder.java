@@ -0,0 +1,35 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.Query;
+
+import java.io.IOException;
+
+/**
+ * Builder used to build the <code>Query</code> instances for the statements that cannot be expressed as
+ * low level messages.
+ */
+public interface QueryBuilder extends HqlListener {
+
+    /**
+     * Builds a new query instance.
+     *
+     * @return a new query instance
+     * @throws IOException if an I/O problem occurs while building the query
+     * @throws HorizonDBException if a problem occurs while building the query
+     */
+    public Query buildQuery() throws IOException, HorizonDBException;
+}
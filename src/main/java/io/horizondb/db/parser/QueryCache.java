@@ -0,0 +1,49 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.db.cache.AbstractCache;
+import io.horizondb.model.protocol.SelectPayload;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A <code>Cache</code> holding the result of the parsing of the most recent select queries, keyed by database
+ * name and query text.
+ */
+public final class QueryCache extends AbstractCache<StatementKey, SelectPayload> {
+
+    /**
+     * Creates a <code>QueryCache</code> to cache the parsed select queries.
+     *
+     * @param configuration the database configuration.
+     */
+    public QueryCache(Configuration configuration) {
+
+        super(configuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected CacheBuilder<Object, Object> newBuilder(Configuration configuration) {
+
+        return CacheBuilder.newBuilder()
+                           .concurrencyLevel(configuration.getCachesConcurrencyLevel())
+                           .maximumSize(configuration.getQueryCacheMaximumSize())
+                           .recordStats();
+    }
+}
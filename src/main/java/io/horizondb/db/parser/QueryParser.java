@@ -52,11 +52,83 @@ public final class QueryParser {
      * @throws HorizonDBException if a problem occurs while parsing the query.
      * @throws IOException if an I/O problem occurs while parsing the query
      */
+    @SuppressWarnings("unchecked")
     public static <T extends Serializable> Msg<T> parse(Configuration configuration, 
                                                         DatabaseManager databaseManager,
                                                         Msg<HqlQueryPayload> msg) 
             throws HorizonDBException, IOException  {
               
+        return (Msg<T>) walk(configuration, databaseManager, null, null, msg).build();
+    }
+
+    /**
+     * Parses the specified query string of the specified message and return the corresponding low level message
+     * or, if the statement cannot be expressed as a low level message, the corresponding <code>Query</code>. 
+     * If the query contains several insert statements the returned value is the list of messages that must be 
+     * executed as a batch.
+     * <p>
+     * The queries made of a single <code>EXECUTE</code> statement are bound directly to the prepared statement 
+     * without being parsed.
+     * </p>
+     * 
+     * @param configuration the database configuration
+     * @param databaseManager the database manager
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection or <code>null</code> if the connection 
+     * does not support prepared statements
+     * @param msg the query message
+     * @return the low level message, the list of low level messages or the <code>Query</code> corresponding to 
+     * the specified <code>query</code>.
+     * @throws HorizonDBException if a problem occurs while parsing the query.
+     * @throws IOException if an I/O problem occurs while parsing the query
+     */
+    public static Object parse(Configuration configuration, 
+                               DatabaseManager databaseManager,
+                               SchemaVersions schemaVersions,
+                               PreparedStatements preparedStatements,
+                               Msg<HqlQueryPayload> msg) 
+            throws HorizonDBException, IOException  {
+
+        if (preparedStatements != null) {
+
+            ExecuteStatement execute = ExecuteStatement.parse(msg.getPayload().getQuery());
+
+            if (execute != null) {
+                return execute.bind(preparedStatements, schemaVersions, msg);
+            }
+        }
+
+        MsgBuilderDispatcher dispatcher = walk(configuration, databaseManager, schemaVersions, preparedStatements, msg);
+
+        if (dispatcher.isQuery()) {
+            return dispatcher.buildQuery();
+        }
+        
+        if (dispatcher.isBatch()) {
+            return dispatcher.buildBatch();
+        }
+        
+        return dispatcher.build();
+    }
+
+    /**
+     * Walks through the parse tree of the specified query message.
+     * 
+     * @param configuration the database configuration
+     * @param databaseManager the database manager
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
+     * @param msg the query message
+     * @return the dispatcher that has received the parse tree events.
+     * @throws BadHqlGrammarException if the query is invalid
+     */
+    private static MsgBuilderDispatcher walk(Configuration configuration, 
+                                             DatabaseManager databaseManager,
+                                             SchemaVersions schemaVersions,
+                                             PreparedStatements preparedStatements,
+                                             Msg<HqlQueryPayload> msg) 
+            throws BadHqlGrammarException  {
+              
         HqlQueryPayload payload = msg.getPayload();
         
         String databaseName = payload.getDatabaseName();
@@ -79,13 +151,15 @@ public final class QueryParser {
             StatementsContext statements = parser.statements();
 
             ParseTreeWalker walker = new ParseTreeWalker();
-            MsgBuilder msgBuilder = new MsgBuilderDispatcher(configuration,
-                                                             databaseManager,
-                                                             msg.getHeader(),
-                                                             databaseName);
-            walker.walk(msgBuilder, statements);
+            MsgBuilderDispatcher dispatcher = new MsgBuilderDispatcher(configuration,
+                                                                       databaseManager,
+                                                                       schemaVersions,
+                                                                       preparedStatements,
+                                                                       msg.getHeader(),
+                                                                       databaseName);
+            walker.walk(dispatcher, statements);
 
-            return (Msg<T>) msgBuilder.build();
+            return dispatcher;
         
         } catch (SyntaxException e) {
             
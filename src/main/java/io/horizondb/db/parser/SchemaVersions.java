@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The versions of the time series schemas.
+ * <p>
+ * The version of a time series changes each time the time series, or its database, is created or dropped. A
+ * statement that has been resolved against a time series can therefore detect that it has become stale by comparing
+ * the version read before the resolution with the current one. The versions must be changed once the schema change
+ * has been applied, so that a statement resolved concurrently is always considered as stale.
+ * </p>
+ */
+@ThreadSafe
+public final class SchemaVersions {
+
+    /**
+     * The generator of the versions.
+     */
+    private final AtomicLong generator = new AtomicLong();
+
+    /**
+     * The versions of the databases and of the time series that have been modified.
+     */
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the version of the schema of the specified time series.
+     *
+     * @param databaseName the name of the database
+     * @param timeSeriesName the name of the time series
+     * @return the version of the schema of the specified time series
+     */
+    public long getVersion(String databaseName, String timeSeriesName) {
+
+        return Math.max(getVersion(toKey(databaseName)), getVersion(toKey(databaseName, timeSeriesName)));
+    }
+
+    /**
+     * Returns the generation of the schemas, which changes each time a database or a time series is created or 
+     * dropped.
+     *
+     * @return the generation of the schemas
+     */
+    public long getGeneration() {
+
+        return this.generator.get();
+    }
+
+    /**
+     * Records that the specified time series has been created or dropped.
+     *
+     * @param databaseName the name of the database
+     * @param timeSeriesName the name of the time series
+     */
+    public void timeSeriesChanged(String databaseName, String timeSeriesName) {
+
+        this.versions.put(toKey(databaseName, timeSeriesName), Long.valueOf(this.generator.incrementAndGet()));
+    }
+
+    /**
+     * Records that the specified database has been created or dropped.
+     *
+     * @param databaseName the name of the database
+     */
+    public void databaseChanged(String databaseName) {
+
+        this.versions.put(toKey(databaseName), Long.valueOf(this.generator.incrementAndGet()));
+    }
+
+    /**
+     * Returns the version associated to the specified key.
+     *
+     * @param key the key
+     * @return the version associated to the specified key or zero if the schema has not been modified.
+     */
+    private long getVersion(String key) {
+
+        Long version = this.versions.get(key);
+
+        if (version == null) {
+            return 0;
+        }
+
+        return version.longValue();
+    }
+
+    /**
+     * Returns the key of the specified database.
+     *
+     * @param databaseName the name of the database
+     * @return the key of the specified database
+     */
+    private static String toKey(String databaseName) {
+        return databaseName.toLowerCase();
+    }
+
+    /**
+     * Returns the key of the specified time series.
+     *
+     * @param databaseName the name of the database
+     * @param timeSeriesName the name of the time series
+     * @return the key of the specified time series
+     */
+    private static String toKey(String databaseName, String timeSeriesName) {
+        return toKey(databaseName) + '.' + timeSeriesName.toLowerCase();
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Key used to identify a statement within the scope of a database.
+ */
+@Immutable
+public final class StatementKey {
+
+    /**
+     * The name of the database on which the statement is executed.
+     */
+    private final String databaseName;
+
+    /**
+     * The statement name or text.
+     */
+    private final String statement;
+
+    /**
+     * The generation of the schemas against which the statement has been resolved.
+     */
+    private final long schemaGeneration;
+
+    /**
+     * Creates a new <code>StatementKey</code>.
+     *
+     * @param databaseName the name of the database on which the statement is executed
+     * @param statement the statement name or text
+     */
+    public StatementKey(String databaseName, String statement) {
+
+        this(databaseName, statement, 0);
+    }
+
+    /**
+     * Creates a new <code>StatementKey</code> for a statement resolved against the specified generation of the
+     * schemas.
+     *
+     * @param databaseName the name of the database on which the statement is executed
+     * @param statement the statement name or text
+     * @param schemaGeneration the generation of the schemas against which the statement is resolved
+     */
+    public StatementKey(String databaseName, String statement, long schemaGeneration) {
+
+        this.databaseName = databaseName;
+        this.statement = statement;
+        this.schemaGeneration = schemaGeneration;
+    }
+
+    /**
+     * Returns the name of the database on which the statement is executed.
+     *
+     * @return the name of the database on which the statement is executed.
+     */
+    public String getDatabaseName() {
+        return this.databaseName;
+    }
+
+    /**
+     * Returns the statement name or text.
+     *
+     * @return the statement name or text.
+     */
+    public String getStatement() {
+        return this.statement;
+    }
+
+    /**
+     * Returns the generation of the schemas against which the statement has been resolved.
+     *
+     * @return the generation of the schemas against which the statement has been resolved.
+     */
+    public long getSchemaGeneration() {
+        return this.schemaGeneration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof StatementKey)) {
+            return false;
+        }
+        StatementKey rhs = (StatementKey) object;
+        return new EqualsBuilder().append(this.databaseName, rhs.databaseName)
+                                  .append(this.statement, rhs.statement)
+                                  .append(this.schemaGeneration, rhs.schemaGeneration)
+                                  .isEquals();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(-1508263851, 1377415519).append(this.databaseName)
+                                                           .append(this.statement)
+                                                           .append(this.schemaGeneration)
+                                                           .toHashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append(this.databaseName)
+                                  .append(':')
+                                  .append(this.statement)
+                                  .append('@')
+                                  .append(this.schemaGeneration)
+                                  .toString();
+    }
+}
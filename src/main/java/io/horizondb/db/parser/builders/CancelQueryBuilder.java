@@ -0,0 +1,58 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser.builders;
+
+import io.horizondb.db.Query;
+import io.horizondb.db.QueryContext;
+import io.horizondb.db.QueryType;
+import io.horizondb.db.parser.HqlBaseListener;
+import io.horizondb.db.parser.QueryBuilder;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.OpCode;
+
+/**
+ * <code>Builder</code> for the queries cancelling the queries previously sent through the same connection.
+ */
+final class CancelQueryBuilder extends HqlBaseListener implements QueryBuilder {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Query buildQuery() {
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) {
+
+                context.getCancellation().cancelPreviousQueries();
+
+                return Msg.emptyMsg(MsgHeader.newResponseHeader(context.getRequestHeader(), OpCode.NOOP, 0, 0));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return QueryType.CANCEL;
+            }
+        };
+    }
+}
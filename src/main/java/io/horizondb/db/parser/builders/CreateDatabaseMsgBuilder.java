@@ -59,7 +59,7 @@ final class CreateDatabaseMsgBuilder extends HqlBaseListener implements MsgBuild
     @Override
     public void enterCreateDatabase(@NotNull CreateDatabaseContext ctx) {
 
-        String databaseName = ctx.ID().getText();
+        String databaseName = ctx.identifier().getText();
         this.definition = new DatabaseDefinition(databaseName);
     }
 
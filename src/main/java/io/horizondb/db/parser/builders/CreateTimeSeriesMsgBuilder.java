@@ -99,7 +99,7 @@ final class CreateTimeSeriesMsgBuilder extends HqlBaseListener implements MsgBui
     @Override
     public void enterRecordDefinition(@NotNull RecordDefinitionContext ctx) {
        
-        String recordTypeName = ctx.ID().getText();
+        String recordTypeName = ctx.identifier().getText();
         this.recordTypeDefBuilder = RecordTypeDefinition.newBuilder(recordTypeName); 
     }
 
@@ -118,7 +118,7 @@ final class CreateTimeSeriesMsgBuilder extends HqlBaseListener implements MsgBui
     @Override
     public void exitFieldDefinition(@NotNull FieldDefinitionContext ctx) {
 
-        String fieldName = ctx.ID().getText();
+        String fieldName = ctx.identifier().getText();
         String fieldType = ctx.type().getText();
 
         this.recordTypeDefBuilder.addField(fieldName, FieldType.valueOf(fieldType.toUpperCase()));
@@ -76,7 +76,7 @@ final class DropDatabaseMsgBuilder extends HqlBaseListener implements MsgBuilder
     @Override
     public void enterDropDatabase(@NotNull DropDatabaseContext ctx) {
         
-        this.databaseName = ctx.ID().getText();
+        this.databaseName = ctx.identifier().getText();
     }
 
     /**
@@ -0,0 +1,110 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser.builders;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.parser.BadHqlGrammarException;
+import io.horizondb.db.parser.HqlBaseListener;
+import io.horizondb.db.parser.HqlParser.ExecuteContext;
+import io.horizondb.db.parser.MsgBuilder;
+import io.horizondb.db.parser.PreparedStatements;
+import io.horizondb.db.parser.SchemaVersions;
+import io.horizondb.db.parser.StatementKey;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.antlr.v4.runtime.misc.NotNull;
+
+/**
+ * <code>Builder</code> for the messages resulting from the execution of a prepared statement.
+ */
+final class ExecuteMsgBuilder extends HqlBaseListener implements MsgBuilder {
+
+    /**
+     * The versions of the time series schemas.
+     */
+    private final SchemaVersions schemaVersions;
+
+    /**
+     * The statements prepared on the connection.
+     */
+    private final PreparedStatements preparedStatements;
+
+    /**
+     * The original request header.
+     */
+    private final MsgHeader requestHeader;
+
+    /**
+     * The name of the database on which the statement must be executed.
+     */
+    private final String databaseName;
+
+    /**
+     * The statement name.
+     */
+    private String name;
+
+    /**
+     * The parameter values.
+     */
+    private List<String> parameters;
+
+    /**
+     * Creates a new <code>ExecuteMsgBuilder</code> instance.
+     *
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
+     * @param requestHeader the original request header
+     * @param databaseName the name of the database on which the statement must be executed
+     */
+    public ExecuteMsgBuilder(SchemaVersions schemaVersions,
+                             PreparedStatements preparedStatements,
+                             MsgHeader requestHeader,
+                             String databaseName) {
+
+        this.schemaVersions = schemaVersions;
+        this.preparedStatements = preparedStatements;
+        this.requestHeader = requestHeader;
+        this.databaseName = databaseName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterExecute(@NotNull ExecuteContext ctx) {
+
+        this.name = ctx.identifier().getText();
+        this.parameters = InsertMsgBuilder.toList(ctx.parameterList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Msg<?> build() throws IOException, HorizonDBException {
+
+        if (this.preparedStatements == null) {
+            throw new BadHqlGrammarException("Prepared statements are not supported");
+        }
+
+        StatementKey key = new StatementKey(this.databaseName, this.name);
+
+        return this.preparedStatements.get(key, this.schemaVersions).bind(this.requestHeader, this.parameters);
+    }
+}
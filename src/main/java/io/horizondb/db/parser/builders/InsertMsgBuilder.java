@@ -14,38 +14,35 @@
 package io.horizondb.db.parser.builders;
 
 import io.horizondb.db.HorizonDBException;
-import io.horizondb.db.databases.Database;
 import io.horizondb.db.databases.DatabaseManager;
 import io.horizondb.db.parser.BadHqlGrammarException;
 import io.horizondb.db.parser.HqlBaseListener;
 import io.horizondb.db.parser.HqlParser.InsertContext;
 import io.horizondb.db.parser.HqlParser.RecordNameContext;
+import io.horizondb.db.parser.HqlParser.ValueListContext;
 import io.horizondb.db.parser.MsgBuilder;
-import io.horizondb.db.series.TimeSeries;
-import io.horizondb.io.Buffer;
-import io.horizondb.io.buffers.Buffers;
-import io.horizondb.model.core.RecordUtils;
-import io.horizondb.model.core.records.BlockHeaderUtils;
+import io.horizondb.db.parser.SchemaVersions;
 import io.horizondb.model.core.records.TimeSeriesRecord;
-import io.horizondb.model.protocol.InsertPayload;
 import io.horizondb.model.protocol.Msg;
 import io.horizondb.model.protocol.MsgHeader;
-import io.horizondb.model.protocol.OpCode;
-import io.horizondb.model.protocol.Payload;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.misc.NotNull;
 
-import static java.lang.String.format;
-
 /**
  * <code>Builder</code> for messages requesting some data insertion.
+ * <p>
+ * Several insert statements can be sent within the same HQL query. The records targeting the same time series are
+ * then grouped within a single message and the messages for the different time series are executed as a batch.
+ * </p>
  */
 final class InsertMsgBuilder extends HqlBaseListener implements MsgBuilder {
 
@@ -60,32 +57,17 @@ final class InsertMsgBuilder extends HqlBaseListener implements MsgBuilder {
     private final MsgHeader requestHeader;
     
     /**
-     * The name of the database in which the data must be inserted.
-     */
-    private String databaseName; 
-    
-    /**
-     * The time series in which the data must be inserted.
-     */
-    private String series;
-    
-    /**
-     * The type of the record that must be inserted.
-     */
-    private String recordType;
-    
-    /**
-     * The name of the fields in which some data must be inserted.
+     * The name of the database in which the data must be inserted if no database is specified in the statement.
      */
-    private List<String> fieldNames;
+    private final String databaseName; 
     
     /**
-     * The field values.
+     * The insert statements.
      */
-    private List<String> fieldValues;
+    private final List<InsertStatement> statements = new ArrayList<>();
     
     /**
-     * Creates a new <code>CreateTimeSeriesRequestBuilder</code> instance.
+     * Creates a new <code>InsertMsgBuilder</code> instance.
      * 
      * @param databaseManager the database manager
      * @param requestHeader the original request header
@@ -104,17 +86,25 @@ final class InsertMsgBuilder extends HqlBaseListener implements MsgBuilder {
     @Override
     public void enterInsert(@NotNull InsertContext ctx) {
 
+        String database = this.databaseName;
+        
         if (ctx.databaseName() != null) {
-            this.databaseName = ctx.databaseName().getText();
+            database = ctx.databaseName().getText();
         }
         
         RecordNameContext recordName = ctx.recordName();
         
-        this.series = recordName.timeSeriesName().getText();
-        this.recordType = recordName.ID().getText();
+        List<List<String>> rows = new ArrayList<>();
+        
+        for (ValueListContext valueList : ctx.valueList()) {
+            rows.add(toList(valueList));
+        }
         
-        this.fieldNames = toList(ctx.fieldList());
-        this.fieldValues = toList(ctx.valueList());
+        this.statements.add(new InsertStatement(database,
+                                                recordName.timeSeriesName().getText(),
+                                                recordName.identifier().getText(),
+                                                toList(ctx.fieldList()),
+                                                rows));
     }
 
     /**
@@ -123,7 +113,7 @@ final class InsertMsgBuilder extends HqlBaseListener implements MsgBuilder {
      * @param ctx the context from which the list must be extracted
      * @return a list of values
      */
-    private static List<String> toList(ParserRuleContext ctx) {
+    static List<String> toList(ParserRuleContext ctx) {
         
         if (ctx == null) {
             return Collections.emptyList();
@@ -138,72 +128,214 @@ final class InsertMsgBuilder extends HqlBaseListener implements MsgBuilder {
         return list;
     }
     
+    /**
+     * Returns <code>true</code> if this builder has received more than one insert statement.
+     * 
+     * @return <code>true</code> if this builder has received more than one insert statement.
+     */
+    boolean isBatch() {
+        return this.statements.size() > 1;
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public Msg<?> build() throws IOException, HorizonDBException {
 
-        Database database = this.databaseManager.getDatabase(this.databaseName);
-        TimeSeries timeSeries = database.getTimeSeries(this.series);
-        TimeSeriesDefinition definition = timeSeries.getDefinition();
+        if (!isBatch()) {
+            
+            InsertStatement statement = this.statements.get(0);
+            
+            if (statement.hasParameters()) {
+                throw new BadHqlGrammarException("Parameter markers are only allowed within prepared statements");
+            }
+            
+            return statement.prepare(this.databaseManager).bind(this.requestHeader, Collections.<String>emptyList());
+        }
+        
+        List<Msg<?>> msgs = buildBatch();
+        
+        if (msgs.size() != 1) {
+            throw new BadHqlGrammarException("Insert statements targeting several time series must be executed as a batch");
+        }
+        
+        return msgs.get(0);
+    }
+    
+    /**
+     * Builds one insert message per time series targeted by the insert statements. All the records targeting 
+     * the same time series are grouped within the same message.
+     * 
+     * @return the insert messages
+     * @throws IOException if an I/O problem occurs while building the messages
+     * @throws HorizonDBException if a problem occurs while building the messages
+     */
+    List<Msg<?>> buildBatch() throws IOException, HorizonDBException {
+        
+        Map<String, List<TimeSeriesRecord>> recordsPerSeries = new LinkedHashMap<>();
+        Map<String, PreparedInsert> firstStatementPerSeries = new LinkedHashMap<>();
+        
+        for (InsertStatement statement : this.statements) {
+            
+            if (statement.hasParameters()) {
+                throw new BadHqlGrammarException("Parameter markers are only allowed within prepared statements");
+            }
+            
+            PreparedInsert insert = statement.prepare(this.databaseManager);
+            
+            String key = toKey(insert);
+            
+            List<TimeSeriesRecord> records = recordsPerSeries.get(key);
+            
+            if (records == null) {
+                records = new ArrayList<>();
+                recordsPerSeries.put(key, records);
+                firstStatementPerSeries.put(key, insert);
+            }
+            
+            records.addAll(insert.newRecords(Collections.<String>emptyList()));
+        }
+        
+        List<Msg<?>> msgs = new ArrayList<>(recordsPerSeries.size());
+        
+        for (Map.Entry<String, List<TimeSeriesRecord>> entry : recordsPerSeries.entrySet()) {
+            
+            PreparedInsert insert = firstStatementPerSeries.get(entry.getKey());
+            
+            msgs.add(PreparedInsert.newInsertMsg(this.requestHeader,
+                                                 insert.getDatabaseName(), 
+                                                 insert.getSeries(), 
+                                                 insert.getDefinition(), 
+                                                 entry.getValue()));
+        }
+        
+        return msgs;
+    }
 
-        int recordTypeIndex = definition.getRecordTypeIndex(this.recordType);
-        TimeSeriesRecord record = newRecord(definition, recordTypeIndex);
-        int size = RecordUtils.computeSerializedSize(record);
+    /**
+     * Resolves the time series and the fields of this insert statement and returns the corresponding
+     * <code>PreparedInsert</code>.
+     * 
+     * @return the <code>PreparedInsert</code> corresponding to this insert statement
+     * @throws IOException if an I/O problem occurs while resolving the time series
+     * @throws HorizonDBException if the database, the time series or the fields do not exist
+     */
+    PreparedInsert prepare() throws IOException, HorizonDBException {
 
-        TimeSeriesRecord header = definition.newBlockHeader();
-        BlockHeaderUtils.setFirstTimestamp(header, record);
-        BlockHeaderUtils.setLastTimestamp(header, record);
-        BlockHeaderUtils.setCompressedBlockSize(header, size);
-        BlockHeaderUtils.setRecordCount(header, recordTypeIndex, 1);
+        return this.statements.get(0).prepare(this.databaseManager);
+    }
+    
+    /**
+     * Returns the version of the schema of the time series targeted by the first insert statement. The version must
+     * be read before the statement is resolved.
+     * 
+     * @param schemaVersions the versions of the time series schemas
+     * @return the version of the schema of the time series targeted by the first insert statement
+     */
+    long getSchemaVersion(SchemaVersions schemaVersions) {
 
-        Buffer buffer = Buffers.allocate(RecordUtils.computeSerializedSize(header) + size);
-        RecordUtils.writeRecord(buffer, header);
-        RecordUtils.writeRecord(buffer, record);
+        InsertStatement statement = this.statements.get(0);
 
-        Payload payload = new InsertPayload(this.databaseName,
-                                            this.series,
-                                            recordTypeIndex,
-                                            buffer);
-        
-        return Msg.newRequestMsg(this.requestHeader, OpCode.INSERT, payload);
+        return schemaVersions.getVersion(statement.databaseName, statement.series);
     }
     
     /**
-     * Creates a new record from the specified payload.
+     * Returns the key used to group the records targeting the same time series.
      * 
-     * @param definition the time series definition
-     * @param payload the payload
-     * @return the new record
-     * @throws BadHqlGrammarException if some values are invalid
+     * @param insert the insert statement
+     * @return the key used to group the records targeting the same time series.
+     */
+    private static String toKey(PreparedInsert insert) {
+        
+        TimeSeriesDefinition definition = insert.getDefinition(); 
+        
+        return insert.getDatabaseName().toLowerCase() + '.' + definition.getName().toLowerCase();
+    }
+    
+    /**
+     * An insert statement as received from the parser.
      */
-    private TimeSeriesRecord newRecord(TimeSeriesDefinition definition, int recordIndex) throws BadHqlGrammarException {
+    private static final class InsertStatement {
+        
+        /**
+         * The name of the database in which the data must be inserted.
+         */
+        private final String databaseName; 
         
-        String fieldValue = null;
+        /**
+         * The time series in which the data must be inserted.
+         */
+        private final String series;
         
-        try {
-            TimeSeriesRecord record = definition.newRecord(recordIndex);
+        /**
+         * The type of the records that must be inserted.
+         */
+        private final String recordType;
+        
+        /**
+         * The name of the fields in which some data must be inserted.
+         */
+        private final List<String> fieldNames;
+        
+        /**
+         * The field values of each row.
+         */
+        private final List<List<String>> rows;
 
-            if (this.fieldNames.isEmpty()) {
-                for (int i = 0, m = this.fieldValues.size();  i < m ; i++) {
-                    fieldValue = this.fieldValues.get(i);
-                    record.getField(i).setValueFromString(definition.getTimeZone(), this.fieldValues.get(i));
-                }
-            } else {
-                for (int i = 0, m = this.fieldNames.size();  i < m ; i++) {
-                    String fieldName = this.fieldNames.get(i);
-                    fieldValue = this.fieldValues.get(i);
-                    int fieldIndex = definition.getFieldIndex(recordIndex, fieldName);
-                     
-                    record.getField(fieldIndex).setValueFromString(definition.getTimeZone(), this.fieldValues.get(i));
+        /**
+         * Creates a new <code>InsertStatement</code>.
+         * 
+         * @param databaseName the name of the database in which the data must be inserted
+         * @param series the time series in which the data must be inserted
+         * @param recordType the type of the records that must be inserted
+         * @param fieldNames the name of the fields in which some data must be inserted
+         * @param rows the field values of each row
+         */
+        public InsertStatement(String databaseName, 
+                               String series, 
+                               String recordType, 
+                               List<String> fieldNames, 
+                               List<List<String>> rows) {
+            
+            this.databaseName = databaseName;
+            this.series = series;
+            this.recordType = recordType;
+            this.fieldNames = fieldNames;
+            this.rows = rows;
+        }
+        
+        /**
+         * Returns <code>true</code> if some values of this statement are parameter markers.
+         * 
+         * @return <code>true</code> if some values of this statement are parameter markers.
+         */
+        public boolean hasParameters() {
+            
+            for (List<String> row : this.rows) {
+                if (row.contains(PreparedInsert.PARAMETER_MARKER)) {
+                    return true;
                 }
             }
-            return record;
-        } catch (NumberFormatException e) {
-            throw new BadHqlGrammarException(format("The value %s cannot be converted into a number", fieldValue));
-        } catch (IllegalArgumentException e) {
-            throw new BadHqlGrammarException(e.getMessage());
+            return false;
+        }
+        
+        /**
+         * Resolves the time series and the fields of this statement.
+         * 
+         * @param databaseManager the database manager
+         * @return the corresponding <code>PreparedInsert</code>
+         * @throws IOException if an I/O problem occurs while resolving the time series
+         * @throws HorizonDBException if the database, the time series or the fields do not exist
+         */
+        public PreparedInsert prepare(DatabaseManager databaseManager) throws IOException, HorizonDBException {
+            
+            return PreparedInsert.newInstance(databaseManager,
+                                              this.databaseName,
+                                              this.series,
+                                              this.recordType,
+                                              this.fieldNames,
+                                              this.rows);
         }
     }
 }
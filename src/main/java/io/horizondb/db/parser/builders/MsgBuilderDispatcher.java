@@ -15,38 +15,53 @@ package io.horizondb.db.parser.builders;
 
 import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.Query;
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.parser.BadHqlGrammarException;
 import io.horizondb.db.parser.HqlBaseListener;
+import io.horizondb.db.parser.HqlListener;
+import io.horizondb.db.parser.HqlParser.AggregateFunctionContext;
 import io.horizondb.db.parser.HqlParser.BetweenPredicateContext;
+import io.horizondb.db.parser.HqlParser.CancelContext;
 import io.horizondb.db.parser.HqlParser.CreateDatabaseContext;
 import io.horizondb.db.parser.HqlParser.CreateTimeSeriesContext;
 import io.horizondb.db.parser.HqlParser.DropDatabaseContext;
 import io.horizondb.db.parser.HqlParser.DropTimeSeriesContext;
+import io.horizondb.db.parser.HqlParser.ExecuteContext;
 import io.horizondb.db.parser.HqlParser.FieldDefinitionContext;
 import io.horizondb.db.parser.HqlParser.FieldsDefinitionContext;
+import io.horizondb.db.parser.HqlParser.GroupByClauseContext;
 import io.horizondb.db.parser.HqlParser.InPredicateContext;
 import io.horizondb.db.parser.HqlParser.InsertContext;
+import io.horizondb.db.parser.HqlParser.LimitClauseContext;
+import io.horizondb.db.parser.HqlParser.OrderByClauseContext;
 import io.horizondb.db.parser.HqlParser.PredicateContext;
+import io.horizondb.db.parser.HqlParser.PrepareContext;
 import io.horizondb.db.parser.HqlParser.RecordDefinitionContext;
 import io.horizondb.db.parser.HqlParser.RecordsDefinitionContext;
 import io.horizondb.db.parser.HqlParser.SelectContext;
 import io.horizondb.db.parser.HqlParser.SelectListContext;
 import io.horizondb.db.parser.HqlParser.SimplePredicateContext;
 import io.horizondb.db.parser.HqlParser.TimeSeriesOptionContext;
+import io.horizondb.db.parser.HqlParser.TimeoutClauseContext;
 import io.horizondb.db.parser.HqlParser.UseDatabaseContext;
 import io.horizondb.db.parser.HqlParser.WhereClauseContext;
 import io.horizondb.db.parser.MsgBuilder;
+import io.horizondb.db.parser.PreparedStatements;
+import io.horizondb.db.parser.QueryBuilder;
+import io.horizondb.db.parser.SchemaVersions;
 import io.horizondb.model.protocol.Msg;
 import io.horizondb.model.protocol.MsgHeader;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.antlr.v4.runtime.misc.NotNull;
 
 /**
  * <code>MsgBuilder</code> that dispatch to the proper builder based on the received callback.
  */
-public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBuilder {
+public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBuilder, QueryBuilder {
 
     /**
      * The database configuration.
@@ -68,25 +83,58 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     private final String databaseName;
     
+    /**
+     * The versions of the time series schemas.
+     */
+    private final SchemaVersions schemaVersions;
+    
+    /**
+     * The statements prepared on the connection.
+     */
+    private final PreparedStatements preparedStatements;
+    
     /**
      * The builder to which the calls must be dispatched.
      */
-    private MsgBuilder builder;
+    private HqlListener builder;
+    
+    /**
+     * The builder to which the calls are dispatched if the statement is converted into a low level message.
+     */
+    private MsgBuilder msgBuilder;
+    
+    /**
+     * The builder to which the calls are dispatched if the statement is converted into a query.
+     */
+    private QueryBuilder queryBuilder;
+    
+    /**
+     * The builder used for the insert statements. The consecutive insert statements of a query are all dispatched
+     * to the same builder to be executed as a batch.
+     */
+    private InsertMsgBuilder insertBuilder;
     
     /**
      * Creates a dispatcher.
      * 
      * @param configuration the database configuration
+     * @param databaseManager the database manager
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
      * @param requestHeader the original request header
      * @param databaseName the name of the database on which the query must be executed
      */
     public MsgBuilderDispatcher(Configuration configuration, 
                                 DatabaseManager databaseManager,
+                                SchemaVersions schemaVersions,
+                                PreparedStatements preparedStatements,
                                 MsgHeader requestHeader, 
                                 String databaseName) {
         
         this.configuration = configuration;
         this.databaseManager = databaseManager;
+        this.schemaVersions = schemaVersions;
+        this.preparedStatements = preparedStatements;
         this.requestHeader = requestHeader;
         this.databaseName = databaseName;
     }
@@ -97,7 +145,7 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
     @Override
     public void enterCreateDatabase(@NotNull CreateDatabaseContext ctx) {
         
-        this.builder = new CreateDatabaseMsgBuilder(this.requestHeader);
+        dispatchTo(new CreateDatabaseMsgBuilder(this.requestHeader));
         
         this.builder.enterCreateDatabase(ctx);
     }
@@ -196,7 +244,7 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
     @Override
     public void enterUseDatabase(@NotNull UseDatabaseContext ctx) {
         
-        this.builder = new UseDatabaseMsgBuilder(this.requestHeader);
+        dispatchTo(new UseDatabaseMsgBuilder(this.requestHeader));
         this.builder.enterUseDatabase(ctx);
     }
 
@@ -206,10 +254,10 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
     @Override
     public void enterCreateTimeSeries(@NotNull CreateTimeSeriesContext ctx) {
         
-        this.builder = new CreateTimeSeriesMsgBuilder(this.configuration,
-                                                      this.databaseManager,
-                                                      this.requestHeader, 
-                                                      this.databaseName);
+        dispatchTo(new CreateTimeSeriesMsgBuilder(this.configuration,
+                                                  this.databaseManager,
+                                                  this.requestHeader,
+                                                  this.databaseName));
         this.builder.enterCreateTimeSeries(ctx);
     }
 
@@ -219,9 +267,9 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     @Override
     public void enterDropDatabase(@NotNull DropDatabaseContext ctx) {
-        this.builder = new DropDatabaseMsgBuilder(this.databaseManager,
-                                                  this.requestHeader,
-                                                  this.databaseName);
+        dispatchTo(new DropDatabaseMsgBuilder(this.databaseManager,
+                                              this.requestHeader,
+                                              this.databaseName));
         this.builder.enterDropDatabase(ctx);
     }
 
@@ -230,9 +278,9 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     @Override
     public void enterDropTimeSeries(@NotNull DropTimeSeriesContext ctx) {
-        this.builder = new DropTimeSeriesMsgBuilder(this.databaseManager,
-                                                    this.requestHeader,
-                                                    this.databaseName);
+        dispatchTo(new DropTimeSeriesMsgBuilder(this.databaseManager,
+                                                this.requestHeader,
+                                                this.databaseName));
         this.builder.enterDropTimeSeries(ctx);
     }
 
@@ -249,7 +297,7 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     @Override
     public void enterSelect(@NotNull SelectContext ctx) {
-        this.builder = new SelectMsgBuilder(this.databaseManager, this.requestHeader, this.databaseName);
+        dispatchTo((MsgBuilder) new SelectMsgBuilder(this.databaseManager, this.requestHeader, this.databaseName));
         this.builder.enterSelect(ctx);
     }
 
@@ -259,6 +307,52 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
     @Override
     public void exitSelect(@NotNull SelectContext ctx) {
         this.builder.exitSelect(ctx);
+        
+        SelectMsgBuilder selectBuilder = (SelectMsgBuilder) this.builder;
+        
+        if (selectBuilder.isQuery()) {
+            dispatchTo((QueryBuilder) selectBuilder);
+        }
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterAggregateFunction(@NotNull AggregateFunctionContext ctx) {
+        this.builder.enterAggregateFunction(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterGroupByClause(@NotNull GroupByClauseContext ctx) {
+        this.builder.enterGroupByClause(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterOrderByClause(@NotNull OrderByClauseContext ctx) {
+        this.builder.enterOrderByClause(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterLimitClause(@NotNull LimitClauseContext ctx) {
+        this.builder.enterLimitClause(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterTimeoutClause(@NotNull TimeoutClauseContext ctx) {
+        this.builder.enterTimeoutClause(ctx);
     }
 
     /**    
@@ -330,8 +424,51 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     @Override
     public void enterInsert(@NotNull InsertContext ctx) {
-        this.builder = new InsertMsgBuilder(this.databaseManager, this.requestHeader, this.databaseName);
-        this.builder.enterInsert(ctx);
+        
+        if (ctx.getParent() instanceof PrepareContext) {
+            this.builder.enterInsert(ctx);
+            return;
+        }
+        
+        if (this.insertBuilder == null || this.builder != this.insertBuilder) {
+            this.insertBuilder = new InsertMsgBuilder(this.databaseManager, this.requestHeader, this.databaseName);
+            dispatchTo(this.insertBuilder);
+        }
+        this.insertBuilder.enterInsert(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterPrepare(@NotNull PrepareContext ctx) {
+        dispatchTo(new PrepareQueryBuilder(this.databaseManager, 
+                                           this.schemaVersions,
+                                           this.preparedStatements,
+                                           this.requestHeader,
+                                           this.databaseName));
+        this.builder.enterPrepare(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterExecute(@NotNull ExecuteContext ctx) {
+        dispatchTo(new ExecuteMsgBuilder(this.schemaVersions, 
+                                         this.preparedStatements, 
+                                         this.requestHeader, 
+                                         this.databaseName));
+        this.builder.enterExecute(ctx);
+    }
+
+    /**    
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterCancel(@NotNull CancelContext ctx) {
+        dispatchTo(new CancelQueryBuilder());
+        this.builder.enterCancel(ctx);
     }
 
     /**
@@ -339,6 +476,70 @@ public final class MsgBuilderDispatcher extends HqlBaseListener implements MsgBu
      */
     @Override
     public Msg<?> build() throws IOException, HorizonDBException {
-        return this.builder.build();
+        
+        if (this.msgBuilder == null) {
+            throw new BadHqlGrammarException("The statement cannot be converted into a low level message");
+        }
+        return this.msgBuilder.build();
+    }
+
+    /**
+     * Returns <code>true</code> if the statement must be executed as a query instead of being converted into a 
+     * low level message.
+     * 
+     * @return <code>true</code> if the statement must be executed as a query.
+     */
+    public boolean isQuery() {
+        return this.queryBuilder != null;
+    }
+
+    /**
+     * Returns <code>true</code> if the query contains several insert statements that must be executed as a batch.
+     * 
+     * @return <code>true</code> if the query contains several insert statements that must be executed as a batch.
+     */
+    public boolean isBatch() {
+        return this.insertBuilder != null && this.builder == this.insertBuilder && this.insertBuilder.isBatch();
+    }
+
+    /**
+     * Builds the messages of the batch, one message per time series.
+     * 
+     * @return the messages of the batch.
+     * @throws IOException if an I/O problem occurs while building the messages
+     * @throws HorizonDBException if a problem occurs while building the messages
+     */
+    public List<Msg<?>> buildBatch() throws IOException, HorizonDBException {
+        return this.insertBuilder.buildBatch();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Query buildQuery() throws IOException, HorizonDBException {
+        return this.queryBuilder.buildQuery();
+    }
+
+    /**
+     * Dispatches the next calls to the specified message builder.
+     * 
+     * @param builder the message builder
+     */
+    private void dispatchTo(MsgBuilder builder) {
+        this.builder = builder;
+        this.msgBuilder = builder;
+        this.queryBuilder = null;
+    }
+
+    /**
+     * Dispatches the next calls to the specified query builder.
+     * 
+     * @param builder the query builder
+     */
+    private void dispatchTo(QueryBuilder builder) {
+        this.builder = builder;
+        this.msgBuilder = null;
+        this.queryBuilder = builder;
     }
 }
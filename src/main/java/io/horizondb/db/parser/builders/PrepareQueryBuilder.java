@@ -0,0 +1,141 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser.builders;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.Query;
+import io.horizondb.db.QueryContext;
+import io.horizondb.db.QueryType;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.parser.BadHqlGrammarException;
+import io.horizondb.db.parser.HqlBaseListener;
+import io.horizondb.db.parser.HqlParser.InsertContext;
+import io.horizondb.db.parser.HqlParser.PrepareContext;
+import io.horizondb.db.parser.PreparedStatement;
+import io.horizondb.db.parser.PreparedStatements;
+import io.horizondb.db.parser.QueryBuilder;
+import io.horizondb.db.parser.SchemaVersions;
+import io.horizondb.db.parser.StatementKey;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.OpCode;
+
+import java.io.IOException;
+
+import org.antlr.v4.runtime.misc.NotNull;
+
+/**
+ * <code>Builder</code> for the queries registering a prepared statement.
+ */
+final class PrepareQueryBuilder extends HqlBaseListener implements QueryBuilder {
+
+    /**
+     * The versions of the time series schemas.
+     */
+    private final SchemaVersions schemaVersions;
+
+    /**
+     * The statements prepared on the connection.
+     */
+    private final PreparedStatements preparedStatements;
+
+    /**
+     * The name of the database on which the statement will be executed.
+     */
+    private final String databaseName;
+
+    /**
+     * The builder for the statement being prepared.
+     */
+    private final InsertMsgBuilder insertBuilder;
+
+    /**
+     * The statement name.
+     */
+    private String name;
+
+    /**
+     * Creates a new <code>PrepareQueryBuilder</code> instance.
+     *
+     * @param databaseManager the database manager
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
+     * @param requestHeader the original request header
+     * @param databaseName the name of the database on which the statement will be executed
+     */
+    public PrepareQueryBuilder(DatabaseManager databaseManager,
+                               SchemaVersions schemaVersions,
+                               PreparedStatements preparedStatements,
+                               MsgHeader requestHeader,
+                               String databaseName) {
+
+        this.schemaVersions = schemaVersions;
+        this.preparedStatements = preparedStatements;
+        this.databaseName = databaseName;
+        this.insertBuilder = new InsertMsgBuilder(databaseManager, requestHeader, databaseName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterPrepare(@NotNull PrepareContext ctx) {
+        this.name = ctx.identifier().getText();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterInsert(@NotNull InsertContext ctx) {
+        this.insertBuilder.enterInsert(ctx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Query buildQuery() throws IOException, HorizonDBException {
+
+        if (this.preparedStatements == null) {
+            throw new BadHqlGrammarException("Prepared statements are not supported");
+        }
+
+        final StatementKey key = new StatementKey(this.databaseName, this.name);
+        final long schemaVersion = this.insertBuilder.getSchemaVersion(this.schemaVersions);
+        final PreparedStatement statement = this.insertBuilder.prepare();
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) {
+
+                PrepareQueryBuilder.this.preparedStatements.put(key, statement, schemaVersion);
+
+                return Msg.emptyMsg(MsgHeader.newResponseHeader(context.getRequestHeader(), OpCode.NOOP, 0, 0));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return QueryType.PREPARE;
+            }
+        };
+    }
+}
@@ -0,0 +1,595 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser.builders;
+
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.databases.Database;
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.parser.BadHqlGrammarException;
+import io.horizondb.db.parser.PreparedStatement;
+import io.horizondb.db.series.TimeSeries;
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.RecordUtils;
+import io.horizondb.model.core.records.BlockHeaderUtils;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.protocol.InsertPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.protocol.Payload;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+import static java.lang.String.format;
+
+/**
+ * An insert statement for which the time series definition and the field indices have already been resolved.
+ * The values that are not known in advance are represented by <code>?</code> placeholders and are bound at
+ * execution time.
+ * <p>
+ * The constant values are parsed once, when the statement is prepared. The rows without parameters are also 
+ * serialized once and, if their timestamps are known, the rows are sorted in advance. Binding the parameters only 
+ * sets the fields provided as parameters and serializes the rows containing them.
+ * </p>
+ */
+@Immutable
+final class PreparedInsert implements PreparedStatement {
+
+    /**
+     * The marker used within the HQL queries to represent a parameter.
+     */
+    public static final String PARAMETER_MARKER = "?";
+
+    /**
+     * The index of the timestamp field.
+     */
+    private static final int TIMESTAMP_FIELD_INDEX = 0;
+
+    /**
+     * The comparator used to order the records of a block by timestamp.
+     */
+    private static final Comparator<TimeSeriesRecord> TIMESTAMP_COMPARATOR = new Comparator<TimeSeriesRecord>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(TimeSeriesRecord left, TimeSeriesRecord right) {
+            return left.getField(TIMESTAMP_FIELD_INDEX).compareTo(right.getField(TIMESTAMP_FIELD_INDEX));
+        }
+    };
+
+    /**
+     * The name of the database in which the data must be inserted.
+     */
+    private final String databaseName;
+
+    /**
+     * The time series in which the data must be inserted.
+     */
+    private final String series;
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The index of the type of the records that must be inserted.
+     */
+    private final int recordTypeIndex;
+
+    /**
+     * The indices of the fields in which some data must be inserted.
+     */
+    private final int[] fieldIndices;
+
+    /**
+     * The record of each row with its constant values already set. These records must not be modified.
+     */
+    private final TimeSeriesRecord[] templates;
+
+    /**
+     * The positions, within <code>fieldIndices</code>, of the values of each row that must be provided as 
+     * parameters.
+     */
+    private final int[][] parameterPositions;
+
+    /**
+     * The serialized form of each row or <code>null</code> for the rows containing some parameters.
+     */
+    private final byte[][] serializedRows;
+
+    /**
+     * The serialized size of the rows without parameters.
+     */
+    private final int serializedRowsSize;
+
+    /**
+     * The row indices in timestamp order or <code>null</code> if some timestamps are provided as parameters.
+     */
+    private final int[] rowOrder;
+
+    /**
+     * The block header with its record count already set. This record must not be modified.
+     */
+    private final TimeSeriesRecord headerTemplate;
+
+    /**
+     * The number of parameters.
+     */
+    private final int numberOfParameters;
+
+    /**
+     * Creates a new <code>PreparedInsert</code> for the specified insert statement.
+     *
+     * @param databaseManager the database manager
+     * @param databaseName the name of the database in which the data must be inserted
+     * @param series the time series in which the data must be inserted
+     * @param recordType the type of the records that must be inserted
+     * @param fieldNames the name of the fields in which some data must be inserted or an empty list if all the
+     * fields are specified in order
+     * @param rows the field values of each row, the values that must be provided as parameter being represented by
+     * the <code>?</code> marker.
+     * @return a new <code>PreparedInsert</code>
+     * @throws IOException if an I/O problem occurs while resolving the time series
+     * @throws HorizonDBException if the database, the time series or the fields do not exist
+     */
+    public static PreparedInsert newInstance(DatabaseManager databaseManager,
+                                             String databaseName,
+                                             String series,
+                                             String recordType,
+                                             List<String> fieldNames,
+                                             List<List<String>> rows) throws IOException, HorizonDBException {
+
+        Database database = databaseManager.getDatabase(databaseName);
+        TimeSeries timeSeries = database.getTimeSeries(series);
+        TimeSeriesDefinition definition = timeSeries.getDefinition();
+
+        int recordTypeIndex = definition.getRecordTypeIndex(recordType);
+
+        int numberOfFields = rows.get(0).size();
+
+        if (!fieldNames.isEmpty() && fieldNames.size() != numberOfFields) {
+            throw new BadHqlGrammarException(format("The number of values (%d) does not match the number of fields (%d)",
+                                                    Integer.valueOf(numberOfFields),
+                                                    Integer.valueOf(fieldNames.size())));
+        }
+
+        int[] fieldIndices = new int[numberOfFields];
+
+        try {
+
+            for (int i = 0; i < numberOfFields; i++) {
+
+                if (fieldNames.isEmpty()) {
+                    fieldIndices[i] = i;
+                } else {
+                    fieldIndices[i] = definition.getFieldIndex(recordTypeIndex, fieldNames.get(i));
+                }
+            }
+
+        } catch (IllegalArgumentException e) {
+            throw new BadHqlGrammarException(e.getMessage());
+        }
+
+        int numberOfRows = rows.size();
+
+        TimeSeriesRecord[] templates = new TimeSeriesRecord[numberOfRows];
+        int[][] parameterPositions = new int[numberOfRows][];
+        byte[][] serializedRows = new byte[numberOfRows][];
+        int serializedRowsSize = 0;
+        int numberOfParameters = 0;
+        boolean timestampsAreParameters = false;
+
+        for (int i = 0; i < numberOfRows; i++) {
+
+            List<String> row = rows.get(i);
+
+            if (row.size() != numberOfFields) {
+                throw new BadHqlGrammarException("All the rows must have the same number of values");
+            }
+
+            TimeSeriesRecord template = definition.newRecord(recordTypeIndex);
+            int[] positions = new int[numberOfFields];
+            int numberOfRowParameters = 0;
+
+            for (int j = 0; j < numberOfFields; j++) {
+
+                String value = row.get(j);
+
+                if (PARAMETER_MARKER.equals(value)) {
+
+                    positions[numberOfRowParameters++] = j;
+                    timestampsAreParameters |= (fieldIndices[j] == TIMESTAMP_FIELD_INDEX);
+
+                } else {
+
+                    setField(definition, template, fieldIndices[j], value);
+                }
+            }
+
+            templates[i] = template;
+            parameterPositions[i] = Arrays.copyOf(positions, numberOfRowParameters);
+            numberOfParameters += numberOfRowParameters;
+
+            if (numberOfRowParameters == 0) {
+                serializedRows[i] = serialize(template);
+                serializedRowsSize += serializedRows[i].length;
+            }
+        }
+
+        int[] rowOrder = timestampsAreParameters ? null : sortRows(templates);
+
+        TimeSeriesRecord headerTemplate = definition.newBlockHeader();
+        BlockHeaderUtils.setRecordCount(headerTemplate, recordTypeIndex, numberOfRows);
+
+        return new PreparedInsert(databaseName,
+                                  series,
+                                  definition,
+                                  recordTypeIndex,
+                                  fieldIndices,
+                                  templates,
+                                  parameterPositions,
+                                  serializedRows,
+                                  serializedRowsSize,
+                                  rowOrder,
+                                  headerTemplate,
+                                  numberOfParameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDatabaseName() {
+        return this.databaseName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSeries() {
+        return this.series;
+    }
+
+    /**
+     * Returns the definition of the time series in which the data must be inserted.
+     *
+     * @return the definition of the time series in which the data must be inserted.
+     */
+    public TimeSeriesDefinition getDefinition() {
+        return this.definition;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfParameters() {
+        return this.numberOfParameters;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Msg<?> bind(MsgHeader requestHeader, List<String> parameters) throws IOException, HorizonDBException {
+
+        checkNumberOfParameters(parameters);
+
+        int numberOfRows = this.templates.length;
+
+        TimeSeriesRecord[] records = new TimeSeriesRecord[numberOfRows];
+        int size = this.serializedRowsSize;
+        int parameterIndex = 0;
+
+        for (int i = 0; i < numberOfRows; i++) {
+
+            if (this.serializedRows[i] == null) {
+
+                records[i] = bindRow(i, parameters, parameterIndex);
+                parameterIndex += this.parameterPositions[i].length;
+                size += RecordUtils.computeSerializedSize(records[i]);
+
+            } else {
+
+                records[i] = this.templates[i];
+            }
+        }
+
+        int[] order = this.rowOrder == null ? sortRows(records) : this.rowOrder;
+
+        TimeSeriesRecord header = this.definition.newBlockHeader();
+        this.headerTemplate.copyTo(header);
+        BlockHeaderUtils.setFirstTimestamp(header, records[order[0]]);
+        BlockHeaderUtils.setLastTimestamp(header, records[order[numberOfRows - 1]]);
+        BlockHeaderUtils.setCompressedBlockSize(header, size);
+
+        Buffer buffer = Buffers.allocate(RecordUtils.computeSerializedSize(header) + size);
+        RecordUtils.writeRecord(buffer, header);
+
+        for (int i = 0; i < numberOfRows; i++) {
+
+            int row = order[i];
+
+            if (this.serializedRows[row] == null) {
+                RecordUtils.writeRecord(buffer, records[row]);
+            } else {
+                buffer.writeBytes(this.serializedRows[row]);
+            }
+        }
+
+        Payload payload = new InsertPayload(this.databaseName, this.series, this.recordTypeIndex, buffer);
+
+        return Msg.newRequestMsg(requestHeader, OpCode.INSERT, payload);
+    }
+
+    /**
+     * Creates the records corresponding to the rows of this statement once the specified parameters have been
+     * bound.
+     *
+     * @param parameters the parameter values
+     * @return the new records
+     * @throws BadHqlGrammarException if some values are invalid
+     */
+    public List<TimeSeriesRecord> newRecords(List<String> parameters) throws BadHqlGrammarException {
+
+        checkNumberOfParameters(parameters);
+
+        List<TimeSeriesRecord> records = new ArrayList<>(this.templates.length);
+
+        int parameterIndex = 0;
+
+        for (int i = 0, m = this.templates.length; i < m; i++) {
+
+            records.add(bindRow(i, parameters, parameterIndex));
+            parameterIndex += this.parameterPositions[i].length;
+        }
+
+        return records;
+    }
+
+    /**
+     * Creates a new insert message for the specified records. The records are written in timestamp order within
+     * a single block.
+     *
+     * @param requestHeader the original request header
+     * @param databaseName the name of the database in which the data must be inserted
+     * @param series the time series in which the data must be inserted
+     * @param definition the time series definition
+     * @param records the records to insert
+     * @return a new insert message
+     * @throws IOException if an I/O problem occurs while writing the records
+     */
+    public static Msg<?> newInsertMsg(MsgHeader requestHeader,
+                                      String databaseName,
+                                      String series,
+                                      TimeSeriesDefinition definition,
+                                      List<TimeSeriesRecord> records) throws IOException {
+
+        Collections.sort(records, TIMESTAMP_COMPARATOR);
+
+        int[] recordCounts = new int[definition.getNumberOfRecordTypes()];
+        int size = 0;
+
+        for (int i = 0, m = records.size(); i < m; i++) {
+
+            TimeSeriesRecord record = records.get(i);
+            recordCounts[record.getType()]++;
+            size += RecordUtils.computeSerializedSize(record);
+        }
+
+        TimeSeriesRecord header = definition.newBlockHeader();
+        BlockHeaderUtils.setFirstTimestamp(header, records.get(0));
+        BlockHeaderUtils.setLastTimestamp(header, records.get(records.size() - 1));
+        BlockHeaderUtils.setCompressedBlockSize(header, size);
+
+        for (int i = 0; i < recordCounts.length; i++) {
+
+            if (recordCounts[i] != 0) {
+                BlockHeaderUtils.setRecordCount(header, i, recordCounts[i]);
+            }
+        }
+
+        Buffer buffer = Buffers.allocate(RecordUtils.computeSerializedSize(header) + size);
+        RecordUtils.writeRecord(buffer, header);
+
+        for (int i = 0, m = records.size(); i < m; i++) {
+            RecordUtils.writeRecord(buffer, records.get(i));
+        }
+
+        Payload payload = new InsertPayload(databaseName,
+                                            series,
+                                            records.get(0).getType(),
+                                            buffer);
+
+        return Msg.newRequestMsg(requestHeader, OpCode.INSERT, payload);
+    }
+
+    /**
+     * Checks that the specified parameters match the number of parameters expected by this statement.
+     *
+     * @param parameters the parameter values
+     * @throws BadHqlGrammarException if the number of parameters is not the expected one
+     */
+    private void checkNumberOfParameters(List<String> parameters) throws BadHqlGrammarException {
+
+        if (parameters.size() != this.numberOfParameters) {
+            throw new BadHqlGrammarException(format("The statement expects %d parameters but %d have been specified",
+                                                    Integer.valueOf(this.numberOfParameters),
+                                                    Integer.valueOf(parameters.size())));
+        }
+    }
+
+    /**
+     * Creates the record of the specified row and sets the fields provided as parameters.
+     *
+     * @param row the row index
+     * @param parameters the parameter values
+     * @param firstParameterIndex the index of the first parameter of the row
+     * @return the record of the specified row
+     * @throws BadHqlGrammarException if some values are invalid
+     */
+    private TimeSeriesRecord bindRow(int row, 
+                                     List<String> parameters, 
+                                     int firstParameterIndex) throws BadHqlGrammarException {
+
+        TimeSeriesRecord record = this.definition.newRecord(this.recordTypeIndex);
+        this.templates[row].copyTo(record);
+
+        int[] positions = this.parameterPositions[row];
+
+        for (int i = 0; i < positions.length; i++) {
+
+            setField(this.definition,
+                     record,
+                     this.fieldIndices[positions[i]],
+                     parameters.get(firstParameterIndex + i));
+        }
+
+        return record;
+    }
+
+    /**
+     * Sets the value of the specified field from its string representation.
+     *
+     * @param definition the time series definition
+     * @param record the record
+     * @param fieldIndex the field index
+     * @param value the field value
+     * @throws BadHqlGrammarException if the value is invalid
+     */
+    private static void setField(TimeSeriesDefinition definition, 
+                                 TimeSeriesRecord record, 
+                                 int fieldIndex, 
+                                 String value) throws BadHqlGrammarException {
+
+        try {
+
+            record.getField(fieldIndex).setValueFromString(definition.getTimeZone(), value);
+
+        } catch (NumberFormatException e) {
+            throw new BadHqlGrammarException(format("The value %s cannot be converted into a number", value));
+        } catch (IllegalArgumentException e) {
+            throw new BadHqlGrammarException(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the indices of the specified records in timestamp order. The records with the same timestamp keep 
+     * their relative order.
+     *
+     * @param records the records
+     * @return the indices of the specified records in timestamp order
+     */
+    private static int[] sortRows(final TimeSeriesRecord[] records) {
+
+        Integer[] indices = new Integer[records.length];
+
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = Integer.valueOf(i);
+        }
+
+        Arrays.sort(indices, new Comparator<Integer>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int compare(Integer left, Integer right) {
+                return TIMESTAMP_COMPARATOR.compare(records[left.intValue()], records[right.intValue()]);
+            }
+        });
+
+        int[] order = new int[indices.length];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = indices[i].intValue();
+        }
+
+        return order;
+    }
+
+    /**
+     * Returns the serialized form of the specified record.
+     *
+     * @param record the record
+     * @return the serialized form of the specified record
+     * @throws IOException if an I/O problem occurs while serializing the record
+     */
+    private static byte[] serialize(TimeSeriesRecord record) throws IOException {
+
+        byte[] bytes = new byte[RecordUtils.computeSerializedSize(record)];
+
+        Buffer buffer = Buffers.allocate(bytes.length);
+        RecordUtils.writeRecord(buffer, record);
+        buffer.readBytes(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Creates a new <code>PreparedInsert</code>.
+     *
+     * @param databaseName the name of the database in which the data must be inserted
+     * @param series the time series in which the data must be inserted
+     * @param definition the time series definition
+     * @param recordTypeIndex the index of the type of the records that must be inserted
+     * @param fieldIndices the indices of the fields in which some data must be inserted
+     * @param templates the record of each row with its constant values set
+     * @param parameterPositions the positions of the parameters of each row
+     * @param serializedRows the serialized form of the rows without parameters
+     * @param serializedRowsSize the serialized size of the rows without parameters
+     * @param rowOrder the row indices in timestamp order or <code>null</code> if some timestamps are parameters
+     * @param headerTemplate the block header with its record count set
+     * @param numberOfParameters the number of parameters
+     */
+    private PreparedInsert(String databaseName,
+                           String series,
+                           TimeSeriesDefinition definition,
+                           int recordTypeIndex,
+                           int[] fieldIndices,
+                           TimeSeriesRecord[] templates,
+                           int[][] parameterPositions,
+                           byte[][] serializedRows,
+                           int serializedRowsSize,
+                           int[] rowOrder,
+                           TimeSeriesRecord headerTemplate,
+                           int numberOfParameters) {
+
+        this.databaseName = databaseName;
+        this.series = series;
+        this.definition = definition;
+        this.recordTypeIndex = recordTypeIndex;
+        this.fieldIndices = fieldIndices;
+        this.templates = templates;
+        this.parameterPositions = parameterPositions;
+        this.serializedRows = serializedRows;
+        this.serializedRowsSize = serializedRowsSize;
+        this.rowOrder = rowOrder;
+        this.headerTemplate = headerTemplate;
+        this.numberOfParameters = numberOfParameters;
+    }
+}
@@ -13,41 +13,84 @@
  */
 package io.horizondb.db.parser.builders;
 
+import io.horizondb.db.Cancellation;
 import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.Query;
+import io.horizondb.db.QueryContext;
+import io.horizondb.db.QueryTrace;
+import io.horizondb.db.QueryType;
 import io.horizondb.db.databases.Database;
 import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.operations.ChunkedRecordSet;
+import io.horizondb.db.operations.ChunkedRecordStream;
+import io.horizondb.db.parser.BadHqlGrammarException;
 import io.horizondb.db.parser.HqlBaseListener;
+import io.horizondb.db.parser.HqlParser.AggregateFunctionContext;
 import io.horizondb.db.parser.HqlParser.BetweenPredicateContext;
+import io.horizondb.db.parser.HqlParser.ExplainContext;
+import io.horizondb.db.parser.HqlParser.GroupByClauseContext;
 import io.horizondb.db.parser.HqlParser.InPredicateContext;
+import io.horizondb.db.parser.HqlParser.LimitClauseContext;
+import io.horizondb.db.parser.HqlParser.OrderByClauseContext;
 import io.horizondb.db.parser.HqlParser.PredicateContext;
+import io.horizondb.db.parser.HqlParser.ProfileContext;
 import io.horizondb.db.parser.HqlParser.SelectContext;
 import io.horizondb.db.parser.HqlParser.SelectListContext;
+import io.horizondb.db.parser.HqlParser.SelectListElementContext;
 import io.horizondb.db.parser.HqlParser.SimplePredicateContext;
+import io.horizondb.db.parser.HqlParser.TimeoutClauseContext;
 import io.horizondb.db.parser.MsgBuilder;
+import io.horizondb.db.parser.QueryBuilder;
+import io.horizondb.db.series.BlockStatistics;
+import io.horizondb.db.series.ContinuationToken;
+import io.horizondb.db.series.LimitedRecordIterator;
+import io.horizondb.db.series.QueryPlan;
+import io.horizondb.db.series.RecordListIterator;
 import io.horizondb.db.series.TimeSeries;
+import io.horizondb.db.series.aggregations.Aggregate;
+import io.horizondb.db.series.aggregations.AggregateFunction;
+import io.horizondb.db.series.aggregations.Aggregation;
 import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.Projection;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
 import io.horizondb.model.core.predicates.Operator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
 import io.horizondb.model.protocol.Msg;
 import io.horizondb.model.protocol.MsgHeader;
 import io.horizondb.model.protocol.OpCode;
 import io.horizondb.model.protocol.SelectPayload;
+import io.horizondb.model.schema.FieldType;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.misc.NotNull;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import static java.lang.String.format;
 
 /**
- * <code>Builder</code> for <code>SelectQuery</code> message instances.
+ * <code>Builder</code> for <code>SelectQuery</code> message instances. If the select contains some aggregate 
+ * functions it is built as a <code>Query</code> that computes the aggregates server side. The selects of the latest 
+ * values, that only contain <code>LAST</code> functions without WHERE or GROUP BY clause, are answered from memory.
+ * The selects with an ORDER BY, a LIMIT or a TIMEOUT clause are also built as a <code>Query</code>, the LIMIT clause 
+ * being optionally followed by the continuation token of the page previously returned.
+ * <p>
+ * A select prefixed by <code>EXPLAIN</code> returns the plan of its read instead of its records, and a select 
+ * prefixed by <code>PROFILE</code> is executed server side and returns the counters and the stage timings of its
+ * execution.
+ * </p>
  */
-final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
+final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder, QueryBuilder {
 
     /**
      * The database manager.
@@ -79,6 +122,78 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
      */
     private Deque<PredicateBuilder> predicateBuilders = new LinkedList<>();
 
+    /**
+     * The aggregate functions of the select list.
+     */
+    private final List<AggregateExpression> aggregates = new ArrayList<>();
+
+    /**
+     * <code>true</code> if the select list contains some fields that are not aggregated.
+     */
+    private boolean hasNonAggregatedFields;
+
+    /**
+     * The function used in the GROUP BY clause or <code>null</code> if the select has no GROUP BY clause.
+     */
+    private String groupByFunction;
+
+    /**
+     * The amount of the GROUP BY time interval.
+     */
+    private String intervalAmount;
+
+    /**
+     * The unit of the GROUP BY time interval.
+     */
+    private String intervalUnit;
+
+    /**
+     * <code>true</code> if the records are only filtered on exact timestamp ranges, in which case the blocks fully 
+     * contained within those ranges do not need to be read to compute the aggregates.
+     */
+    private boolean timestampRangesOnly = true;
+
+    /**
+     * <code>true</code> if the select has a WHERE clause.
+     */
+    private boolean hasWhereClause;
+
+    /**
+     * The field used in the ORDER BY clause or <code>null</code> if the select has no ORDER BY clause.
+     */
+    private String orderByField;
+
+    /**
+     * <code>true</code> if the records must be returned in descending order.
+     */
+    private boolean descendingOrder;
+
+    /**
+     * The maximum number of records to return or <code>null</code> if the select has no LIMIT clause.
+     */
+    private String limit;
+
+    /**
+     * The token used to resume a previous select or <code>null</code> if the select starts from the beginning.
+     */
+    private String continuationToken;
+
+    /**
+     * The time in milliseconds after which the select must be cancelled or <code>null</code> if the select has no 
+     * TIMEOUT clause.
+     */
+    private String timeout;
+
+    /**
+     * <code>true</code> if the plan of the select must be returned instead of its records.
+     */
+    private boolean explain;
+
+    /**
+     * <code>true</code> if the profile of the select execution must be returned instead of its records.
+     */
+    private boolean profile;
+
     /**
      * Creates a new <code>CreateTimeSeriesRequestBuilder</code> instance.
      * 
@@ -104,7 +219,10 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
         if (ctx.databaseName() != null) {
             this.databaseName = ctx.databaseName().getText();
         }
-        this.timeSeriesName = ctx.ID().getText();
+        this.timeSeriesName = ctx.identifier().getText();
+        this.hasWhereClause = (ctx.whereClause() != null);
+        this.explain = ctx.getParent() instanceof ExplainContext;
+        this.profile = ctx.getParent() instanceof ProfileContext;
     }
 
     /**
@@ -129,12 +247,430 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
         return Msg.newRequestMsg(this.requestHeader, OpCode.SELECT, payload);
     }
 
+    /**
+     * Returns <code>true</code> if the select is explained or profiled, or contains some aggregate functions or a 
+     * GROUP BY, ORDER BY, LIMIT or TIMEOUT clause and must be executed as a query.
+     * 
+     * @return <code>true</code> if the select must be executed as a query.
+     */
+    public boolean isQuery() {
+        return this.explain
+                || this.profile
+                || !this.aggregates.isEmpty() 
+                || this.groupByFunction != null 
+                || this.orderByField != null 
+                || this.limit != null
+                || this.timeout != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Query buildQuery() throws IOException, HorizonDBException {
+
+        if (this.explain) {
+            return buildExplainQuery();
+        }
+
+        if (this.profile) {
+            return buildProfileQuery(buildStatementQuery());
+        }
+
+        return buildStatementQuery();
+    }
+
+    /**
+     * Builds the <code>Query</code> returning the records or the aggregates selected by the statement.
+     * 
+     * @return the <code>Query</code> returning the selected records or aggregates
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if the select is invalid
+     */
+    private Query buildStatementQuery() throws IOException, HorizonDBException {
+
+        if (this.aggregates.isEmpty()) {
+
+            if (this.groupByFunction != null) {
+                throw new BadHqlGrammarException("A GROUP BY clause can only be used with aggregate functions");
+            }
+
+            return buildSelectQuery();
+        }
+
+        if (this.hasNonAggregatedFields) {
+            throw new BadHqlGrammarException("Aggregate functions cannot be mixed with non aggregated fields");
+        }
+
+        if (isReverseOrder()) {
+            throw new BadHqlGrammarException("ORDER BY timestamp DESC cannot be used with aggregate functions");
+        }
+
+        if (this.continuationToken != null) {
+            throw new BadHqlGrammarException("A continuation token cannot be used with aggregate functions");
+        }
+
+        final long maximumNumberOfRecords = getLimit();
+        final long timeoutInMillis = getTimeoutInMillis();
+
+        Database database = this.databaseManager.getDatabase(this.databaseName);
+        TimeSeries timeSeries = database.getTimeSeries(this.timeSeriesName);
+        TimeSeriesDefinition definition = timeSeries.getDefinition();
+
+        PredicateBuilder builder = this.predicateBuilders.poll();
+        final Predicate predicate = builder.build(definition);
+
+        List<Aggregate> aggregates = toAggregates(definition);
+        final Aggregation aggregation = new Aggregation(definition, aggregates, getIntervalInNanos());
+
+        final String databaseName = this.databaseName;
+        final String seriesName = this.timeSeriesName;
+        final boolean useStatistics = this.timestampRangesOnly;
+        final boolean latestValuesOnly = !this.hasWhereClause 
+                && this.groupByFunction == null 
+                && areAllLastAggregates(aggregates);
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) throws IOException, HorizonDBException {
+
+                TimeSeries timeSeries = context.getDatabaseManager()
+                                               .getDatabase(databaseName)
+                                               .getTimeSeries(seriesName);
+
+                Cancellation cancellation = context.getCancellation();
+
+                if (timeoutInMillis != Cancellation.NO_TIMEOUT) {
+                    cancellation.restrictTimeout(timeoutInMillis);
+                }
+
+                ResourceIterator<? extends Record> iterator;
+
+                if (latestValuesOnly) {
+                    iterator = timeSeries.readLast(aggregation);
+                } else {
+                    iterator = timeSeries.read(aggregation, predicate, useStatistics, cancellation);
+                }
+
+                if (maximumNumberOfRecords != TimeSeries.NO_LIMIT) {
+                    iterator = new LimitedRecordIterator(iterator, maximumNumberOfRecords);
+                }
+
+                return new ChunkedRecordSet(context.getRequestHeader(),
+                                            aggregation.getDefinition(),
+                                            new ChunkedRecordStream(context.getRequestHeader(), 
+                                                                    iterator, 
+                                                                    context.getMetrics(),
+                                                                    cancellation.getTrace()));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return latestValuesOnly ? QueryType.LAST : QueryType.AGGREGATE;
+            }
+        };
+    }
+
+    /**
+     * Builds the <code>Query</code> returning the records of a select with an ORDER BY or a LIMIT clause.
+     * 
+     * @return the <code>Query</code> returning the selected records
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if the select is invalid
+     */
+    private Query buildSelectQuery() throws IOException, HorizonDBException {
+
+        Database database = this.databaseManager.getDatabase(this.databaseName);
+        TimeSeries timeSeries = database.getTimeSeries(this.timeSeriesName);
+        TimeSeriesDefinition definition = timeSeries.getDefinition();
+
+        PredicateBuilder builder = this.predicateBuilders.poll();
+        final Predicate predicate = builder.build(definition);
+        final Projection projection = this.projectionBuilder.build(definition);
+
+        final String databaseName = this.databaseName;
+        final String seriesName = this.timeSeriesName;
+        final boolean reverseOrder = isReverseOrder();
+        final long maximumNumberOfRecords = getLimit();
+        final ContinuationToken token = getContinuationToken();
+        final long timeoutInMillis = getTimeoutInMillis();
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) throws IOException, HorizonDBException {
+
+                TimeSeries timeSeries = context.getDatabaseManager()
+                                               .getDatabase(databaseName)
+                                               .getTimeSeries(seriesName);
+
+                Cancellation cancellation = context.getCancellation();
+
+                if (timeoutInMillis != Cancellation.NO_TIMEOUT) {
+                    cancellation.restrictTimeout(timeoutInMillis);
+                }
+
+                ResourceIterator<? extends Record> iterator = timeSeries.read(projection, 
+                                                                              predicate, 
+                                                                              reverseOrder, 
+                                                                              maximumNumberOfRecords, 
+                                                                              token,
+                                                                              cancellation);
+
+                return new ChunkedRecordSet(context.getRequestHeader(),
+                                            projection.getDefinition(timeSeries.getDefinition()),
+                                            new ChunkedRecordStream(context.getRequestHeader(), 
+                                                                    iterator, 
+                                                                    context.getMetrics(),
+                                                                    cancellation.getTrace()));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return QueryType.SELECT;
+            }
+        };
+    }
+
+    /**
+     * Builds the <code>Query</code> returning the plan of the read performed by the select.
+     * 
+     * @return the <code>Query</code> returning the plan of the select
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if the select is invalid
+     */
+    private Query buildExplainQuery() throws IOException, HorizonDBException {
+
+        Database database = this.databaseManager.getDatabase(this.databaseName);
+        TimeSeries timeSeries = database.getTimeSeries(this.timeSeriesName);
+        TimeSeriesDefinition definition = timeSeries.getDefinition();
+
+        PredicateBuilder builder = this.predicateBuilders.poll();
+        final Predicate predicate = builder.build(definition);
+
+        final String databaseName = this.databaseName;
+        final String seriesName = this.timeSeriesName;
+        final boolean timestampRangesOnly = this.timestampRangesOnly;
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) throws IOException, HorizonDBException {
+
+                TimeSeries timeSeries = context.getDatabaseManager()
+                                               .getDatabase(databaseName)
+                                               .getTimeSeries(seriesName);
+
+                QueryPlan plan = timeSeries.explain(predicate, timestampRangesOnly);
+
+                return new ChunkedRecordSet(context.getRequestHeader(),
+                                            plan.getDefinition(),
+                                            new ChunkedRecordStream(context.getRequestHeader(), 
+                                                                    plan.iterator(), 
+                                                                    context.getMetrics(),
+                                                                    context.getCancellation().getTrace()));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return QueryType.EXPLAIN;
+            }
+        };
+    }
+
+    /**
+     * Builds the <code>Query</code> executing the specified query server side and returning the counters and the 
+     * stage timings of its execution.
+     * 
+     * @param query the query to profile
+     * @return the <code>Query</code> returning the profile of the specified query
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if the select is invalid
+     */
+    private Query buildProfileQuery(final Query query) throws IOException, HorizonDBException {
+
+        Database database = this.databaseManager.getDatabase(this.databaseName);
+        TimeSeries timeSeries = database.getTimeSeries(this.timeSeriesName);
+
+        final TimeSeriesDefinition profileDefinition = QueryTrace.newProfileDefinition(timeSeries.getDefinition());
+        final String seriesName = this.timeSeriesName;
+
+        return new Query() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Object execute(QueryContext context) throws IOException, HorizonDBException {
+
+                Cancellation cancellation = context.getCancellation();
+                QueryTrace trace = cancellation.getTrace();
+
+                if (trace == null) {
+                    trace = new QueryTrace(seriesName, QueryTrace.NEVER_LOGGED);
+                    cancellation.setTrace(trace);
+                }
+
+                consume((ChunkedRecordSet) query.execute(context));
+
+                TimeSeriesRecord record = trace.toProfileRecord(profileDefinition);
+                ResourceIterator<Record> iterator = new RecordListIterator(Collections.singletonList(record));
+
+                return new ChunkedRecordSet(context.getRequestHeader(),
+                                            profileDefinition,
+                                            new ChunkedRecordStream(context.getRequestHeader(), 
+                                                                    iterator, 
+                                                                    context.getMetrics()));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public QueryType getType() {
+                return QueryType.PROFILE;
+            }
+        };
+    }
+
+    /**
+     * Reads all the chunks of the specified record set, as if they were sent to the client, and closes it.
+     * 
+     * @param recordSet the record set to consume
+     * @throws IOException if an I/O problem occurs
+     */
+    private static void consume(ChunkedRecordSet recordSet) throws IOException {
+
+        try {
+
+            try {
+
+                while (!recordSet.isEndOfInput()) {
+                    recordSet.readChunk(null);
+                }
+
+            } finally {
+
+                recordSet.close();
+            }
+
+        } catch (IOException | RuntimeException e) {
+
+            throw e;
+
+        } catch (Exception e) {
+
+            throw new IOException(e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void enterSelectList(@NotNull SelectListContext ctx) {
-        this.projectionBuilder = new ProjectionBuilder(toList(ctx));
+
+        List<String> selection = new ArrayList<>();
+
+        for (int i  = 0, m = ctx.getChildCount(); i  < m; i += 2) {
+
+            ParseTree child = ctx.getChild(i);
+
+            if (child instanceof SelectListElementContext 
+                    && ((SelectListElementContext) child).aggregateFunction() != null) {
+                continue;
+            }
+
+            selection.add(child.getText().trim());
+        }
+
+        this.hasNonAggregatedFields = !selection.isEmpty();
+        this.projectionBuilder = new ProjectionBuilder(selection);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterAggregateFunction(@NotNull AggregateFunctionContext ctx) {
+
+        String function = ctx.identifier(0).getText();
+        String recordType = null;
+        String field = null;
+
+        if (ctx.identifier().size() > 1) {
+            recordType = ctx.identifier(1).getText();
+        }
+
+        if (ctx.identifier().size() > 2) {
+            field = ctx.identifier(2).getText();
+        }
+
+        this.aggregates.add(new AggregateExpression(function, recordType, field));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterGroupByClause(@NotNull GroupByClauseContext ctx) {
+
+        this.groupByFunction = ctx.identifier().getText();
+        this.intervalAmount = ctx.timeInterval().NUMBER().getText();
+        this.intervalUnit = ctx.timeInterval().getChild(1).getText();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterOrderByClause(@NotNull OrderByClauseContext ctx) {
+
+        this.orderByField = ctx.identifier().getText();
+        this.descendingOrder = (ctx.DESC() != null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterLimitClause(@NotNull LimitClauseContext ctx) {
+
+        this.limit = ctx.NUMBER().getText();
+
+        if (ctx.STRING() != null) {
+
+            String quotedToken = ctx.STRING().getText();
+            this.continuationToken = quotedToken.substring(1, quotedToken.length() - 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enterTimeoutClause(@NotNull TimeoutClauseContext ctx) {
+
+        this.timeout = ctx.NUMBER().getText();
     }
 
     /**
@@ -183,6 +719,8 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
         
         boolean notIn = (ctx.NOT() != null);
         
+        checkTimestampRange(fieldName, !notIn);
+        
         int start = 3;
         
         if (notIn) {
@@ -217,6 +755,8 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
         
         boolean notBetween = (ctx.NOT() != null);
         
+        checkTimestampRange(fieldName, !notBetween);
+        
         if (notBetween) {
             
             String min = ctx.getChild(3).getText();
@@ -239,31 +779,358 @@ final class SelectMsgBuilder extends HqlBaseListener implements MsgBuilder {
     @Override
     public void enterSimplePredicate(@NotNull SimplePredicateContext ctx) {
 
-      String fieldName = ctx.ID().getText();
+      String fieldName = ctx.identifier().getText();
       Operator operator = Operator.fromSymbol(ctx.operator().getText());
       String value = ctx.value().getText();
     
+      checkTimestampRange(fieldName, !"!=".equals(ctx.operator().getText()));
+
       this.predicateBuilders.addFirst(PredicateBuilders.simplePredicate(fieldName, operator, value));
     }
     
     /**
-     * Extracts a list of values from the specified context. 
+     * Records whether the predicate on the specified field restricts the records to exact timestamp ranges.
      * 
-     * @param ctx the context from which the list must be extracted
-     * @return a list of values
+     * @param fieldName the name of the field on which the predicate applies
+     * @param range <code>true</code> if the predicate selects a range of values, <code>false</code> if it excludes 
+     * some values
      */
-    private static List<String> toList(ParserRuleContext ctx) {
-        
-        if (ctx == null) {
-            return Collections.emptyList();
+    private void checkTimestampRange(String fieldName, boolean range) {
+
+        if (!range || !"timestamp".equals(fieldName)) {
+            this.timestampRangesOnly = false;
         }
-        
-        List<String> list = new ArrayList<>();
-        
-        for (int i  = 0, m = ctx.getChildCount(); i  < m; i += 2) {
-            list.add(ctx.getChild(i).getText().trim());
+    }
+
+    /**
+     * Converts the aggregate functions of the select list into <code>Aggregate</code> instances.
+     * 
+     * @param definition the time series definition
+     * @return the aggregates
+     * @throws BadHqlGrammarException if one of the aggregate functions is invalid
+     */
+    private List<Aggregate> toAggregates(TimeSeriesDefinition definition) throws BadHqlGrammarException {
+
+        List<Aggregate> list = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (int i = 0, m = this.aggregates.size(); i < m; i++) {
+
+            Aggregate aggregate = this.aggregates.get(i).toAggregate(definition);
+
+            if (!names.add(aggregate.getName())) {
+                throw new BadHqlGrammarException(format("The aggregate %s is specified several times",
+                                                        this.aggregates.get(i)));
+            }
+
+            list.add(aggregate);
         }
-        
+
         return list;
     }
+
+    /**
+     * Returns <code>true</code> if the records must be returned from the newest to the oldest.
+     * 
+     * @return <code>true</code> if the records must be returned from the newest to the oldest.
+     * @throws BadHqlGrammarException if the ORDER BY clause is invalid
+     */
+    private boolean isReverseOrder() throws BadHqlGrammarException {
+
+        if (this.orderByField == null) {
+            return false;
+        }
+
+        if (!"timestamp".equals(this.orderByField)) {
+            throw new BadHqlGrammarException(format("The records can only be ordered by timestamp not by %s", 
+                                                    this.orderByField));
+        }
+
+        return this.descendingOrder;
+    }
+
+    /**
+     * Returns the maximum number of records specified within the LIMIT clause.
+     * 
+     * @return the maximum number of records to return or <code>TimeSeries.NO_LIMIT</code> if the select has no 
+     * LIMIT clause.
+     * @throws BadHqlGrammarException if the LIMIT clause is invalid
+     */
+    private long getLimit() throws BadHqlGrammarException {
+
+        if (this.limit == null) {
+            return TimeSeries.NO_LIMIT;
+        }
+
+        long value;
+
+        try {
+
+            value = Long.parseLong(this.limit);
+
+        } catch (NumberFormatException e) {
+            throw new BadHqlGrammarException(format("The value %s cannot be converted into a number", this.limit));
+        }
+
+        if (value <= 0) {
+            throw new BadHqlGrammarException(format("The limit %s must be greater than zero", this.limit));
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the time in milliseconds specified within the TIMEOUT clause.
+     * 
+     * @return the time in milliseconds after which the select must be cancelled or 
+     * <code>Cancellation.NO_TIMEOUT</code> if the select has no TIMEOUT clause.
+     * @throws BadHqlGrammarException if the TIMEOUT clause is invalid
+     */
+    private long getTimeoutInMillis() throws BadHqlGrammarException {
+
+        if (this.timeout == null) {
+            return Cancellation.NO_TIMEOUT;
+        }
+
+        long value;
+
+        try {
+
+            value = Long.parseLong(this.timeout);
+
+        } catch (NumberFormatException e) {
+            throw new BadHqlGrammarException(format("The value %s cannot be converted into a number", this.timeout));
+        }
+
+        if (value <= 0) {
+            throw new BadHqlGrammarException(format("The timeout %s must be greater than zero", this.timeout));
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the token used to resume a previous select.
+     * 
+     * @return the token used to resume a previous select or <code>null</code> if the select starts from the 
+     * beginning.
+     * @throws BadHqlGrammarException if the token is invalid
+     */
+    private ContinuationToken getContinuationToken() throws BadHqlGrammarException {
+
+        if (this.continuationToken == null) {
+            return null;
+        }
+
+        try {
+
+            return ContinuationToken.parse(this.continuationToken);
+
+        } catch (IllegalArgumentException e) {
+            throw new BadHqlGrammarException(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if all the specified aggregates are <code>LAST</code> aggregates.
+     * 
+     * @param aggregates the aggregates
+     * @return <code>true</code> if all the specified aggregates are <code>LAST</code> aggregates.
+     */
+    private static boolean areAllLastAggregates(List<Aggregate> aggregates) {
+
+        for (int i = 0, m = aggregates.size(); i < m; i++) {
+
+            if (aggregates.get(i).getFunction() != AggregateFunction.LAST) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the width in nanoseconds of the time buckets specified within the GROUP BY clause.
+     * 
+     * @return the width in nanoseconds of the time buckets or zero if the select has no GROUP BY clause.
+     * @throws BadHqlGrammarException if the GROUP BY clause is invalid
+     */
+    private long getIntervalInNanos() throws BadHqlGrammarException {
+
+        if (this.groupByFunction == null) {
+            return 0;
+        }
+
+        if (!"time".equalsIgnoreCase(this.groupByFunction)) {
+            throw new BadHqlGrammarException(format("Unsupported GROUP BY function: %s", this.groupByFunction));
+        }
+
+        long amount;
+
+        try {
+
+            amount = Long.parseLong(this.intervalAmount);
+
+        } catch (NumberFormatException e) {
+            throw new BadHqlGrammarException(format("The value %s cannot be converted into a number", 
+                                                    this.intervalAmount));
+        }
+
+        if (amount <= 0) {
+            throw new BadHqlGrammarException(format("The time interval %s%s must be greater than zero", 
+                                                    this.intervalAmount, 
+                                                    this.intervalUnit));
+        }
+
+        return toTimeUnit(this.intervalUnit).toNanos(amount);
+    }
+
+    /**
+     * Returns the time unit corresponding to the specified symbol.
+     * 
+     * @param symbol the time unit symbol
+     * @return the time unit corresponding to the specified symbol.
+     * @throws BadHqlGrammarException if the symbol is unknown
+     */
+    private static TimeUnit toTimeUnit(String symbol) throws BadHqlGrammarException {
+
+        switch (symbol) {
+            case "ns":
+                return TimeUnit.NANOSECONDS;
+            case "µs":
+                return TimeUnit.MICROSECONDS;
+            case "ms":
+                return TimeUnit.MILLISECONDS;
+            case "s":
+                return TimeUnit.SECONDS;
+            case "m":
+            case "min":
+                return TimeUnit.MINUTES;
+            case "h":
+                return TimeUnit.HOURS;
+            case "d":
+                return TimeUnit.DAYS;
+            default:
+                throw new BadHqlGrammarException(format("Unknown time unit: %s", symbol));
+        }
+    }
+
+    /**
+     * An aggregate function as specified within the select list.
+     */
+    private static final class AggregateExpression {
+
+        /**
+         * The function name.
+         */
+        private final String function;
+
+        /**
+         * The record type name or <code>null</code> if the function applies to all the records.
+         */
+        private final String recordType;
+
+        /**
+         * The field name or <code>null</code> if the function does not apply to a specific field.
+         */
+        private final String field;
+
+        /**
+         * Creates a new <code>AggregateExpression</code>.
+         * 
+         * @param function the function name
+         * @param recordType the record type name or <code>null</code>
+         * @param field the field name or <code>null</code>
+         */
+        public AggregateExpression(String function, String recordType, String field) {
+
+            this.function = function;
+            this.recordType = recordType;
+            this.field = field;
+        }
+
+        /**
+         * Converts this expression into an <code>Aggregate</code>.
+         * 
+         * @param definition the time series definition
+         * @return the corresponding <code>Aggregate</code>
+         * @throws BadHqlGrammarException if the expression is invalid
+         */
+        public Aggregate toAggregate(TimeSeriesDefinition definition) throws BadHqlGrammarException {
+
+            AggregateFunction aggregateFunction;
+
+            try {
+
+                aggregateFunction = AggregateFunction.valueOf(this.function.toUpperCase());
+
+            } catch (IllegalArgumentException e) {
+                throw new BadHqlGrammarException(format("Unknown aggregate function: %s", this.function));
+            }
+
+            String name = aggregateFunction.name().toLowerCase();
+
+            if (this.recordType == null) {
+
+                if (aggregateFunction.requiresField()) {
+                    throw new BadHqlGrammarException(format("The function %s must be applied to a field", 
+                                                            this.function));
+                }
+
+                return Aggregate.count(name, Aggregate.ALL_RECORD_TYPES);
+            }
+
+            try {
+
+                int recordTypeIndex = definition.getRecordTypeIndex(this.recordType);
+
+                if (this.field == null) {
+
+                    if (aggregateFunction.requiresField()) {
+                        throw new BadHqlGrammarException(format("The function %s must be applied to a field", 
+                                                                this.function));
+                    }
+
+                    return Aggregate.count(name + '_' + this.recordType, recordTypeIndex);
+                }
+
+                name = name + '_' + this.recordType + '_' + this.field;
+
+                int fieldIndex = definition.getFieldIndex(recordTypeIndex, this.field);
+
+                if (!aggregateFunction.requiresField()) {
+                    return Aggregate.count(name, recordTypeIndex);
+                }
+
+                FieldType fieldType = definition.newRecord(recordTypeIndex).getField(fieldIndex).getType();
+
+                if (!BlockStatistics.isNumeric(fieldType)) {
+                    throw new BadHqlGrammarException(format("The function %s cannot be applied to the non numeric "
+                            + "field %s", this.function, this.field));
+                }
+
+                return Aggregate.newInstance(aggregateFunction, name, recordTypeIndex, fieldIndex, fieldType);
+
+            } catch (IllegalArgumentException e) {
+                throw new BadHqlGrammarException(e.getMessage());
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+
+            if (this.recordType == null) {
+                return this.function + "(*)";
+            }
+
+            if (this.field == null) {
+                return this.function + '(' + this.recordType + ".*)";
+            }
+
+            return this.function + '(' + this.recordType + '.' + this.field + ')';
+        }
+    }
 }
@@ -59,7 +59,7 @@ final class UseDatabaseMsgBuilder extends HqlBaseListener implements MsgBuilder
      */
     @Override
     public void enterUseDatabase(@NotNull UseDatabaseContext ctx) {
-        this.databaseName = ctx.ID().getText();
+        this.databaseName = ctx.identifier().getText();
     }
 
     /**
@@ -162,6 +162,8 @@ abstract class AbstractTimeSeriesManager extends AbstractComponent implements Ti
         
         TimeSeriesId id = new TimeSeriesId(databaseDefinition, seriesName);
 
+        this.partitionManager.getLatestRecordCache().remove(id);
+
         if (!this.btree.deleteIfPresent(id) && throwExceptionIfDoesNotExist) {
 
             throw new HorizonDBException(ErrorCodes.UNKNOWN_TIMESERIES, "Unknown time series "
@@ -71,6 +71,21 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
      */
     private final FlushManager flushManager;
 
+    /**
+     * The executor used to read the partitions ahead of their consumption.
+     */
+    private final PartitionReadExecutor readExecutor;
+
+    /**
+     * The pool limiting the number of partition files open at the same time.
+     */
+    private final DataFilePool filePool;
+
+    /**
+     * The cache of the latest records of the time series.
+     */
+    private final LatestRecordCache latestRecordCache = new LatestRecordCache();
+
     /**
      * Creates a new <code>AbstractTimeSeriesPartitionManager</code> that will used the specified configuration.
      * 
@@ -82,6 +97,8 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
 
         this.configuration = configuration;
         this.flushManager = new FlushManager(configuration);
+        this.readExecutor = new PartitionReadExecutor(configuration);
+        this.filePool = new DataFilePool(configuration);
     }
 
     /**
@@ -94,6 +111,8 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
                                       BRANCHING_FACTOR);
 
         this.flushManager.start();
+        this.readExecutor.start();
+        this.filePool.start();
     }
 
     /**
@@ -115,6 +134,8 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
 
         this.btree.register(registry);
         this.flushManager.register(registry);
+        this.readExecutor.register(registry);
+        this.filePool.register(registry);
     }
 
     /**
@@ -123,6 +144,8 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
     @Override
     public void unregister(MetricRegistry registry) {
 
+        this.filePool.unregister(registry);
+        this.readExecutor.unregister(registry);
         this.flushManager.unregister(registry);
         this.btree.unregister(registry);
     }
@@ -185,6 +208,30 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
         return partition;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PartitionReadExecutor getReadExecutor() {
+        return this.readExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataFilePool getFilePool() {
+        return this.filePool;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatestRecordCache getLatestRecordCache() {
+        return this.latestRecordCache;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -257,7 +304,9 @@ abstract class AbstractTimeSeriesPartitionManager extends AbstractComponent impl
     @Override
     protected void doShutdown() throws InterruptedException {
 
+        this.readExecutor.shutdown();
         this.flushManager.shutdown();
+        this.filePool.shutdown();
         this.btree.close();
     }
 
@@ -0,0 +1,584 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.ByteWriter;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.io.serialization.Parser;
+import io.horizondb.io.serialization.Serializable;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * The statistics of the records stored within a block of data.
+ */
+@Immutable
+public final class BlockStatistics implements Serializable {
+
+    /**
+     * The parser instance.
+     */
+    private static final Parser<BlockStatistics> PARSER = new Parser<BlockStatistics>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockStatistics parseFrom(ByteReader reader) throws IOException {
+
+            long firstTimestamp = VarInts.readLong(reader);
+            long lastTimestamp = VarInts.readLong(reader);
+
+            int numberOfRecordTypes = VarInts.readUnsignedInt(reader);
+
+            long[] counts = new long[numberOfRecordTypes];
+            double[][] sums = new double[numberOfRecordTypes][];
+            double[][] mins = new double[numberOfRecordTypes][];
+            double[][] maxs = new double[numberOfRecordTypes][];
+
+            for (int i = 0; i < numberOfRecordTypes; i++) {
+
+                counts[i] = VarInts.readUnsignedLong(reader);
+
+                int numberOfFields = VarInts.readUnsignedInt(reader);
+
+                sums[i] = new double[numberOfFields];
+                mins[i] = new double[numberOfFields];
+                maxs[i] = new double[numberOfFields];
+
+                for (int j = 0; j < numberOfFields; j++) {
+
+                    sums[i][j] = Double.longBitsToDouble(reader.readLong());
+                    mins[i][j] = Double.longBitsToDouble(reader.readLong());
+                    maxs[i][j] = Double.longBitsToDouble(reader.readLong());
+                }
+            }
+
+            return new BlockStatistics(firstTimestamp, lastTimestamp, counts, sums, mins, maxs);
+        }
+    };
+
+    /**
+     * The timestamp in nanoseconds of the first record of the block.
+     */
+    private final long firstTimestamp;
+
+    /**
+     * The timestamp in nanoseconds of the last record of the block.
+     */
+    private final long lastTimestamp;
+
+    /**
+     * The number of records per record type.
+     */
+    private final long[] counts;
+
+    /**
+     * The sum of the values of the numeric fields per record type.
+     */
+    private final double[][] sums;
+
+    /**
+     * The smallest values of the numeric fields per record type.
+     */
+    private final double[][] mins;
+
+    /**
+     * The greatest values of the numeric fields per record type.
+     */
+    private final double[][] maxs;
+
+    /**
+     * Creates a new <code>Builder</code> to compute the statistics of the records of the specified time series.
+     * 
+     * @param definition the time series definition
+     * @return a new <code>Builder</code>
+     */
+    public static Builder newBuilder(TimeSeriesDefinition definition) {
+
+        return new Builder(definition);
+    }
+
+    /**
+     * Creates a new <code>BlockStatistics</code> by reading the data from the specified reader.
+     * 
+     * @param reader the reader to read from.
+     * @throws IOException if an I/O problem occurs
+     */
+    public static BlockStatistics parseFrom(ByteReader reader) throws IOException {
+
+        return getParser().parseFrom(reader);
+    }
+
+    /**
+     * Returns the parser that can be used to deserialize <code>BlockStatistics</code> instances.
+     * 
+     * @return the parser that can be used to deserialize <code>BlockStatistics</code> instances.
+     */
+    public static Parser<BlockStatistics> getParser() {
+
+        return PARSER;
+    }
+
+    /**
+     * Returns <code>true</code> if statistics are computed for the fields of the specified type. The aggregates can 
+     * only be computed on those fields.
+     * 
+     * @param type the field type
+     * @return <code>true</code> if statistics are computed for the fields of the specified type.
+     */
+    public static boolean isNumeric(FieldType type) {
+
+        return type == FieldType.BYTE 
+                || type == FieldType.INTEGER 
+                || type == FieldType.LONG 
+                || type == FieldType.DECIMAL;
+    }
+
+    /**
+     * Returns the value of the specified numeric field as a <code>double</code>.
+     * 
+     * @param record the record
+     * @param index the field index
+     * @param type the field type
+     * @return the value of the specified field as a <code>double</code>
+     * @throws IllegalArgumentException if the field is not numeric
+     */
+    public static double getNumericValue(TimeSeriesRecord record, int index, FieldType type) {
+
+        switch (type) {
+
+            case BYTE:
+                return record.getByte(index);
+            case INTEGER:
+                return record.getInt(index);
+            case LONG:
+                return record.getLong(index);
+            case DECIMAL:
+                return record.getDouble(index);
+            default:
+                throw new IllegalArgumentException("The fields of type " + type + " are not numeric");
+        }
+    }
+
+    /**
+     * Returns the timestamp in nanoseconds of the first record of the block.
+     * 
+     * @return the timestamp in nanoseconds of the first record of the block.
+     */
+    public long getFirstTimestampInNanos() {
+        return this.firstTimestamp;
+    }
+
+    /**
+     * Returns the timestamp in nanoseconds of the last record of the block.
+     * 
+     * @return the timestamp in nanoseconds of the last record of the block.
+     */
+    public long getLastTimestampInNanos() {
+        return this.lastTimestamp;
+    }
+
+    /**
+     * Returns the number of records of the specified type.
+     * 
+     * @param recordTypeIndex the record type index
+     * @return the number of records of the specified type.
+     */
+    public long getCount(int recordTypeIndex) {
+        return this.counts[recordTypeIndex];
+    }
+
+    /**
+     * Returns the total number of records.
+     * 
+     * @return the total number of records.
+     */
+    public long getCount() {
+
+        long count = 0;
+
+        for (int i = 0; i < this.counts.length; i++) {
+            count += this.counts[i];
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the sum of the values of the specified field.
+     * 
+     * @param recordTypeIndex the record type index
+     * @param fieldIndex the field index
+     * @return the sum of the values of the specified field.
+     */
+    public double getSum(int recordTypeIndex, int fieldIndex) {
+        return this.sums[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * Returns the smallest value of the specified field.
+     * 
+     * @param recordTypeIndex the record type index
+     * @param fieldIndex the field index
+     * @return the smallest value of the specified field.
+     */
+    public double getMin(int recordTypeIndex, int fieldIndex) {
+        return this.mins[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * Returns the greatest value of the specified field.
+     * 
+     * @param recordTypeIndex the record type index
+     * @param fieldIndex the field index
+     * @return the greatest value of the specified field.
+     */
+    public double getMax(int recordTypeIndex, int fieldIndex) {
+        return this.maxs[recordTypeIndex][fieldIndex];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeSerializedSize() {
+
+        int size = VarInts.computeLongSize(this.firstTimestamp)
+                + VarInts.computeLongSize(this.lastTimestamp)
+                + VarInts.computeUnsignedIntSize(this.counts.length);
+
+        for (int i = 0; i < this.counts.length; i++) {
+
+            size += VarInts.computeUnsignedLongSize(this.counts[i]);
+            size += VarInts.computeUnsignedIntSize(this.sums[i].length);
+            size += 3 * 8 * this.sums[i].length;
+        }
+
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(ByteWriter writer) throws IOException {
+
+        VarInts.writeLong(writer, this.firstTimestamp);
+        VarInts.writeLong(writer, this.lastTimestamp);
+        VarInts.writeUnsignedInt(writer, this.counts.length);
+
+        for (int i = 0; i < this.counts.length; i++) {
+
+            VarInts.writeUnsignedLong(writer, this.counts[i]);
+            VarInts.writeUnsignedInt(writer, this.sums[i].length);
+
+            for (int j = 0; j < this.sums[i].length; j++) {
+
+                writer.writeLong(Double.doubleToLongBits(this.sums[i][j]))
+                      .writeLong(Double.doubleToLongBits(this.mins[i][j]))
+                      .writeLong(Double.doubleToLongBits(this.maxs[i][j]));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object) {
+
+        if (object == this) {
+            return true;
+        }
+
+        if (!(object instanceof BlockStatistics)) {
+            return false;
+        }
+
+        BlockStatistics other = (BlockStatistics) object;
+
+        return this.firstTimestamp == other.firstTimestamp
+                && this.lastTimestamp == other.lastTimestamp
+                && Arrays.equals(this.counts, other.counts)
+                && Arrays.deepEquals(this.sums, other.sums)
+                && Arrays.deepEquals(this.mins, other.mins)
+                && Arrays.deepEquals(this.maxs, other.maxs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+
+        int result = (int) (this.firstTimestamp ^ (this.firstTimestamp >>> 32));
+        result = 31 * result + (int) (this.lastTimestamp ^ (this.lastTimestamp >>> 32));
+        result = 31 * result + Arrays.hashCode(this.counts);
+        result = 31 * result + Arrays.deepHashCode(this.sums);
+        result = 31 * result + Arrays.deepHashCode(this.mins);
+        return 31 * result + Arrays.deepHashCode(this.maxs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("firstTimestamp", this.firstTimestamp)
+                                                                          .append("lastTimestamp", this.lastTimestamp)
+                                                                          .append("counts", this.counts)
+                                                                          .toString();
+    }
+
+    /**
+     * Creates a new <code>BlockStatistics</code>.
+     * 
+     * @param firstTimestamp the timestamp in nanoseconds of the first record
+     * @param lastTimestamp the timestamp in nanoseconds of the last record
+     * @param counts the number of records per record type
+     * @param sums the sum of the values of the numeric fields per record type
+     * @param mins the smallest values of the numeric fields per record type
+     * @param maxs the greatest values of the numeric fields per record type
+     */
+    private BlockStatistics(long firstTimestamp,
+                            long lastTimestamp,
+                            long[] counts,
+                            double[][] sums,
+                            double[][] mins,
+                            double[][] maxs) {
+
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.counts = counts;
+        this.sums = sums;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    /**
+     * Builds the statistics of a block from its records.
+     */
+    @NotThreadSafe
+    public static final class Builder {
+
+        /**
+         * The last value of each record type, used to rebuild the full records from the delta ones.
+         */
+        private final TimeSeriesRecord[] records;
+
+        /**
+         * The timestamp in nanoseconds of the first record.
+         */
+        private long firstTimestamp;
+
+        /**
+         * The timestamp in nanoseconds of the last record.
+         */
+        private long lastTimestamp;
+
+        /**
+         * The number of records per record type.
+         */
+        private final long[] counts;
+
+        /**
+         * The sum of the values of the numeric fields per record type.
+         */
+        private final double[][] sums;
+
+        /**
+         * The smallest values of the numeric fields per record type.
+         */
+        private final double[][] mins;
+
+        /**
+         * The greatest values of the numeric fields per record type.
+         */
+        private final double[][] maxs;
+
+        /**
+         * Adds the specified record to the statistics. The records must be added in the order in which they have been
+         * read from the block.
+         * 
+         * @param record the record to add
+         * @return this <code>Builder</code>
+         */
+        public Builder add(Record record) {
+
+            int type = record.getType();
+            TimeSeriesRecord fullRecord = this.records[type];
+
+            if (record.isDelta()) {
+                fullRecord.add(record);
+            } else {
+                record.copyTo(fullRecord);
+            }
+
+            long timestamp = fullRecord.getTimestampInNanos(0);
+
+            if (getCount() == 0) {
+                this.firstTimestamp = timestamp;
+            }
+
+            this.lastTimestamp = timestamp;
+
+            boolean first = (this.counts[type] == 0);
+            this.counts[type]++;
+
+            for (int i = 1, m = this.sums[type].length; i < m; i++) {
+
+                FieldType fieldType = fullRecord.getField(i).getType();
+
+                if (!isNumeric(fieldType)) {
+                    continue;
+                }
+
+                double value = getNumericValue(fullRecord, i, fieldType);
+
+                this.sums[type][i] += value;
+                this.mins[type][i] = first ? value : Math.min(this.mins[type][i], value);
+                this.maxs[type][i] = first ? value : Math.max(this.maxs[type][i], value);
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds the records summarized by the specified statistics. Those records must precede the records added 
+         * afterwards.
+         * 
+         * @param statistics the statistics to add
+         * @return this <code>Builder</code>
+         */
+        public Builder add(BlockStatistics statistics) {
+
+            if (statistics.getCount() == 0) {
+                return this;
+            }
+
+            if (getCount() == 0) {
+                this.firstTimestamp = statistics.firstTimestamp;
+            }
+
+            this.lastTimestamp = statistics.lastTimestamp;
+
+            for (int type = 0; type < this.counts.length; type++) {
+
+                if (statistics.counts[type] == 0) {
+                    continue;
+                }
+
+                boolean first = (this.counts[type] == 0);
+                this.counts[type] += statistics.counts[type];
+
+                for (int i = 1, m = this.sums[type].length; i < m; i++) {
+
+                    this.sums[type][i] += statistics.sums[type][i];
+                    this.mins[type][i] = first ? statistics.mins[type][i] 
+                                               : Math.min(this.mins[type][i], statistics.mins[type][i]);
+                    this.maxs[type][i] = first ? statistics.maxs[type][i] 
+                                               : Math.max(this.maxs[type][i], statistics.maxs[type][i]);
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Creates a new <code>BlockStatistics</code> instance.
+         * 
+         * @return a new <code>BlockStatistics</code> instance.
+         */
+        public BlockStatistics build() {
+
+            return new BlockStatistics(this.firstTimestamp,
+                                       this.lastTimestamp,
+                                       this.counts.clone(),
+                                       deepClone(this.sums),
+                                       deepClone(this.mins),
+                                       deepClone(this.maxs));
+        }
+
+        /**
+         * Returns the number of records added so far.
+         * 
+         * @return the number of records added so far.
+         */
+        private long getCount() {
+
+            long count = 0;
+
+            for (int i = 0; i < this.counts.length; i++) {
+                count += this.counts[i];
+            }
+
+            return count;
+        }
+
+        /**
+         * Returns a deep copy of the specified array.
+         * 
+         * @param array the array to copy
+         * @return a deep copy of the specified array
+         */
+        private static double[][] deepClone(double[][] array) {
+
+            double[][] copy = new double[array.length][];
+
+            for (int i = 0; i < array.length; i++) {
+                copy[i] = array[i].clone();
+            }
+
+            return copy;
+        }
+
+        /**
+         * Must not be called from outside the enclosing class.
+         */
+        private Builder(TimeSeriesDefinition definition) {
+
+            int numberOfRecordTypes = definition.getNumberOfRecordTypes();
+
+            this.records = new TimeSeriesRecord[numberOfRecordTypes];
+            this.counts = new long[numberOfRecordTypes];
+            this.sums = new double[numberOfRecordTypes][];
+            this.mins = new double[numberOfRecordTypes][];
+            this.maxs = new double[numberOfRecordTypes][];
+
+            for (int i = 0; i < numberOfRecordTypes; i++) {
+
+                this.records[i] = definition.newRecord(i);
+
+                int numberOfFields = this.records[i].getNumberOfFields();
+
+                this.sums[i] = new double[numberOfFields];
+                this.mins[i] = new double[numberOfFields];
+                this.maxs[i] = new double[numberOfFields];
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Cancellation;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+
+import java.io.IOException;
+
+/**
+ * <code>ResourceIterator</code> that checks, before moving to the next block, that the query has not been cancelled 
+ * and has not exceeded its timeout.
+ */
+final class CancellableBlockIterator implements ResourceIterator<DataBlock> {
+
+    /**
+     * The decorated iterator.
+     */
+    private final ResourceIterator<DataBlock> iterator;
+
+    /**
+     * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+     */
+    private final Cancellation cancellation;
+
+    /**
+     * Creates a new <code>CancellableBlockIterator</code> that decorates the specified iterator.
+     * 
+     * @param iterator the decorated iterator
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     */
+    public CancellableBlockIterator(ResourceIterator<DataBlock> iterator, Cancellation cancellation) {
+
+        this.iterator = iterator;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+
+        this.cancellation.check();
+        return this.iterator.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataBlock next() throws IOException {
+        return this.iterator.next();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.iterator.close();
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+
+import static java.lang.String.format;
+
+/**
+ * Token used to resume a read where a previous one stopped.
+ * <p>
+ * The token is made of the timestamp of the last record returned and of the number of records returned with that 
+ * timestamp. Its text form is <code>&lt;timestamp in nanoseconds&gt;:&lt;number of records&gt;</code>. As the 
+ * partitions and the blocks are indexed by time, the read resumes directly from the partition and the block 
+ * containing the timestamp and only the records already returned with that timestamp are skipped. A client can 
+ * build the token from the last page that it received, so no state needs to be kept on the server.
+ * </p>
+ */
+@Immutable
+public final class ContinuationToken {
+
+    /**
+     * The timestamp in nanoseconds of the last record returned.
+     */
+    private final long timestampInNanos;
+
+    /**
+     * The number of records returned with that timestamp.
+     */
+    private final long numberOfRecords;
+
+    /**
+     * Creates a new <code>ContinuationToken</code>.
+     * 
+     * @param timestampInNanos the timestamp in nanoseconds of the last record returned
+     * @param numberOfRecords the number of records returned with that timestamp
+     */
+    public ContinuationToken(long timestampInNanos, long numberOfRecords) {
+
+        this.timestampInNanos = timestampInNanos;
+        this.numberOfRecords = numberOfRecords;
+    }
+
+    /**
+     * Parses the specified token.
+     * 
+     * @param token the text form of the token
+     * @return the corresponding <code>ContinuationToken</code>
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static ContinuationToken parse(String token) {
+
+        int index = token.indexOf(':');
+
+        if (index < 0) {
+            throw new IllegalArgumentException(format("The continuation token %s is invalid", token));
+        }
+
+        try {
+
+            long timestampInNanos = Long.parseLong(token.substring(0, index));
+            long numberOfRecords = Long.parseLong(token.substring(index + 1));
+
+            if (timestampInNanos < 0 || numberOfRecords <= 0) {
+                throw new IllegalArgumentException(format("The continuation token %s is invalid", token));
+            }
+
+            return new ContinuationToken(timestampInNanos, numberOfRecords);
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException(format("The continuation token %s is invalid", token));
+        }
+    }
+
+    /**
+     * Returns the timestamp in nanoseconds of the last record returned.
+     * 
+     * @return the timestamp in nanoseconds of the last record returned.
+     */
+    public long getTimestampInNanos() {
+        return this.timestampInNanos;
+    }
+
+    /**
+     * Returns the number of records returned with that timestamp.
+     * 
+     * @return the number of records returned with that timestamp.
+     */
+    public long getNumberOfRecords() {
+        return this.numberOfRecords;
+    }
+
+    /**
+     * Restricts the specified time ranges to the records that have not been returned yet.
+     * 
+     * @param timeRanges the time ranges requested
+     * @param reverseOrder <code>true</code> if the records are returned from the newest to the oldest
+     * @return the time ranges that remain to be read
+     */
+    public RangeSet<Field> restrict(RangeSet<Field> timeRanges, boolean reverseOrder) {
+
+        Field timestamp = FieldType.NANOSECONDS_TIMESTAMP.newField().setTimestampInNanos(this.timestampInNanos);
+
+        Range<Field> remaining = reverseOrder ? Range.atMost(timestamp) : Range.atLeast(timestamp);
+
+        return ImmutableRangeSet.copyOf(timeRanges.subRangeSet(remaining));
+    }
+
+    /**
+     * Returns an iterator skipping the records of the specified iterator that have already been returned. The 
+     * specified iterator must return the records from the restricted time ranges.
+     * 
+     * @param definition the time series definition
+     * @param iterator the records of the restricted time ranges
+     * @return an iterator skipping the records that have already been returned
+     */
+    public ResourceIterator<Record> resume(TimeSeriesDefinition definition, ResourceIterator<Record> iterator) {
+
+        return new ResumingRecordIterator(definition, iterator, this.timestampInNanos, this.numberOfRecords);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.timestampInNanos + ":" + this.numberOfRecords;
+    }
+
+    /**
+     * <code>RecordIterator</code> skipping the records already returned. As the first records returned for each type 
+     * might be delta records relative to skipped records, they are returned as full records.
+     */
+    private static final class ResumingRecordIterator implements ResourceIterator<Record> {
+
+        /**
+         * The time series definition.
+         */
+        private final TimeSeriesDefinition definition;
+
+        /**
+         * The decorated iterator.
+         */
+        private final ResourceIterator<Record> iterator;
+
+        /**
+         * The timestamp of the last record returned.
+         */
+        private final long timestampInNanos;
+
+        /**
+         * The number of records with that timestamp that remain to be skipped.
+         */
+        private long toSkip;
+
+        /**
+         * The full records of each type.
+         */
+        private final TimeSeriesRecord[] fullRecords;
+
+        /**
+         * <code>true</code> for the types for which a record has already been returned.
+         */
+        private final boolean[] returned;
+
+        /**
+         * The next record to return.
+         */
+        private Record next;
+
+        /**
+         * Creates a new <code>ResumingRecordIterator</code>.
+         * 
+         * @param definition the time series definition
+         * @param iterator the decorated iterator
+         * @param timestampInNanos the timestamp of the last record returned
+         * @param numberOfRecords the number of records returned with that timestamp
+         */
+        public ResumingRecordIterator(TimeSeriesDefinition definition, 
+                                      ResourceIterator<Record> iterator, 
+                                      long timestampInNanos, 
+                                      long numberOfRecords) {
+
+            this.definition = definition;
+            this.iterator = iterator;
+            this.timestampInNanos = timestampInNanos;
+            this.toSkip = numberOfRecords;
+            this.fullRecords = new TimeSeriesRecord[definition.getNumberOfRecordTypes()];
+            this.returned = new boolean[definition.getNumberOfRecordTypes()];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() throws IOException {
+
+            while (this.next == null && this.iterator.hasNext()) {
+
+                Record record = this.iterator.next();
+                int type = record.getType();
+
+                if (this.fullRecords[type] == null) {
+                    this.fullRecords[type] = this.definition.newRecord(type);
+                }
+
+                TimeSeriesRecord fullRecord = this.fullRecords[type];
+
+                if (record.isDelta()) {
+                    fullRecord.add(record);
+                } else {
+                    record.copyTo(fullRecord);
+                }
+
+                if (this.toSkip > 0 && fullRecord.getTimestampInNanos(0) == this.timestampInNanos) {
+                    this.toSkip--;
+                    continue;
+                }
+
+                this.toSkip = 0;
+
+                if (this.returned[type]) {
+
+                    this.next = record;
+
+                } else {
+
+                    this.returned[type] = true;
+
+                    TimeSeriesRecord copy = this.definition.newRecord(type);
+                    fullRecord.copyTo(copy);
+                    this.next = copy;
+                }
+            }
+
+            return this.next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record next() throws IOException {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Record record = this.next;
+            this.next = null;
+            return record;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            this.iterator.close();
+        }
+    }
+}
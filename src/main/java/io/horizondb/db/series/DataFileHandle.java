@@ -0,0 +1,187 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.files.RandomAccessDataFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Handle to a data file that only opens the underlying file when it is accessed. If the handle belongs to a 
+ * <code>DataFilePool</code> the file can be closed by the pool when it is not in use and will be reopened on demand.
+ */
+@ThreadSafe
+final class DataFileHandle implements Closeable {
+
+    /**
+     * The path to the file.
+     */
+    private final Path path;
+
+    /**
+     * The pool to which this handle belongs or <code>null</code> if the number of open files is not limited.
+     */
+    private final DataFilePool pool;
+
+    /**
+     * The underlying file or <code>null</code> if it is not open.
+     */
+    @GuardedBy("this")
+    private RandomAccessDataFile file;
+
+    /**
+     * <code>true</code> if the underlying file has already been opened once.
+     */
+    @GuardedBy("this")
+    private boolean opened;
+
+    /**
+     * The number of users of the underlying file.
+     */
+    @GuardedBy("this")
+    private int users;
+
+    /**
+     * Creates a new <code>DataFileHandle</code> for the file with the specified path.
+     * 
+     * @param pool the pool to which this handle belongs or <code>null</code> if the number of open files is not 
+     * limited
+     * @param path the path to the file
+     */
+    public DataFileHandle(DataFilePool pool, Path path) {
+
+        this.pool = pool;
+        this.path = path;
+    }
+
+    /**
+     * Returns the path to the file.
+     * 
+     * @return the path to the file.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Returns the underlying file, opening it if needed. The file cannot be closed by the pool until 
+     * <code>release</code> is called.
+     * 
+     * @param expectedSize the expected size of the file
+     * @return the underlying file
+     * @throws IOException if an I/O problem occurs while opening the file
+     */
+    public RandomAccessDataFile acquire(long expectedSize) throws IOException {
+
+        RandomAccessDataFile dataFile;
+        boolean newlyOpened = false;
+        boolean reopened = false;
+
+        synchronized (this) {
+
+            if (this.file == null) {
+
+                this.file = RandomAccessDataFile.open(this.path, false, expectedSize);
+
+                newlyOpened = true;
+                reopened = this.opened;
+                this.opened = true;
+            }
+
+            this.users++;
+            dataFile = this.file;
+        }
+
+        if (this.pool != null) {
+
+            if (newlyOpened) {
+                this.pool.opened(this, reopened);
+            }
+
+            this.pool.accessed(this);
+        }
+
+        return dataFile;
+    }
+
+    /**
+     * Releases the underlying file previously acquired.
+     */
+    public synchronized void release() {
+
+        this.users--;
+    }
+
+    /**
+     * Returns <code>true</code> if the underlying file is open.
+     * 
+     * @return <code>true</code> if the underlying file is open.
+     */
+    public synchronized boolean isOpen() {
+        return this.file != null;
+    }
+
+    /**
+     * Closes the underlying file if it is not being used.
+     * 
+     * @return <code>true</code> if the file has been closed, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs while closing the file
+     */
+    synchronized boolean closeIfUnused() throws IOException {
+
+        if (this.users > 0) {
+            return false;
+        }
+
+        closeFile();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        synchronized (this) {
+
+            closeFile();
+        }
+
+        if (this.pool != null) {
+            this.pool.closed(this);
+        }
+    }
+
+    /**
+     * Closes the underlying file if it is open.
+     * 
+     * @throws IOException if an I/O problem occurs while closing the file
+     */
+    @GuardedBy("this")
+    private void closeFile() throws IOException {
+
+        if (this.file != null) {
+
+            RandomAccessDataFile dataFile = this.file;
+            this.file = null;
+            dataFile.close();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.AbstractComponent;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.metrics.PrefixFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Pool limiting the number of partition files that are open at the same time.
+ * <p>
+ * The files are closed in least recently used order when the maximum number of open files is exceeded and are 
+ * reopened on demand. The files being read or written cannot be closed, so the number of open files can temporarily
+ * exceed the maximum if more files than the maximum are in use at the same time.
+ * </p>
+ */
+@ThreadSafe
+public final class DataFilePool extends AbstractComponent {
+
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * The maximum number of files that can be kept open.
+     */
+    private final int maximumNumberOfOpenFiles;
+
+    /**
+     * The open files in access order.
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<DataFileHandle, Boolean> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The meter measuring the rate at which files are opened for the first time.
+     */
+    private final Meter opens = new Meter();
+
+    /**
+     * The meter measuring the rate at which files are reopened after having been evicted.
+     */
+    private final Meter reopens = new Meter();
+
+    /**
+     * The meter measuring the rate at which files are evicted from the pool.
+     */
+    private final Meter evictions = new Meter();
+
+    /**
+     * Creates a new <code>DataFilePool</code> instance.
+     * 
+     * @param configuration the database configuration
+     */
+    public DataFilePool(Configuration configuration) {
+        this.maximumNumberOfOpenFiles = configuration.getMaximumNumberOfOpenPartitionFiles();
+    }
+
+    /**
+     * Returns the number of files currently open.
+     * 
+     * @return the number of files currently open.
+     */
+    public synchronized int getNumberOfOpenFiles() {
+        return this.openFiles.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void register(MetricRegistry registry) {
+
+        registry.register(name(getName(), "opens"), this.opens);
+        registry.register(name(getName(), "reopens"), this.reopens);
+        registry.register(name(getName(), "evictions"), this.evictions);
+        registry.register(name(getName(), "openFiles"), new Gauge<Integer>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @SuppressWarnings("boxing")
+            @Override
+            public Integer getValue() {
+                return getNumberOfOpenFiles();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregister(MetricRegistry registry) {
+        registry.removeMatching(new PrefixFilter(getName()));
+    }
+
+    /**
+     * Notifies this pool that the specified handle has opened its file.
+     * 
+     * @param handle the handle
+     * @param reopened <code>true</code> if the file had already been opened before and was evicted
+     */
+    void opened(DataFileHandle handle, boolean reopened) {
+
+        if (reopened) {
+            this.reopens.mark();
+        } else {
+            this.opens.mark();
+        }
+    }
+
+    /**
+     * Notifies this pool that the file of the specified handle has been accessed and closes the least recently used 
+     * files if too many files are open.
+     * 
+     * @param handle the handle
+     */
+    synchronized void accessed(DataFileHandle handle) {
+
+        this.openFiles.put(handle, Boolean.TRUE);
+
+        Iterator<DataFileHandle> iterator = this.openFiles.keySet().iterator();
+
+        while (this.openFiles.size() > this.maximumNumberOfOpenFiles && iterator.hasNext()) {
+
+            DataFileHandle candidate = iterator.next();
+
+            if (candidate == handle) {
+                continue;
+            }
+
+            try {
+
+                if (candidate.closeIfUnused()) {
+
+                    iterator.remove();
+                    this.evictions.mark();
+                }
+
+            } catch (IOException e) {
+
+                this.logger.error("the file " + candidate.getPath() + " could not be closed", e);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Notifies this pool that the file of the specified handle has been closed.
+     * 
+     * @param handle the handle
+     */
+    synchronized void closed(DataFileHandle handle) {
+
+        this.openFiles.remove(handle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doStart() throws IOException, InterruptedException {
+        
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doShutdown() throws InterruptedException {
+
+        List<DataFileHandle> handles;
+
+        synchronized (this) {
+
+            handles = new ArrayList<>(this.openFiles.keySet());
+        }
+
+        for (DataFileHandle handle : handles) {
+
+            try {
+
+                handle.close();
+
+            } catch (IOException e) {
+
+                this.logger.error("the file " + handle.getPath() + " could not be closed", e);
+            }
+        }
+    }
+}
@@ -17,17 +17,21 @@ package io.horizondb.db.series;
 
 import io.horizondb.db.AbstractComponent;
 import io.horizondb.db.Configuration;
+import io.horizondb.db.metrics.FlushMetrics;
 import io.horizondb.db.metrics.PrefixFilter;
 import io.horizondb.db.metrics.ThreadPoolExecutorMetrics;
 import io.horizondb.db.util.concurrent.NamedThreadFactory;
 import io.horizondb.db.util.concurrent.SyncTask;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -35,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static io.horizondb.db.util.concurrent.ExecutorsUtils.shutdownAndAwaitForTermination;
@@ -42,6 +47,10 @@ import static org.apache.commons.lang.Validate.notNull;
 
 /**
  * Manages the flush of data to the disk.
+ * <p>
+ * The flushes are measured separately for each of their causes: a full <code>MemTimeSeries</code>, the eviction of 
+ * the partition from the write cache or the recycling of a commit log segment.
+ * </p>
  * 
  * @author Benjamin
  * 
@@ -49,11 +58,59 @@ import static org.apache.commons.lang.Validate.notNull;
 @ThreadSafe
 final class FlushManager extends AbstractComponent {
 
+    /**
+     * The causes of the flushes.
+     */
+    static enum Cause {
+
+        /**
+         * The last <code>MemTimeSeries</code> of the partition is full.
+         */
+        MEM_TIME_SERIES_FULL("memTimeSeriesFull"),
+
+        /**
+         * The partition has been evicted from the write cache.
+         */
+        WRITE_CACHE_EVICTION("writeCacheEviction"),
+
+        /**
+         * The partition has some non persisted data within a commit log segment that must be recycled.
+         */
+        COMMIT_LOG_RECYCLING("commitLogRecycling");
+
+        /**
+         * The name of the cause within the metric names.
+         */
+        private final String name;
+
+        /**
+         * Creates a new <code>Cause</code> with the specified name.
+         * 
+         * @param name the name of the cause within the metric names
+         */
+        private Cause(String name) {
+            this.name = name;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+
     /**
      * The database configuration.
      */
     private final Configuration configuration;
 
+    /**
+     * The flush metrics per cause.
+     */
+    private final Map<Cause, FlushMetrics> metrics = new EnumMap<>(Cause.class);
+
     /**
      * The executor service used
      */
@@ -66,6 +123,10 @@ final class FlushManager extends AbstractComponent {
      */
     public FlushManager(Configuration configuration) {
         this.configuration = configuration;
+
+        for (Cause cause : Cause.values()) {
+            this.metrics.put(cause, new FlushMetrics(name(getName(), cause.toString())));
+        }
     }
 
     /**
@@ -75,6 +136,10 @@ final class FlushManager extends AbstractComponent {
     public void register(MetricRegistry registry) {
         registry.registerAll(new ThreadPoolExecutorMetrics(name(getName(), "executor"),
                                                            (ThreadPoolExecutor) this.executor));
+
+        for (FlushMetrics flushMetrics : this.metrics.values()) {
+            registry.registerAll(flushMetrics);
+        }
     }
 
     /**
@@ -94,17 +159,17 @@ final class FlushManager extends AbstractComponent {
     public void flush(TimeSeriesPartition partition, FlushListener... listeners) {
 
         checkRunning();
-        this.executor.execute(new FlushTask(partition, listeners) {
+        this.executor.execute(new FlushTask(partition, this.metrics.get(Cause.MEM_TIME_SERIES_FULL), listeners) {
 
             /**
              * {@inheritDoc}
              */
             @Override
-            public void doFlush(TimeSeriesPartition partition) throws InterruptedException,
-                                                              IOException,
-                                                              ExecutionException {
+            public void doFlush(TimeSeriesPartition partition, FlushMetrics metrics) throws InterruptedException,
+                                                                                     IOException,
+                                                                                     ExecutionException {
 
-                partition.flush();
+                partition.flush(metrics);
             }
         });
     }
@@ -118,15 +183,17 @@ final class FlushManager extends AbstractComponent {
     public void forceFlush(TimeSeriesPartition partition, FlushListener... listeners) {
 
         checkRunning();
-        this.executor.execute(new FlushTask(partition, listeners) {
+        this.executor.execute(new FlushTask(partition, this.metrics.get(Cause.WRITE_CACHE_EVICTION), listeners) {
 
             /**
              * {@inheritDoc}
              */
             @Override
-            public void doFlush(TimeSeriesPartition partition) throws InterruptedException, IOException, ExecutionException {
+            public void doFlush(TimeSeriesPartition partition, FlushMetrics metrics) throws InterruptedException, 
+                                                                                     IOException, 
+                                                                                     ExecutionException {
 
-                partition.forceFlush();
+                partition.forceFlush(metrics);
             }
         });
     }
@@ -142,17 +209,19 @@ final class FlushManager extends AbstractComponent {
     public void forceFlush(final long segment, final TimeSeriesPartition partition, final FlushListener... listeners) {
 
         checkRunning();
-        this.executor.execute(new FlushTask(partition, listeners) {
+        this.executor.execute(new FlushTask(partition, this.metrics.get(Cause.COMMIT_LOG_RECYCLING), listeners) {
 
             /**
              * {@inheritDoc}
              */
             @Override
-            public void doFlush(TimeSeriesPartition partition) throws InterruptedException, IOException, ExecutionException {
+            public void doFlush(TimeSeriesPartition partition, FlushMetrics metrics) throws InterruptedException, 
+                                                                                     IOException, 
+                                                                                     ExecutionException {
 
                 Long firstSegment = partition.getFirstSegmentContainingNonPersistedData();
                 if (firstSegment != null && Long.valueOf(segment).compareTo(firstSegment) >= 0) {
-                    partition.forceFlush();
+                    partition.forceFlush(metrics);
                 }    
             }
         });
@@ -208,23 +277,35 @@ final class FlushManager extends AbstractComponent {
          * The partition that need to have its in memory data flushed to the disk.
          */
         private final TimeSeriesPartition partition;
+
+        /**
+         * The metrics in which the flush must be recorded.
+         */
+        private final FlushMetrics metrics;
         
         /**
          * The listeners that need to be notified from the flush.
          */
         private final FlushListener[] listeners;
 
+        /**
+         * The time in nanoseconds at which the task has been submitted.
+         */
+        private final long submissionTimeInNanos = System.nanoTime();
+
         /**
          * Creates a <code>FlushTask</code> that will flush the in memory data of the specified partition to the disk.
          * 
          * @param partition the partition that have some data that need to be flush to the disk.
+         * @param metrics the metrics in which the flush must be recorded.
          * @param listeners the listeners that need to be notified from the flush.
          */
-        public FlushTask(TimeSeriesPartition partition, FlushListener... listeners) {
+        public FlushTask(TimeSeriesPartition partition, FlushMetrics metrics, FlushListener... listeners) {
 
             notNull(partition, "the partition parameter must not be null.");
 
             this.partition = partition;
+            this.metrics = metrics;
             this.listeners = listeners;
         }
 
@@ -234,9 +315,22 @@ final class FlushManager extends AbstractComponent {
         @Override
         public void run() {
 
+            this.metrics.getQueueWaitTimer().update(System.nanoTime() - this.submissionTimeInNanos, 
+                                                    TimeUnit.NANOSECONDS);
+
             try {
 
-                doFlush(this.partition);
+                Timer.Context context = this.metrics.getDurationTimer().time();
+
+                try {
+
+                    doFlush(this.partition, this.metrics);
+
+                } finally {
+
+                    context.stop();
+                }
+
                 notifyListeners();
                 
             } catch (IOException | ExecutionException e) {
@@ -255,11 +349,14 @@ final class FlushManager extends AbstractComponent {
         /**
          * Perform the flush operation.
          * 
+         * @param partition the partition to flush
+         * @param metrics the metrics in which the flush must be recorded
          * @throws InterruptedException if the thread is interrupted
          * @throws IOException if an I/O problem occurs.
          * @throws ExecutionException if a the commit log cannot persist some data
          */
-        public abstract void doFlush(TimeSeriesPartition partition) throws InterruptedException, IOException, ExecutionException;
+        public abstract void doFlush(TimeSeriesPartition partition, FlushMetrics metrics) 
+                throws InterruptedException, IOException, ExecutionException;
         
         /**
          * Notifies the flush listeners. 
@@ -0,0 +1,109 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Cache keeping in memory the earliest and the latest record of each record type of the time series, so that the 
+ * queries on the latest values do not need to read the partitions.
+ */
+@ThreadSafe
+public final class LatestRecordCache {
+
+    /**
+     * The records per time series.
+     */
+    private final ConcurrentMap<TimeSeriesId, LatestRecords> records = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the records of the specified time series. If the time series has been recreated since the records 
+     * have been cached, the records of the previous time series are discarded. The records of a time series that has
+     * been replaced by a newer one are not cached.
+     * 
+     * @param id the time series ID
+     * @param definition the time series definition
+     * @return the records of the specified time series
+     */
+    public LatestRecords getLatestRecords(TimeSeriesId id, TimeSeriesDefinition definition) {
+
+        while (true) {
+
+            LatestRecords latestRecords = this.records.get(id);
+
+            if (latestRecords != null) {
+
+                long cachedTimestamp = latestRecords.getDefinition().getTimestamp();
+
+                if (cachedTimestamp == definition.getTimestamp()) {
+                    return latestRecords;
+                }
+
+                if (cachedTimestamp > definition.getTimestamp()) {
+                    return new LatestRecords(definition);
+                }
+            }
+
+            LatestRecords newRecords = new LatestRecords(definition);
+
+            if (latestRecords == null) {
+
+                if (this.records.putIfAbsent(id, newRecords) == null) {
+                    return newRecords;
+                }
+
+            } else if (this.records.replace(id, latestRecords, newRecords)) {
+
+                return newRecords;
+            }
+        }
+    }
+
+    /**
+     * Removes the records of the specified time series.
+     * 
+     * @param id the ID of the time series that has been dropped
+     */
+    public void remove(TimeSeriesId id) {
+
+        this.records.remove(id);
+    }
+
+    /**
+     * Removes the records of all the time series of the specified database.
+     * 
+     * @param databaseDefinition the definition of the database that has been dropped
+     */
+    public void removeAll(DatabaseDefinition databaseDefinition) {
+
+        String databaseName = databaseDefinition.getName().toLowerCase();
+        long databaseTimestamp = databaseDefinition.getTimestamp();
+
+        for (Iterator<TimeSeriesId> iterator = this.records.keySet().iterator(); iterator.hasNext();) {
+
+            TimeSeriesId id = iterator.next();
+
+            if (id.getDatabaseTimestamp() == databaseTimestamp && id.getDatabaseName().equals(databaseName)) {
+                iterator.remove();
+            }
+        }
+    }
+}
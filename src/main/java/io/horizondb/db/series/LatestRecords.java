@@ -0,0 +1,282 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The earliest and the latest record of each record type of a time series.
+ */
+@ThreadSafe
+public final class LatestRecords {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The earliest record of each record type.
+     */
+    @GuardedBy("this")
+    private final TimeSeriesRecord[] firstRecords;
+
+    /**
+     * The latest record of each record type.
+     */
+    @GuardedBy("this")
+    private final TimeSeriesRecord[] lastRecords;
+
+    /**
+     * <code>true</code> if the records persisted before the creation of this instance have been merged.
+     */
+    private volatile boolean seeded;
+
+    /**
+     * Creates a new <code>LatestRecords</code> for the specified time series.
+     * 
+     * @param definition the time series definition
+     */
+    public LatestRecords(TimeSeriesDefinition definition) {
+
+        this.definition = definition;
+        this.firstRecords = new TimeSeriesRecord[definition.getNumberOfRecordTypes()];
+        this.lastRecords = new TimeSeriesRecord[definition.getNumberOfRecordTypes()];
+    }
+
+    /**
+     * Returns the definition of the time series.
+     * 
+     * @return the definition of the time series.
+     */
+    public TimeSeriesDefinition getDefinition() {
+        return this.definition;
+    }
+
+    /**
+     * Returns <code>true</code> if the records persisted before the creation of this instance have been merged.
+     * 
+     * @return <code>true</code> if the records persisted before the creation of this instance have been merged.
+     */
+    public boolean isSeeded() {
+        return this.seeded;
+    }
+
+    /**
+     * Marks the records persisted before the creation of this instance as merged.
+     */
+    public void markAsSeeded() {
+        this.seeded = true;
+    }
+
+    /**
+     * Merges the specified records. The records must be provided in the order in which they have been read from the 
+     * blocks, as the delta records are applied to the previous record of the same type.
+     * 
+     * @param iterator the records to merge
+     * @return the types of the records that have been read
+     * @throws IOException if an I/O problem occurs while reading the records
+     */
+    public BitSet update(ResourceIterator<? extends Record> iterator) throws IOException {
+
+        TimeSeriesRecord[] records = new TimeSeriesRecord[this.definition.getNumberOfRecordTypes()];
+
+        Collector collector = newCollector();
+
+        while (iterator.hasNext()) {
+
+            Record record = iterator.next();
+            int type = record.getType();
+
+            if (records[type] == null) {
+                records[type] = this.definition.newRecord(type);
+            }
+
+            TimeSeriesRecord fullRecord = records[type];
+
+            if (record.isDelta()) {
+                fullRecord.add(record);
+            } else {
+                record.copyTo(fullRecord);
+            }
+
+            collector.add(fullRecord);
+        }
+
+        merge(collector);
+
+        return collector.getTypes();
+    }
+
+    /**
+     * Creates a new <code>Collector</code> for the records of this time series.
+     * 
+     * @return a new <code>Collector</code>.
+     */
+    public Collector newCollector() {
+        return new Collector(this.definition);
+    }
+
+    /**
+     * Merges the earliest and latest records gathered by the specified collector. The collector must not be used 
+     * anymore once merged, as the merged records are not copied.
+     * 
+     * @param collector the collector
+     * @throws IOException if an I/O problem occurs while reading the timestamps
+     */
+    public void merge(Collector collector) throws IOException {
+        merge(collector.firsts, collector.lasts);
+    }
+
+    /**
+     * Returns the earliest record of the specified type.
+     * 
+     * @param type the record type
+     * @return the earliest record of the specified type or <code>null</code> if no record of this type is known.
+     * The returned record must not be modified.
+     */
+    public synchronized TimeSeriesRecord getFirstRecord(int type) {
+        return this.firstRecords[type];
+    }
+
+    /**
+     * Returns the latest record of the specified type.
+     * 
+     * @param type the record type
+     * @return the latest record of the specified type or <code>null</code> if no record of this type is known.
+     * The returned record must not be modified.
+     */
+    public synchronized TimeSeriesRecord getLastRecord(int type) {
+        return this.lastRecords[type];
+    }
+
+    /**
+     * Merges the specified earliest and latest records with the known ones.
+     * 
+     * @param firsts the earliest records of each type
+     * @param lasts the latest records of each type
+     * @throws IOException if an I/O problem occurs while reading the timestamps
+     */
+    private synchronized void merge(TimeSeriesRecord[] firsts, TimeSeriesRecord[] lasts) throws IOException {
+
+        for (int i = 0; i < firsts.length; i++) {
+
+            if (firsts[i] == null) {
+                continue;
+            }
+
+            if (this.firstRecords[i] == null 
+                    || firsts[i].getTimestampInNanos(0) < this.firstRecords[i].getTimestampInNanos(0)) {
+                this.firstRecords[i] = firsts[i];
+            }
+
+            if (this.lastRecords[i] == null 
+                    || lasts[i].getTimestampInNanos(0) >= this.lastRecords[i].getTimestampInNanos(0)) {
+                this.lastRecords[i] = lasts[i];
+            }
+        }
+    }
+
+    /**
+     * Gathers the earliest and latest records of each type of a set of records, so that they can be merged at once.
+     */
+    @NotThreadSafe
+    public static final class Collector {
+
+        /**
+         * The time series definition.
+         */
+        private final TimeSeriesDefinition definition;
+
+        /**
+         * The earliest record of each record type.
+         */
+        private final TimeSeriesRecord[] firsts;
+
+        /**
+         * The latest record of each record type.
+         */
+        private final TimeSeriesRecord[] lasts;
+
+        /**
+         * The types of the records that have been added.
+         */
+        private final BitSet types;
+
+        /**
+         * Creates a new <code>Collector</code> for the specified time series.
+         * 
+         * @param definition the time series definition
+         */
+        private Collector(TimeSeriesDefinition definition) {
+
+            int numberOfRecordTypes = definition.getNumberOfRecordTypes();
+
+            this.definition = definition;
+            this.firsts = new TimeSeriesRecord[numberOfRecordTypes];
+            this.lasts = new TimeSeriesRecord[numberOfRecordTypes];
+            this.types = new BitSet(numberOfRecordTypes);
+        }
+
+        /**
+         * Adds the specified record. The record is copied if it is the earliest or the latest one of its type, so 
+         * the specified instance can be reused by the caller.
+         * 
+         * @param fullRecord the record to add, which must not be a delta record
+         * @throws IOException if an I/O problem occurs while reading the timestamps
+         */
+        public void add(TimeSeriesRecord fullRecord) throws IOException {
+
+            int type = fullRecord.getType();
+            boolean first = !this.types.get(type);
+
+            if (first) {
+
+                this.types.set(type);
+                this.lasts[type] = this.definition.newRecord(type);
+            }
+
+            long timestamp = fullRecord.getTimestampInNanos(0);
+
+            if (first || timestamp < this.firsts[type].getTimestampInNanos(0)) {
+
+                this.firsts[type] = this.definition.newRecord(type);
+                fullRecord.copyTo(this.firsts[type]);
+            }
+
+            if (first || timestamp >= this.lasts[type].getTimestampInNanos(0)) {
+                fullRecord.copyTo(this.lasts[type]);
+            }
+        }
+
+        /**
+         * Returns the types of the records that have been added.
+         * 
+         * @return the types of the records that have been added.
+         */
+        public BitSet getTypes() {
+            return (BitSet) this.types.clone();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import static org.apache.commons.lang.Validate.isTrue;
+
+/**
+ * <code>RecordIterator</code> returning at most a given number of records from another iterator. The decorated
+ * iterator is not read any further once the limit has been reached.
+ */
+public final class LimitedRecordIterator implements ResourceIterator<Record> {
+
+    /**
+     * The decorated iterator.
+     */
+    private final ResourceIterator<? extends Record> iterator;
+
+    /**
+     * The number of records that can still be returned.
+     */
+    private long remaining;
+
+    /**
+     * Creates a new <code>LimitedRecordIterator</code> that returns at most the specified number of records.
+     * 
+     * @param iterator the decorated iterator
+     * @param limit the maximum number of records to return
+     */
+    public LimitedRecordIterator(ResourceIterator<? extends Record> iterator, long limit) {
+
+        isTrue(limit >= 0, "the limit must not be negative.");
+
+        this.iterator = iterator;
+        this.remaining = limit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+        return this.remaining > 0 && this.iterator.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Record next() throws IOException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        this.remaining--;
+        return this.iterator.next();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.iterator.close();
+    }
+}
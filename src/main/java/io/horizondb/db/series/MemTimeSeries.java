@@ -68,6 +68,11 @@ final class MemTimeSeries implements TimeSeriesElement {
      */
     private final List<DataBlock> blocks;
 
+    /**
+     * The statistics of the data blocks, in the same order than the blocks.
+     */
+    private final List<BlockStatistics> blockStatistics;
+
     /**
      * The last records for each type.
      */
@@ -96,6 +101,7 @@ final class MemTimeSeries implements TimeSeriesElement {
         this(configuration,
              definition,
              Collections.<DataBlock>emptyList(),
+             Collections.<BlockStatistics>emptyList(),
              new TimeSeriesRecord[definition.getNumberOfRecordTypes()],
              null,
              null,
@@ -125,10 +131,32 @@ final class MemTimeSeries implements TimeSeriesElement {
                                DataBlock block,
                                ListenableFuture<ReplayPosition> future) throws IOException, HorizonDBException {
 
+        return write(allocator, block, future, new LatestRecords(this.definition).newCollector());
+    }
+
+    /**
+     * Writes the specified records and adds their full version to the specified collector.
+     * 
+     * @param allocator the slab allocator used to reduce heap fragmentation
+     * @param block the block containing the records to write
+     * @param future the future returning the <code>ReplayPosition</code> for this write.
+     * @param collector the collector of the earliest and latest records written
+     * @return the number of records written.
+     * @throws IOException if an I/O problem occurs while writing the records.
+     * @throws HorizonDBException if the one of the records is invalid
+     */
+    public MemTimeSeries write(SlabAllocator allocator,
+                               DataBlock block,
+                               ListenableFuture<ReplayPosition> future,
+                               LatestRecords.Collector collector) throws IOException, HorizonDBException {
+
         List<DataBlock> newBlocks = new ArrayList<>(this.blocks);
+        List<BlockStatistics> newBlockStatistics = new ArrayList<>(this.blockStatistics);
         TimeSeriesRecord[] previousRecords = TimeSeriesRecord.deepCopy(this.lastRecords);
+        TimeSeriesRecord[] fullRecords = newRecords(this.definition);
 
         RecordAppender appender;
+        BlockStatistics.Builder statistics = BlockStatistics.newBuilder(this.definition);
         
         if (newBlocks.isEmpty()) {
 
@@ -138,6 +166,7 @@ final class MemTimeSeries implements TimeSeriesElement {
         } else {
 
             DataBlock lastBlock = newBlocks.remove(newBlocks.size() - 1);
+            statistics.add(newBlockStatistics.remove(newBlockStatistics.size() - 1));
             appender = new RecordAppender(this.definition,
                                                     allocator,
                                                     previousRecords,
@@ -149,19 +178,28 @@ final class MemTimeSeries implements TimeSeriesElement {
             while (iterator.hasNext()) {
 
                 BinaryTimeSeriesRecord next = iterator.next();
+                TimeSeriesRecord fullRecord = toFullRecord(fullRecords, next);
+
                 if (!appender.append(next)) {
 
                     newBlocks.add(appender.getDataBlock());
+                    newBlockStatistics.add(statistics.build());
                     appender = new RecordAppender(this.definition, allocator, this.lastRecords);
+                    statistics = BlockStatistics.newBuilder(this.definition);
                     appender.append(next);
                 }
+
+                statistics.add(fullRecord);
+                collector.add(fullRecord);
             }
             newBlocks.add(appender.getDataBlock());
+            newBlockStatistics.add(statistics.build());
 
         }
         return new MemTimeSeries(this.configuration,
                                  this.definition,
                                  newBlocks,
+                                 newBlockStatistics,
                                  previousRecords,
                                  getFirstFuture(future),
                                  future,
@@ -226,6 +264,15 @@ final class MemTimeSeries implements TimeSeriesElement {
         return this.blocks.size();
     }
 
+    /**
+     * Returns the statistics of the data blocks, in the same order than the blocks returned by {@link #iterator()}.
+     * 
+     * @return the statistics of the data blocks.
+     */
+    public List<BlockStatistics> getBlockStatistics() {
+        return this.blockStatistics;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -269,6 +316,43 @@ final class MemTimeSeries implements TimeSeriesElement {
         return this.firstFuture;
     }
 
+    /**
+     * Creates a new record for each record type of the specified time series.
+     *
+     * @param definition the time series definition
+     * @return a new record for each record type of the specified time series
+     */
+    private static TimeSeriesRecord[] newRecords(TimeSeriesDefinition definition) {
+
+        TimeSeriesRecord[] records = new TimeSeriesRecord[definition.getNumberOfRecordTypes()];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = definition.newRecord(i);
+        }
+
+        return records;
+    }
+
+    /**
+     * Rebuilds the full version of the specified record using the previous full records of the same type.
+     *
+     * @param fullRecords the previous full records
+     * @param record the record read from the written block
+     * @return the full version of the specified record
+     */
+    private static TimeSeriesRecord toFullRecord(TimeSeriesRecord[] fullRecords, Record record) {
+
+        TimeSeriesRecord fullRecord = fullRecords[record.getType()];
+
+        if (record.isDelta()) {
+            fullRecord.add(record);
+        } else {
+            record.copyTo(fullRecord);
+        }
+
+        return fullRecord;
+    }
+
     /**
      * Returns the greatest timestamp of the specified records.
      *
@@ -339,6 +423,7 @@ final class MemTimeSeries implements TimeSeriesElement {
     private MemTimeSeries(Configuration configuration,
                            TimeSeriesDefinition definition,
                            List<DataBlock> blocks,
+                           List<BlockStatistics> blockStatistics,
                            TimeSeriesRecord[] lastRecords,
                            ListenableFuture<ReplayPosition> firstFuture,
                            ListenableFuture<ReplayPosition> lastFuture,
@@ -347,6 +432,7 @@ final class MemTimeSeries implements TimeSeriesElement {
         this.configuration = configuration;
         this.definition = definition;
         this.blocks = blocks;
+        this.blockStatistics = blockStatistics;
         this.lastRecords = lastRecords;
         this.firstFuture = firstFuture;
         this.lastFuture = lastFuture;
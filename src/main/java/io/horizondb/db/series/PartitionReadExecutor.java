@@ -0,0 +1,119 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.AbstractComponent;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.metrics.PrefixFilter;
+import io.horizondb.db.metrics.ThreadPoolExecutorMetrics;
+import io.horizondb.db.util.concurrent.NamedThreadFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.codahale.metrics.MetricRegistry;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static io.horizondb.db.util.concurrent.ExecutorsUtils.shutdownAndAwaitForTermination;
+
+/**
+ * Bounded pool of threads used to read and decode partitions ahead of their consumption.
+ */
+@ThreadSafe
+public final class PartitionReadExecutor extends AbstractComponent {
+
+    /**
+     * The database configuration.
+     */
+    private final Configuration configuration;
+
+    /**
+     * The executor service used to read the partitions.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Creates a new <code>PartitionReadExecutor</code> instance.
+     * 
+     * @param configuration the database configuration
+     */
+    public PartitionReadExecutor(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Returns the number of partitions that can be read ahead of the one being consumed.
+     * 
+     * @return the number of partitions that can be read ahead of the one being consumed or zero if the partitions
+     * must be read one after the other.
+     */
+    public int getReadAhead() {
+        return this.configuration.getPartitionReadAhead();
+    }
+
+    /**
+     * Submits the specified read task.
+     * 
+     * @param task the task reading a partition
+     * @return the future returning the result of the task
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+
+        checkRunning();
+        return this.executor.submit(task);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void register(MetricRegistry registry) {
+        registry.registerAll(new ThreadPoolExecutorMetrics(name(getName(), "executor"),
+                                                           (ThreadPoolExecutor) this.executor));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregister(MetricRegistry registry) {
+        registry.removeMatching(new PrefixFilter(getName()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doStart() throws IOException, InterruptedException {
+
+        ThreadFactory factory = new NamedThreadFactory(getName());
+        this.executor = Executors.newFixedThreadPool(this.configuration.getPartitionReadThreads(), factory);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doShutdown() throws InterruptedException {
+
+        shutdownAndAwaitForTermination(this.executor, this.configuration.getShutdownWaitingTimeInSeconds());
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.BlockPosition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Range;
+
+/**
+ * The plan of the read performed by a select: the time ranges extracted from the predicate, the partitions and the
+ * blocks on disk that are read for those ranges and whether the records are filtered further once decoded.
+ * <p>
+ * The plan is returned as records, one record type per element of the plan, in the order in which the elements
+ * are visited by the read:
+ * <ul>
+ * <li><code>timeRange</code>: the start and the <code>end</code> of a time range of the predicate</li>
+ * <li><code>partition</code>: the start and the <code>end</code> of a partition, the number of <code>blocks</code>
+ * and of <code>bytes</code> to read from its file and the <code>memoryUsage</code> of its data not yet flushed,
+ * which is read in addition to the blocks</li>
+ * <li><code>block</code>: the <code>first</code> and the <code>last</code> timestamp of a block of the previous
+ * partition, and its <code>offset</code> and <code>length</code> within the file</li>
+ * <li><code>filter</code>: <code>residual</code> is 1 if the predicate restricts other fields than the timestamp,
+ * in which case each decoded record is checked against it, 0 otherwise</li>
+ * </ul>
+ * </p>
+ */
+public final class QueryPlan {
+
+    /**
+     * The name of the record type describing the time ranges.
+     */
+    public static final String TIME_RANGE = "timeRange";
+
+    /**
+     * The name of the record type describing the partitions.
+     */
+    public static final String PARTITION = "partition";
+
+    /**
+     * The name of the record type describing the blocks.
+     */
+    public static final String BLOCK = "block";
+
+    /**
+     * The name of the record type describing the filter.
+     */
+    public static final String FILTER = "filter";
+
+    /**
+     * The index of the record type describing the time ranges.
+     */
+    private static final int TIME_RANGE_TYPE = 0;
+
+    /**
+     * The index of the record type describing the partitions.
+     */
+    private static final int PARTITION_TYPE = 1;
+
+    /**
+     * The index of the record type describing the blocks.
+     */
+    private static final int BLOCK_TYPE = 2;
+
+    /**
+     * The index of the record type describing the filter.
+     */
+    private static final int FILTER_TYPE = 3;
+
+    /**
+     * The definition of the records describing the plan.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The records describing the plan.
+     */
+    private final List<TimeSeriesRecord> records = new ArrayList<>();
+
+    /**
+     * Creates a new empty <code>QueryPlan</code> for the specified time series.
+     *
+     * @param seriesDefinition the definition of the time series being read
+     */
+    QueryPlan(TimeSeriesDefinition seriesDefinition) {
+
+        this.definition = newDefinition(seriesDefinition);
+    }
+
+    /**
+     * Returns the definition of the records describing this plan.
+     *
+     * @return the definition of the records describing this plan.
+     */
+    public TimeSeriesDefinition getDefinition() {
+        return this.definition;
+    }
+
+    /**
+     * Returns an iterator over the records describing this plan.
+     *
+     * @return an iterator over the records describing this plan.
+     */
+    public ResourceIterator<Record> iterator() {
+        return new RecordListIterator(this.records);
+    }
+
+    /**
+     * Adds the specified time range of the predicate to this plan.
+     *
+     * @param range the time range
+     */
+    void addTimeRange(Range<Field> range) {
+
+        TimeSeriesRecord record = this.definition.newRecord(TIME_RANGE_TYPE);
+        record.setTimestampInNanos(0, range.lowerEndpoint().getTimestampInNanos());
+        record.setTimestampInNanos(1, range.upperEndpoint().getTimestampInNanos());
+
+        this.records.add(record);
+    }
+
+    /**
+     * Adds the specified partition, and the blocks that must be read from its file, to this plan.
+     *
+     * @param range the time range of the partition
+     * @param blocks the positions of the blocks that must be read, indexed by the time range of the blocks
+     * @param memoryUsage the memory usage of the data of the partition which has not been flushed yet
+     */
+    void addPartition(Range<Field> range, Map<Range<Field>, BlockPosition> blocks, long memoryUsage) {
+
+        long bytes = 0;
+
+        for (BlockPosition block : blocks.values()) {
+            bytes += block.getLength();
+        }
+
+        TimeSeriesRecord partition = this.definition.newRecord(PARTITION_TYPE);
+        partition.setTimestampInNanos(0, range.lowerEndpoint().getTimestampInNanos());
+        partition.setTimestampInNanos(1, range.upperEndpoint().getTimestampInNanos());
+        partition.setLong(2, blocks.size());
+        partition.setLong(3, bytes);
+        partition.setLong(4, memoryUsage);
+
+        this.records.add(partition);
+
+        for (Entry<Range<Field>, BlockPosition> entry : blocks.entrySet()) {
+
+            Range<Field> blockRange = entry.getKey();
+            BlockPosition position = entry.getValue();
+
+            TimeSeriesRecord block = this.definition.newRecord(BLOCK_TYPE);
+            block.setTimestampInNanos(0, blockRange.lowerEndpoint().getTimestampInNanos());
+            block.setTimestampInNanos(1, blockRange.upperEndpoint().getTimestampInNanos());
+            block.setLong(2, position.getOffset());
+            block.setLong(3, position.getLength());
+
+            this.records.add(block);
+        }
+    }
+
+    /**
+     * Adds the residual filter to this plan.
+     *
+     * @param residual <code>true</code> if the decoded records must be checked against the predicate
+     */
+    void addFilter(boolean residual) {
+
+        TimeSeriesRecord record = this.definition.newRecord(FILTER_TYPE);
+        record.setTimestampInNanos(0, 0);
+        record.setByte(1, residual ? 1 : 0);
+
+        this.records.add(record);
+    }
+
+    /**
+     * Creates the definition of the records describing the plan of a read of the specified time series.
+     *
+     * @param seriesDefinition the definition of the time series being read
+     * @return the definition of the records describing the plan
+     */
+    private static TimeSeriesDefinition newDefinition(TimeSeriesDefinition seriesDefinition) {
+
+        RecordTypeDefinition.Builder timeRange = RecordTypeDefinition.newBuilder(TIME_RANGE)
+                                                                     .addField("end",
+                                                                               FieldType.NANOSECONDS_TIMESTAMP);
+
+        RecordTypeDefinition.Builder partition = RecordTypeDefinition.newBuilder(PARTITION)
+                                                                     .addField("end",
+                                                                               FieldType.NANOSECONDS_TIMESTAMP)
+                                                                     .addField("blocks", FieldType.LONG)
+                                                                     .addField("bytes", FieldType.LONG)
+                                                                     .addField("memoryUsage", FieldType.LONG);
+
+        RecordTypeDefinition.Builder block = RecordTypeDefinition.newBuilder(BLOCK)
+                                                                 .addField("last", FieldType.NANOSECONDS_TIMESTAMP)
+                                                                 .addField("offset", FieldType.LONG)
+                                                                 .addField("length", FieldType.LONG);
+
+        RecordTypeDefinition.Builder filter = RecordTypeDefinition.newBuilder(FILTER)
+                                                                  .addField("residual", FieldType.BYTE);
+
+        return TimeSeriesDefinition.newBuilder(seriesDefinition.getName())
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .timeZone(seriesDefinition.getTimeZone())
+                                   .addRecordType(timeRange)
+                                   .addRecordType(partition)
+                                   .addRecordType(block)
+                                   .addRecordType(filter)
+                                   .build();
+    }
+}
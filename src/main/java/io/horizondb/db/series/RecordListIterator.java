@@ -0,0 +1,76 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <code>RecordIterator</code> returning records already computed in memory.
+ */
+public final class RecordListIterator implements ResourceIterator<Record> {
+
+    /**
+     * The records to return.
+     */
+    private final List<Record> records;
+
+    /**
+     * The index of the next record to return.
+     */
+    private int index;
+
+    /**
+     * Creates a new <code>RecordListIterator</code> that returns the specified records.
+     *
+     * @param records the records to return
+     */
+    public RecordListIterator(List<? extends Record> records) {
+
+        this.records = new ArrayList<>(records);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        return this.index < this.records.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Record next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.records.get(this.index++);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        // Do nothing
+    }
+}
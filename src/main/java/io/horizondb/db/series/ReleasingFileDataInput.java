@@ -0,0 +1,166 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.AbstractByteReader;
+import io.horizondb.io.ByteReader;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.io.files.SeekableFileDataInput;
+
+import java.io.IOException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * <code>SeekableFileDataInput</code> releasing the <code>DataFileHandle</code> from which it has been created when
+ * it is closed, so the underlying file cannot be closed by the pool while the input is being read.
+ */
+@NotThreadSafe
+final class ReleasingFileDataInput extends AbstractByteReader implements SeekableFileDataInput {
+
+    /**
+     * The decorated input.
+     */
+    private final SeekableFileDataInput input;
+
+    /**
+     * The handle of the file being read.
+     */
+    private final DataFileHandle handle;
+
+    /**
+     * <code>true</code> if this input has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a new <code>ReleasingFileDataInput</code> that decorates the specified input.
+     *
+     * @param input the decorated input
+     * @param handle the handle of the file being read, that must have been acquired
+     */
+    public ReleasingFileDataInput(SeekableFileDataInput input, DataFileHandle handle) {
+
+        this.input = input;
+        this.handle = handle;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteReader skipBytes(int numberOfBytes) throws IOException {
+
+        this.input.skipBytes(numberOfBytes);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ReadableBuffer slice(int length) throws IOException {
+        return this.input.slice(length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte readByte() throws IOException {
+        return this.input.readByte();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteReader readBytes(byte[] bytes) throws IOException {
+
+        this.input.readBytes(bytes);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteReader readBytes(byte[] bytes, int offset, int length) throws IOException {
+
+        this.input.readBytes(bytes, offset, length);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isReadable() throws IOException {
+        return this.input.isReadable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        this.input.seek(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readableBytes() throws IOException {
+        return this.input.readableBytes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() throws IOException {
+        return this.input.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPosition() throws IOException {
+        return this.input.getPosition();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+
+        try {
+
+            this.input.close();
+
+        } finally {
+
+            this.handle.release();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Cancellation;
+import io.horizondb.db.QueryTrace;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Filter;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.FilteringRecordIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.RangeSet;
+
+/**
+ * <code>RecordIterator</code> returning the records of a partition from the newest to the oldest.
+ * <p>
+ * The records being delta encoded, they can only be decoded forward. The parts of the partition are therefore read 
+ * from the newest to the oldest and the records of each part are decoded forward before being returned in reverse 
+ * order. Only the records of one part are kept in memory at a time, and the older parts are not read if the 
+ * iteration stops early. The returned records are full records.
+ * </p>
+ */
+final class ReverseRecordIterator implements ResourceIterator<Record> {
+
+    /**
+     * The time series definition.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The parts of the partition from the newest to the oldest.
+     */
+    private final Iterator<TimeSeriesElement> parts;
+
+    /**
+     * The time ranges for which data has been requested.
+     */
+    private final RangeSet<Field> rangeSet;
+
+    /**
+     * The filter used to filter the records by type.
+     */
+    private final Filter<String> recordTypeFilter;
+
+    /**
+     * The filter used to filter data.
+     */
+    private final Filter<Record> filter;
+
+    /**
+     * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+     */
+    private final Cancellation cancellation;
+
+    /**
+     * The records of the part being returned, in timestamp order.
+     */
+    private final List<TimeSeriesRecord> records = new ArrayList<>();
+
+    /**
+     * The number of records of the current part that remain to be returned.
+     */
+    private int remaining;
+
+    /**
+     * Creates a new <code>ReverseRecordIterator</code> that returns the records of the specified parts.
+     * 
+     * @param definition the time series definition
+     * @param parts the parts of the partition from the newest to the oldest
+     * @param rangeSet the time ranges for which data has been requested
+     * @param recordTypeFilter the filter used to filter the records by type
+     * @param filter the filter used to filter the returned data
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     */
+    public ReverseRecordIterator(TimeSeriesDefinition definition,
+                                 List<TimeSeriesElement> parts,
+                                 RangeSet<Field> rangeSet,
+                                 Filter<String> recordTypeFilter,
+                                 Filter<Record> filter,
+                                 Cancellation cancellation) {
+
+        this.definition = definition;
+        this.parts = parts.iterator();
+        this.rangeSet = rangeSet;
+        this.recordTypeFilter = recordTypeFilter;
+        this.filter = filter;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+
+        while (this.remaining == 0) {
+
+            if (!this.parts.hasNext()) {
+                return false;
+            }
+
+            this.cancellation.check();
+
+            read(this.parts.next());
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Record next() throws IOException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.records.get(--this.remaining);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+
+        this.records.clear();
+        this.remaining = 0;
+    }
+
+    /**
+     * Reads and decodes the records of the specified part.
+     * 
+     * @param part the part to read
+     * @throws IOException if an I/O problem occurs
+     */
+    private void read(TimeSeriesElement part) throws IOException {
+
+        this.records.clear();
+
+        TimeSeriesRecord[] fullRecords = new TimeSeriesRecord[this.definition.getNumberOfRecordTypes()];
+
+        try (ResourceIterator<Record> iterator = newRecordIterator(part)) {
+
+            while (iterator.hasNext()) {
+
+                Record record = iterator.next();
+                int type = record.getType();
+
+                if (fullRecords[type] == null) {
+                    fullRecords[type] = this.definition.newRecord(type);
+                }
+
+                TimeSeriesRecord fullRecord = fullRecords[type];
+
+                if (record.isDelta()) {
+                    fullRecord.add(record);
+                } else {
+                    record.copyTo(fullRecord);
+                }
+
+                TimeSeriesRecord copy = this.definition.newRecord(type);
+                fullRecord.copyTo(copy);
+                this.records.add(copy);
+            }
+        }
+
+        this.remaining = this.records.size();
+    }
+
+    /**
+     * Returns the records of the specified part that match the filters, recording the time spent in each stage of 
+     * the read if the query is traced.
+     * 
+     * @param part the part to read
+     * @return the records of the specified part that match the filters
+     * @throws IOException if an I/O problem occurs
+     */
+    private ResourceIterator<Record> newRecordIterator(TimeSeriesElement part) throws IOException {
+
+        QueryTrace trace = this.cancellation.getTrace();
+
+        if (trace != null) {
+
+            long start = System.nanoTime();
+            ResourceIterator<DataBlock> blocks = part.iterator(this.rangeSet);
+            trace.addTime(QueryTrace.Stage.FILE_OPEN, System.nanoTime() - start);
+
+            return TracingIterator.newRecordIterator(this.definition, 
+                                                     blocks, 
+                                                     this.recordTypeFilter, 
+                                                     this.filter, 
+                                                     trace);
+        }
+
+        return new FilteringRecordIterator(this.definition,
+                                           new BinaryTimeSeriesRecordIterator(this.definition, 
+                                                                              part.iterator(this.rangeSet), 
+                                                                              this.recordTypeFilter),
+                                           this.filter);
+    }
+}
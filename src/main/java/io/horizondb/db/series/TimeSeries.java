@@ -13,10 +13,20 @@
  */
 package io.horizondb.db.series;
 
+import io.horizondb.db.Cancellation;
 import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.QueryTrace;
 import io.horizondb.db.btree.KeyValueIterator;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.series.aggregations.Aggregate;
+import io.horizondb.db.series.aggregations.Aggregation;
+import io.horizondb.db.series.aggregations.AggregationInput;
 import io.horizondb.db.util.concurrent.FutureUtils;
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.io.encoding.VarInts;
+import io.horizondb.io.files.FileUtils;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
@@ -24,16 +34,34 @@ import io.horizondb.model.core.Predicate;
 import io.horizondb.model.core.Projection;
 import io.horizondb.model.core.Record;
 import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
 import io.horizondb.model.schema.DatabaseDefinition;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
 import com.google.common.util.concurrent.ListenableFuture;
 
 /**
@@ -41,6 +69,32 @@ import com.google.common.util.concurrent.ListenableFuture;
  */
 public final class TimeSeries {
 
+    /**
+     * The value used to specify that the number of records returned must not be limited.
+     */
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    /**
+     * The size of the chunks into which the records of a partition read ahead are serialized.
+     */
+    private static final int READ_AHEAD_CHUNK_SIZE = 64 * FileUtils.ONE_KB;
+
+    /**
+     * The maximum number of chunks that a partition read ahead can buffer before waiting for them to be consumed.
+     */
+    private static final int READ_AHEAD_MAXIMUM_NUMBER_OF_CHUNKS = 4;
+
+    /**
+     * The time in milliseconds after which a consumer waiting for the next chunk of a read ahead checks again if 
+     * the query has been cancelled and if the read is still going on.
+     */
+    private static final long READ_AHEAD_WAITING_TIME_IN_MILLIS = 100;
+
+    /**
+     * The number of partitions looked up at once while seeding the earliest and latest records of a time series.
+     */
+    private static final int NUMBER_OF_PARTITIONS_SEEDED_PER_BATCH = 4;
+
     /**
      * The database definition.
      */
@@ -83,12 +137,14 @@ public final class TimeSeries {
 
     public void write(DataBlock block,
                       ListenableFuture<ReplayPosition> future,
-                      boolean replay) throws IOException, HorizonDBException {
+                      boolean replay,
+                      OperationMetrics metrics) throws IOException, HorizonDBException {
 
         RangeMap<Field, DataBlock> blocks = block.split(this.definition);
+        LatestRecords latestRecords = getLatestRecords();
 
         for (Entry<Range<Field>, DataBlock> entry : blocks.asMapOfRanges().entrySet()) {  
-            writeToPartition(toPartitionId(entry.getKey()), entry.getValue(), future, replay);
+            writeToPartition(toPartitionId(entry.getKey()), entry.getValue(), future, replay, latestRecords, metrics);
         }
     }
 
@@ -103,24 +159,281 @@ public final class TimeSeries {
     public ResourceIterator<? extends Record> read(Projection projection,
                                                    Predicate predicate) throws IOException, HorizonDBException {
         
+        return read(projection, predicate, false, NO_LIMIT, null, new Cancellation());
+    }
+
+    /**
+     * Returns the records of this time series that match the specified expression, in timestamp order or in 
+     * reverse timestamp order.
+     * <p>
+     * If the records are requested in reverse order, the partitions are read from the newest to the oldest and the 
+     * blocks of each partition from the newest to the oldest. As the reads are lazy, the older data are not read 
+     * once the limit has been reached.
+     * </p>
+     * <p>
+     * If a continuation token is specified, the read starts directly from the partition and the block containing 
+     * the last record returned by the previous read.
+     * </p>
+     *  
+     * @param projection the data that must be returned to the user
+     * @param predicate the predicate used to filter the data
+     * @param reverseOrder <code>true</code> if the newest records must be returned first
+     * @param limit the maximum number of records to return or <code>NO_LIMIT</code>
+     * @param token the token used to resume a previous read or <code>null</code>
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    public ResourceIterator<? extends Record> read(Projection projection,
+                                                   Predicate predicate,
+                                                   boolean reverseOrder,
+                                                   long limit,
+                                                   ContinuationToken token,
+                                                   Cancellation cancellation) 
+                                                           throws IOException, HorizonDBException {
+        
         Filter<String> recordTypeFilter = projection.getRecordTypeFilter(this.definition);
         RangeSet<Field> timeRanges = predicate.getTimestampRanges();
         Filter<Record> filter = predicate.toFilter(this.definition);
-        
-        return projection.filterFields(this.definition, read(timeRanges, recordTypeFilter, filter));
+
+        if (token != null) {
+            timeRanges = token.restrict(timeRanges, reverseOrder);
+        }
+
+        ResourceIterator<Record> iterator;
+
+        if (reverseOrder) {
+
+            iterator = new PartitionRecordIterator(timeRanges, 
+                                                   getRangeForReadInReverseOrder(timeRanges, cancellation), 
+                                                   recordTypeFilter, 
+                                                   filter, 
+                                                   true,
+                                                   cancellation);
+        } else {
+
+            iterator = read(timeRanges, recordTypeFilter, filter, cancellation);
+        }
+
+        if (token != null) {
+            iterator = token.resume(this.definition, iterator);
+        }
+
+        if (limit != NO_LIMIT) {
+            iterator = new LimitedRecordIterator(iterator, limit);
+        }
+
+        return projection.filterFields(this.definition, iterator);
     }
-    
+
+    /**
+     * Returns the aggregates computed over the records of this time series that match the specified expression.
+     * The aggregates are computed while the records are streamed, one time bucket at a time.
+     * <p>
+     * If the predicate only restricts the timestamps, the blocks on disk that are fully contained within the 
+     * requested time ranges are summarized by their statistics and only the blocks at the edges of the ranges are 
+     * decompressed.
+     * </p>
+     *
+     * @param aggregation the aggregates that must be computed
+     * @param predicate the predicate used to filter the data
+     * @param timestampRangesOnly <code>true</code> if the predicate only restricts the timestamps to exact ranges
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    public ResourceIterator<? extends Record> read(Aggregation aggregation,
+                                                   Predicate predicate,
+                                                   boolean timestampRangesOnly,
+                                                   Cancellation cancellation) 
+                                                           throws IOException, HorizonDBException {
+
+        Filter<String> recordTypeFilter = aggregation.getProjection().getRecordTypeFilter(this.definition);
+        RangeSet<Field> timeRanges = predicate.getTimestampRanges();
+        Filter<Record> filter = predicate.toFilter(this.definition);
+
+        if (!timestampRangesOnly || !aggregation.isComputableFromStatistics()) {
+            return aggregation.aggregate(this.definition, read(timeRanges, recordTypeFilter, filter, cancellation));
+        }
+
+        return aggregation.aggregate(this.definition, 
+                                     new PartitionAggregationInput(timeRanges, 
+                                                                   getRangeForRead(timeRanges, cancellation), 
+                                                                   aggregation, 
+                                                                   recordTypeFilter, 
+                                                                   filter,
+                                                                   cancellation));
+    }
+
+    /**
+     * Returns the aggregates computed over the earliest and the latest record of each record type of this time 
+     * series. Those records are kept in memory, so the partitions are only read the first time they are requested.
+     * <p>
+     * The result is the same as the one of the aggregation over all the records as long as all the aggregates are 
+     * <code>LAST</code> aggregates and the aggregation is not split into time buckets. The partitions are seeded
+     * from the newest one until a record of each type has been found, so the earliest records are the earliest of 
+     * those partitions and of the records written since the time series has been loaded.
+     * </p>
+     *
+     * @param aggregation the aggregates that must be computed
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    public ResourceIterator<? extends Record> readLast(Aggregation aggregation) throws IOException, HorizonDBException {
+
+        LatestRecords latestRecords = getLatestRecords();
+
+        if (!latestRecords.isSeeded()) {
+            seed(latestRecords);
+        }
+
+        BitSet types = new BitSet(this.definition.getNumberOfRecordTypes());
+
+        for (Aggregate aggregate : aggregation.getAggregates()) {
+            types.set(aggregate.getRecordTypeIndex());
+        }
+
+        List<TimeSeriesRecord> records = new ArrayList<>();
+        TimeSeriesRecord firstRecord = null;
+
+        for (int type = types.nextSetBit(0); type >= 0; type = types.nextSetBit(type + 1)) {
+
+            TimeSeriesRecord record = latestRecords.getFirstRecord(type);
+
+            if (record == null) {
+                continue;
+            }
+
+            if (firstRecord == null || record.getTimestampInNanos(0) < firstRecord.getTimestampInNanos(0)) {
+                firstRecord = record;
+            }
+
+            insertInTimestampOrder(records, latestRecords.getLastRecord(type));
+        }
+
+        if (firstRecord != null) {
+            records.add(0, firstRecord);
+        }
+
+        return aggregation.aggregate(this.definition, new RecordListAggregationInput(records));
+    }
+
+    /**
+     * Returns the plan of the read of the records matching the specified predicate: the time ranges extracted from 
+     * the predicate, the partitions and the blocks on disk that are read for those ranges and whether the records
+     * are checked against the predicate once decoded. No block is read to compute the plan.
+     *
+     * @param predicate the predicate used to filter the data
+     * @param timestampRangesOnly <code>true</code> if the predicate only restricts the timestamps to exact ranges
+     * @return the plan of the read
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    public QueryPlan explain(Predicate predicate, boolean timestampRangesOnly) throws IOException, HorizonDBException {
+
+        RangeSet<Field> timeRanges = predicate.getTimestampRanges();
+
+        QueryPlan plan = new QueryPlan(this.definition);
+
+        for (Range<Field> range : timeRanges.asRanges()) {
+            plan.addTimeRange(range);
+        }
+
+        KeyValueIterator<PartitionId, TimeSeriesPartition> partitions = getRangeForRead(timeRanges);
+
+        while (partitions.next()) {
+
+            Range<Field> range = partitions.getKey().getRange();
+            RangeSet<Field> subRangeSet = timeRanges.subRangeSet(range);
+
+            if (!subRangeSet.isEmpty()) {
+
+                TimeSeriesPartition partition = partitions.getValue();
+                plan.addPartition(range, partition.getBlockPositions(subRangeSet), partition.getMemoryUsage());
+            }
+        }
+
+        plan.addFilter(!timestampRangesOnly);
+
+        return plan;
+    }
+
     /**
      * Returns the records of this time series that belong to the specified time ranges and are accepted by the 
      * specified filter.
+     * <p>
+     * If the read-ahead is enabled, the next partitions are read and decoded concurrently while the records of the 
+     * current one are consumed. The records are still returned in timestamp order.
+     * </p>
      * 
      * @param timeRanges the time ranges for which the data must be read
+     * @param recordTypeFilter the filter used to filter the records by type
+     * @param filter the filter used to filter the records
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
      * @throws IOException if an I/O problem occurs
      * @throws HorizonDBException if another problem occurs
      */
     public ResourceIterator<Record> read(RangeSet<Field> timeRanges,
                                          Filter<String> recordTypeFilter,
-                                         Filter<Record> filter) throws IOException, HorizonDBException {
+                                         Filter<Record> filter,
+                                         Cancellation cancellation) throws IOException, HorizonDBException {
+
+        KeyValueIterator<PartitionId, TimeSeriesPartition> rangeForRead = getRangeForRead(timeRanges, cancellation);
+        PartitionReadExecutor executor = this.partitionManager.getReadExecutor();
+
+        if (executor.getReadAhead() > 0) {
+            return new ReadAheadPartitionRecordIterator(timeRanges, 
+                                                        rangeForRead, 
+                                                        executor, 
+                                                        recordTypeFilter, 
+                                                        filter, 
+                                                        cancellation);
+        }
+
+        return new PartitionRecordIterator(timeRanges, rangeForRead, recordTypeFilter, filter, false, cancellation);
+    }
+
+    /**
+     * Returns the partitions containing the specified time ranges. If the query is traced, the time spent 
+     * iterating over the partitions and loading them is recorded within its trace.
+     * 
+     * @param timeRanges the time ranges for which the data must be read
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @return the partitions containing the specified time ranges
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    private KeyValueIterator<PartitionId, TimeSeriesPartition> getRangeForRead(RangeSet<Field> timeRanges,
+                                                                              Cancellation cancellation) 
+            throws IOException, HorizonDBException {
+
+        QueryTrace trace = cancellation.getTrace();
+
+        if (trace == null) {
+            return getRangeForRead(timeRanges);
+        }
+
+        long start = System.nanoTime();
+        KeyValueIterator<PartitionId, TimeSeriesPartition> iterator = getRangeForRead(timeRanges);
+        trace.addTime(QueryTrace.Stage.PARTITION_LOOKUP, System.nanoTime() - start);
+
+        return new TracingKeyValueIterator<>(iterator, trace);
+    }
+
+    /**
+     * Returns the partitions containing the specified time ranges.
+     * 
+     * @param timeRanges the time ranges for which the data must be read
+     * @return the partitions containing the specified time ranges
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    private KeyValueIterator<PartitionId, TimeSeriesPartition> getRangeForRead(RangeSet<Field> timeRanges) 
+            throws IOException, HorizonDBException {
+
+        if (timeRanges.isEmpty()) {
+            return new MapKeyValueIterator<>(Collections.<PartitionId, TimeSeriesPartition>emptyMap());
+        }
 
         Range<Field> span = timeRanges.span();
         
@@ -133,10 +446,132 @@ public final class TimeSeries {
             to = this.definition.getPartitionTimeRange(span.upperEndpoint());
         }
 
-        KeyValueIterator<PartitionId, TimeSeriesPartition> rangeForRead = 
-                this.partitionManager.getRangeForRead(toPartitionId(from), toPartitionId(to), this.definition);
-        
-        return new PartitionRecordIterator(timeRanges, rangeForRead, recordTypeFilter, filter);
+        return this.partitionManager.getRangeForRead(toPartitionId(from), toPartitionId(to), this.definition);
+    }
+
+    /**
+     * Returns the earliest and latest records of this time series kept in memory.
+     * 
+     * @return the earliest and latest records of this time series kept in memory.
+     */
+    private LatestRecords getLatestRecords() {
+
+        return this.partitionManager.getLatestRecordCache()
+                                    .getLatestRecords(new TimeSeriesId(this.databaseDefinition, 
+                                                                       this.definition.getName()), 
+                                                      this.definition);
+    }
+
+    /**
+     * Merges into the specified records the earliest and latest records persisted within the newest partitions. 
+     * The partitions are read from the newest one until the latest record of each type has been found or until all
+     * the partitions have been read. The partition IDs are listed first and the partitions are then looked up by 
+     * batches of <code>NUMBER_OF_PARTITIONS_SEEDED_PER_BATCH</code>. As the merge is idempotent, concurrent seeds 
+     * of the same records are harmless.
+     * 
+     * @param latestRecords the records to seed
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    private void seed(LatestRecords latestRecords) throws IOException, HorizonDBException {
+
+        List<PartitionId> ids = new ArrayList<>();
+
+        KeyValueIterator<PartitionId, TimeSeriesPartition> iterator = getRangeForRead(TimestampField.ALL);
+
+        while (iterator.next()) {
+            ids.add(iterator.getKey());
+        }
+
+        int numberOfRecordTypes = this.definition.getNumberOfRecordTypes();
+
+        BitSet types = new BitSet(numberOfRecordTypes);
+
+        for (int to = ids.size(); to > 0 && types.cardinality() < numberOfRecordTypes; 
+                to -= NUMBER_OF_PARTITIONS_SEEDED_PER_BATCH) {
+
+            int from = Math.max(0, to - NUMBER_OF_PARTITIONS_SEEDED_PER_BATCH);
+
+            List<TimeSeriesPartition> partitions = new ArrayList<>(to - from);
+
+            iterator = this.partitionManager.getRangeForRead(ids.get(from), ids.get(to - 1), this.definition);
+
+            while (iterator.next()) {
+                partitions.add(iterator.getValue());
+            }
+
+            for (int i = partitions.size() - 1; i >= 0 && types.cardinality() < numberOfRecordTypes; i--) {
+                types.or(seed(latestRecords, partitions.get(i)));
+            }
+        }
+
+        latestRecords.markAsSeeded();
+    }
+
+    /**
+     * Merges into the specified records the records of the specified partition.
+     * 
+     * @param latestRecords the records to seed
+     * @param partition the partition to read
+     * @return the types of the records read
+     * @throws IOException if an I/O problem occurs
+     */
+    private static BitSet seed(LatestRecords latestRecords, TimeSeriesPartition partition) throws IOException {
+
+        try (ResourceIterator<Record> iterator = partition.read(TimestampField.ALL, 
+                                                                Filters.<String>noop(), 
+                                                                Filters.<Record>noop())) {
+            return latestRecords.update(iterator);
+        }
+    }
+
+    /**
+     * Inserts the specified record within the specified list of records sorted in timestamp order.
+     * 
+     * @param records the records sorted in timestamp order
+     * @param record the record to insert
+     * @throws IOException if an I/O problem occurs while reading the timestamps
+     */
+    private static void insertInTimestampOrder(List<TimeSeriesRecord> records, 
+                                               TimeSeriesRecord record) throws IOException {
+
+        long timestamp = record.getTimestampInNanos(0);
+        int index = records.size();
+
+        while (index > 0 && records.get(index - 1).getTimestampInNanos(0) > timestamp) {
+            index--;
+        }
+
+        records.add(index, record);
+    }
+
+    /**
+     * Returns the partitions containing the specified time ranges, from the newest to the oldest. The B+Tree 
+     * storing the partition definitions can only be iterated forward, so the partition definitions are listed 
+     * first, without reading their data.
+     * 
+     * @param timeRanges the time ranges for which the data must be read
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @return the partitions containing the specified time ranges, from the newest to the oldest
+     * @throws IOException if an I/O problem occurs
+     * @throws HorizonDBException if another problem occurs
+     */
+    private KeyValueIterator<PartitionId, TimeSeriesPartition> getRangeForReadInReverseOrder(RangeSet<Field> timeRanges,
+                                                                                            Cancellation cancellation) 
+            throws IOException, HorizonDBException {
+
+        List<PartitionId> ids = new ArrayList<>();
+        List<TimeSeriesPartition> partitions = new ArrayList<>();
+
+        KeyValueIterator<PartitionId, TimeSeriesPartition> iterator = getRangeForRead(timeRanges, cancellation);
+
+        while (iterator.next()) {
+
+            ids.add(iterator.getKey());
+            partitions.add(iterator.getValue());
+        }
+
+        return new ReverseKeyValueIterator<>(ids, partitions);
     }
 
     /**
@@ -156,13 +591,17 @@ public final class TimeSeries {
      * @param block the block containing the records to write
      * @param future the commit log future
      * @param replay <code>true</code> if this is a commit log replay
+     * @param latestRecords the earliest and latest records of this time series
+     * @param metrics the metrics in which the write stages record their latency
      * @throws IOException if an I/O problem occurs
      * @throws HorizonDBException if a problem occurs
      */
     private void writeToPartition(PartitionId partitionId,
                                   DataBlock block,
                                   ListenableFuture<ReplayPosition> future,
-                                  boolean replay) throws IOException, HorizonDBException {
+                                  boolean replay,
+                                  LatestRecords latestRecords,
+                                  OperationMetrics metrics) throws IOException, HorizonDBException {
 
         TimeSeriesPartition partition = this.partitionManager.getPartitionForWrite(partitionId, this.definition);
 
@@ -177,7 +616,7 @@ public final class TimeSeries {
             }
         }
 
-        partition.write(block, future);
+        partition.write(block, future, latestRecords, metrics);
     }
     
     /**
@@ -204,6 +643,16 @@ public final class TimeSeries {
          * The iterator over the partitions.
          */
         private final KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator; 
+
+        /**
+         * <code>true</code> if the records of each partition must be returned from the newest to the oldest.
+         */
+        private final boolean reverseOrder;
+
+        /**
+         * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+         */
+        private final Cancellation cancellation;
         
         /**
          * The record iterator for the current partition been read.
@@ -217,16 +666,23 @@ public final class TimeSeries {
          * @param recordTypeFilter the filter used to filter the records by type.
          * @param filter the filter used to filter the returned data
          * @param partitionIterator the partitions.
+         * @param reverseOrder <code>true</code> if the records of each partition must be returned from the newest to 
+         * the oldest
+         * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
          */
         public PartitionRecordIterator(RangeSet<Field> rangeSet,
                                        KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator,
                                        Filter<String> recordTypeFilter,
-                                       Filter<Record> filter) {
+                                       Filter<Record> filter,
+                                       boolean reverseOrder,
+                                       Cancellation cancellation) {
             
             this.timeRanges = rangeSet;
             this.recordTypeFilter = recordTypeFilter;
             this.filter = filter;
             this.partitionIterator = partitionIterator;
+            this.reverseOrder = reverseOrder;
+            this.cancellation = cancellation;
         }
 
         /**
@@ -252,6 +708,8 @@ public final class TimeSeries {
             
             while (this.partitionIterator.next()) {
                 
+                this.cancellation.check();
+
                 Range<Field> range = this.partitionIterator.getKey().getRange();
                 
                 RangeSet<Field> subRangeSet = this.timeRanges.subRangeSet(range);
@@ -259,7 +717,18 @@ public final class TimeSeries {
                 if (!subRangeSet.isEmpty()) {
 
                     TimeSeriesPartition partition = this.partitionIterator.getValue();
-                    this.recordIterator = partition.read(subRangeSet, this.recordTypeFilter, this.filter);
+
+                    if (this.reverseOrder) {
+                        this.recordIterator = partition.readInReverseOrder(subRangeSet, 
+                                                                           this.recordTypeFilter, 
+                                                                           this.filter,
+                                                                           this.cancellation);
+                    } else {
+                        this.recordIterator = partition.read(subRangeSet, 
+                                                             this.recordTypeFilter, 
+                                                             this.filter, 
+                                                             this.cancellation);
+                    }
 
                     if (this.recordIterator.hasNext()) {
                         return true;
@@ -294,4 +763,997 @@ public final class TimeSeries {
             }
         }
     }
+
+    /**
+     * <code>KeyValueIterator</code> iterating over a list of keys and values from the last to the first.
+     */
+    private static final class ReverseKeyValueIterator<K extends Comparable<K>, V> implements KeyValueIterator<K, V> {
+
+        /**
+         * The keys.
+         */
+        private final List<K> keys;
+
+        /**
+         * The values.
+         */
+        private final List<V> values;
+
+        /**
+         * The index of the current entry.
+         */
+        private int index;
+
+        /**
+         * Creates a new <code>ReverseKeyValueIterator</code> over the specified keys and values.
+         * 
+         * @param keys the keys
+         * @param values the values
+         */
+        public ReverseKeyValueIterator(List<K> keys, List<V> values) {
+
+            this.keys = keys;
+            this.values = values;
+            this.index = keys.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() {
+
+            if (this.index > 0) {
+                this.index--;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K getKey() {
+            return this.keys.get(this.index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V getValue() {
+            return this.values.get(this.index);
+        }
+    }
+
+    /**
+     * <code>KeyValueIterator</code> recording within the trace of a query the time spent iterating over the 
+     * partitions and loading them, as well as the number of partitions visited.
+     */
+    private static final class TracingKeyValueIterator<K extends Comparable<K>, V> implements KeyValueIterator<K, V> {
+
+        /**
+         * The decorated iterator.
+         */
+        private final KeyValueIterator<K, V> iterator;
+
+        /**
+         * The trace of the query.
+         */
+        private final QueryTrace trace;
+
+        /**
+         * Creates a new <code>TracingKeyValueIterator</code> that decorates the specified iterator.
+         * 
+         * @param iterator the decorated iterator
+         * @param trace the trace of the query
+         */
+        public TracingKeyValueIterator(KeyValueIterator<K, V> iterator, QueryTrace trace) {
+
+            this.iterator = iterator;
+            this.trace = trace;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() throws IOException {
+
+            long start = System.nanoTime();
+
+            try {
+
+                return this.iterator.next();
+
+            } finally {
+
+                this.trace.addTime(QueryTrace.Stage.PARTITION_LOOKUP, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K getKey() {
+            return this.iterator.getKey();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V getValue() throws IOException {
+
+            long start = System.nanoTime();
+
+            try {
+
+                return this.iterator.getValue();
+
+            } finally {
+
+                this.trace.addTime(QueryTrace.Stage.PARTITION_LOOKUP, System.nanoTime() - start);
+                this.trace.addPartition();
+            }
+        }
+    }
+
+    /**
+     * <code>RecordIterator</code> used to read records over multiple partitions, reading and decoding the next 
+     * partitions concurrently while the records of the current one are consumed. The partitions are handed off in 
+     * order so the records are returned in timestamp order.
+     */
+    private final class ReadAheadPartitionRecordIterator implements ResourceIterator<Record> {
+
+        /**
+         * The time ranges for which data has been requested. 
+         */
+        private final RangeSet<Field> timeRanges;
+
+        /**
+         * The filter used to filter the records by type.
+         */
+        private final Filter<String> recordTypeFilter;
+
+        /**
+         * The filter used to filter data.
+         */
+        private final Filter<Record> filter;
+
+        /**
+         * The iterator over the partitions.
+         */
+        private final KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator; 
+
+        /**
+         * The executor used to read the partitions.
+         */
+        private final PartitionReadExecutor executor;
+
+        /**
+         * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+         */
+        private final Cancellation cancellation;
+
+        /**
+         * The reads submitted ahead of the current one, in partition order.
+         */
+        private final Deque<PartitionReadTask> pendingReads = new LinkedList<>();
+
+        /**
+         * The read of the partition being consumed.
+         */
+        private PartitionReadTask currentRead;
+
+        /**
+         * <code>true</code> if all the partitions have been submitted for read.
+         */
+        private boolean allPartitionsSubmitted;
+
+        /**
+         * The record iterator for the chunk being read.
+         */
+        private ResourceIterator<? extends Record> recordIterator;
+
+        /**
+         * Creates a new <code>ReadAheadPartitionRecordIterator</code> to read records from the specified partitions.
+         * 
+         * @param timeRanges the time ranges for which data has been requested
+         * @param partitionIterator the partitions
+         * @param executor the executor used to read the partitions
+         * @param recordTypeFilter the filter used to filter the records by type
+         * @param filter the filter used to filter the returned data
+         * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+         */
+        public ReadAheadPartitionRecordIterator(RangeSet<Field> timeRanges,
+                                                KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator,
+                                                PartitionReadExecutor executor,
+                                                Filter<String> recordTypeFilter,
+                                                Filter<Record> filter,
+                                                Cancellation cancellation) {
+
+            this.timeRanges = timeRanges;
+            this.partitionIterator = partitionIterator;
+            this.executor = executor;
+            this.recordTypeFilter = recordTypeFilter;
+            this.filter = filter;
+            this.cancellation = cancellation;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+
+            closeRecordIteratorIfNeeded();
+
+            if (this.currentRead != null) {
+                this.currentRead.cancel();
+                this.currentRead = null;
+            }
+
+            for (PartitionReadTask task : this.pendingReads) {
+                task.cancel();
+            }
+
+            this.pendingReads.clear();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() throws IOException {
+
+            while (true) {
+
+                if (this.recordIterator != null && this.recordIterator.hasNext()) {
+                    return true;
+                }
+
+                closeRecordIteratorIfNeeded();
+
+                this.cancellation.check();
+
+                if (this.currentRead == null) {
+
+                    submitReads();
+
+                    this.currentRead = this.pendingReads.poll();
+
+                    if (this.currentRead == null) {
+                        return false;
+                    }
+                }
+
+                Buffer chunk = this.currentRead.nextChunk();
+
+                if (chunk == null) {
+
+                    this.currentRead = null;
+                    continue;
+                }
+
+                this.recordIterator = new BinaryTimeSeriesRecordIterator(TimeSeries.this.definition, chunk);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record next() throws IOException {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return this.recordIterator.next();
+        }
+
+        /**
+         * Submits the reads of the next partitions until the read-ahead limit is reached.
+         * 
+         * @throws IOException if an I/O problem occurs
+         */
+        private void submitReads() throws IOException {
+
+            int maximumNumberOfReads = this.executor.getReadAhead() + 1;
+
+            while (!this.allPartitionsSubmitted && this.pendingReads.size() < maximumNumberOfReads) {
+
+                if (!this.partitionIterator.next()) {
+
+                    this.allPartitionsSubmitted = true;
+                    break;
+                }
+
+                RangeSet<Field> subRangeSet = this.timeRanges.subRangeSet(this.partitionIterator.getKey().getRange());
+
+                if (!subRangeSet.isEmpty()) {
+
+                    PartitionReadTask task = new PartitionReadTask(this.partitionIterator.getValue(), 
+                                                                   subRangeSet, 
+                                                                   this.recordTypeFilter, 
+                                                                   this.filter,
+                                                                   this.cancellation,
+                                                                   this.executor);
+                    this.executor.submit(task);
+                    this.pendingReads.add(task);
+                }
+            }
+        }
+
+        /**
+         * Closes the record iterator if it is not <code>closed</code> yet.
+         * 
+         * @throws IOException if an I/O problem occurs.
+         */
+        private void closeRecordIteratorIfNeeded() throws IOException {
+
+            if (this.recordIterator != null) {
+
+                this.recordIterator.close();
+                this.recordIterator = null;
+            }
+        }
+    }
+
+    /**
+     * Task reading the records of a partition and serializing them into chunks of bounded size. Only a few chunks 
+     * are buffered: when all of them are waiting to be consumed, the task suspends itself and releases its thread 
+     * until the consumer resubmits it. The task stops as soon as it is cancelled.
+     */
+    private static final class PartitionReadTask implements Callable<Void> {
+
+        /**
+         * The marker added after the last chunk of the partition.
+         */
+        private static final Buffer END_OF_PARTITION = Buffers.allocate(0);
+
+        /**
+         * The partition to read.
+         */
+        private final TimeSeriesPartition partition;
+
+        /**
+         * The time ranges of the partition for which data has been requested.
+         */
+        private final RangeSet<Field> timeRanges;
+
+        /**
+         * The filter used to filter the records by type.
+         */
+        private final Filter<String> recordTypeFilter;
+
+        /**
+         * The filter used to filter data.
+         */
+        private final Filter<Record> filter;
+
+        /**
+         * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+         */
+        private final Cancellation cancellation;
+
+        /**
+         * The executor used to resume the read once it has been suspended.
+         */
+        private final PartitionReadExecutor executor;
+
+        /**
+         * The chunks read but not yet consumed.
+         */
+        private final BlockingQueue<Buffer> chunks = 
+                new ArrayBlockingQueue<>(READ_AHEAD_MAXIMUM_NUMBER_OF_CHUNKS);
+
+        /**
+         * <code>true</code> if the read is suspended until some chunks have been consumed. The thread that resets 
+         * this flag becomes the owner of the read.
+         */
+        private final AtomicBoolean suspended = new AtomicBoolean();
+
+        /**
+         * <code>true</code> if the records of this partition are not needed anymore.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * <code>true</code> if the read has completed and will not publish any other chunk.
+         */
+        private volatile boolean completed;
+
+        /**
+         * The error that stopped the read or <code>null</code>.
+         */
+        private volatile IOException error;
+
+        /**
+         * The iterator over the records of the partition or <code>null</code> if the read has not started yet.
+         */
+        private ResourceIterator<Record> iterator;
+
+        /**
+         * The chunk being filled or <code>null</code>.
+         */
+        private Buffer chunk;
+
+        /**
+         * The capacity of the chunk being filled.
+         */
+        private int chunkSize;
+
+        /**
+         * The chunk that could not be handed off before the read was suspended or <code>null</code>.
+         */
+        private Buffer pendingChunk;
+
+        /**
+         * Creates a new <code>PartitionReadTask</code>.
+         * 
+         * @param partition the partition to read
+         * @param timeRanges the time ranges of the partition for which data has been requested
+         * @param recordTypeFilter the filter used to filter the records by type
+         * @param filter the filter used to filter data
+         * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+         * @param executor the executor used to resume the read once it has been suspended
+         */
+        public PartitionReadTask(TimeSeriesPartition partition,
+                                 RangeSet<Field> timeRanges,
+                                 Filter<String> recordTypeFilter,
+                                 Filter<Record> filter,
+                                 Cancellation cancellation,
+                                 PartitionReadExecutor executor) {
+
+            this.partition = partition;
+            this.timeRanges = timeRanges;
+            this.recordTypeFilter = recordTypeFilter;
+            this.filter = filter;
+            this.cancellation = cancellation;
+            this.executor = executor;
+        }
+
+        /**
+         * Stops the read. The chunks already read are released.
+         * 
+         * @throws IOException if the partition iterator cannot be closed
+         */
+        public void cancel() throws IOException {
+
+            this.cancelled = true;
+            this.chunks.clear();
+
+            if (this.suspended.compareAndSet(true, false)) {
+                closeIterator();
+            }
+        }
+
+        /**
+         * Waits for the next chunk of records of the partition and returns it.
+         * 
+         * @return the next chunk of records or <code>null</code> if all the records have been returned
+         * @throws IOException if the read failed, has been cancelled or has exceeded its timeout
+         */
+        public Buffer nextChunk() throws IOException {
+
+            try {
+
+                while (true) {
+
+                    this.cancellation.check();
+
+                    Buffer chunk = this.chunks.poll(READ_AHEAD_WAITING_TIME_IN_MILLIS, TimeUnit.MILLISECONDS);
+
+                    resumeIfNeeded();
+
+                    if (chunk == null) {
+
+                        if (this.cancelled) {
+                            return null;
+                        }
+
+                        if (this.completed && this.chunks.isEmpty()) {
+                            throw new IOException("The read of a partition stopped before its end.");
+                        }
+
+                        continue;
+                    }
+
+                    if (chunk != END_OF_PARTITION) {
+                        return chunk;
+                    }
+
+                    if (this.error != null) {
+                        throw this.error;
+                    }
+
+                    return null;
+                }
+
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("The read of a partition has been interrupted.");
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void call() {
+
+            while (!this.cancelled) {
+
+                if (this.pendingChunk == null) {
+                    this.pendingChunk = readChunk();
+                }
+
+                if (this.pendingChunk == null) {
+                    break;
+                }
+
+                if (this.chunks.offer(this.pendingChunk)) {
+
+                    Buffer published = this.pendingChunk;
+                    this.pendingChunk = null;
+
+                    if (published == END_OF_PARTITION) {
+                        break;
+                    }
+
+                } else if (suspend()) {
+
+                    return null;
+                }
+            }
+
+            this.completed = true;
+            closeIteratorQuietly();
+
+            return null;
+        }
+
+        /**
+         * Reads the records of the partition until a chunk is full.
+         * 
+         * @return the next chunk to hand off, <code>END_OF_PARTITION</code> once all the records have been read or 
+         * the read failed, or <code>null</code> if the task has been cancelled.
+         */
+        private Buffer readChunk() {
+
+            try {
+
+                if (this.iterator == null) {
+
+                    this.iterator = this.partition.read(this.timeRanges, 
+                                                        this.recordTypeFilter, 
+                                                        this.filter,
+                                                        this.cancellation);
+                }
+
+                while (!this.cancelled && this.iterator.hasNext()) {
+
+                    Record record = this.iterator.next();
+
+                    int serializedSize = record.computeSerializedSize();
+                    int size = 1 + VarInts.computeUnsignedIntSize(serializedSize) + serializedSize;
+
+                    Buffer full = null;
+
+                    if (this.chunk == null || this.chunk.writerIndex() + size > this.chunkSize) {
+
+                        if (this.chunk != null && this.chunk.writerIndex() > 0) {
+                            full = this.chunk;
+                        }
+
+                        this.chunkSize = Math.max(size, READ_AHEAD_CHUNK_SIZE);
+                        this.chunk = Buffers.allocate(this.chunkSize);
+                    }
+
+                    this.chunk.writeByte(record.getType());
+                    VarInts.writeUnsignedInt(this.chunk, serializedSize);
+                    record.writeTo(this.chunk);
+
+                    if (full != null) {
+                        return full;
+                    }
+                }
+
+                if (this.cancelled) {
+                    return null;
+                }
+
+                if (this.chunk != null && this.chunk.writerIndex() > 0) {
+
+                    Buffer last = this.chunk;
+                    this.chunk = null;
+                    return last;
+                }
+
+            } catch (IOException e) {
+
+                this.error = e;
+
+            } catch (RuntimeException e) {
+
+                this.error = new IOException(e);
+            }
+
+            return END_OF_PARTITION;
+        }
+
+        /**
+         * Suspends the read until some chunks have been consumed.
+         * 
+         * @return <code>true</code> if the read has been suspended, <code>false</code> if some space became 
+         * available in the meantime and the read must go on.
+         */
+        private boolean suspend() {
+
+            this.suspended.set(true);
+
+            if (this.chunks.remainingCapacity() == 0 && !this.cancelled) {
+                return true;
+            }
+
+            return !this.suspended.compareAndSet(true, false);
+        }
+
+        /**
+         * Resubmits the read if it has been suspended and some space is available for new chunks.
+         */
+        private void resumeIfNeeded() {
+
+            if (this.chunks.remainingCapacity() > 0 && this.suspended.compareAndSet(true, false)) {
+                this.executor.submit(this);
+            }
+        }
+
+        /**
+         * Closes the iterator over the records of the partition if it has been opened.
+         * 
+         * @throws IOException if an I/O problem occurs
+         */
+        private void closeIterator() throws IOException {
+
+            if (this.iterator != null) {
+
+                this.iterator.close();
+                this.iterator = null;
+            }
+        }
+
+        /**
+         * Closes the iterator over the records of the partition, recording the error if it fails.
+         */
+        private void closeIteratorQuietly() {
+
+            try {
+
+                closeIterator();
+
+            } catch (IOException e) {
+
+                if (this.error == null) {
+                    this.error = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * <code>AggregationInput</code> used to read over multiple partitions the records and the statistics of the 
+     * blocks that do not need to be read.
+     */
+    private final class PartitionAggregationInput implements AggregationInput {
+
+        /**
+         * The time ranges for which data has been requested. 
+         */
+        private final RangeSet<Field> timeRanges;
+
+        /**
+         * The aggregation being computed.
+         */
+        private final Aggregation aggregation;
+
+        /**
+         * The filter used to filter the records by type.
+         */
+        private final Filter<String> recordTypeFilter;
+
+        /**
+         * The filter used to filter data.
+         */
+        private final Filter<Record> filter;
+
+        /**
+         * The iterator over the partitions.
+         */
+        private final KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator; 
+
+        /**
+         * The signal used to stop the read if the query is cancelled or exceeds its timeout.
+         */
+        private final Cancellation cancellation;
+
+        /**
+         * The segments of the current partition that remain to be read.
+         */
+        private final Deque<Segment> segments = new LinkedList<>();
+
+        /**
+         * The partition being read.
+         */
+        private TimeSeriesPartition partition;
+
+        /**
+         * The record iterator for the segment being read.
+         */
+        private ResourceIterator<Record> recordIterator;
+
+        /**
+         * The current record.
+         */
+        private Record record;
+
+        /**
+         * The current block statistics.
+         */
+        private BlockStatistics statistics;
+
+        /**
+         * Creates a new <code>PartitionAggregationInput</code> to read the data from the specified partitions.
+         * 
+         * @param timeRanges the time ranges for which data has been requested
+         * @param partitionIterator the partitions
+         * @param aggregation the aggregation being computed
+         * @param recordTypeFilter the filter used to filter the records by type
+         * @param filter the filter used to filter the returned data
+         * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+         */
+        public PartitionAggregationInput(RangeSet<Field> timeRanges,
+                                         KeyValueIterator<PartitionId, TimeSeriesPartition> partitionIterator,
+                                         Aggregation aggregation,
+                                         Filter<String> recordTypeFilter,
+                                         Filter<Record> filter,
+                                         Cancellation cancellation) {
+
+            this.timeRanges = timeRanges;
+            this.partitionIterator = partitionIterator;
+            this.aggregation = aggregation;
+            this.recordTypeFilter = recordTypeFilter;
+            this.filter = filter;
+            this.cancellation = cancellation;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() throws IOException {
+
+            this.record = null;
+            this.statistics = null;
+
+            while (true) {
+
+                if (this.recordIterator != null) {
+
+                    if (this.recordIterator.hasNext()) {
+
+                        this.record = this.recordIterator.next();
+                        return true;
+                    }
+
+                    this.recordIterator.close();
+                    this.recordIterator = null;
+                }
+
+                this.cancellation.check();
+
+                Segment segment = this.segments.poll();
+
+                if (segment != null) {
+
+                    if (segment.statistics != null) {
+
+                        this.statistics = segment.statistics;
+                        return true;
+                    }
+
+                    this.recordIterator = this.partition.read(segment.timeRanges, 
+                                                              this.recordTypeFilter, 
+                                                              this.filter, 
+                                                              this.cancellation);
+                    continue;
+                }
+
+                if (!this.partitionIterator.next()) {
+                    return false;
+                }
+
+                RangeSet<Field> subRangeSet = this.timeRanges.subRangeSet(this.partitionIterator.getKey().getRange());
+
+                if (!subRangeSet.isEmpty()) {
+
+                    this.partition = this.partitionIterator.getValue();
+                    addSegments(subRangeSet);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockStatistics getStatistics() {
+            return this.statistics;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record getRecord() {
+            return this.record;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+
+            if (this.recordIterator != null) {
+                this.recordIterator.close();
+            }
+        }
+
+        /**
+         * Splits the specified time ranges of the current partition into the segments that must be read record by 
+         * record and the blocks that can be summarized by their statistics.
+         * 
+         * @param subRangeSet the time ranges of the current partition for which data has been requested
+         */
+        private void addSegments(RangeSet<Field> subRangeSet) {
+
+            RangeMap<Field, BlockStatistics> blocks = this.partition.getBlockStatistics(subRangeSet);
+            RangeSet<Field> remaining = TreeRangeSet.create(subRangeSet);
+
+            Field lowerBound = null;
+
+            for (Entry<Range<Field>, BlockStatistics> entry : blocks.asMapOfRanges().entrySet()) {
+
+                Range<Field> blockRange = entry.getKey();
+                BlockStatistics blockStatistics = entry.getValue();
+
+                if (!this.aggregation.isComputableFrom(blockStatistics)) {
+                    continue;
+                }
+
+                remaining.remove(blockRange);
+
+                Range<Field> before = (lowerBound == null) ? Range.lessThan(blockRange.lowerEndpoint()) 
+                                                           : Range.open(lowerBound, blockRange.lowerEndpoint());
+
+                addRecordSegment(remaining.subRangeSet(before));
+                this.segments.add(new Segment(null, blockStatistics));
+
+                lowerBound = blockRange.upperEndpoint();
+            }
+
+            addRecordSegment(lowerBound == null ? remaining : remaining.subRangeSet(Range.greaterThan(lowerBound)));
+        }
+
+        /**
+         * Adds a segment for reading the records of the specified time ranges if they are not empty.
+         * 
+         * @param ranges the time ranges
+         */
+        private void addRecordSegment(RangeSet<Field> ranges) {
+
+            if (!ranges.isEmpty()) {
+                this.segments.add(new Segment(ImmutableRangeSet.copyOf(ranges), null));
+            }
+        }
+    }
+
+    /**
+     * <code>AggregationInput</code> used to compute the aggregates over a list of records sorted in timestamp order.
+     */
+    private static final class RecordListAggregationInput implements AggregationInput {
+
+        /**
+         * The records sorted in timestamp order.
+         */
+        private final List<TimeSeriesRecord> records;
+
+        /**
+         * The index of the current record.
+         */
+        private int index = -1;
+
+        /**
+         * Creates a new <code>RecordListAggregationInput</code> for the specified records.
+         * 
+         * @param records the records sorted in timestamp order
+         */
+        public RecordListAggregationInput(List<TimeSeriesRecord> records) {
+
+            this.records = records;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() {
+
+            if (this.index < this.records.size()) {
+                this.index++;
+            }
+
+            return this.index < this.records.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockStatistics getStatistics() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record getRecord() {
+            return this.records.get(this.index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+
+        }
+    }
+
+    /**
+     * A part of a partition that is either read record by record or summarized by the statistics of a block.
+     */
+    private static final class Segment {
+
+        /**
+         * The time ranges for which the records must be read or <code>null</code> if the segment is a block 
+         * summarized by its statistics.
+         */
+        private final RangeSet<Field> timeRanges;
+
+        /**
+         * The block statistics or <code>null</code> if the records must be read.
+         */
+        private final BlockStatistics statistics;
+
+        /**
+         * Creates a new <code>Segment</code>.
+         * 
+         * @param timeRanges the time ranges for which the records must be read
+         * @param statistics the block statistics
+         */
+        public Segment(RangeSet<Field> timeRanges, BlockStatistics statistics) {
+
+            this.timeRanges = timeRanges;
+            this.statistics = statistics;
+        }
+    }
 }
@@ -18,6 +18,7 @@ package io.horizondb.db.series;
 import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.ResourceIterator;
@@ -175,15 +176,37 @@ final class TimeSeriesElements {
         return BlockIterators.concat(iterators);
     }
 
+    /**
+     * Returns the parts of those elements containing the specified time range, from the newest to the oldest. The
+     * blocks of the file are returned as separate parts. The records of each part can be decoded independently of 
+     * the other parts.
+     * 
+     * @param rangeSet the time range for which the parts must be returned
+     * @return the parts of those elements containing the specified time range, from the newest to the oldest
+     */
+    public List<TimeSeriesElement> getPartsInReverseOrder(RangeSet<Field> rangeSet) {
+
+        List<TimeSeriesElement> parts = new ArrayList<>();
+
+        for (int i = this.elements.size() - 1; i > 0; i--) {
+            parts.add(this.elements.get(i));
+        }
+
+        parts.addAll(getFile().getBlocksInReverseOrder(rangeSet));
+
+        return parts;
+    }
+
     public TimeSeriesElements write(SlabAllocator allocator, 
                                     DataBlock block, 
-                                    ListenableFuture<ReplayPosition> future) throws IOException,                                                                                                                     HorizonDBException {
+                                    ListenableFuture<ReplayPosition> future,
+                                    LatestRecords.Collector collector) throws IOException, HorizonDBException {
 
         if (!hasMemTimeSeries()) {
 
             MemTimeSeries memSeries = newMemTimeSeries();
             
-            memSeries = memSeries.write(allocator, block, future);
+            memSeries = memSeries.write(allocator, block, future, collector);
 
             return newTimeSeriesElements(Arrays.asList(getLast(), memSeries));
         }
@@ -197,7 +220,7 @@ final class TimeSeriesElements {
             memSeries = newMemTimeSeries();
         }
 
-        memSeries = memSeries.write(allocator, block, future);
+        memSeries = memSeries.write(allocator, block, future, collector);
         newElements.add(memSeries);
         
         return newTimeSeriesElements(newElements);
@@ -206,33 +229,44 @@ final class TimeSeriesElements {
     /**
      * Flushes to the disk all <code>MemTimeSeries</code>.
      * 
+     * @param metrics the metrics in which the flush must be recorded
      * @throws IOException if an I/O problem occurs while flushing the data to the disk.
      * @throws InterruptedException if the thread has been interrupted.
      */
-    public TimeSeriesElements forceFlush() throws IOException, InterruptedException {
+    public TimeSeriesElements forceFlush(FlushMetrics metrics) throws IOException, InterruptedException {
 
         if (!hasMemTimeSeries()) {
 
             return this;
         }
 
-        return flush(getMemTimeSeriesList());
+        return flush(getMemTimeSeriesList(), metrics);
     }
 
     /**
      * Flushes to the disk the <code>MemTimeSeries</code> that are full.
      * 
+     * @param metrics the metrics in which the flush must be recorded
      * @throws IOException if an I/O problem occurs while flushing the data to the disk.
      * @throws InterruptedException if the thread has been interrupted.
      */
-    public TimeSeriesElements flush() throws IOException, InterruptedException {
+    public TimeSeriesElements flush(FlushMetrics metrics) throws IOException, InterruptedException {
 
         if (!hasMemTimeSeries()) {
 
             return this;
         }
 
-        return flush(getFullMemTimeSeriesList());
+        return flush(getFullMemTimeSeriesList(), metrics);
+    }
+
+    /**
+     * Returns the number of <code>MemTimeSeries</code> containing data that has not been flushed yet.
+     * 
+     * @return the number of <code>MemTimeSeries</code> containing data that has not been flushed yet.
+     */
+    public int getNumberOfMemTimeSeries() {
+        return this.elements.size() - 1;
     }
 
     /**
@@ -257,12 +291,14 @@ final class TimeSeriesElements {
      * Flushes to the disk the specified <code>MemTimeSeries</code>.
      * 
      * @param elementList the elements to flush
+     * @param metrics the metrics in which the flush must be recorded
      * @throws IOException if an I/O problem occurs while flushing the data to the disk.
      * @throws InterruptedException if the thread has been interrupted.
      */
-    private TimeSeriesElements flush(List<TimeSeriesElement> elementList) throws IOException, InterruptedException {
+    private TimeSeriesElements flush(List<TimeSeriesElement> elementList, FlushMetrics metrics) 
+            throws IOException, InterruptedException {
 
-        TimeSeriesFile newFile = getFile().append(elementList);
+        TimeSeriesFile newFile = getFile().append(elementList, metrics);
 
         List<TimeSeriesElement> newElements = new ArrayList<>();
         newElements.add(newFile);
@@ -16,6 +16,7 @@ package io.horizondb.db.series;
 import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBFiles;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
 import io.horizondb.io.files.RandomAccessDataFile;
 import io.horizondb.io.files.SeekableFileDataInput;
 import io.horizondb.io.files.SeekableFileDataInputs;
@@ -33,6 +34,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +50,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import static io.horizondb.model.core.iterators.BlockIterators.compress;
 import static io.horizondb.model.core.records.BlockHeaderUtils.getRange;
+import static io.horizondb.model.core.records.BlockHeaderUtils.getUncompressedBlockSize;
 
 /**
  * File containing the time series data.
@@ -76,9 +79,14 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
     private final LinkedHashMap<Range<Field>, BlockPosition> blockPositions;
 
     /**
-     * The underlying file.
+     * The block statistics
      */
-    private final RandomAccessDataFile file;
+    private final LinkedHashMap<Range<Field>, BlockStatistics> blockStatistics;
+
+    /**
+     * The handle to the underlying file.
+     */
+    private final DataFileHandle file;
 
     /**
      * The expected file size.
@@ -92,6 +100,9 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
 
     /**
      * Opens the time series file.
+     * <p>
+     * The underlying file is only opened when some blocks need to be read or when data are appended to it.
+     * </p>
      * 
      * @param configuration the database configuration
      * @param databaseName the database name
@@ -105,29 +116,42 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
                                       TimeSeriesDefinition definition,
                                       TimeSeriesPartitionMetaData partitionMetadata) throws IOException {
 
-        Path path = getFilePath(configuration, databaseDefinition, definition, partitionMetadata);
-        
-        RandomAccessDataFile file = RandomAccessDataFile.open(path, false, partitionMetadata.getFileSize());
-
-        FileMetaData fileMetaData;
-
-        if (file.exists() && file.size() != 0) {
+        return open(null, configuration, databaseDefinition, definition, partitionMetadata);
+    }
 
-            try (SeekableFileDataInput input = file.newInput()) {
-                fileMetaData = FileMetaData.parseFrom(input);
-            }
+    /**
+     * Opens the time series file using the specified pool to limit the number of open files.
+     * <p>
+     * The underlying file is only opened when some blocks need to be read or when data are appended to it, and can
+     * be closed by the pool when it is not in use.
+     * </p>
+     * 
+     * @param pool the pool limiting the number of open files or <code>null</code> if the number of open files is 
+     * not limited
+     * @param configuration the database configuration
+     * @param databaseName the database name
+     * @param definition the time series definition
+     * @param partitionMetadata the partition meta data
+     * @return the time series file.
+     * @throws IOException if an I/O problem occurs while opening the file.
+     */
+    public static TimeSeriesFile open(DataFilePool pool,
+                                      Configuration configuration,
+                                      DatabaseDefinition databaseDefinition,
+                                      TimeSeriesDefinition definition,
+                                      TimeSeriesPartitionMetaData partitionMetadata) throws IOException {
 
-        } else {
+        Path path = getFilePath(configuration, databaseDefinition, definition, partitionMetadata);
 
-            fileMetaData = new FileMetaData(databaseDefinition.getName(),
-                                            definition.getName(),
-                                            partitionMetadata.getRange());
-        }
+        FileMetaData fileMetaData = new FileMetaData(databaseDefinition.getName(),
+                                                     definition.getName(),
+                                                     partitionMetadata.getRange());
 
         return new TimeSeriesFile(fileMetaData,
                                   definition,
                                   partitionMetadata.getBlockPositions(),
-                                  file,
+                                  partitionMetadata.getBlockStatistics(),
+                                  new DataFileHandle(pool, path),
                                   partitionMetadata.getFileSize(),
                                   Futures.immediateFuture(partitionMetadata.getReplayPosition()));
     }
@@ -147,7 +171,7 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
      */
     @Override
     public ResourceIterator<DataBlock> iterator() throws IOException {
-        return BlockIterators.iterator(this.definition, newInput());
+        return iterator(TimestampField.ALL);
     }
 
     /**
@@ -155,10 +179,68 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
      */
     @Override
     public ResourceIterator<DataBlock> iterator(RangeSet<Field> rangeSet) throws IOException {
-        return BlockIterators.iterator(this.definition, newInput(rangeSet));
+
+        BlockPosition block = findBlock(rangeSet);
+
+        if (block == null) {
+
+            return BlockIterators.iterator(this.definition, SeekableFileDataInputs.empty());
+        }
+
+        RandomAccessDataFile dataFile = this.file.acquire(this.fileSize);
+
+        try {
+
+            return new FileBlockIterator(BlockIterators.iterator(this.definition, newInput(dataFile, block)));
+
+        } catch (IOException e) {
+
+            this.file.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the blocks of this file containing the specified time ranges, from the newest to the oldest. Each 
+     * block is returned as an element that can be read independently of the other blocks.
+     * 
+     * @param rangeSet the time ranges for which the blocks must be returned
+     * @return the blocks containing the specified time ranges, from the newest to the oldest
+     */
+    public List<TimeSeriesElement> getBlocksInReverseOrder(RangeSet<Field> rangeSet) {
+
+        if (this.fileSize == 0) {
+
+            return Collections.emptyList();
+        }
+
+        List<BlockPosition> blocks = new ArrayList<>(findBlocks(rangeSet.span()).values());
+        List<TimeSeriesElement> elements = new ArrayList<>(blocks.size());
+
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            elements.add(new BlockElement(blocks.get(i)));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Returns the positions of the blocks of this file that must be read for retrieving the data of the specified 
+     * time ranges, in the order in which they are stored.
+     * 
+     * @param rangeSet the time ranges for which the data must be returned
+     * @return the positions of the blocks that must be read, indexed by the time range of the blocks
+     */
+    public Map<Range<Field>, BlockPosition> getBlockPositions(RangeSet<Field> rangeSet) {
+
+        if (this.fileSize == 0) {
+
+            return Collections.emptyMap();
+        }
+
+        return findBlocks(rangeSet.span());
     }
 
-    
     /**
      * Returns a new input that can be used to read all data of this file.
      * 
@@ -172,30 +254,72 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
 
     /**
      * Returns a new input that can be used to read the data of this file.
+     * <p>
+     * The underlying file cannot be closed by the pool until the returned input is closed.
+     * </p>
      * 
      * @param rangeSet the time range for which the data must be returned
      * @return a new input that can be used to read the data of this file.
      * @throws IOException if an I/O problem occurs.
      */
     public SeekableFileDataInput newInput(RangeSet<Field> rangeSet) throws IOException {
-        
-        if (this.fileSize == 0) {
+
+        BlockPosition block = findBlock(rangeSet);
+
+        if (block == null) {
 
             return SeekableFileDataInputs.empty();
         }
-        
-        List<BlockPosition> blocks = findBlocks(rangeSet.span());
-        
+
+        RandomAccessDataFile dataFile = this.file.acquire(this.fileSize);
+
+        try {
+
+            return new ReleasingFileDataInput(newInput(dataFile, block), this.file);
+
+        } catch (IOException e) {
+
+            this.file.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a new input that can be used to read the specified block of the specified file.
+     * 
+     * @param dataFile the underlying file
+     * @param block the block to read
+     * @return a new input that can be used to read the specified block
+     * @throws IOException if an I/O problem occurs.
+     */
+    private static SeekableFileDataInput newInput(RandomAccessDataFile dataFile, BlockPosition block) 
+            throws IOException {
+
+        return SeekableFileDataInputs.truncate(dataFile.newInput(), block.getOffset(), block.getLength());
+    }
+
+    /**
+     * Returns the block of data that must be read for retrieving the data for the specified time ranges or 
+     * <code>null</code> if no block needs to be read.
+     * 
+     * @param rangeSet the time ranges for which the data must be returned
+     * @return the block of data that must be read or <code>null</code> if no block needs to be read.
+     */
+    private BlockPosition findBlock(RangeSet<Field> rangeSet) {
+
+        if (this.fileSize == 0) {
+
+            return null;
+        }
+
+        List<BlockPosition> blocks = new ArrayList<>(findBlocks(rangeSet.span()).values());
+
         if (blocks.isEmpty()) {
-            
-            return SeekableFileDataInputs.empty();
+
+            return null;
         }
-                
-        BlockPosition block = merge(blocks);
-        
-        return SeekableFileDataInputs.truncate(this.file.newInput(), 
-                                               block.getOffset(), 
-                                               block.getLength());
+
+        return merge(blocks);
     }
 
     /**
@@ -210,11 +334,12 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
      * Appends the content of the specified <code>memTimeSeries</code> to this file.
      * 
      * @param memTimeSeriesList the set of time series that need to be written to the disk.
-     * @param
+     * @param metrics the metrics in which the number of blocks and bytes written must be recorded
      * @throws IOException if a problem occurs while writing to the disk.
      * @throws InterruptedException if the tread has been interrupted
      */
-    public TimeSeriesFile append(List<TimeSeriesElement> memTimeSeriesList) throws IOException, InterruptedException {
+    public TimeSeriesFile append(List<TimeSeriesElement> memTimeSeriesList, FlushMetrics metrics) 
+            throws IOException, InterruptedException {
 
         this.logger.debug("appending " + memTimeSeriesList.size() + " memTimeSeries to file: " + getPath()
                 + " at position " + this.fileSize);
@@ -222,31 +347,57 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
         ListenableFuture<ReplayPosition> newFuture = null;
 
         LinkedHashMap<Range<Field>, BlockPosition> newBlockPositions = new LinkedHashMap<>(this.blockPositions);
+        LinkedHashMap<Range<Field>, BlockPosition> appendedBlockPositions = new LinkedHashMap<>();
+        LinkedHashMap<Range<Field>, BlockStatistics> newBlockStatistics = new LinkedHashMap<>(this.blockStatistics);
+        long uncompressedBytes = 0;
         
-        try (SeekableFileDataOutput output = this.file.getOutput()) {
+        RandomAccessDataFile dataFile = this.file.acquire(this.fileSize);
+
+        try {
+
+            try (SeekableFileDataOutput output = dataFile.getOutput()) {
+
+                output.seek(this.fileSize);
 
-            output.seek(this.fileSize);
+                writeMetaDataIfNeeded(output);
 
-            writeMetaDataIfNeeded(output);
+                for (int i = 0, m = memTimeSeriesList.size(); i < m; i++) {
 
-            for (int i = 0, m = memTimeSeriesList.size(); i < m; i++) {
+                    TimeSeriesElement memTimeSeries = memTimeSeriesList.get(i);
 
-                TimeSeriesElement memTimeSeries = memTimeSeriesList.get(i);
+                    uncompressedBytes += append((MemTimeSeries) memTimeSeries,
+                                                appendedBlockPositions,
+                                                newBlockStatistics,
+                                                output);
 
-                append((MemTimeSeries) memTimeSeries, newBlockPositions, output);
+                    newFuture = memTimeSeries.getFuture();
+                }
 
-                newFuture = memTimeSeries.getFuture();
+                output.flush();
             }
 
-            output.flush();
-        }
+            newBlockPositions.putAll(appendedBlockPositions);
+
+            long writtenBytes = 0;
+
+            for (BlockPosition position : appendedBlockPositions.values()) {
+                writtenBytes += position.getLength();
+            }
 
-        return new TimeSeriesFile(this.metadata,
-                                  this.definition,
-                                  newBlockPositions,
-                                  this.file,
-                                  this.file.size(),
-                                  newFuture);
+            metrics.update(memTimeSeriesList.size(), appendedBlockPositions.size(), uncompressedBytes, writtenBytes);
+
+            return new TimeSeriesFile(this.metadata,
+                                      this.definition,
+                                      newBlockPositions,
+                                      newBlockStatistics,
+                                      this.file,
+                                      dataFile.size(),
+                                      newFuture);
+
+        } finally {
+
+            this.file.release();
+        }
     }
 
     /**
@@ -254,30 +405,78 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
      *
      * @param memTimeSeries the memTimeSeries
      * @param blockPositions the collecting parameter for the block positions
+     * @param blockStatistics the collecting parameter for the block statistics
      * @param output the output to write to
+     * @return the size of the appended blocks before compression
      * @throws IOException if an I/O problem occurs
      */
-    private void append(MemTimeSeries memTimeSeries,
+    private long append(MemTimeSeries memTimeSeries,
                         LinkedHashMap<Range<Field>, BlockPosition> newBlockPositions,
+                        LinkedHashMap<Range<Field>, BlockStatistics> newBlockStatistics,
                         SeekableFileDataOutput output) throws IOException {
 
+        // The statistics computed while the records were written are used without reading the blocks back. Each
+        // compressed block must therefore match, in order, one of the MemTimeSeries block statistics.
+        List<BlockStatistics> statistics = memTimeSeries.getBlockStatistics();
+        int index = 0;
+
         try (ResourceIterator<DataBlock> iterator = compress(this.definition.getCompressionType(),
                                                              memTimeSeries.iterator())) {
 
+            long uncompressedBytes = 0;
             long position = output.getPosition();
             while (iterator.hasNext()) {
 
                 DataBlock block = iterator.next();
+                Range<Field> range = getRange(block.getHeader());
+                BlockStatistics blockStatistics = getBlockStatistics(statistics, index++, range);
+                uncompressedBytes += getUncompressedBlockSize(block.getHeader());
 
                 block.writeTo(output);
 
                 long newPosition = output.getPosition();
                 int length = (int) (newPosition - position);
                 BlockPosition blockPosition = new BlockPosition(position, length);
-                newBlockPositions.put(getRange(block.getHeader()), blockPosition);
+                newBlockPositions.put(range, blockPosition);
+                newBlockStatistics.put(range, blockStatistics);
                 position = output.getPosition();
             }
+
+            if (index != statistics.size()) {
+                throw new IllegalStateException("The time series " + this.definition.getName() + " has "
+                        + statistics.size() + " block statistics but only " + index + " blocks.");
+            }
+
+            return uncompressedBytes;
+        }
+    }
+
+    /**
+     * Returns the statistics of the block with the specified index after having checked that they match the
+     * specified block range.
+     *
+     * @param statistics the block statistics of the <code>MemTimeSeries</code>
+     * @param index the block index
+     * @param range the block range
+     * @return the statistics of the block with the specified index
+     * @throws IllegalStateException if the statistics do not match the block
+     */
+    private BlockStatistics getBlockStatistics(List<BlockStatistics> statistics, int index, Range<Field> range) {
+
+        if (index >= statistics.size()) {
+            throw new IllegalStateException("The time series " + this.definition.getName() + " has more blocks than "
+                    + "block statistics (" + statistics.size() + ").");
         }
+
+        BlockStatistics blockStatistics = statistics.get(index);
+
+        if (blockStatistics.getFirstTimestampInNanos() != range.lowerEndpoint().getTimestampInNanos()
+                || blockStatistics.getLastTimestampInNanos() != range.upperEndpoint().getTimestampInNanos()) {
+            throw new IllegalStateException("The statistics of the block " + index + " of the time series "
+                    + this.definition.getName() + " do not match its range " + range + ".");
+        }
+
+        return blockStatistics;
     }
 
     /**
@@ -318,13 +517,23 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
     public Map<Range<Field>, BlockPosition> getBlockPositions() {
         return this.blockPositions;
     }
+
+    /**
+     * Returns the statistics of the blocks.
+     * 
+     * @return the statistics of the blocks.
+     */
+    public Map<Range<Field>, BlockStatistics> getBlockStatistics() {
+        return this.blockStatistics;
+    }
     
     /**
      * Creates the time series file.
      * 
      * @param metadata the file meta data.
      * @param blockPositions the position of the blocks
-     * @param file the underlying file.
+     * @param blockStatistics the statistics of the blocks
+     * @param file the handle to the underlying file.
      * @param size the expected size of the file.
      * @param compressionType the type of compression used to compress the blocks
      * @param future the future returning the replay position of the last record written to the disk.
@@ -333,7 +542,8 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
     private TimeSeriesFile(FileMetaData metadata, 
                            TimeSeriesDefinition definition,
                            LinkedHashMap<Range<Field>, BlockPosition> blockPositions,
-                           RandomAccessDataFile file, 
+                           LinkedHashMap<Range<Field>, BlockStatistics> blockStatistics,
+                           DataFileHandle file, 
                            long size,
                            ListenableFuture<ReplayPosition> future) 
                                    throws IOException {
@@ -341,6 +551,7 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
         this.metadata = metadata;
         this.definition = definition;
         this.blockPositions = blockPositions;
+        this.blockStatistics = blockStatistics;
         this.file = file;
         this.fileSize = size;
         this.future = future;
@@ -386,11 +597,12 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
      * Finds the blocks of data that need to be read for retrieving the data for the specified time range.
      * 
      * @param timeRange the range of time for which data must be returned
-     * @return the blocks of data that need to be read for retrieving the data for the specified time range.
+     * @return the blocks of data that need to be read for retrieving the data for the specified time range, 
+     * indexed by their time range.
      */
-    private List<BlockPosition> findBlocks(Range<Field> timeRange) {
+    private Map<Range<Field>, BlockPosition> findBlocks(Range<Field> timeRange) {
         
-        List<BlockPosition> blocks = new ArrayList<>();
+        Map<Range<Field>, BlockPosition> blocks = new LinkedHashMap<>();
         
         for (Entry<Range<Field>, BlockPosition> entry : this.blockPositions.entrySet()) {
             
@@ -405,7 +617,11 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
                 continue;
             }
             
-            blocks.add(entry.getValue());
+            if (timeRange.intersection(blockRange).isEmpty()) {
+                continue;
+            }
+            
+            blocks.put(blockRange, entry.getValue());
         }
         
         return blocks;
@@ -427,4 +643,112 @@ final class TimeSeriesFile implements Closeable, TimeSeriesElement {
         
         return new BlockPosition(offset, length);
     }
+
+    /**
+     * A single block of this file.
+     */
+    private final class BlockElement implements TimeSeriesElement {
+
+        /**
+         * The block position.
+         */
+        private final BlockPosition block;
+
+        /**
+         * Creates a new <code>BlockElement</code> for the block at the specified position.
+         * 
+         * @param block the block position
+         */
+        public BlockElement(BlockPosition block) {
+            this.block = block;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListenableFuture<ReplayPosition> getFuture() {
+            return TimeSeriesFile.this.future;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ResourceIterator<DataBlock> iterator() throws IOException {
+
+            RandomAccessDataFile dataFile = TimeSeriesFile.this.file.acquire(TimeSeriesFile.this.fileSize);
+
+            try {
+
+                return new FileBlockIterator(BlockIterators.iterator(TimeSeriesFile.this.definition, 
+                                                                     newInput(dataFile, this.block)));
+
+            } catch (IOException e) {
+
+                TimeSeriesFile.this.file.release();
+                throw e;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ResourceIterator<DataBlock> iterator(RangeSet<Field> rangeSet) throws IOException {
+            return iterator();
+        }
+    }
+
+    /**
+     * <code>ResourceIterator</code> releasing the underlying file when it is closed.
+     */
+    private final class FileBlockIterator implements ResourceIterator<DataBlock> {
+
+        /**
+         * The decorated iterator.
+         */
+        private final ResourceIterator<DataBlock> iterator;
+
+        /**
+         * Creates a new <code>FileBlockIterator</code> that decorates the specified iterator.
+         * 
+         * @param iterator the decorated iterator
+         */
+        public FileBlockIterator(ResourceIterator<DataBlock> iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() throws IOException {
+            return this.iterator.hasNext();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DataBlock next() throws IOException {
+            return this.iterator.next();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+
+            try {
+
+                this.iterator.close();
+
+            } finally {
+
+                TimeSeriesFile.this.file.release();
+            }
+        }
+    }
 }
@@ -13,10 +13,14 @@
  */
 package io.horizondb.db.series;
 
+import io.horizondb.db.Cancellation;
 import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.QueryTrace;
 import io.horizondb.db.commitlog.CommitLog;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
 import io.horizondb.model.core.Filter;
@@ -24,11 +28,13 @@ import io.horizondb.model.core.Record;
 import io.horizondb.model.core.ResourceIterator;
 import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
 import io.horizondb.model.core.iterators.FilteringRecordIterator;
+import io.horizondb.model.schema.BlockPosition;
 import io.horizondb.model.schema.DatabaseDefinition;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -41,8 +47,11 @@ import org.apache.commons.lang.builder.ToStringStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
 import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeMap;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import static io.horizondb.io.files.FileUtils.printNumberOfBytes;
@@ -141,7 +150,11 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
         
         this.allocator = new SlabAllocator(configuration.getMemTimeSeriesSize());
 
-        TimeSeriesElement file = TimeSeriesFile.open(configuration, this.databaseDefinition, definition, metadata);
+        TimeSeriesElement file = TimeSeriesFile.open(manager.getFilePool(), 
+                                                     configuration, 
+                                                     this.databaseDefinition, 
+                                                     definition, 
+                                                     metadata);
 
         this.elements.set(new TimeSeriesElements(configuration, definition, file));
     }
@@ -161,21 +174,53 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
      * 
      * @param block the block containing the records to write
      * @param future the commit log future
+     * @param metrics the metrics in which the memTimeSeries write and the commit log wait record their latency
+     * @throws IOException if an I/O problem occurs.
+     * @throws HorizonDBException if the record set is invalid.
+     * @throws InterruptedException if the commit log thread was interrupted
+     */
+    public void write(DataBlock block,
+                      ListenableFuture<ReplayPosition> future,
+                      OperationMetrics metrics) throws IOException, HorizonDBException {
+
+        write(block, future, new LatestRecords(this.definition), metrics);
+    }
+
+    /**
+     * Writes the specified records in this partition and merges the earliest and latest of them into the specified 
+     * records once they have been written.
+     * 
+     * @param block the block containing the records to write
+     * @param future the commit log future
+     * @param latestRecords the earliest and latest records of the time series
+     * @param metrics the metrics in which the memTimeSeries write and the commit log wait record their latency
      * @throws IOException if an I/O problem occurs.
      * @throws HorizonDBException if the record set is invalid.
      * @throws InterruptedException if the commit log thread was interrupted
      */
     public synchronized void write(DataBlock block,
-                                   ListenableFuture<ReplayPosition> future)throws IOException, HorizonDBException {
+                                   ListenableFuture<ReplayPosition> future,
+                                   LatestRecords latestRecords,
+                                   OperationMetrics metrics) throws IOException, HorizonDBException {
 
         this.logger.debug("writing records to partition {}", getId());
 
+        Timer.Context timerContext = metrics.getMemTimeSeriesWriteTimer().time();
+
+        LatestRecords.Collector collector = latestRecords.newCollector();
+
         TimeSeriesElements oldElements = this.elements.get();
-        TimeSeriesElements newElements = oldElements.write(this.allocator, block, future);
+        TimeSeriesElements newElements = oldElements.write(this.allocator, block, future, collector);
+
+        timerContext.stop();
+        timerContext = metrics.getCommitLogWaitTimer().time();
  
         CommitLog.waitForCommitLogWriteIfNeeded(this.configuration, future);
+
+        timerContext.stop();
         
         this.elements.set(newElements);
+        latestRecords.merge(collector);
 
         notifyListenersMemoryUsageChanged(oldElements.getMemoryUsage(), newElements.getMemoryUsage());
         notifyListenersfirstSegmentContainingNonPersistedDataChanged(oldElements.getFirstSegmentContainingNonPersistedData(), 
@@ -222,13 +267,134 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
                                                           Filter<String> recordTypeFilter, 
                                                           Filter<Record> filter) throws IOException {
 
+        return read(rangeSet, recordTypeFilter, filter, new Cancellation());
+    }
+
+    /**
+     * Returns a <code>RecordIterator</code> containing the data from the specified time range. The read fails with 
+     * an <code>InterruptedIOException</code> at the next block boundary once the query has been cancelled or has 
+     * exceeded its timeout. If the query is traced, the time spent in each stage of the read is recorded within its 
+     * trace.
+     * 
+     * @param rangeSet the time range for which the data must be returned
+     * @param recordTypeFilter the filter used to filter the records by type
+     * @param filter the filter used to filter the records being returned
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @return a <code>RecordIterator</code> containing the data from the specified time range
+     * @throws IOException if an I/O problem occurs while writing the data
+     */
+    public ResourceIterator<Record> read(RangeSet<Field> rangeSet, 
+                                         Filter<String> recordTypeFilter, 
+                                         Filter<Record> filter,
+                                         Cancellation cancellation) throws IOException {
+
+        QueryTrace trace = cancellation.getTrace();
+
+        if (trace != null) {
+
+            long start = System.nanoTime();
+            ResourceIterator<DataBlock> blocks = iterator(rangeSet);
+            trace.addTime(QueryTrace.Stage.FILE_OPEN, System.nanoTime() - start);
+
+            return TracingIterator.newRecordIterator(this.definition, 
+                                                     new CancellableBlockIterator(blocks, cancellation), 
+                                                     recordTypeFilter, 
+                                                     filter, 
+                                                     trace);
+        }
+
+        ResourceIterator<DataBlock> blocks = new CancellableBlockIterator(iterator(rangeSet), cancellation);
+
         return new FilteringRecordIterator(this.definition,
                                            new BinaryTimeSeriesRecordIterator(this.definition, 
-                                                                              iterator(rangeSet), 
+                                                                              blocks, 
                                                                               recordTypeFilter),
                                            filter);
     }
 
+    /**
+     * Returns a <code>RecordIterator</code> containing the data from the specified time range, from the newest 
+     * record to the oldest one.
+     * 
+     * @param rangeSet the time range for which the data must be returned
+     * @param recordTypeFilter the filter used to filter the records by type
+     * @param filter the filter used to filter the records being returned
+     * @param cancellation the signal used to stop the read if the query is cancelled or exceeds its timeout
+     * @return a <code>RecordIterator</code> containing the data from the specified time range in reverse order
+     */
+    public ResourceIterator<Record> readInReverseOrder(RangeSet<Field> rangeSet, 
+                                                       Filter<String> recordTypeFilter, 
+                                                       Filter<Record> filter,
+                                                       Cancellation cancellation) {
+
+        TimeSeriesElements elementList = this.elements.get();
+
+        return new ReverseRecordIterator(this.definition, 
+                                         elementList.getPartsInReverseOrder(rangeSet), 
+                                         rangeSet, 
+                                         recordTypeFilter, 
+                                         filter,
+                                         cancellation);
+    }
+
+    /**
+     * Returns the statistics of the blocks of data which are fully contained within the specified time range. Those 
+     * blocks can be summarized by their statistics instead of being read. Statistics are only returned if the blocks 
+     * of the file are stored in time order without overlapping each other and if all the partition data have been 
+     * flushed, as data in memory could overlap the blocks on disk.
+     * 
+     * @param rangeSet the time range for which the data must be returned
+     * @return the statistics of the blocks that do not need to be read
+     */
+    public RangeMap<Field, BlockStatistics> getBlockStatistics(RangeSet<Field> rangeSet) {
+
+        RangeMap<Field, BlockStatistics> rangeMap = TreeRangeMap.create();
+
+        TimeSeriesElements elementList = this.elements.get();
+
+        if (elementList.getLastMemTimeSeries() != null) {
+            return rangeMap;
+        }
+
+        TimeSeriesFile file = elementList.getFile();
+        Map<Range<Field>, BlockStatistics> statistics = file.getBlockStatistics();
+
+        Range<Field> previous = null;
+
+        for (Range<Field> blockRange : file.getBlockPositions().keySet()) {
+
+            if (previous != null 
+                    && (previous.isConnected(blockRange) 
+                            || previous.upperEndpoint().compareTo(blockRange.lowerEndpoint()) > 0)) {
+
+                rangeMap.clear();
+                return rangeMap;
+            }
+
+            BlockStatistics blockStatistics = statistics.get(blockRange);
+
+            if (blockStatistics != null && rangeSet.encloses(blockRange)) {
+                rangeMap.put(blockRange, blockStatistics);
+            }
+
+            previous = blockRange;
+        }
+
+        return rangeMap;
+    }
+
+    /**
+     * Returns the positions of the blocks on disk that must be read for retrieving the data of the specified time 
+     * ranges. The data that has not been flushed yet is read from memory in addition to those blocks.
+     * 
+     * @param rangeSet the time ranges for which the data must be returned
+     * @return the positions of the blocks that must be read, indexed by the time range of the blocks
+     */
+    public Map<Range<Field>, BlockPosition> getBlockPositions(RangeSet<Field> rangeSet) {
+
+        return this.elements.get().getFile().getBlockPositions(rangeSet);
+    }
+
     /**
      * Adds the specified listener to the list of listeners
      * 
@@ -259,6 +425,17 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
         return this.elements.get().getMemoryUsage();
     }
 
+    /**
+     * Returns the number of <code>MemTimeSeries</code> of this partition containing data that has not been flushed 
+     * yet.
+     * 
+     * @return the number of <code>MemTimeSeries</code> containing data that has not been flushed yet.
+     */
+    public int getNumberOfMemTimeSeries() {
+
+        return this.elements.get().getNumberOfMemTimeSeries();
+    }
+
     /**
      * Returns the ID of the first segment that contains non persisted data or <code>null</code> if all the data have been
      * flushed to disk.
@@ -274,18 +451,19 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
     /**
      * Flushes to the disk the <code>MemTimeSeries</code> that are full.
      * 
+     * @param metrics the metrics in which the flush must be recorded
      * @throws IOException if an I/O problem occurs while flushing the data to the disk.
      * @throws InterruptedException if the thread has been interrupted.
      * @throws ExecutionException if the last replay position cannot be retrieved
      */
-    public void flush() throws IOException, InterruptedException, ExecutionException {
+    public void flush(FlushMetrics metrics) throws IOException, InterruptedException, ExecutionException {
 
         synchronized (this) {
 
             this.logger.debug("performing flush on the partition {}", getId());
 
             TimeSeriesElements oldElements = this.elements.get();
-            TimeSeriesElements newElements = oldElements.flush();
+            TimeSeriesElements newElements = oldElements.flush(metrics);
 
             if (oldElements == newElements) {
 
@@ -307,17 +485,18 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
     /**
      * Flushes to the disk all <code>MemTimeSeries</code>.
      * 
+     * @param metrics the metrics in which the flush must be recorded
      * @throws IOException if an I/O problem occurs while flushing the data to the disk.
      * @throws InterruptedException if the thread has been interrupted.
      * @throws ExecutionException if the last replay position cannot be retrieved
      */
-    public void forceFlush() throws IOException, InterruptedException, ExecutionException {
+    public void forceFlush(FlushMetrics metrics) throws IOException, InterruptedException, ExecutionException {
 
         synchronized (this) {
 
             TimeSeriesElements oldElements = this.elements.get();
 
-            TimeSeriesElements newElements = oldElements.forceFlush();
+            TimeSeriesElements newElements = oldElements.forceFlush(metrics);
 
             if (oldElements == newElements) {
                 return;
@@ -395,6 +574,7 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
         return TimeSeriesPartitionMetaData.newBuilder(this.timeRange)
                                           .fileSize(file.size())
                                           .blockPositions(file.getBlockPositions())
+                                          .blockStatistics(file.getBlockStatistics())
                                           .replayPosition(file.getFuture().get())
                                           .build();
     }
@@ -452,6 +632,7 @@ public final class TimeSeriesPartition implements Comparable<TimeSeriesPartition
         return TimeSeriesPartitionMetaData.newBuilder(this.timeRange)
                                           .fileSize(file.size())
                                           .blockPositions(file.getBlockPositions())
+                                          .blockStatistics(file.getBlockStatistics())
                                           .replayPosition(file.getFuture().get())
                                           .build();
     }
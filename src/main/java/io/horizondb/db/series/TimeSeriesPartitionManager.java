@@ -54,6 +54,27 @@ public interface TimeSeriesPartitionManager extends Component {
     TimeSeriesPartition getPartitionForWrite(PartitionId partitionId, TimeSeriesDefinition seriesDefinition) throws IOException,
                                                                                                             HorizonDBException;
     
+    /**
+     * Returns the executor used to read the partitions ahead of their consumption.
+     * 
+     * @return the executor used to read the partitions ahead of their consumption.
+     */
+    PartitionReadExecutor getReadExecutor();
+
+    /**
+     * Returns the pool limiting the number of partition files open at the same time.
+     * 
+     * @return the pool limiting the number of partition files open at the same time.
+     */
+    DataFilePool getFilePool();
+
+    /**
+     * Returns the cache of the latest records of the time series.
+     * 
+     * @return the cache of the latest records of the time series.
+     */
+    LatestRecordCache getLatestRecordCache();
+
     /**
      * Returns an iterator to iterate over the time series partition whose IDs range from {@code fromId}, inclusive, to
      * {@code toId}, inclusive.
@@ -183,6 +183,30 @@ public final class TimeSeriesPartitionManagerCaches extends AbstractComponent im
         this.manager.forceFlush(id, timeSeriesPartition, listeners);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PartitionReadExecutor getReadExecutor() {
+        return this.manager.getReadExecutor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataFilePool getFilePool() {
+        return this.manager.getFilePool();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatestRecordCache getLatestRecordCache() {
+        return this.manager.getLatestRecordCache();
+    }
+
     /**    
      * {@inheritDoc}
      */
@@ -46,6 +46,12 @@ import static io.horizondb.model.core.util.SerializationUtils.writeRange;
 @Immutable
 public final class TimeSeriesPartitionMetaData implements Serializable {
 
+    /**
+     * The version of the section following the block positions from which the block statistics are serialized. 
+     * The meta data written before that version do not have that section and are read without statistics.
+     */
+    private static final int STATISTICS_VERSION = 1;
+
     /**
      * The parser instance.
      */
@@ -80,7 +86,21 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
                 map.put(timeRange, position);
             }
 
-            return new TimeSeriesPartitionMetaData(range, map, replayPosition, fileSize);
+            LinkedHashMap<Range<Field>, BlockStatistics> statistics = new LinkedHashMap<>();
+
+            // The meta data written before the introduction of the block statistics end here.
+            if (reader.isReadable() && VarInts.readUnsignedInt(reader) >= STATISTICS_VERSION) {
+
+                for (Range<Field> timeRange : map.keySet()) {
+
+                    if (reader.readBoolean()) {
+
+                        statistics.put(timeRange, BlockStatistics.parseFrom(reader));
+                    }
+                }
+            }
+
+            return new TimeSeriesPartitionMetaData(range, map, statistics, replayPosition, fileSize);
         }
     };
 
@@ -104,6 +124,11 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
      */
     private final LinkedHashMap<Range<Field>, BlockPosition> blockPositions;
 
+    /**
+     * The statistics of the blocks.
+     */
+    private final LinkedHashMap<Range<Field>, BlockStatistics> blockStatistics;
+
     /**
      * Returns the partition time range.
      * 
@@ -140,6 +165,15 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
         return this.blockPositions;
     }
 
+    /**
+     * Returns the statistics of the blocks.
+     * 
+     * @return the statistics of the blocks.
+     */
+    public LinkedHashMap<Range<Field>, BlockStatistics> getBlockStatistics() {
+        return this.blockStatistics;
+    }
+
     /**
      * Creates a new <code>TimeSeriesPartitionMetaData</code> by reading the data from the specified reader.
      * 
@@ -184,6 +218,20 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
             size += SerializationUtils.computeRangeSerializedSize(entry.getKey());
             size += entry.getValue().computeSerializedSize();
         }
+
+        size += VarInts.computeUnsignedIntSize(STATISTICS_VERSION);
+
+        for (Range<Field> timeRange : this.blockPositions.keySet()) {
+
+            size += 1;
+
+            BlockStatistics statistics = this.blockStatistics.get(timeRange);
+
+            if (statistics != null) {
+
+                size += statistics.computeSerializedSize();
+            }
+        }
                 
         return size;
     }
@@ -216,6 +264,22 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
             SerializationUtils.writeRange(writer, entry.getKey());
             entry.getValue().writeTo(writer);
         }    
+
+        VarInts.writeUnsignedInt(writer, STATISTICS_VERSION);
+
+        for (Range<Field> timeRange : this.blockPositions.keySet()) {
+
+            BlockStatistics statistics = this.blockStatistics.get(timeRange);
+
+            if (statistics == null) {
+
+                writer.writeBoolean(false);
+
+            } else {
+
+                writer.writeBoolean(true).writeObject(statistics);
+            }
+        }
     }
 
     /**
@@ -235,7 +299,7 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
      */
     private TimeSeriesPartitionMetaData(Builder builder) {
 
-        this(builder.range, builder.blockPositions, builder.replayPosition, builder.fileSize);
+        this(builder.range, builder.blockPositions, builder.blockStatistics, builder.replayPosition, builder.fileSize);
     }
 
     /**
@@ -243,16 +307,19 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
      * 
      * @param range the partition time range
      * @param blockPositions the positions of the block 
+     * @param blockStatistics the statistics of the blocks
      * @param replayPosition the replay position of the latest data written on the disk
      * @param fileSize the expected file size.
      */
     private TimeSeriesPartitionMetaData(Range<Field> range, 
                                         LinkedHashMap<Range<Field>, BlockPosition> blockPositions, 
+                                        LinkedHashMap<Range<Field>, BlockStatistics> blockStatistics, 
                                         ReplayPosition replayPosition, 
                                         long fileSize) {
 
         this.range = range;
         this.blockPositions = blockPositions;
+        this.blockStatistics = blockStatistics;
         this.replayPosition = replayPosition;
         this.fileSize = fileSize;
     }
@@ -264,6 +331,8 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
     public String toString() {
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("range", this.range)
                                                                           .append("blockPositions", this.blockPositions)
+                                                                          .append("blockStatistics", 
+                                                                                  this.blockStatistics)
                                                                           .append("replayPosition", this.replayPosition)
                                                                           .append("fileSize", this.fileSize)
                                                                           .toString();
@@ -289,6 +358,11 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
          * The positions of the blocks.
          */
         private LinkedHashMap<Range<Field>, BlockPosition> blockPositions = new LinkedHashMap<>();
+
+        /**
+         * The statistics of the blocks.
+         */
+        private LinkedHashMap<Range<Field>, BlockStatistics> blockStatistics = new LinkedHashMap<>();
         
         /**
          * The expected file size.
@@ -316,6 +390,18 @@ public final class TimeSeriesPartitionMetaData implements Serializable {
             this.blockPositions = new LinkedHashMap<>(blockPositions);
             return this;
         }
+
+        /**
+         * Specifies the block statistics.
+         * 
+         * @param blockStatistics the block statistics
+         * @return this <code>Builder</code>
+         */
+        public Builder blockStatistics(Map<Range<Field>, BlockStatistics> blockStatistics) {
+            
+            this.blockStatistics = new LinkedHashMap<>(blockStatistics);
+            return this;
+        }
         
         /**
          * Sets the expected file size
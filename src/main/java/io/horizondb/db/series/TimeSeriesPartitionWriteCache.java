@@ -190,6 +190,65 @@ final class TimeSeriesPartitionWriteCache extends AbstractMultilevelCache<Partit
                 return Long.valueOf(TimeSeriesPartitionWriteCache.this.memTimeSeriesMemoryUsage.get());
             }
         });
+
+        registry.register(MetricRegistry.name(getName(), "pendingMemTimeSeries"), new Gauge<Integer>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Integer getValue() {
+                return Integer.valueOf(getNumberOfPendingMemTimeSeries());
+            }
+        });
+
+        registry.register(MetricRegistry.name(getName(), "oldestNonPersistedSegment"), new Gauge<Long>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Long getValue() {
+                return Long.valueOf(getOldestNonPersistedSegment());
+            }
+        });
+    }
+
+    /**
+     * Returns the number of <code>MemTimeSeries</code> of the partitions that are waiting to be flushed to the disk.
+     * 
+     * @return the number of <code>MemTimeSeries</code> waiting to be flushed to the disk.
+     */
+    private int getNumberOfPendingMemTimeSeries() {
+
+        int count = 0;
+
+        synchronized(this.partitionsPerSegment) {
+
+            for (TimeSeriesPartition partition : this.partitionsPerSegment.values()) {
+                count += partition.getNumberOfMemTimeSeries();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the oldest commit log segment containing data that has not been flushed to the disk yet.
+     * 
+     * @return the ID of the oldest commit log segment containing non persisted data or -1 if all the data has been
+     * persisted.
+     */
+    private long getOldestNonPersistedSegment() {
+
+        synchronized(this.partitionsPerSegment) {
+
+            if (this.partitionsPerSegment.isEmpty()) {
+                return -1;
+            }
+
+            return this.partitionsPerSegment.keySet().iterator().next().longValue();
+        }
     }
     
 
@@ -0,0 +1,332 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.QueryTrace;
+import io.horizondb.db.QueryTrace.Stage;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Filter;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.RecordUtils;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.FilteringRecordIterator;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+
+import static io.horizondb.model.core.records.BlockHeaderUtils.getCompressedBlockSize;
+
+/**
+ * <code>ResourceIterator</code> recording within a <code>QueryTrace</code> the time spent in one stage of the read
+ * pipeline.
+ * <p>
+ * The stages are nested: the filtering iterator pulls the records from the decoding iterator which pulls the blocks
+ * from the block iterator. Each <code>TracingIterator</code> therefore subtracts the time of the nested one, and
+ * only reports its own time. The times and the counters of the whole pipeline are reported once the outermost 
+ * iterator is closed. As a pipeline is only consumed by one thread at a time, they are accumulated without 
+ * synchronization.
+ * </p>
+ */
+abstract class TracingIterator<E> implements ResourceIterator<E> {
+
+    /**
+     * The decorated iterator.
+     */
+    private final ResourceIterator<E> iterator;
+
+    /**
+     * The trace of the query.
+     */
+    private final QueryTrace trace;
+
+    /**
+     * The stage whose time is measured.
+     */
+    private final Stage stage;
+
+    /**
+     * The iterator measuring the nested stage or <code>null</code>.
+     */
+    private final TracingIterator<?> nested;
+
+    /**
+     * The time in nanoseconds spent within this iterator, including the nested stages.
+     */
+    private long timeInNanos;
+
+    /**
+     * <code>true</code> if the time and the counters of this iterator have been reported.
+     */
+    private boolean reported;
+
+    /**
+     * Returns the records of the specified blocks, recording the time of each stage within the specified trace.
+     *
+     * @param definition the time series definition
+     * @param blocks the blocks to read
+     * @param recordTypeFilter the filter used to filter the records by type
+     * @param filter the filter used to filter the records
+     * @param trace the trace of the query
+     * @return the records of the specified blocks
+     */
+    public static ResourceIterator<Record> newRecordIterator(TimeSeriesDefinition definition,
+                                                             ResourceIterator<DataBlock> blocks,
+                                                             Filter<String> recordTypeFilter,
+                                                             Filter<Record> filter,
+                                                             QueryTrace trace) {
+
+        BlockIterator blockIterator = new BlockIterator(blocks, trace);
+
+        DecodingIterator decodingIterator =
+                new DecodingIterator(new BinaryTimeSeriesRecordIterator(definition, blockIterator, recordTypeFilter),
+                                     trace,
+                                     blockIterator);
+
+        return new FilteringIterator(new FilteringRecordIterator(definition, decodingIterator, filter),
+                                     trace,
+                                     decodingIterator);
+    }
+
+    /**
+     * Creates a new <code>TracingIterator</code> that decorates the specified iterator.
+     *
+     * @param iterator the decorated iterator
+     * @param trace the trace of the query
+     * @param stage the stage whose time is measured
+     * @param nested the iterator measuring the nested stage or <code>null</code>
+     */
+    TracingIterator(ResourceIterator<E> iterator, QueryTrace trace, Stage stage, TracingIterator<?> nested) {
+
+        this.iterator = iterator;
+        this.trace = trace;
+        this.stage = stage;
+        this.nested = nested;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final boolean hasNext() throws IOException {
+
+        long start = System.nanoTime();
+
+        try {
+
+            return this.iterator.hasNext();
+
+        } finally {
+
+            this.timeInNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final E next() throws IOException {
+
+        long start = System.nanoTime();
+
+        try {
+
+            E element = this.iterator.next();
+            onNext(element);
+            return element;
+
+        } finally {
+
+            this.timeInNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final void close() throws IOException {
+
+        try {
+
+            this.iterator.close();
+
+        } finally {
+
+            report();
+        }
+    }
+
+    /**
+     * Reports to the trace the time and the counters of this iterator and of the nested ones, if they have not 
+     * been reported yet.
+     */
+    private void report() {
+
+        if (this.reported) {
+            return;
+        }
+
+        this.reported = true;
+
+        long nestedTimeInNanos = 0;
+
+        if (this.nested != null) {
+
+            nestedTimeInNanos = this.nested.timeInNanos;
+            this.nested.report();
+        }
+
+        this.trace.addTime(this.stage, this.timeInNanos - nestedTimeInNanos);
+        reportCounters(this.trace);
+    }
+
+    /**
+     * Notifies this iterator that the specified element has been returned.
+     *
+     * @param element the returned element
+     * @throws IOException if an I/O problem occurs
+     */
+    protected abstract void onNext(E element) throws IOException;
+
+    /**
+     * Reports the counters of this iterator to the specified trace.
+     *
+     * @param queryTrace the trace of the query
+     */
+    protected abstract void reportCounters(QueryTrace queryTrace);
+
+    /**
+     * <code>TracingIterator</code> measuring the read and the decompression of the blocks.
+     */
+    private static final class BlockIterator extends TracingIterator<DataBlock> {
+
+        /**
+         * The number of blocks returned.
+         */
+        private long blocks;
+
+        /**
+         * The number of bytes of the blocks returned.
+         */
+        private long bytes;
+
+        /**
+         * Creates a new <code>BlockIterator</code> that decorates the specified iterator.
+         *
+         * @param iterator the decorated iterator
+         * @param trace the trace of the query
+         */
+        public BlockIterator(ResourceIterator<DataBlock> iterator, QueryTrace trace) {
+            super(iterator, trace, Stage.BLOCK_READ, null);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void onNext(DataBlock block) throws IOException {
+
+            Record header = block.getHeader();
+
+            this.blocks++;
+            this.bytes += RecordUtils.computeSerializedSize(header) + getCompressedBlockSize(header);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void reportCounters(QueryTrace queryTrace) {
+            queryTrace.addBlocks(this.blocks, this.bytes);
+        }
+    }
+
+    /**
+     * <code>TracingIterator</code> measuring the decoding of the records.
+     */
+    private static final class DecodingIterator extends TracingIterator<BinaryTimeSeriesRecord> {
+
+        /**
+         * The number of records decoded.
+         */
+        private long records;
+
+        /**
+         * Creates a new <code>DecodingIterator</code> that decorates the specified iterator.
+         *
+         * @param iterator the decorated iterator
+         * @param trace the trace of the query
+         * @param blockIterator the iterator measuring the read of the blocks
+         */
+        public DecodingIterator(ResourceIterator<BinaryTimeSeriesRecord> iterator,
+                                QueryTrace trace,
+                                BlockIterator blockIterator) {
+            super(iterator, trace, Stage.DECODING, blockIterator);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void onNext(BinaryTimeSeriesRecord record) {
+            this.records++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void reportCounters(QueryTrace queryTrace) {
+            queryTrace.addDecodedRecords(this.records);
+        }
+    }
+
+    /**
+     * <code>TracingIterator</code> measuring the filtering of the records.
+     */
+    private static final class FilteringIterator extends TracingIterator<Record> {
+
+        /**
+         * Creates a new <code>FilteringIterator</code> that decorates the specified iterator.
+         *
+         * @param iterator the decorated iterator
+         * @param trace the trace of the query
+         * @param decodingIterator the iterator measuring the decoding of the records
+         */
+        public FilteringIterator(ResourceIterator<Record> iterator,
+                                 QueryTrace trace,
+                                 DecodingIterator decodingIterator) {
+            super(iterator, trace, Stage.FILTERING, decodingIterator);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void onNext(Record record) {
+            // Do nothing
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void reportCounters(QueryTrace queryTrace) {
+            // Do nothing
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+import io.horizondb.model.schema.FieldType;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * An aggregate function applied to the records of a given type or to one of their fields.
+ */
+@Immutable
+public final class Aggregate {
+
+    /**
+     * The value used as record type index when the aggregate applies to all the record types.
+     */
+    public static final int ALL_RECORD_TYPES = -1;
+
+    /**
+     * The value used as field index when the aggregate does not apply to a specific field.
+     */
+    public static final int NO_FIELD = -1;
+
+    /**
+     * The aggregate function.
+     */
+    private final AggregateFunction function;
+
+    /**
+     * The name of the aggregate within the result.
+     */
+    private final String name;
+
+    /**
+     * The index of the record type to which the aggregate applies.
+     */
+    private final int recordTypeIndex;
+
+    /**
+     * The index of the field to which the aggregate applies.
+     */
+    private final int fieldIndex;
+
+    /**
+     * The type of the field to which the aggregate applies or <code>null</code> if the aggregate does not apply 
+     * to a specific field.
+     */
+    private final FieldType fieldType;
+
+    /**
+     * Creates a new <code>Aggregate</code> that counts the records of the specified type.
+     * 
+     * @param name the name of the aggregate within the result
+     * @param recordTypeIndex the index of the record type or <code>ALL_RECORD_TYPES</code>
+     * @return a new <code>Aggregate</code> that counts the records of the specified type.
+     */
+    public static Aggregate count(String name, int recordTypeIndex) {
+        return new Aggregate(AggregateFunction.COUNT, name, recordTypeIndex, NO_FIELD, null);
+    }
+
+    /**
+     * Creates a new <code>Aggregate</code> that applies the specified function to the specified field.
+     * 
+     * @param function the aggregate function
+     * @param name the name of the aggregate within the result
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field within the record
+     * @param fieldType the type of the field
+     * @return a new <code>Aggregate</code> that applies the specified function to the specified field.
+     */
+    public static Aggregate newInstance(AggregateFunction function,
+                                        String name,
+                                        int recordTypeIndex,
+                                        int fieldIndex,
+                                        FieldType fieldType) {
+
+        return new Aggregate(function, name, recordTypeIndex, fieldIndex, fieldType);
+    }
+
+    /**
+     * Returns the aggregate function.
+     * 
+     * @return the aggregate function.
+     */
+    public AggregateFunction getFunction() {
+        return this.function;
+    }
+
+    /**
+     * Returns the name of the aggregate within the result.
+     * 
+     * @return the name of the aggregate within the result.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the index of the record type to which the aggregate applies.
+     * 
+     * @return the index of the record type to which the aggregate applies or <code>ALL_RECORD_TYPES</code>.
+     */
+    public int getRecordTypeIndex() {
+        return this.recordTypeIndex;
+    }
+
+    /**
+     * Returns the index of the field to which the aggregate applies.
+     * 
+     * @return the index of the field to which the aggregate applies or <code>NO_FIELD</code>.
+     */
+    public int getFieldIndex() {
+        return this.fieldIndex;
+    }
+
+    /**
+     * Returns the type of the field to which the aggregate applies.
+     * 
+     * @return the type of the field to which the aggregate applies or <code>null</code>.
+     */
+    public FieldType getFieldType() {
+        return this.fieldType;
+    }
+
+    /**
+     * Returns the type of the aggregate value.
+     * 
+     * @return the type of the aggregate value.
+     */
+    public FieldType getResultType() {
+
+        if (this.function == AggregateFunction.COUNT) {
+            return FieldType.LONG;
+        }
+        return FieldType.DECIMAL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("function", this.function)
+                                                                          .append("name", this.name)
+                                                                          .append("recordTypeIndex",
+                                                                                  this.recordTypeIndex)
+                                                                          .append("fieldIndex", this.fieldIndex)
+                                                                          .append("fieldType", this.fieldType)
+                                                                          .toString();
+    }
+
+    /**
+     * Creates a new <code>Aggregate</code>.
+     * 
+     * @param function the aggregate function
+     * @param name the name of the aggregate within the result
+     * @param recordTypeIndex the index of the record type
+     * @param fieldIndex the index of the field within the record
+     * @param fieldType the type of the field
+     */
+    private Aggregate(AggregateFunction function,
+                      String name,
+                      int recordTypeIndex,
+                      int fieldIndex,
+                      FieldType fieldType) {
+
+        this.function = function;
+        this.name = name;
+        this.recordTypeIndex = recordTypeIndex;
+        this.fieldIndex = fieldIndex;
+        this.fieldType = fieldType;
+    }
+}
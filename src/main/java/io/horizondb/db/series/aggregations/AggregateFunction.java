@@ -0,0 +1,73 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+/**
+ * The aggregate functions that can be computed server side.
+ */
+public enum AggregateFunction {
+
+    /**
+     * Returns the number of records.
+     */
+    COUNT,
+
+    /**
+     * Returns the sum of the field values.
+     */
+    SUM,
+
+    /**
+     * Returns the smallest field value.
+     */
+    MIN,
+
+    /**
+     * Returns the greatest field value.
+     */
+    MAX,
+
+    /**
+     * Returns the average of the field values.
+     */
+    AVG,
+
+    /**
+     * Returns the first field value.
+     */
+    FIRST,
+
+    /**
+     * Returns the last field value.
+     */
+    LAST;
+
+    /**
+     * Returns <code>true</code> if this function must be applied to a field.
+     * 
+     * @return <code>true</code> if this function must be applied to a field.
+     */
+    public boolean requiresField() {
+        return this != COUNT;
+    }
+
+    /**
+     * Returns <code>true</code> if this function can be computed from the statistics of a block of records.
+     * 
+     * @return <code>true</code> if this function can be computed from the statistics of a block of records.
+     */
+    public boolean isComputableFromStatistics() {
+        return this != FIRST && this != LAST;
+    }
+}
@@ -0,0 +1,526 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+import io.horizondb.db.series.BlockStatistics;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * <code>ResourceIterator</code> computing the aggregates over the records and block statistics returned by an 
+ * <code>AggregationInput</code>. As the data are read in timestamp order, only the time bucket being computed is kept
+ * in memory.
+ * <p>
+ * The aggregated records do not support missing values. A bucket is therefore only returned if each of the 
+ * aggregates has been computed over at least one record. Reporting zero for an aggregate without values would not 
+ * be distinguishable from a real zero.
+ * </p>
+ */
+@NotThreadSafe
+final class AggregatingRecordIterator implements ResourceIterator<Record> {
+
+    /**
+     * The definition of the returned records.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * The width of the time buckets in nanoseconds or zero if the records must not be grouped.
+     */
+    private final long intervalInNanos;
+
+    /**
+     * The data to aggregate.
+     */
+    private final AggregationInput input;
+
+    /**
+     * The last value of each record type, used to rebuild the full records from the delta ones.
+     */
+    private final TimeSeriesRecord[] records;
+
+    /**
+     * The accumulators of the bucket being computed.
+     */
+    private final Accumulator[] accumulators;
+
+    /**
+     * The start of the bucket being computed in nanoseconds.
+     */
+    private long bucketStart;
+
+    /**
+     * <code>true</code> if some records have been accumulated in the current bucket.
+     */
+    private boolean bucketInProgress;
+
+    /**
+     * The next aggregated record.
+     */
+    private TimeSeriesRecord next;
+
+    /**
+     * Creates a new <code>AggregatingRecordIterator</code>.
+     * 
+     * @param seriesDefinition the definition of the time series from which the records come from
+     * @param aggregation the aggregation to perform
+     * @param input the data to aggregate
+     */
+    public AggregatingRecordIterator(TimeSeriesDefinition seriesDefinition,
+                                     Aggregation aggregation,
+                                     AggregationInput input) {
+
+        this.definition = aggregation.getDefinition();
+        this.intervalInNanos = aggregation.getIntervalInNanos();
+        this.input = input;
+
+        this.records = new TimeSeriesRecord[seriesDefinition.getNumberOfRecordTypes()];
+
+        for (int i = 0; i < this.records.length; i++) {
+            this.records[i] = seriesDefinition.newRecord(i);
+        }
+
+        List<Aggregate> aggregates = aggregation.getAggregates();
+        this.accumulators = new Accumulator[aggregates.size()];
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+            this.accumulators[i] = new Accumulator(aggregates.get(i));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+
+        if (this.next == null) {
+            this.next = computeNext();
+        }
+
+        return this.next != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Record next() throws IOException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        TimeSeriesRecord record = this.next;
+        this.next = null;
+        return record;
+    }
+
+    /**
+     * Reads the records and block statistics until a bucket is complete and returns the corresponding aggregated 
+     * record.
+     * 
+     * @return the next aggregated record or <code>null</code> if there are no more records.
+     * @throws IOException if an I/O problem occurs while reading the records
+     */
+    private TimeSeriesRecord computeNext() throws IOException {
+
+        while (this.input.next()) {
+
+            BlockStatistics statistics = this.input.getStatistics();
+            TimeSeriesRecord record = null;
+            long timestamp;
+
+            if (statistics == null) {
+
+                record = toFullRecord(this.input.getRecord());
+                timestamp = record.getTimestampInNanos(0);
+
+            } else {
+
+                if (!isRelevant(statistics)) {
+                    continue;
+                }
+
+                timestamp = statistics.getFirstTimestampInNanos();
+            }
+
+            TimeSeriesRecord result = null;
+
+            if (!this.bucketInProgress) {
+
+                startBucket(timestamp);
+
+            } else if (this.intervalInNanos != 0 && timestamp >= this.bucketStart + this.intervalInNanos) {
+
+                result = completeBucket();
+                startBucket(timestamp);
+            }
+
+            if (statistics == null) {
+                accumulate(record);
+            } else {
+                accumulate(statistics);
+            }
+
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (this.bucketInProgress) {
+            return completeBucket();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns <code>true</code> if the block summarized by the specified statistics contains some records used by 
+     * the aggregates.
+     * 
+     * @param statistics the block statistics
+     * @return <code>true</code> if the block contains some records used by the aggregates.
+     */
+    private boolean isRelevant(BlockStatistics statistics) {
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+
+            if (this.accumulators[i].getCount(statistics) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Converts the specified record into a full record.
+     * 
+     * @param record the record read
+     * @return the corresponding full record
+     */
+    private TimeSeriesRecord toFullRecord(Record record) {
+
+        TimeSeriesRecord fullRecord = this.records[record.getType()];
+
+        if (record.isDelta()) {
+            fullRecord.add(record);
+        } else {
+            record.copyTo(fullRecord);
+        }
+
+        return fullRecord;
+    }
+
+    /**
+     * Starts a new bucket for the record with the specified timestamp.
+     * 
+     * @param timestamp the timestamp in nanoseconds of the first record of the bucket
+     */
+    private void startBucket(long timestamp) {
+
+        this.bucketInProgress = true;
+        this.bucketStart = (this.intervalInNanos == 0) ? timestamp : Aggregation.floor(timestamp, this.intervalInNanos);
+    }
+
+    /**
+     * Adds the specified record to the current bucket.
+     * 
+     * @param record the record to add
+     */
+    private void accumulate(TimeSeriesRecord record) {
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+            this.accumulators[i].accumulate(record);
+        }
+    }
+
+    /**
+     * Adds the records summarized by the specified statistics to the current bucket.
+     * 
+     * @param statistics the block statistics
+     */
+    private void accumulate(BlockStatistics statistics) {
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+            this.accumulators[i].accumulate(statistics);
+        }
+    }
+
+    /**
+     * Creates the aggregated record for the current bucket and resets the accumulators.
+     * 
+     * @return the aggregated record for the current bucket or <code>null</code> if some of the aggregates have 
+     * no value for the bucket
+     */
+    private TimeSeriesRecord completeBucket() {
+
+        this.bucketInProgress = false;
+
+        TimeSeriesRecord result = null;
+
+        if (hasValues()) {
+
+            result = this.definition.newRecord(0);
+            result.setTimestampInNanos(0, this.bucketStart);
+
+            for (int i = 0; i < this.accumulators.length; i++) {
+                this.accumulators[i].writeTo(result, i + 1);
+            }
+        }
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+            this.accumulators[i].reset();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns <code>true</code> if each of the aggregates has a value for the current bucket.
+     * 
+     * @return <code>true</code> if each of the aggregates has a value for the current bucket.
+     */
+    private boolean hasValues() {
+
+        for (int i = 0; i < this.accumulators.length; i++) {
+
+            if (!this.accumulators[i].hasValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Accumulates the values needed to compute an aggregate.
+     */
+    @NotThreadSafe
+    private static final class Accumulator {
+
+        /**
+         * The aggregate being computed.
+         */
+        private final Aggregate aggregate;
+
+        /**
+         * The number of records accumulated.
+         */
+        private long count;
+
+        /**
+         * The sum of the values.
+         */
+        private double sum;
+
+        /**
+         * The smallest value.
+         */
+        private double min;
+
+        /**
+         * The greatest value.
+         */
+        private double max;
+
+        /**
+         * The first value.
+         */
+        private double first;
+
+        /**
+         * The last value.
+         */
+        private double last;
+
+        /**
+         * Creates a new <code>Accumulator</code> for the specified aggregate.
+         * 
+         * @param aggregate the aggregate to compute
+         */
+        public Accumulator(Aggregate aggregate) {
+            this.aggregate = aggregate;
+        }
+
+        /**
+         * Accumulates the specified record if it is of the type expected by the aggregate.
+         * 
+         * @param record the record
+         */
+        public void accumulate(TimeSeriesRecord record) {
+
+            int recordTypeIndex = this.aggregate.getRecordTypeIndex();
+
+            if (recordTypeIndex != Aggregate.ALL_RECORD_TYPES && record.getType() != recordTypeIndex) {
+                return;
+            }
+
+            this.count++;
+
+            if (this.aggregate.getFieldIndex() == Aggregate.NO_FIELD) {
+                return;
+            }
+
+            double value = BlockStatistics.getNumericValue(record, 
+                                                           this.aggregate.getFieldIndex(), 
+                                                           this.aggregate.getFieldType());
+
+            if (this.count == 1) {
+
+                this.first = value;
+                this.min = value;
+                this.max = value;
+
+            } else {
+
+                this.min = Math.min(this.min, value);
+                this.max = Math.max(this.max, value);
+            }
+
+            this.last = value;
+            this.sum += value;
+        }
+
+        /**
+         * Accumulates the records summarized by the specified block statistics. The aggregate function must be
+         * computable from the statistics.
+         * 
+         * @param statistics the block statistics
+         */
+        public void accumulate(BlockStatistics statistics) {
+
+            int recordTypeIndex = this.aggregate.getRecordTypeIndex();
+
+            long blockCount = getCount(statistics);
+
+            if (blockCount == 0) {
+                return;
+            }
+
+            int fieldIndex = this.aggregate.getFieldIndex();
+
+            if (fieldIndex != Aggregate.NO_FIELD) {
+
+                double blockMin = statistics.getMin(recordTypeIndex, fieldIndex);
+                double blockMax = statistics.getMax(recordTypeIndex, fieldIndex);
+
+                if (this.count == 0) {
+
+                    this.min = blockMin;
+                    this.max = blockMax;
+
+                } else {
+
+                    this.min = Math.min(this.min, blockMin);
+                    this.max = Math.max(this.max, blockMax);
+                }
+
+                this.sum += statistics.getSum(recordTypeIndex, fieldIndex);
+            }
+
+            this.count += blockCount;
+        }
+
+        /**
+         * Returns the number of records of the block summarized by the specified statistics that are used by the 
+         * aggregate.
+         * 
+         * @param statistics the block statistics
+         * @return the number of records used by the aggregate
+         */
+        public long getCount(BlockStatistics statistics) {
+
+            int recordTypeIndex = this.aggregate.getRecordTypeIndex();
+
+            return (recordTypeIndex == Aggregate.ALL_RECORD_TYPES) ? statistics.getCount() 
+                                                                   : statistics.getCount(recordTypeIndex);
+        }
+
+        /**
+         * Returns <code>true</code> if some records have been accumulated since the last reset.
+         * 
+         * @return <code>true</code> if some records have been accumulated since the last reset.
+         */
+        public boolean hasValue() {
+            return this.count != 0;
+        }
+
+        /**
+         * Writes the aggregate value within the specified field of the specified record.
+         * 
+         * @param record the record in which the aggregate must be written
+         * @param index the field index
+         */
+        public void writeTo(TimeSeriesRecord record, int index) {
+
+            switch (this.aggregate.getFunction()) {
+
+                case COUNT:
+                    record.setLong(index, this.count);
+                    break;
+                case SUM:
+                    record.setDouble(index, this.sum);
+                    break;
+                case MIN:
+                    record.setDouble(index, this.min);
+                    break;
+                case MAX:
+                    record.setDouble(index, this.max);
+                    break;
+                case AVG:
+                    record.setDouble(index, this.sum / this.count);
+                    break;
+                case FIRST:
+                    record.setDouble(index, this.first);
+                    break;
+                case LAST:
+                    record.setDouble(index, this.last);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown aggregate function: " + this.aggregate.getFunction());
+            }
+        }
+
+        /**
+         * Resets this accumulator.
+         */
+        public void reset() {
+
+            this.count = 0;
+            this.sum = 0;
+            this.min = 0;
+            this.max = 0;
+            this.first = 0;
+            this.last = 0;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+import io.horizondb.db.series.BlockStatistics;
+import io.horizondb.model.core.Projection;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.projections.DefaultProjection;
+import io.horizondb.model.core.projections.NoopProjection;
+import io.horizondb.model.core.projections.NoopRecordTypeProjection;
+import io.horizondb.model.core.projections.RecordTypeProjection;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * The aggregates that must be computed over the records of a time series, optionally grouped by time buckets.
+ */
+@Immutable
+public final class Aggregation {
+
+    /**
+     * The name of the record type returned by the aggregations.
+     */
+    public static final String RECORD_TYPE_NAME = "aggregate";
+
+    /**
+     * The aggregates that must be computed.
+     */
+    private final List<Aggregate> aggregates;
+
+    /**
+     * The width of the time buckets in nanoseconds or zero if the records must not be grouped.
+     */
+    private final long intervalInNanos;
+
+    /**
+     * The projection used to read only the record types needed to compute the aggregates.
+     */
+    private final Projection projection;
+
+    /**
+     * The definition of the returned records.
+     */
+    private final TimeSeriesDefinition definition;
+
+    /**
+     * Creates a new <code>Aggregation</code> for the specified time series.
+     * 
+     * @param definition the definition of the time series on which the aggregates must be computed
+     * @param aggregates the aggregates that must be computed
+     * @param intervalInNanos the width of the time buckets in nanoseconds or zero if the records must not 
+     * be grouped
+     */
+    public Aggregation(TimeSeriesDefinition definition, List<Aggregate> aggregates, long intervalInNanos) {
+
+        Validate.notEmpty(aggregates, "at least one aggregate must be specified");
+        Validate.isTrue(intervalInNanos >= 0, "the interval must be greater or equals to zero");
+
+        this.aggregates = new ArrayList<>(aggregates);
+        this.intervalInNanos = intervalInNanos;
+        this.projection = newProjection(aggregates);
+        this.definition = newDefinition(definition, aggregates);
+    }
+
+    /**
+     * Returns the aggregates that must be computed.
+     * 
+     * @return the aggregates that must be computed.
+     */
+    public List<Aggregate> getAggregates() {
+        return this.aggregates;
+    }
+
+    /**
+     * Returns the width of the time buckets in nanoseconds.
+     * 
+     * @return the width of the time buckets in nanoseconds or zero if the records must not be grouped.
+     */
+    public long getIntervalInNanos() {
+        return this.intervalInNanos;
+    }
+
+    /**
+     * Returns the projection used to read only the record types needed to compute the aggregates.
+     * 
+     * @return the projection used to read only the record types needed to compute the aggregates.
+     */
+    public Projection getProjection() {
+        return this.projection;
+    }
+
+    /**
+     * Returns the definition of the records returned by this aggregation.
+     * 
+     * @return the definition of the records returned by this aggregation.
+     */
+    public TimeSeriesDefinition getDefinition() {
+        return this.definition;
+    }
+
+    /**
+     * Returns an iterator over the aggregated records computed from the records returned by the specified 
+     * iterator. The records must be returned in timestamp order.
+     * 
+     * @param seriesDefinition the definition of the time series from which the records come from
+     * @param iterator the iterator over the records to aggregate
+     * @return an iterator over the aggregated records
+     */
+    public ResourceIterator<Record> aggregate(TimeSeriesDefinition seriesDefinition, 
+                                              ResourceIterator<? extends Record> iterator) {
+
+        return aggregate(seriesDefinition, new RecordInput(iterator));
+    }
+
+    /**
+     * Returns an iterator over the aggregated records computed from the records and block statistics returned by 
+     * the specified input.
+     * 
+     * @param seriesDefinition the definition of the time series from which the records come from
+     * @param input the data to aggregate
+     * @return an iterator over the aggregated records
+     */
+    public ResourceIterator<Record> aggregate(TimeSeriesDefinition seriesDefinition, AggregationInput input) {
+
+        return new AggregatingRecordIterator(seriesDefinition, this, input);
+    }
+
+    /**
+     * Returns <code>true</code> if the aggregates can be computed from the statistics of the blocks instead of 
+     * from their records.
+     * 
+     * @return <code>true</code> if the aggregates can be computed from the block statistics.
+     */
+    public boolean isComputableFromStatistics() {
+
+        for (int i = 0, m = this.aggregates.size(); i < m; i++) {
+
+            if (!this.aggregates.get(i).getFunction().isComputableFromStatistics()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the aggregates can be computed from the specified block statistics. It is the 
+     * case if all the functions support it and if all the records of the block belong to the same time bucket.
+     * 
+     * @param statistics the block statistics
+     * @return <code>true</code> if the aggregates can be computed from the specified block statistics.
+     */
+    public boolean isComputableFrom(BlockStatistics statistics) {
+
+        if (!isComputableFromStatistics()) {
+            return false;
+        }
+
+        if (this.intervalInNanos == 0) {
+            return true;
+        }
+
+        return floor(statistics.getFirstTimestampInNanos(), this.intervalInNanos) 
+                == floor(statistics.getLastTimestampInNanos(), this.intervalInNanos);
+    }
+
+    /**
+     * Returns the start of the bucket containing the specified timestamp.
+     * 
+     * @param timestamp the timestamp in nanoseconds
+     * @param interval the width of the buckets in nanoseconds
+     * @return the start of the bucket containing the specified timestamp.
+     */
+    static long floor(long timestamp, long interval) {
+
+        long remainder = timestamp % interval;
+
+        if (remainder < 0) {
+            remainder += interval;
+        }
+
+        return timestamp - remainder;
+    }
+
+    /**
+     * Creates the projection used to read only the record types needed to compute the specified aggregates.
+     * 
+     * @param aggregates the aggregates
+     * @return the projection used to read the records
+     */
+    private static Projection newProjection(List<Aggregate> aggregates) {
+
+        SortedSet<Integer> recordTypes = new TreeSet<>();
+
+        for (int i = 0, m = aggregates.size(); i < m; i++) {
+
+            int recordTypeIndex = aggregates.get(i).getRecordTypeIndex();
+
+            if (recordTypeIndex == Aggregate.ALL_RECORD_TYPES) {
+                return new NoopProjection();
+            }
+
+            recordTypes.add(Integer.valueOf(recordTypeIndex));
+        }
+
+        List<RecordTypeProjection> projections = new ArrayList<>(recordTypes.size());
+
+        for (Integer recordTypeIndex : recordTypes) {
+            projections.add(new NoopRecordTypeProjection(recordTypeIndex.intValue()));
+        }
+
+        return new DefaultProjection(projections);
+    }
+
+    /**
+     * Creates the definition of the records returned by the specified aggregates.
+     * 
+     * @param definition the definition of the time series on which the aggregates must be computed
+     * @param aggregates the aggregates
+     * @return the definition of the records returned by the specified aggregates
+     */
+    private static TimeSeriesDefinition newDefinition(TimeSeriesDefinition definition, 
+                                                      List<Aggregate> aggregates) {
+
+        RecordTypeDefinition.Builder recordType = RecordTypeDefinition.newBuilder(RECORD_TYPE_NAME);
+
+        for (int i = 0, m = aggregates.size(); i < m; i++) {
+
+            Aggregate aggregate = aggregates.get(i);
+            recordType.addField(aggregate.getName(), aggregate.getResultType());
+        }
+
+        return TimeSeriesDefinition.newBuilder(definition.getName())
+                                   .timeUnit(TimeUnit.NANOSECONDS)
+                                   .timeZone(definition.getTimeZone())
+                                   .addRecordType(recordType)
+                                   .build();
+    }
+
+    /**
+     * <code>AggregationInput</code> returning only records.
+     */
+    private static final class RecordInput implements AggregationInput {
+
+        /**
+         * The iterator over the records to aggregate.
+         */
+        private final ResourceIterator<? extends Record> iterator;
+
+        /**
+         * The current record.
+         */
+        private Record record;
+
+        /**
+         * Creates a new <code>RecordInput</code> over the records returned by the specified iterator.
+         * 
+         * @param iterator the iterator over the records to aggregate
+         */
+        public RecordInput(ResourceIterator<? extends Record> iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() throws IOException {
+
+            if (!this.iterator.hasNext()) {
+
+                this.record = null;
+                return false;
+            }
+
+            this.record = this.iterator.next();
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockStatistics getStatistics() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record getRecord() {
+            return this.record;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            this.iterator.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+import io.horizondb.db.series.BlockStatistics;
+import io.horizondb.model.core.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The data over which the aggregates are computed. Each element is either a record or the statistics of a whole 
+ * block of records that did not need to be read. The elements must be returned in timestamp order.
+ */
+public interface AggregationInput extends Closeable {
+
+    /**
+     * Moves to the next element.
+     * 
+     * @return <code>true</code> if there is a next element, <code>false</code> otherwise.
+     * @throws IOException if an I/O problem occurs
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Returns the statistics of the current block or <code>null</code> if the current element is a record.
+     * 
+     * @return the statistics of the current block or <code>null</code> if the current element is a record.
+     */
+    BlockStatistics getStatistics();
+
+    /**
+     * Returns the current record or <code>null</code> if the current element is the statistics of a block.
+     * 
+     * @return the current record or <code>null</code> if the current element is the statistics of a block.
+     */
+    Record getRecord();
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import java.io.InterruptedIOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CancellationTest {
+
+    @Test
+    public void testCancelConnection() {
+
+        Cancellation connection = new Cancellation();
+        Cancellation query = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+
+        assertFalse(query.isCancelled());
+
+        connection.cancel();
+
+        assertTrue(query.isCancelled());
+        assertTrue(connection.newQueryCancellation(Cancellation.NO_TIMEOUT).isCancelled());
+    }
+
+    @Test
+    public void testCancelPreviousQueries() {
+
+        Cancellation connection = new Cancellation();
+        Cancellation first = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+        Cancellation second = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+        Cancellation cancel = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+
+        cancel.cancelPreviousQueries();
+
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+        assertFalse(cancel.isCancelled());
+        assertFalse(connection.newQueryCancellation(Cancellation.NO_TIMEOUT).isCancelled());
+    }
+
+    @Test
+    public void testCheckWithCancelledQuery() {
+
+        Cancellation query = new Cancellation().newQueryCancellation(Cancellation.NO_TIMEOUT);
+        query.cancel();
+
+        try {
+
+            query.check();
+            fail();
+
+        } catch (InterruptedIOException e) {
+            assertEquals("The query has been cancelled.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckWithTimeout() throws InterruptedException {
+
+        Cancellation query = new Cancellation().newQueryCancellation(60000);
+        query.restrictTimeout(1);
+
+        Thread.sleep(10);
+
+        try {
+
+            query.check();
+            fail();
+
+        } catch (InterruptedIOException e) {
+            assertEquals("The query has exceeded its timeout of 1 ms.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRestrictTimeoutCannotExtendTheTimeout() throws InterruptedException {
+
+        Cancellation query = new Cancellation().newQueryCancellation(1);
+        query.restrictTimeout(60000);
+
+        Thread.sleep(10);
+
+        assertTrue(query.isCancelled());
+    }
+}
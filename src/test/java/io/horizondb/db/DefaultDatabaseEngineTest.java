@@ -0,0 +1,254 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.ErrorCodes;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.Msgs;
+import io.horizondb.model.protocol.OpCode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.easymock.IExpectationSetters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.isA;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultDatabaseEngineTest {
+
+    /**
+     * The test directory.
+     */
+    private Path testDirectory;
+
+    /**
+     * The configuration used during the tests.
+     */
+    private Configuration configuration;
+
+    /**
+     * The storage engine mock.
+     */
+    private StorageEngine storageEngine;
+
+    @Before
+    public void setUp() throws IOException {
+
+        this.testDirectory = Files.createTempDirectory(this.getClass().getSimpleName());
+        this.configuration = Configuration.newBuilder()
+                                          .dataDirectory(this.testDirectory.resolve("data"))
+                                          .commitLogDirectory(this.testDirectory.resolve("commitLog"))
+                                          .build();
+
+        this.storageEngine = EasyMock.createMock(StorageEngine.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        FileUtils.forceDelete(this.testDirectory);
+        this.testDirectory = null;
+        this.configuration = null;
+    }
+
+    @Test
+    public void testExecuteBatch() throws Exception {
+
+        Msg<?> first = newMsg("INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+        Msg<?> second = newMsg("INSERT INTO Cac.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+
+        this.storageEngine.start();
+        this.storageEngine.validate(first);
+        this.storageEngine.validate(second);
+        expectExecute(first).andReturn(newSuccessMsg(first));
+        expectExecute(second).andReturn(newSuccessMsg(second));
+        this.storageEngine.shutdown();
+
+        EasyMock.replay(this.storageEngine);
+
+        DefaultDatabaseEngine engine = new DefaultDatabaseEngine(this.configuration, this.storageEngine);
+        engine.start();
+
+        try {
+
+            Msg<?> response = (Msg<?>) engine.executeBatch(first.getHeader(), 
+                                                           Arrays.<Msg<?>>asList(first, second), 
+                                                           new Cancellation());
+
+            assertTrue(response.getHeader().isSuccess());
+
+        } finally {
+
+            engine.shutdown();
+        }
+
+        EasyMock.verify(this.storageEngine);
+    }
+
+    @Test
+    public void testExecuteBatchIsRejectedIfOneMessageIsInvalid() throws Exception {
+
+        Msg<?> first = newMsg("INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+        Msg<?> second = newMsg("INSERT INTO Cac.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+        Msg<?> third = newMsg("INSERT INTO Dow.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+
+        this.storageEngine.start();
+        this.storageEngine.validate(first);
+        this.storageEngine.validate(second);
+        EasyMock.expectLastCall().andThrow(new HorizonDBException(ErrorCodes.UNKNOWN_TIMESERIES, "boom"));
+        this.storageEngine.shutdown();
+
+        EasyMock.replay(this.storageEngine);
+
+        DefaultDatabaseEngine engine = new DefaultDatabaseEngine(this.configuration, this.storageEngine);
+        engine.start();
+
+        try {
+
+            List<Msg<?>> batch = Arrays.<Msg<?>>asList(first, second, third);
+            Msg<?> response = (Msg<?>) engine.executeBatch(first.getHeader(), batch, new Cancellation());
+
+            assertFalse(response.getHeader().isSuccess());
+
+        } finally {
+
+            engine.shutdown();
+        }
+
+        EasyMock.verify(this.storageEngine);
+    }
+
+    @Test
+    public void testExecuteBatchAppliesAllTheMessagesOnceLogged() throws Exception {
+
+        Msg<?> first = newMsg("INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+        Msg<?> second = newMsg("INSERT INTO Cac.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+        Msg<?> third = newMsg("INSERT INTO Dow.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+
+        Msg<?> error = Msgs.newErrorMsg(second.getHeader(), ErrorCodes.INTERNAL_ERROR, "boom");
+
+        this.storageEngine.start();
+        this.storageEngine.validate(first);
+        this.storageEngine.validate(second);
+        this.storageEngine.validate(third);
+        expectExecute(first).andReturn(newSuccessMsg(first));
+        expectExecute(second).andReturn(error);
+        expectExecute(third).andReturn(newSuccessMsg(third));
+        this.storageEngine.shutdown();
+
+        EasyMock.replay(this.storageEngine);
+
+        DefaultDatabaseEngine engine = new DefaultDatabaseEngine(this.configuration, this.storageEngine);
+        engine.start();
+
+        try {
+
+            List<Msg<?>> batch = Arrays.<Msg<?>>asList(first, second, third);
+            Msg<?> response = (Msg<?>) engine.executeBatch(first.getHeader(), batch, new Cancellation());
+
+            assertSame(error, response);
+
+        } finally {
+
+            engine.shutdown();
+        }
+
+        EasyMock.verify(this.storageEngine);
+    }
+
+    @Test
+    public void testCancelledBatchIsNotExecuted() throws Exception {
+
+        Msg<?> first = newMsg("INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', 12, 10);");
+
+        this.storageEngine.start();
+        this.storageEngine.validate(first);
+        this.storageEngine.shutdown();
+
+        EasyMock.replay(this.storageEngine);
+
+        DefaultDatabaseEngine engine = new DefaultDatabaseEngine(this.configuration, this.storageEngine);
+        engine.start();
+
+        try {
+
+            Cancellation cancellation = new Cancellation().newQueryCancellation(Cancellation.NO_TIMEOUT);
+            cancellation.cancel();
+
+            Msg<?> response = (Msg<?>) engine.executeBatch(first.getHeader(), 
+                                                           Arrays.<Msg<?>>asList(first), 
+                                                           cancellation);
+
+            assertFalse(response.getHeader().isSuccess());
+
+        } finally {
+
+            engine.shutdown();
+        }
+
+        EasyMock.verify(this.storageEngine);
+    }
+
+    /**
+     * Records the expectation that the specified message is executed by the storage engine.
+     *
+     * @param msg the message
+     * @return the expectation setter
+     */
+    @SuppressWarnings("unchecked")
+    private IExpectationSetters<Object> expectExecute(Msg<?> msg) throws Exception {
+
+        return EasyMock.expect(this.storageEngine.execute(eq(msg),
+                                                          isA(ListenableFuture.class),
+                                                          isA(Cancellation.class)));
+    }
+
+    /**
+     * Creates a new message for use within the tests.
+     *
+     * @param query the HQL query
+     * @return a new message for use within the tests.
+     */
+    private static Msg<?> newMsg(String query) {
+
+        return Msg.newRequestMsg(OpCode.HQL_QUERY, new HqlQueryPayload("test", query));
+    }
+
+    /**
+     * Creates a successful response to the specified message.
+     *
+     * @param msg the message
+     * @return a successful response to the specified message.
+     */
+    private static Msg<?> newSuccessMsg(Msg<?> msg) {
+
+        return Msg.emptyMsg(MsgHeader.newResponseHeader(msg.getHeader(), OpCode.NOOP, 0, 0));
+    }
+}
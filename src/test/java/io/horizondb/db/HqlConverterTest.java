@@ -0,0 +1,338 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db;
+
+import io.horizondb.db.databases.DatabaseManager;
+import io.horizondb.db.databases.InMemoryDatabaseManager;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.parser.PreparedStatements;
+import io.horizondb.db.parser.QueryCache;
+import io.horizondb.db.parser.StatementKey;
+import io.horizondb.db.series.InMemoryTimeSeriesManager;
+import io.horizondb.db.series.InMemoryTimeSeriesPartitionManager;
+import io.horizondb.db.series.TimeSeriesManager;
+import io.horizondb.db.series.TimeSeriesPartitionManager;
+import io.horizondb.io.ReadableBuffer;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.MsgHeader;
+import io.horizondb.model.protocol.OpCode;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class HqlConverterTest {
+
+    /**
+     * The name of the query cache metrics.
+     */
+    private static final String QUERY_CACHE = MetricRegistry.name(QueryCache.class);
+
+    /**
+     * The database manager used during the tests.
+     */
+    private DatabaseManager databaseManager;
+
+    /**
+     * The messages received by the underlying database engine.
+     */
+    private List<Msg<?>> executed;
+
+    /**
+     * The traces of the messages received by the underlying database engine.
+     */
+    private List<QueryTrace> traces;
+
+    /**
+     * The converter under test.
+     */
+    private HqlConverter converter;
+
+    /**
+     * The registry in which the converter registers its metrics.
+     */
+    private MetricRegistry registry;
+
+    @Before
+    public void setUp() throws IOException, InterruptedException, HorizonDBException {
+
+        Configuration configuration = Configuration.newBuilder().build();
+
+        TimeSeriesPartitionManager partitionManager = new InMemoryTimeSeriesPartitionManager(configuration);
+        TimeSeriesManager timeSeriesManager = new InMemoryTimeSeriesManager(partitionManager, configuration);
+        this.databaseManager = new InMemoryDatabaseManager(configuration, timeSeriesManager);
+        this.databaseManager.start();
+        this.databaseManager.createDatabase(new DatabaseDefinition("test"), true);
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("Trade")
+                                                         .addDecimalField("price")
+                                                         .addIntegerField("volume")
+                                                         .build();
+
+        TimeSeriesDefinition definition = TimeSeriesDefinition.newBuilder("Dax").addRecordType(trade).build();
+        this.databaseManager.getDatabase("test").createTimeSeries(definition, true);
+
+        this.executed = new ArrayList<>();
+        this.traces = new ArrayList<>();
+
+        this.converter = new HqlConverter(configuration, new RecordingEngine(), new OperationMetrics());
+        this.converter.start();
+
+        this.registry = new MetricRegistry();
+        this.converter.register(this.registry);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+
+        this.converter.unregister(this.registry);
+        this.converter.shutdown();
+        this.databaseManager.shutdown();
+    }
+
+    @Test
+    public void testSelectQueriesAreCached() throws IOException {
+
+        execute("SELECT * FROM Dax;");
+        execute("SELECT * FROM Dax;");
+        execute("select * FROM Dax;");
+
+        assertEquals(3, this.executed.size());
+        assertEquals(OpCode.SELECT, this.executed.get(0).getOpCode());
+        assertEquals(this.executed.get(0).getPayload(), this.executed.get(1).getPayload());
+
+        assertEquals(Long.valueOf(3), getGaugeValue("requestCount"));
+        assertEquals(Double.valueOf(1.0 / 3), getGaugeValue("hitRate"));
+        assertEquals(Long.valueOf(2), getGaugeValue("size"));
+    }
+
+    @Test
+    public void testSchemaChangeInvalidatesTheCachedQueries() throws IOException {
+
+        execute("SELECT * FROM Dax;");
+        execute("SELECT * FROM Dax;");
+
+        assertEquals(Long.valueOf(1), getGaugeValue("size"));
+
+        execute("DROP TIMESERIES Dax;");
+
+        assertEquals(OpCode.DROP_TIMESERIES, this.executed.get(2).getOpCode());
+
+        execute("SELECT * FROM Dax;");
+        execute("SELECT * FROM Dax;");
+
+        // SELECT miss, SELECT hit, SELECT miss, SELECT hit
+        assertEquals(Long.valueOf(4), getGaugeValue("requestCount"));
+        assertEquals(Double.valueOf(2.0 / 4), getGaugeValue("hitRate"));
+        assertEquals(Long.valueOf(2), getGaugeValue("size"));
+    }
+
+    @Test
+    public void testOnlySelectQueriesAreLookedUpInTheCache() throws IOException {
+
+        execute("INSERT INTO Dax.Trade (price, volume) VALUES (12.5, 10);");
+        execute("DROP TIMESERIES Dax;");
+
+        assertEquals(Long.valueOf(0), getGaugeValue("requestCount"));
+        assertEquals(Long.valueOf(0), getGaugeValue("size"));
+    }
+
+    @Test
+    public void testOnlySelectsAreTracedWhenTheSlowQueryLogIsEnabled() throws Exception {
+
+        Configuration configuration = Configuration.newBuilder().slowQueryThresholdInMillis(60000).build();
+
+        HqlConverter tracingConverter = new HqlConverter(configuration, new RecordingEngine(), new OperationMetrics());
+        tracingConverter.start();
+
+        try {
+
+            execute(tracingConverter, " select * FROM Dax;");
+            execute(tracingConverter, "DROP TIMESERIES Dax;");
+
+        } finally {
+
+            tracingConverter.shutdown();
+        }
+
+        assertEquals(2, this.traces.size());
+        assertNotNull(this.traces.get(0));
+        assertNull(this.traces.get(1));
+    }
+
+    @Test
+    public void testTracingIsDecidedFromTheParsedStatement() throws Exception {
+
+        Configuration configuration = Configuration.newBuilder().slowQueryThresholdInMillis(60000).build();
+
+        HqlConverter tracingConverter = new HqlConverter(configuration, new RecordingEngine(), new OperationMetrics());
+        tracingConverter.start();
+
+        try {
+
+            assertNotNull(execute(tracingConverter, "EXPLAIN SELECT * FROM Dax;").getTrace());
+            assertNull(execute(tracingConverter, "USE test;").getTrace());
+
+            execute(tracingConverter, "SELECT * FROM Dax;");
+
+            Msg<?> select = this.executed.get(this.executed.size() - 1);
+            assertEquals(OpCode.SELECT, select.getOpCode());
+
+            Cancellation cancellation = new Cancellation();
+            tracingConverter.execute(select, null, cancellation, null);
+
+            assertNotNull(cancellation.getTrace());
+
+        } finally {
+
+            tracingConverter.shutdown();
+        }
+    }
+
+    @Test
+    public void testNothingIsTracedWhenTheSlowQueryLogIsDisabled() throws IOException {
+
+        execute("SELECT * FROM Dax;");
+
+        assertEquals(1, this.traces.size());
+        assertNull(this.traces.get(0));
+    }
+
+    @Test
+    public void testStatementKeysFromDifferentSchemaGenerationsAreDistinct() {
+
+        StatementKey before = new StatementKey("test", "SELECT * FROM Dax;", 1);
+        StatementKey after = new StatementKey("test", "SELECT * FROM Dax;", 2);
+
+        assertFalse(before.equals(after));
+        assertEquals(before, new StatementKey("test", "SELECT * FROM Dax;", 1));
+    }
+
+    /**
+     * Executes the specified HQL query on the <code>test</code> database.
+     *
+     * @param query the HQL query
+     * @throws IOException if an I/O problem occurs
+     */
+    private void execute(String query) throws IOException {
+        execute(this.converter, query);
+    }
+
+    /**
+     * Executes the specified HQL query on the <code>test</code> database with the specified converter.
+     *
+     * @param converter the converter
+     * @param query the HQL query
+     * @return the signal used to stop the query, which carries its trace
+     * @throws IOException if an I/O problem occurs
+     */
+    private static Cancellation execute(HqlConverter converter, String query) throws IOException {
+
+        Msg<HqlQueryPayload> msg = Msg.newRequestMsg(OpCode.HQL_QUERY, new HqlQueryPayload("test", query));
+        Cancellation cancellation = new Cancellation();
+        converter.execute(msg, null, cancellation, null);
+        return cancellation;
+    }
+
+    /**
+     * Returns the value of the specified query cache gauge.
+     *
+     * @param name the gauge name
+     * @return the value of the specified query cache gauge
+     */
+    private Object getGaugeValue(String name) {
+
+        return ((Gauge<?>) this.registry.getGauges().get(MetricRegistry.name(QUERY_CACHE, name))).getValue();
+    }
+
+    /**
+     * <code>DatabaseEngine</code> that records the messages that it receives.
+     */
+    private final class RecordingEngine extends AbstractComponent implements DatabaseEngine {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DatabaseManager getDatabaseManager() {
+            return HqlConverterTest.this.databaseManager;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object execute(Msg<?> msg, 
+                              ReadableBuffer buffer, 
+                              Cancellation cancellation, 
+                              PreparedStatements preparedStatements) {
+            HqlConverterTest.this.executed.add(msg);
+            HqlConverterTest.this.traces.add(cancellation.getTrace());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object executeBatch(MsgHeader requestHeader, List<Msg<?>> batch, Cancellation cancellation) {
+            HqlConverterTest.this.executed.addAll(batch);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void register(MetricRegistry registry) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void unregister(MetricRegistry registry) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void doStart() {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void doShutdown() {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metric;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlushMetricsTest {
+
+    @Test
+    public void testUpdate() {
+
+        FlushMetrics metrics = new FlushMetrics("test");
+
+        assertEquals(0, metrics.getCompressionRatio(), 0);
+
+        metrics.update(2, 3, 1000, 250);
+        metrics.update(1, 1, 500, 250);
+
+        Map<String, Metric> map = metrics.getMetrics();
+
+        assertEquals(2, ((Histogram) map.get("test.memTimeSeries")).getCount());
+        assertEquals(2, ((Histogram) map.get("test.memTimeSeries")).getSnapshot().getMax());
+        assertEquals(3, ((Histogram) map.get("test.blocks")).getSnapshot().getMax());
+        assertEquals(250, ((Histogram) map.get("test.bytes")).getSnapshot().getMax());
+        assertEquals(1500, ((Counter) map.get("test.uncompressedBytes")).getCount());
+        assertEquals(500, ((Counter) map.get("test.writtenBytes")).getCount());
+        assertEquals(3.0, ((Double) ((Gauge<?>) map.get("test.compressionRatio")).getValue()).doubleValue(), 0);
+    }
+}
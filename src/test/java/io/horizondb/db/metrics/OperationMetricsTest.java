@@ -0,0 +1,51 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import io.horizondb.db.QueryType;
+import io.horizondb.model.protocol.OpCode;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class OperationMetricsTest {
+
+    @Test
+    public void testQueriesAreTimedUnderTheirOwnNames() {
+
+        OperationMetrics metrics = new OperationMetrics();
+
+        metrics.getTimer(QueryType.EXPLAIN).time().stop();
+        metrics.getErrors(QueryType.CANCEL).mark();
+
+        Map<String, Metric> map = metrics.getMetrics();
+
+        String prefix = OperationMetrics.NAME + ".query.";
+
+        assertSame(metrics.getTimer(QueryType.EXPLAIN), map.get(prefix + "explain.latency"));
+        assertEquals(1, ((Timer) map.get(prefix + "explain.latency")).getCount());
+        assertEquals(0, ((Timer) map.get(prefix + "profile.latency")).getCount());
+        assertEquals(0, metrics.getTimer(OpCode.SELECT).getCount());
+        assertSame(metrics.getErrors(QueryType.CANCEL), map.get(prefix + "cancel.errors"));
+        assertEquals(1, metrics.getErrors(QueryType.CANCEL).getCount());
+        assertEquals(0, metrics.getErrors(OpCode.SELECT).getCount());
+    }
+}
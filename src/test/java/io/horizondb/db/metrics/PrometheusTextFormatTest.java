@@ -0,0 +1,81 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusTextFormatTest {
+
+    @Test
+    public void testToName() {
+
+        assertEquals("io_horizondb_db_Operation_select_latency",
+                     PrometheusTextFormat.toName("io.horizondb.db.Operation.select.latency"));
+        assertEquals("_1st_metric", PrometheusTextFormat.toName("1st-metric"));
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+
+        MetricRegistry registry = new MetricRegistry();
+
+        registry.register("test.gauge", new Gauge<Integer>() {
+
+            @Override
+            public Integer getValue() {
+                return Integer.valueOf(5);
+            }
+        });
+
+        registry.register("test.text", new Gauge<String>() {
+
+            @Override
+            public String getValue() {
+                return "ignored";
+            }
+        });
+
+        registry.counter("test.counter").inc(3);
+        registry.meter("test.meter").mark(7);
+        registry.histogram("test.histogram").update(10);
+        registry.timer("test.timer").update(2, TimeUnit.SECONDS);
+
+        StringWriter writer = new StringWriter();
+
+        PrometheusTextFormat.write(registry, writer);
+
+        String text = writer.toString();
+
+        assertTrue(text.contains("# TYPE test_gauge gauge\ntest_gauge 5.0\n"));
+        assertTrue(!text.contains("test_text"));
+        assertTrue(text.contains("# TYPE test_counter gauge\ntest_counter 3.0\n"));
+        assertTrue(text.contains("# TYPE test_meter_total counter\ntest_meter_total 7.0\n"));
+        assertTrue(text.contains("# TYPE test_histogram summary\n"));
+        assertTrue(text.contains("test_histogram{quantile=\"0.99\"} 10.0\n"));
+        assertTrue(text.contains("test_histogram_count 1\n"));
+        assertTrue(text.contains("# TYPE test_timer_seconds summary\n"));
+        assertTrue(text.contains("test_timer_seconds{quantile=\"0.5\"} 2.0\n"));
+        assertTrue(text.contains("test_timer_seconds_count 1\n"));
+    }
+}
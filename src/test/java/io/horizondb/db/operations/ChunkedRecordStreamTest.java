@@ -1,5 +1,7 @@
 package io.horizondb.db.operations;
 
+import io.horizondb.db.QueryTrace;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.io.Buffer;
 import io.horizondb.io.ByteWriter;
 import io.horizondb.io.buffers.Buffers;
@@ -44,7 +46,7 @@ public class ChunkedRecordStreamTest {
 
         final int bufferSize = 200;
 
-        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize);
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize, new OperationMetrics());
 
         assertFalse(input.isEndOfInput());
 
@@ -88,7 +90,7 @@ public class ChunkedRecordStreamTest {
 
         final int bufferSize = 200;
 
-        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize);
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize, new OperationMetrics());
 
         assertFalse(input.isEndOfInput());
 
@@ -155,7 +157,9 @@ public class ChunkedRecordStreamTest {
 
         final int bufferSize = 200;
 
-        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize);
+        OperationMetrics metrics = new OperationMetrics();
+
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize, metrics);
 
         assertFalse(input.isEndOfInput());
 
@@ -173,6 +177,70 @@ public class ChunkedRecordStreamTest {
 
         assertEquals(expected, msg);
         assertTrue(input.isEndOfInput());
+        assertEquals(3, metrics.getSelectedRecords().getCount());
+        assertEquals(1, metrics.getStreamingTimer().getCount());
+
+        EasyMock.verify(iterator, context);
+    }
+
+    @SuppressWarnings("boxing")
+    @Test
+    public void testStreamWithTrace() throws Exception {
+
+        MsgHeader requestHeader = MsgHeader.newRequestHeader(OpCode.HQL_QUERY, 26);
+        ResourceIterator<Record> iterator = EasyMock.createMock(ResourceIterator.class);
+
+        TimeSeriesRecord first = new TimeSeriesRecord(0,
+                                                      TimeUnit.NANOSECONDS,
+                                                      FieldType.MILLISECONDS_TIMESTAMP,
+                                                      FieldType.BYTE);
+        first.setTimestampInNanos(0, 12000700);
+        first.setTimestampInMillis(1, 12);
+        first.setByte(2, 3);
+
+        TimeSeriesRecord second = new TimeSeriesRecord(0,
+                                                       TimeUnit.NANOSECONDS,
+                                                       FieldType.MILLISECONDS_TIMESTAMP,
+                                                       FieldType.BYTE);
+        second.setTimestampInNanos(0, 13000900);
+        second.setTimestampInMillis(1, 13);
+        second.setByte(2, 3);
+
+        EasyMock.expect(iterator.hasNext()).andReturn(true);
+        EasyMock.expect(iterator.next()).andReturn(first);
+        EasyMock.expect(iterator.hasNext()).andReturn(true);
+        EasyMock.expect(iterator.next()).andReturn(second);
+        EasyMock.expect(iterator.hasNext()).andReturn(false);
+        iterator.close();
+
+        ChannelHandlerContext context = EasyMock.createMock(ChannelHandlerContext.class);
+
+        EasyMock.replay(iterator, context);
+
+        final int bufferSize = 200;
+
+        QueryTrace trace = new QueryTrace("SELECT * FROM Dax", 0);
+
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, 
+                                                            iterator, 
+                                                            bufferSize, 
+                                                            new OperationMetrics(), 
+                                                            trace);
+
+        input.readChunk(context);
+
+        Buffer heapBuffer = Buffers.allocate(bufferSize);
+        writeRecord(heapBuffer, first);
+        writeRecord(heapBuffer, second);
+        heapBuffer.writeByte(Msg.END_OF_STREAM_MARKER);
+
+        assertTrue(input.isEndOfInput());
+        assertEquals(2, trace.getReturnedRecords());
+        assertEquals(heapBuffer.readableBytes(), trace.getReturnedBytes());
+
+        input.close();
+
+        assertFalse(trace.complete());
 
         EasyMock.verify(iterator, context);
     }
@@ -222,7 +290,7 @@ public class ChunkedRecordStreamTest {
 
         final int bufferSize = 20;
 
-        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize);
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize, new OperationMetrics());
 
         assertFalse(input.isEndOfInput());
 
@@ -300,7 +368,7 @@ public class ChunkedRecordStreamTest {
 
         final int bufferSize = 27;
 
-        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize);
+        ChunkedRecordStream input = new ChunkedRecordStream(requestHeader, iterator, bufferSize, new OperationMetrics());
 
         assertFalse(input.isEndOfInput());
 
@@ -0,0 +1,147 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.OpCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OperationExecutorsTest {
+
+    @Test
+    public void testRequestsOfAConnectionAreExecutedInOrder() throws Exception {
+
+        Configuration configuration = Configuration.newBuilder()
+                                                   .queryThreads(4)
+                                                   .queryQueueSize(400)
+                                                   .build();
+
+        OperationExecutors executors = new OperationExecutors(configuration);
+        executors.start();
+
+        try {
+
+            Msg<HqlQueryPayload> request = Msg.newRequestMsg(OpCode.HQL_QUERY,
+                                                             new HqlQueryPayload("test", "SELECT * FROM Dax;"));
+
+            int numberOfRequests = 100;
+
+            final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch latch = new CountDownLatch(numberOfRequests);
+
+            int connectionIndex = executors.newConnectionIndex();
+
+            for (int i = 0; i < numberOfRequests; i++) {
+
+                final int requestIndex = i;
+
+                executors.execute(connectionIndex, request, new Runnable() {
+
+                    @Override
+                    public void run() {
+                        executed.add(Integer.valueOf(requestIndex));
+                        latch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < numberOfRequests; i++) {
+                assertEquals(Integer.valueOf(i), executed.get(i));
+            }
+
+        } finally {
+
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    public void testSelectIsExecutedAfterThePreviousInsertOfTheConnection() throws Exception {
+
+        OperationExecutors executors = new OperationExecutors(Configuration.newBuilder().build());
+        executors.start();
+
+        try {
+
+            Msg<HqlQueryPayload> insert = 
+                    Msg.newRequestMsg(OpCode.HQL_QUERY,
+                                      new HqlQueryPayload("test", "INSERT INTO Dax.Trade VALUES ('2014-05-23', 10);"));
+
+            Msg<HqlQueryPayload> select = Msg.newRequestMsg(OpCode.HQL_QUERY,
+                                                            new HqlQueryPayload("test", "SELECT * FROM Dax;"));
+
+            final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+            final CountDownLatch latch = new CountDownLatch(2);
+
+            ConnectionExecutor connectionExecutor = executors.newConnectionExecutor();
+
+            connectionExecutor.execute(insert, new Runnable() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    executed.add("INSERT");
+                    latch.countDown();
+                }
+            }, new NoopTask());
+
+            connectionExecutor.execute(select, new Runnable() {
+
+                @Override
+                public void run() {
+                    executed.add("SELECT");
+                    latch.countDown();
+                }
+            }, new NoopTask());
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("INSERT", "SELECT"), executed);
+
+        } finally {
+
+            executors.shutdown();
+        }
+    }
+
+    /**
+     * Task doing nothing.
+     */
+    private static final class NoopTask implements Runnable {
+
+        @Override
+        public void run() {
+        }
+    }
+}
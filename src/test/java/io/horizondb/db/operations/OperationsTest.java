@@ -0,0 +1,72 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.operations;
+
+import io.horizondb.model.protocol.HqlQueryPayload;
+import io.horizondb.model.protocol.Msg;
+import io.horizondb.model.protocol.OpCode;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OperationsTest {
+
+    @Test
+    public void testGetOperationTypeForHqlQueries() throws IOException {
+
+        assertEquals(OperationType.QUERY, Operations.getOperationTypeFor(newMsg(" select * FROM Dax;")));
+        assertEquals(OperationType.MUTATION, 
+                     Operations.getOperationTypeFor(newMsg("INSERT INTO Dax.Trade VALUES ('2014-05-23', 10);")));
+        assertEquals(OperationType.MUTATION, Operations.getOperationTypeFor(newMsg("EXECUTE insertTrade (10);")));
+        assertEquals(OperationType.ADMIN, Operations.getOperationTypeFor(newMsg("CREATE DATABASE test;")));
+        assertEquals(OperationType.ADMIN, Operations.getOperationTypeFor(newMsg("CANCEL;")));
+        assertEquals(OperationType.QUERY, Operations.getOperationTypeFor(newMsg("PROFILE SELECT * FROM Dax;")));
+        assertEquals(OperationType.ADMIN, Operations.getOperationTypeFor(newMsg("EXPLAIN SELECT * FROM Dax;")));
+        assertEquals(OperationType.QUERY, Operations.getOperationTypeFor(newMsg("\n\tSeLeCt * FROM Dax;")));
+        assertEquals(OperationType.ADMIN, Operations.getOperationTypeFor(newMsg("SEL")));
+        assertEquals(OperationType.ADMIN, Operations.getOperationTypeFor(newMsg("")));
+    }
+
+    @Test
+    public void testIsCancel() throws IOException {
+
+        assertTrue(Operations.isCancel(newMsg(" cancel;")));
+        assertFalse(Operations.isCancel(newMsg("USE cancel;")));
+        assertFalse(Operations.isCancel(newMsg("SELECT * FROM Dax;")));
+    }
+
+    @Test
+    public void testStartsWithKeywordChecksTheEndOfTheKeyword() {
+
+        assertTrue(Operations.startsWithKeyword("SELECT", "SELECT"));
+        assertTrue(Operations.startsWithKeyword("  select * FROM Dax;", "SELECT"));
+        assertTrue(Operations.startsWithKeyword("SELECT\n*", "SELECT"));
+        assertTrue(Operations.startsWithKeyword("SELECT(", "SELECT"));
+        assertFalse(Operations.startsWithKeyword("SELECTION", "SELECT"));
+        assertFalse(Operations.startsWithKeyword("select_all", "SELECT"));
+        assertFalse(Operations.startsWithKeyword("SELECT2", "SELECT"));
+        assertFalse(Operations.startsWithKeyword("INSERTED", "INSERT"));
+    }
+
+    private static Msg<HqlQueryPayload> newMsg(String query) throws IOException  {
+
+        HqlQueryPayload payload = new HqlQueryPayload("test", query);
+        return Msg.newRequestMsg(OpCode.HQL_QUERY, payload);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExecuteStatementTest {
+
+    @Test
+    public void testParseWithParameters() {
+
+        ExecuteStatement statement = ExecuteStatement.parse(" execute insertTrade ('2014-05-23 09:44:30', 125E-1, 10) ; ");
+
+        assertEquals("insertTrade", statement.getName());
+        assertEquals(Arrays.asList("'2014-05-23 09:44:30'", "125E-1", "10"), statement.getParameters());
+    }
+
+    @Test
+    public void testParseWithoutParameters() {
+
+        ExecuteStatement statement = ExecuteStatement.parse("EXECUTE insertTrade;");
+
+        assertEquals("insertTrade", statement.getName());
+        assertEquals(Collections.emptyList(), statement.getParameters());
+    }
+
+    @Test
+    public void testParseWithTimeUnits() {
+
+        ExecuteStatement statement = ExecuteStatement.parse("EXECUTE insertTrade (12 ms, 5s, 3 µs);");
+
+        assertEquals(Arrays.asList("12ms", "5s", "3µs"), statement.getParameters());
+    }
+
+    @Test
+    public void testParseWithQueriesThatCannotBeScanned() {
+
+        assertNull(ExecuteStatement.parse("SELECT * FROM Dax;"));
+        assertNull(ExecuteStatement.parse("EXECUTEinsertTrade;"));
+        assertNull(ExecuteStatement.parse("EXECUTE insertTrade (10"));
+        assertNull(ExecuteStatement.parse("EXECUTE insertTrade (10);"  + " EXECUTE insertTrade (11);"));
+        assertNull(ExecuteStatement.parse("EXECUTE insertTrade (?, 10);"));
+        assertNull(ExecuteStatement.parse("EXECUTE insertTrade (10)"));
+    }
+}
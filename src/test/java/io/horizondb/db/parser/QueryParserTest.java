@@ -13,8 +13,12 @@
  */
 package io.horizondb.db.parser;
 
+import io.horizondb.db.Cancellation;
 import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.OperationContext;
+import io.horizondb.db.Query;
+import io.horizondb.db.QueryContext;
 import io.horizondb.db.databases.Database;
 import io.horizondb.db.databases.DatabaseManager;
 import io.horizondb.db.databases.InMemoryDatabaseManager;
@@ -41,6 +45,7 @@ import io.horizondb.model.schema.RecordTypeDefinition;
 import io.horizondb.model.schema.TimeSeriesDefinition;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -382,6 +387,77 @@ public class QueryParserTest {
         }
     }
     
+    @Test
+    public void testParseInsertWithMultipleRows() throws HorizonDBException, IOException  {
+
+        createDatabaseAndTimeSeries();
+
+        Msg<InsertPayload> msg = QueryParser.parse(this.configuration,
+                                                   this.databaseManager,
+                                                   newMsg("test", "INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:31', 125E-1, 10), ('2014-05-23 09:44:30', 13, 5);"));
+
+        InsertPayload payload = msg.getPayload();
+        assertEquals("Dax", payload.getSeries());
+
+        TimeSeriesDefinition definition = getTimeSeriesDefinition();
+        ReadableBuffer buffer = payload.getBuffer(); 
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(definition, buffer)) {
+            assertTrue(iterator.hasNext());
+            BinaryTimeSeriesRecord binaryRecord = iterator.next();
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, "2014-05-23 09:44:30"),
+                         binaryRecord.getTimestampInMillis(0));
+            assertEquals(13.0, binaryRecord.getDouble(1), 0.0);
+            assertEquals(5L, binaryRecord.getLong(2));
+            assertTrue(iterator.hasNext());
+            binaryRecord = iterator.next();
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, "2014-05-23 09:44:31"),
+                         binaryRecord.getTimestampInMillis(0));
+            assertEquals(12.5, binaryRecord.getDouble(1), 0.0);
+            assertEquals(10L, binaryRecord.getLong(2));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testParseBatchInsert() throws HorizonDBException, IOException  {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:31', 125E-1, 10);"
+                                                     + "INSERT INTO Dax.Quote (timestamp, bidPrice, askPrice, bidVolume, askVolume) VALUES ('2014-05-23 09:44:30', 12, 13, 5, 6);"));
+
+        assertTrue(statement instanceof List);
+
+        @SuppressWarnings("unchecked")
+        List<Msg<InsertPayload>> batch = (List<Msg<InsertPayload>>) statement;
+        assertEquals(1, batch.size());
+
+        InsertPayload payload = batch.get(0).getPayload();
+        assertEquals("Dax", payload.getSeries());
+
+        TimeSeriesDefinition definition = getTimeSeriesDefinition();
+        ReadableBuffer buffer = payload.getBuffer(); 
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(definition, buffer)) {
+            assertTrue(iterator.hasNext());
+            BinaryTimeSeriesRecord binaryRecord = iterator.next();
+            assertEquals(0, binaryRecord.getType());
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, "2014-05-23 09:44:30"),
+                         binaryRecord.getTimestampInMillis(0));
+            assertTrue(iterator.hasNext());
+            binaryRecord = iterator.next();
+            assertEquals(1, binaryRecord.getType());
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, "2014-05-23 09:44:31"),
+                         binaryRecord.getTimestampInMillis(0));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
     @Test
     public void testParseInsertWithInvalidTimeValue() throws HorizonDBException, IOException  {
         
@@ -565,6 +641,556 @@ public class QueryParserTest {
         }
     }
     
+    @Test
+    public void testParseSelectWithAggregates() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "SELECT count(*), avg(Trade.price), max(Trade.volume) FROM Dax "
+                                                     + "WHERE timestamp >= '2014-05-23 09:00:00' GROUP BY time(1m);"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseSelectWithAggregatesWithoutGroupBy() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "SELECT first(Quote.bidPrice), last(Quote.bidPrice) FROM Dax;"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseExplainSelect() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "EXPLAIN SELECT * FROM Dax "
+                                                     + "WHERE timestamp >= '2014-05-23 09:00:00';"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseProfileSelect() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "PROFILE SELECT count(*) FROM Dax "
+                                                     + "WHERE timestamp >= '2014-05-23 09:00:00' GROUP BY time(1m);"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseSelectWithAggregatesAndNonAggregatedFields() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT Trade.price, avg(Trade.price) FROM Dax GROUP BY time(1m);"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("Aggregate functions cannot be mixed with non aggregated fields", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithUnknownAggregateFunction() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT median(Trade.price) FROM Dax GROUP BY time(1m);"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("Unknown aggregate function: median", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithGroupByWithoutAggregates() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT * FROM Dax GROUP BY time(10s);"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("A GROUP BY clause can only be used with aggregate functions", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithOrderByDescAndLimit() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "SELECT * FROM Dax WHERE timestamp < '2014-05-23 09:00:00' "
+                                                     + "ORDER BY timestamp DESC LIMIT 100;"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseSelectWithOrderByOnOtherField() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT * FROM Dax ORDER BY price DESC;"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("The records can only be ordered by timestamp not by price", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithInvalidLimit() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT * FROM Dax LIMIT 0;"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("The limit 0 must be greater than zero", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithAggregatesAndOrderByDesc() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT max(Trade.price) FROM Dax GROUP BY time(1m) "
+                                      + "ORDER BY timestamp DESC;"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("ORDER BY timestamp DESC cannot be used with aggregate functions", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithContinuationToken() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "SELECT * FROM Dax LIMIT 100 AFTER '1400830000000000000:2';"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseSelectWithInvalidContinuationToken() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT * FROM Dax LIMIT 100 AFTER 'abc';"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("The continuation token abc is invalid", e);
+        }
+    }
+
+    @Test
+    public void testParseSelectWithTimeout() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "SELECT * FROM Dax LIMIT 100 TIMEOUT 5000;"));
+
+        assertTrue(statement instanceof Query);
+    }
+
+    @Test
+    public void testParseSelectWithInvalidTimeout() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              null,
+                              null,
+                              newMsg("test", "SELECT * FROM Dax TIMEOUT 0;"));
+            fail();
+
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("The timeout 0 must be greater than zero", e);
+        }
+    }
+
+    @Test
+    public void testParseCancel() throws HorizonDBException, IOException {
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             null,
+                                             null,
+                                             newMsg("test", "CANCEL;"));
+
+        assertTrue(statement instanceof Query);
+
+        Cancellation connection = new Cancellation();
+        Cancellation select = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+        Cancellation cancel = connection.newQueryCancellation(Cancellation.NO_TIMEOUT);
+
+        Msg<HqlQueryPayload> request = newMsg("test", "CANCEL;");
+        QueryContext context = new QueryContext(OperationContext.newBuilder(this.databaseManager)
+                                                                .cancellation(cancel)
+                                                                .build(),
+                                                request.getHeader(),
+                                                "test");
+        ((Query) statement).execute(context);
+
+        assertTrue(select.isCancelled());
+        assertFalse(cancel.isCancelled());
+    }
+
+    @Test
+    public void testParsePrepareAndExecuteInsert() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        SchemaVersions schemaVersions = new SchemaVersions();
+        PreparedStatements preparedStatements = new PreparedStatements(10);
+
+        prepareInsert(schemaVersions, preparedStatements);
+
+        assertEquals(1, preparedStatements.size());
+
+        @SuppressWarnings("unchecked")
+        Msg<InsertPayload> msg = (Msg<InsertPayload>) QueryParser.parse(this.configuration,
+                                                                        this.databaseManager,
+                                                                        schemaVersions,
+                                                                        preparedStatements,
+                                                                        newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30', 10);"));
+
+        InsertPayload payload = msg.getPayload();
+        assertEquals("Dax", payload.getSeries());
+        assertEquals(1, payload.getRecordType());
+
+        TimeSeriesDefinition definition = getTimeSeriesDefinition();
+        ReadableBuffer buffer = payload.getBuffer();
+
+        try (BinaryTimeSeriesRecordIterator iterator = new BinaryTimeSeriesRecordIterator(definition, buffer)) {
+            assertTrue(iterator.hasNext());
+            BinaryTimeSeriesRecord binaryRecord = iterator.next();
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, "2014-05-23 09:44:30"),
+                         binaryRecord.getTimestampInMillis(0));
+            assertEquals(12.5, binaryRecord.getDouble(1), 0.0);
+            assertEquals(10L, binaryRecord.getLong(2));
+            assertFalse(iterator.hasNext());
+        }
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              schemaVersions,
+                              preparedStatements,
+                              newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30');"));
+            fail();
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("The statement expects 2 parameters but 1 have been specified", e);
+        }
+    }
+
+    @Test
+    public void testParsePrepareAndExecuteInsertWithSeveralRows() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        SchemaVersions schemaVersions = new SchemaVersions();
+        PreparedStatements preparedStatements = new PreparedStatements(10);
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             schemaVersions,
+                                             preparedStatements,
+                                             newMsg("test", "PREPARE insertTrades AS INSERT INTO Dax.Trade (timestamp, price, volume) "
+                                                     + "VALUES (?, 125E-1, ?), ('2014-05-23 09:44:00', 13, 5);"));
+
+        Msg<HqlQueryPayload> request = newMsg("test", "");
+        ((Query) statement).execute(new QueryContext(OperationContext.newBuilder(this.databaseManager).build(),
+                                                     request.getHeader(),
+                                                     "test"));
+
+        assertExecutedTrades(schemaVersions, 
+                             preparedStatements, 
+                             "EXECUTE insertTrades ('2014-05-23 09:44:30', 10);",
+                             "2014-05-23 09:44:00", 
+                             "2014-05-23 09:44:30");
+
+        assertExecutedTrades(schemaVersions, 
+                             preparedStatements, 
+                             "EXECUTE insertTrades ('2014-05-23 09:43:30', 10);",
+                             "2014-05-23 09:43:30", 
+                             "2014-05-23 09:44:00");
+    }
+
+    @Test
+    public void testParseExecuteWithUnknownStatement() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              new SchemaVersions(),
+                              new PreparedStatements(10),
+                              newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30', 10);"));
+            fail();
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("No statement insertTrade has been prepared", e);
+        }
+    }
+
+    @Test
+    public void testParseExecuteWithStatementPreparedOnAnotherConnection() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        SchemaVersions schemaVersions = new SchemaVersions();
+
+        prepareInsert(schemaVersions, new PreparedStatements(10));
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              schemaVersions,
+                              new PreparedStatements(10),
+                              newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30', 10);"));
+            fail();
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("No statement insertTrade has been prepared", e);
+        }
+    }
+
+    @Test
+    public void testParseExecuteAfterTimeSeriesModification() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        SchemaVersions schemaVersions = new SchemaVersions();
+        PreparedStatements preparedStatements = new PreparedStatements(10);
+
+        prepareInsert(schemaVersions, preparedStatements);
+
+        schemaVersions.timeSeriesChanged("test", "Other");
+
+        assertNotNull(QueryParser.parse(this.configuration,
+                                        this.databaseManager,
+                                        schemaVersions,
+                                        preparedStatements,
+                                        newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30', 10);")));
+
+        schemaVersions.timeSeriesChanged("test", "DAX");
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              schemaVersions,
+                              preparedStatements,
+                              newMsg("test", "EXECUTE insertTrade ('2014-05-23 09:44:30', 10);"));
+            fail();
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("has been modified since the statement has been prepared", e);
+        }
+
+        assertEquals(0, preparedStatements.size());
+    }
+
+    @Test
+    public void testParseWithNonReservedKeywordAsIdentifier() throws HorizonDBException, IOException {
+
+        Msg<CreateDatabasePayload> msg = QueryParser.parse(this.configuration,
+                                                           this.databaseManager,
+                                                           newMsg("", "CREATE DATABASE limit;"));
+
+        assertEquals(new DatabaseDefinition("limit"), msg.getPayload().getDefinition());
+
+        Msg<UseDatabasePayload> use = QueryParser.parse(this.configuration,
+                                                        this.databaseManager,
+                                                        newMsg("", "USE prepare;"));
+
+        assertEquals("prepare", use.getPayload().getDatabase());
+
+        use = QueryParser.parse(this.configuration, this.databaseManager, newMsg("", "USE cancel;"));
+
+        assertEquals("cancel", use.getPayload().getDatabase());
+
+        use = QueryParser.parse(this.configuration, this.databaseManager, newMsg("", "USE timeout;"));
+
+        assertEquals("timeout", use.getPayload().getDatabase());
+
+        use = QueryParser.parse(this.configuration, this.databaseManager, newMsg("", "USE explain;"));
+
+        assertEquals("explain", use.getPayload().getDatabase());
+
+        use = QueryParser.parse(this.configuration, this.databaseManager, newMsg("", "USE profile;"));
+
+        assertEquals("profile", use.getPayload().getDatabase());
+    }
+
+    @Test
+    public void testParseInsertWithParameterMarker() throws HorizonDBException, IOException {
+
+        createDatabaseAndTimeSeries();
+
+        try {
+
+            QueryParser.parse(this.configuration,
+                              this.databaseManager,
+                              newMsg("test",
+                                     "INSERT INTO Dax.Trade (timestamp, price, volume) VALUES ('2014-05-23 09:44:30', ?, 10);"));
+            fail();
+        } catch (BadHqlGrammarException e) {
+            assertErrorMessageContains("Parameter markers are only allowed within prepared statements", e);
+        }
+    }
+
+    /**
+     * Executes the specified <code>insertTrades</code> statement and checks that the trades are inserted in 
+     * timestamp order.
+     * 
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
+     * @param query the <code>EXECUTE</code> query
+     * @param firstTimestamp the timestamp of the first trade
+     * @param secondTimestamp the timestamp of the second trade
+     */
+    private void assertExecutedTrades(SchemaVersions schemaVersions, 
+                                      PreparedStatements preparedStatements, 
+                                      String query,
+                                      String firstTimestamp,
+                                      String secondTimestamp) throws IOException, HorizonDBException {
+
+        @SuppressWarnings("unchecked")
+        Msg<InsertPayload> msg = (Msg<InsertPayload>) QueryParser.parse(this.configuration,
+                                                                        this.databaseManager,
+                                                                        schemaVersions,
+                                                                        preparedStatements,
+                                                                        newMsg("test", query));
+
+        ReadableBuffer buffer = msg.getPayload().getBuffer();
+
+        try (BinaryTimeSeriesRecordIterator iterator = 
+                new BinaryTimeSeriesRecordIterator(getTimeSeriesDefinition(), buffer)) {
+
+            assertTrue(iterator.hasNext());
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, firstTimestamp), 
+                         iterator.next().getTimestampInMillis(0));
+            assertTrue(iterator.hasNext());
+            assertEquals(parseDateTime(EUROPE_BERLIN_TIMEZONE, secondTimestamp), 
+                         iterator.next().getTimestampInMillis(0));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Prepares the <code>insertTrade</code> statement.
+     * 
+     * @param schemaVersions the versions of the time series schemas
+     * @param preparedStatements the statements prepared on the connection
+     */
+    private void prepareInsert(SchemaVersions schemaVersions, PreparedStatements preparedStatements) 
+            throws IOException, HorizonDBException {
+
+        Object statement = QueryParser.parse(this.configuration,
+                                             this.databaseManager,
+                                             schemaVersions,
+                                             preparedStatements,
+                                             newMsg("test", "PREPARE insertTrade AS INSERT INTO Dax.Trade (timestamp, price, volume) VALUES (?, 125E-1, ?);"));
+
+        assertTrue(statement instanceof Query);
+
+        Msg<HqlQueryPayload> request = newMsg("test", "");
+        QueryContext context = new QueryContext(OperationContext.newBuilder(this.databaseManager).build(),
+                                                request.getHeader(),
+                                                "test");
+        ((Query) statement).execute(context);
+    }
+
     /**
      * Creates a new HQL query message for use within the tests.
      * 
@@ -0,0 +1,155 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.BlockIterators;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockStatisticsTest {
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_MILLIS = TimeUtils.parseDateTime("2013-11-26 12:00:00.000");
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(TIME_IN_MILLIS);
+
+    private TimeSeriesDefinition definition;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        DatabaseDefinition databaseDefinition = new DatabaseDefinition("test");
+
+        this.definition = databaseDefinition.newTimeSeriesDefinitionBuilder("test")
+                                            .timeUnit(TimeUnit.NANOSECONDS)
+                                            .addRecordType(recordTypeDefinition)
+                                            .build();
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+
+        BlockStatistics statistics = computeStatistics(newBlock());
+
+        assertEquals(TIME_IN_NANOS + 12000700, statistics.getFirstTimestampInNanos());
+        assertEquals(TIME_IN_NANOS + 13004400, statistics.getLastTimestampInNanos());
+        assertEquals(3, statistics.getCount());
+        assertEquals(3, statistics.getCount(0));
+        assertEquals(7.0, statistics.getSum(0, 2), 0.0);
+        assertEquals(1.0, statistics.getMin(0, 2), 0.0);
+        assertEquals(3.0, statistics.getMax(0, 2), 0.0);
+    }
+
+    @Test
+    public void testParseFrom() throws Exception {
+
+        BlockStatistics statistics = computeStatistics(newBlock());
+
+        Buffer buffer = Buffers.allocate(statistics.computeSerializedSize());
+        statistics.writeTo(buffer);
+
+        assertEquals(statistics, BlockStatistics.parseFrom(buffer));
+    }
+
+    @Test
+    public void testAddStatistics() throws Exception {
+
+        BlockStatistics statistics = computeStatistics(newBlock());
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 14000000)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 14)
+                                                               .setByte(2, 5)
+                                                               .build();
+
+        BlockStatistics.Builder builder = BlockStatistics.newBuilder(this.definition).add(statistics);
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator = 
+                new BinaryTimeSeriesRecordIterator(this.definition, BlockIterators.singleton(block))) {
+
+            while (iterator.hasNext()) {
+                builder.add(iterator.next());
+            }
+        }
+
+        BlockStatistics merged = builder.build();
+
+        assertEquals(TIME_IN_NANOS + 12000700, merged.getFirstTimestampInNanos());
+        assertEquals(TIME_IN_NANOS + 14000000, merged.getLastTimestampInNanos());
+        assertEquals(4, merged.getCount(0));
+        assertEquals(12.0, merged.getSum(0, 2), 0.0);
+        assertEquals(1.0, merged.getMin(0, 2), 0.0);
+        assertEquals(5.0, merged.getMax(0, 2), 0.0);
+    }
+
+    private DataBlock newBlock() throws Exception {
+
+        return new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                                    .setByte(2, 3)
+                                                    .newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 3)
+                                                    .newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 1)
+                                                    .build();
+    }
+
+    private BlockStatistics computeStatistics(DataBlock block) throws Exception {
+
+        BlockStatistics.Builder builder = BlockStatistics.newBuilder(this.definition);
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator = 
+                new BinaryTimeSeriesRecordIterator(this.definition, BlockIterators.singleton(block))) {
+
+            while (iterator.hasNext()) {
+                builder.add(iterator.next());
+            }
+        }
+
+        return builder.build();
+    }
+}
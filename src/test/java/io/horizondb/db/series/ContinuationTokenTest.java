@@ -0,0 +1,135 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.BlockIterators;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ContinuationTokenTest {
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_MILLIS = TimeUtils.parseDateTime("2013-11-26 12:00:00.000");
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(TIME_IN_MILLIS);
+
+    private TimeSeriesDefinition definition;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        DatabaseDefinition databaseDefinition = new DatabaseDefinition("test");
+
+        this.definition = databaseDefinition.newTimeSeriesDefinitionBuilder("test")
+                                            .timeUnit(TimeUnit.NANOSECONDS)
+                                            .addRecordType(recordTypeDefinition)
+                                            .build();
+    }
+
+    @Test
+    public void testParse() {
+
+        ContinuationToken token = ContinuationToken.parse(TIME_IN_NANOS + ":2");
+
+        assertEquals(TIME_IN_NANOS, token.getTimestampInNanos());
+        assertEquals(2, token.getNumberOfRecords());
+        assertEquals(TIME_IN_NANOS + ":2", token.toString());
+    }
+
+    @Test
+    public void testParseWithInvalidToken() {
+
+        try {
+
+            ContinuationToken.parse("abc");
+            fail();
+
+        } catch (IllegalArgumentException e) {
+            assertEquals("The continuation token abc is invalid", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testResume() throws Exception {
+
+        ContinuationToken token = new ContinuationToken(TIME_IN_NANOS + 13000900, 1);
+
+        try (ResourceIterator<Record> iterator = token.resume(this.definition, newIterator(newBlock()))) {
+
+            assertTrue(iterator.hasNext());
+            Record record = iterator.next();
+            assertFalse(record.isDelta());
+            assertEquals(TIME_IN_NANOS + 13000900, record.getTimestampInNanos(0));
+            assertEquals(2, record.getByte(2));
+
+            assertTrue(iterator.hasNext());
+            record = iterator.next();
+            assertTrue(record.isDelta());
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    private DataBlock newBlock() throws Exception {
+
+        return new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 3)
+                                                    .newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 2)
+                                                    .newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 1)
+                                                    .build();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private ResourceIterator<Record> newIterator(DataBlock block) throws Exception {
+
+        return (ResourceIterator) new BinaryTimeSeriesRecordIterator(this.definition, BlockIterators.singleton(block));
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.io.files.RandomAccessDataFile;
+import io.horizondb.io.files.SeekableFileDataInput;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataFileHandleTest {
+
+    /**
+     * The content of the test file.
+     */
+    private static final byte[] CONTENT = {1, 2, 3, 4};
+
+    /**
+     * The test directory.
+     */
+    private Path testDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+
+        this.testDirectory = Files.createTempDirectory(this.getClass().getSimpleName());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        FileUtils.forceDelete(this.testDirectory);
+        this.testDirectory = null;
+    }
+
+    @Test
+    public void testNoFileIsOpenedUntilTheFirstAccess() throws Exception {
+
+        Path path = this.testDirectory.resolve("test.ts");
+
+        // The file does not exist yet: creating the handle must not access it.
+        DataFileHandle handle = new DataFileHandle(null, path);
+
+        assertFalse(handle.isOpen());
+        assertFalse(Files.exists(path));
+
+        Files.write(path, CONTENT);
+
+        try {
+
+            assertContent(handle);
+            assertTrue(handle.isOpen());
+
+        } finally {
+
+            handle.close();
+        }
+    }
+
+    @Test
+    public void testReadAfterClose() throws Exception {
+
+        Path path = Files.write(this.testDirectory.resolve("test.ts"), CONTENT);
+
+        DataFileHandle handle = new DataFileHandle(null, path);
+
+        try {
+
+            assertContent(handle);
+
+            handle.close();
+            assertFalse(handle.isOpen());
+
+            assertContent(handle);
+            assertTrue(handle.isOpen());
+
+        } finally {
+
+            handle.close();
+        }
+    }
+
+    /**
+     * Checks that the file of the specified handle can be read.
+     *
+     * @param handle the handle
+     */
+    private static void assertContent(DataFileHandle handle) throws Exception {
+
+        RandomAccessDataFile file = handle.acquire(CONTENT.length);
+
+        try (SeekableFileDataInput input = file.newInput()) {
+
+            assertEquals(CONTENT.length, input.size());
+
+            for (int i = 0; i < CONTENT.length; i++) {
+                assertEquals(CONTENT[i], input.readByte());
+            }
+
+        } finally {
+
+            handle.release();
+        }
+    }
+}
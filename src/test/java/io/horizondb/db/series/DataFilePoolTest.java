@@ -0,0 +1,149 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Configuration;
+import io.horizondb.io.files.FileUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DataFilePoolTest {
+
+    /**
+     * The test directory.
+     */
+    private Path testDirectory;
+
+    private DataFilePool pool;
+
+    @Before
+    public void setUp() throws Exception {
+
+        this.testDirectory = Files.createTempDirectory(this.getClass().getSimpleName());
+
+        Configuration configuration = Configuration.newBuilder()
+                                                   .dataDirectory(this.testDirectory)
+                                                   .maximumNumberOfOpenPartitionFiles(2)
+                                                   .build();
+
+        this.pool = new DataFilePool(configuration);
+        this.pool.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        this.pool.shutdown();
+        this.pool = null;
+        FileUtils.forceDelete(this.testDirectory);
+        this.testDirectory = null;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIsClosed() throws Exception {
+
+        DataFileHandle first = newHandle("first.ts");
+        DataFileHandle second = newHandle("second.ts");
+        DataFileHandle third = newHandle("third.ts");
+
+        assertFalse(first.isOpen());
+
+        acquireAndRelease(first);
+        acquireAndRelease(second);
+
+        assertEquals(2, this.pool.getNumberOfOpenFiles());
+
+        acquireAndRelease(first);
+        acquireAndRelease(third);
+
+        assertEquals(2, this.pool.getNumberOfOpenFiles());
+        assertTrue(first.isOpen());
+        assertFalse(second.isOpen());
+        assertTrue(third.isOpen());
+
+        acquireAndRelease(second);
+
+        assertTrue(second.isOpen());
+        assertFalse(first.isOpen());
+        assertEquals(2, this.pool.getNumberOfOpenFiles());
+    }
+
+    @Test
+    public void testFileInUseIsNotClosed() throws Exception {
+
+        DataFileHandle first = newHandle("first.ts");
+        DataFileHandle second = newHandle("second.ts");
+        DataFileHandle third = newHandle("third.ts");
+
+        first.acquire(0);
+
+        acquireAndRelease(second);
+        acquireAndRelease(third);
+
+        assertTrue(first.isOpen());
+        assertFalse(second.isOpen());
+        assertTrue(third.isOpen());
+
+        first.release();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+
+        DataFileHandle first = newHandle("first.ts");
+
+        acquireAndRelease(first);
+
+        assertEquals(1, this.pool.getNumberOfOpenFiles());
+
+        first.close();
+
+        assertFalse(first.isOpen());
+        assertEquals(0, this.pool.getNumberOfOpenFiles());
+    }
+
+    /**
+     * Creates a new handle for an empty file with the specified name.
+     * 
+     * @param filename the file name
+     * @return a new handle
+     * @throws Exception if a problem occurs while creating the file
+     */
+    private DataFileHandle newHandle(String filename) throws Exception {
+
+        Path path = Files.createFile(this.testDirectory.resolve(filename));
+        return new DataFileHandle(this.pool, path);
+    }
+
+    /**
+     * Acquires and releases the file of the specified handle.
+     * 
+     * @param handle the handle
+     * @throws Exception if a problem occurs while opening the file
+     */
+    private static void acquireAndRelease(DataFileHandle handle) throws Exception {
+
+        handle.acquire(0);
+        handle.release();
+    }
+}
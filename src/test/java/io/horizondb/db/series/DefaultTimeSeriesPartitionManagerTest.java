@@ -18,6 +18,8 @@ import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.HorizonDBFiles;
 import io.horizondb.db.btree.KeyValueIterator;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.io.files.FileUtils;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
@@ -157,8 +159,8 @@ public class DefaultTimeSeriesPartitionManagerTest {
                                                                 .setByte(2, 10)
                                                                 .build();
             
-            partition.write(records, Futures.immediateFuture(new ReplayPosition(1, 2)));
-            partition.forceFlush();
+            partition.write(records, Futures.immediateFuture(new ReplayPosition(1, 2)), new OperationMetrics());
+            partition.forceFlush(new FlushMetrics("test"));
 
         } finally {
 
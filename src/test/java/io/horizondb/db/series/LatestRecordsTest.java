@@ -0,0 +1,169 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.BlockIterators;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LatestRecordsTest {
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_MILLIS = TimeUtils.parseDateTime("2013-11-26 12:00:00.000");
+
+    /**
+     * The time reference.
+     */
+    private static long TIME_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(TIME_IN_MILLIS);
+
+    private DatabaseDefinition databaseDefinition;
+
+    private TimeSeriesDefinition definition;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition exchangeState = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                 .addField("timestampInMillis",
+                                                                           FieldType.MILLISECONDS_TIMESTAMP)
+                                                                 .addField("status", FieldType.BYTE)
+                                                                 .build();
+
+        RecordTypeDefinition trade = RecordTypeDefinition.newBuilder("trade")
+                                                         .addField("price", FieldType.DECIMAL)
+                                                         .build();
+
+        this.databaseDefinition = new DatabaseDefinition("test");
+
+        this.definition = this.databaseDefinition.newTimeSeriesDefinitionBuilder("test")
+                                                 .timeUnit(TimeUnit.NANOSECONDS)
+                                                 .addRecordType(exchangeState)
+                                                 .addRecordType(trade)
+                                                 .build();
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+
+        LatestRecords latestRecords = new LatestRecords(this.definition);
+
+        BitSet types = update(latestRecords, newBlock(TIME_IN_NANOS + 12000700, TIME_IN_NANOS + 13004400));
+
+        assertTrue(types.get(0));
+        assertFalse(types.get(1));
+        assertEquals(TIME_IN_NANOS + 12000700, latestRecords.getFirstRecord(0).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + 13004400, latestRecords.getLastRecord(0).getTimestampInNanos(0));
+        assertNull(latestRecords.getFirstRecord(1));
+        assertNull(latestRecords.getLastRecord(1));
+
+        update(latestRecords, newBlock(TIME_IN_NANOS + 14000000, TIME_IN_NANOS + 15000000));
+
+        assertEquals(TIME_IN_NANOS + 12000700, latestRecords.getFirstRecord(0).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + 15000000, latestRecords.getLastRecord(0).getTimestampInNanos(0));
+    }
+
+    @Test
+    public void testUpdateWithOlderRecords() throws Exception {
+
+        LatestRecords latestRecords = new LatestRecords(this.definition);
+
+        update(latestRecords, newBlock(TIME_IN_NANOS + 14000000, TIME_IN_NANOS + 15000000));
+        update(latestRecords, newBlock(TIME_IN_NANOS + 12000700, TIME_IN_NANOS + 13004400));
+
+        assertEquals(TIME_IN_NANOS + 12000700, latestRecords.getFirstRecord(0).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + 15000000, latestRecords.getLastRecord(0).getTimestampInNanos(0));
+    }
+
+    @Test
+    public void testMergeCollector() throws Exception {
+
+        LatestRecords latestRecords = new LatestRecords(this.definition);
+        update(latestRecords, newBlock(TIME_IN_NANOS + 12000700, TIME_IN_NANOS + 13004400));
+
+        TimeSeriesRecord record = this.definition.newRecord(0);
+
+        LatestRecords.Collector collector = latestRecords.newCollector();
+
+        record.setTimestampInNanos(0, TIME_IN_NANOS + 14000000);
+        collector.add(record);
+
+        record.setTimestampInNanos(0, TIME_IN_NANOS + 11000000);
+        collector.add(record);
+
+        assertTrue(collector.getTypes().get(0));
+        assertFalse(collector.getTypes().get(1));
+
+        latestRecords.merge(collector);
+
+        assertEquals(TIME_IN_NANOS + 11000000, latestRecords.getFirstRecord(0).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + 14000000, latestRecords.getLastRecord(0).getTimestampInNanos(0));
+    }
+
+    @Test
+    public void testGetLatestRecordsFromCache() throws Exception {
+
+        LatestRecordCache cache = new LatestRecordCache();
+        TimeSeriesId id = new TimeSeriesId(this.databaseDefinition, "test");
+
+        LatestRecords latestRecords = cache.getLatestRecords(id, this.definition);
+        update(latestRecords, newBlock(TIME_IN_NANOS + 12000700, TIME_IN_NANOS + 13004400));
+
+        assertSame(latestRecords, cache.getLatestRecords(id, this.definition));
+    }
+
+    private DataBlock newBlock(long firstTimestamp, long lastTimestamp) throws Exception {
+
+        return new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, firstTimestamp)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                                    .setByte(2, 3)
+                                                    .newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, lastTimestamp)
+                                                    .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                    .setByte(2, 1)
+                                                    .build();
+    }
+
+    private static BitSet update(LatestRecords latestRecords, DataBlock block) throws Exception {
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator = 
+                new BinaryTimeSeriesRecordIterator(latestRecords.getDefinition(), BlockIterators.singleton(block))) {
+
+            return latestRecords.update(iterator);
+        }
+    }
+}
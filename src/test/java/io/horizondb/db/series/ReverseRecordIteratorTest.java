@@ -0,0 +1,155 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Cancellation;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.fields.TimestampField;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Futures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReverseRecordIteratorTest {
+
+    /**
+     * The time reference.
+     */
+    private static final long TIME_IN_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-11-26 12:00:00.000"));
+
+    /**
+     * The index of the price field.
+     */
+    private static final int PRICE = 2;
+
+    private Configuration configuration;
+
+    private TimeSeriesDefinition definition;
+
+    private SlabAllocator allocator;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition tradeType = RecordTypeDefinition.newBuilder("trade")
+                                                             .addMillisecondTimestampField("timestampInMillis")
+                                                             .addDecimalField("price")
+                                                             .build();
+
+        this.definition = new DatabaseDefinition("test").newTimeSeriesDefinitionBuilder("test")
+                                                        .timeUnit(TimeUnit.NANOSECONDS)
+                                                        .addRecordType(tradeType)
+                                                        .build();
+
+        this.configuration = Configuration.newBuilder().build();
+        this.allocator = new SlabAllocator(this.configuration.getMemTimeSeriesSize());
+    }
+
+    @Test
+    public void testReverseOrderAcrossParts() throws Exception {
+
+        MemTimeSeries older = newPart(100, 10, 200, 12, 300, 11);
+        MemTimeSeries newer = newPart(400, 15, 500, 14);
+
+        try (ResourceIterator<Record> iterator = newIterator(newer, older)) {
+
+            assertNextRecord(iterator, 500, 14);
+            assertNextRecord(iterator, 400, 15);
+            assertNextRecord(iterator, 300, 11);
+            assertNextRecord(iterator, 200, 12);
+            assertNextRecord(iterator, 100, 10);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testDeltaRecordsAreReturnedAsFullRecordsWithLimit() throws Exception {
+
+        MemTimeSeries older = newPart(100, 10, 200, 12, 300, 11);
+        MemTimeSeries newer = newPart(400, 15, 500, 14, 600, 16);
+
+        try (ResourceIterator<Record> iterator = new LimitedRecordIterator(newIterator(newer, older), 4)) {
+
+            assertNextRecord(iterator, 600, 16);
+            assertNextRecord(iterator, 500, 14);
+            assertNextRecord(iterator, 400, 15);
+            assertNextRecord(iterator, 300, 11);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Creates a <code>MemTimeSeries</code> containing the specified trades. All the trades except the first one
+     * are stored as delta records.
+     *
+     * @param timestampsAndPrices the timestamp in milliseconds and the price of each trade
+     * @return a <code>MemTimeSeries</code> containing the specified trades.
+     */
+    private MemTimeSeries newPart(long... timestampsAndPrices) throws Exception {
+
+        DataBlockBuilder builder = new DataBlockBuilder(this.definition);
+
+        for (int i = 0; i < timestampsAndPrices.length; i += 2) {
+
+            builder.newRecord("trade")
+                   .setTimestampInNanos(0, TIME_IN_NANOS + TimeUnit.MILLISECONDS.toNanos(timestampsAndPrices[i]))
+                   .setDouble(PRICE, timestampsAndPrices[i + 1]);
+        }
+
+        MemTimeSeries memTimeSeries = new MemTimeSeries(this.configuration, this.definition);
+
+        return memTimeSeries.write(this.allocator, builder.build(), Futures.immediateFuture(new ReplayPosition(1, 0)));
+    }
+
+    private ResourceIterator<Record> newIterator(TimeSeriesElement... parts) {
+
+        return new ReverseRecordIterator(this.definition,
+                                         Arrays.asList(parts),
+                                         TimestampField.ALL,
+                                         Filters.<String>noop(),
+                                         Filters.<Record>noop(),
+                                         new Cancellation());
+    }
+
+    private static void assertNextRecord(ResourceIterator<Record> iterator,
+                                         long timestampInMillis,
+                                         double price) throws Exception {
+
+        assertTrue(iterator.hasNext());
+
+        Record record = iterator.next();
+
+        assertFalse(record.isDelta());
+        assertEquals(TIME_IN_NANOS + TimeUnit.MILLISECONDS.toNanos(timestampInMillis), record.getTimestampInNanos(0));
+        assertEquals(price, record.getDouble(PRICE), 0.0);
+    }
+}
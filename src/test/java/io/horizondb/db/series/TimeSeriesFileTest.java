@@ -17,6 +17,7 @@ import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.HorizonDBFiles;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
 import io.horizondb.io.Buffer;
 import io.horizondb.io.ReadableBuffer;
 import io.horizondb.io.buffers.Buffers;
@@ -43,9 +44,12 @@ import io.horizondb.test.AssertFiles;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -169,7 +173,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(asList((TimeSeriesElement) memTimeSeries));
+            TimeSeriesFile newFile = file.append(asList((TimeSeriesElement) memTimeSeries), new FlushMetrics("test"));
 
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, newFile.getPath());
@@ -208,8 +212,8 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            file.append(asList((TimeSeriesElement) memTimeSeries));
-            file.append(asList((TimeSeriesElement) memTimeSeries));
+            file.append(asList((TimeSeriesElement) memTimeSeries), new FlushMetrics("test"));
+            file.append(asList((TimeSeriesElement) memTimeSeries), new FlushMetrics("test"));
 
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
         }
@@ -264,7 +268,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries, memTimeSeries2));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries, memTimeSeries2), new FlushMetrics("test"));
 
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
@@ -321,8 +325,8 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries))
-                                         .append(Arrays.<TimeSeriesElement> asList(memTimeSeries2));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"))
+                                         .append(Arrays.<TimeSeriesElement> asList(memTimeSeries2), new FlushMetrics("test"));
             
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
@@ -391,7 +395,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"));
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
             
@@ -435,6 +439,100 @@ public class TimeSeriesFileTest {
         }
     }
     
+    @Test
+    public void testAppendWithSeveralBlocksStoresTheStatisticsOfEachBlock() throws IOException, HorizonDBException, InterruptedException {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addField("timestampInMillis",
+                                                                                  FieldType.MILLISECONDS_TIMESTAMP)
+                                                                        .addField("status", FieldType.BYTE)
+                                                                        .build();
+
+        this.definition = this.databaseDefinition.newTimeSeriesDefinitionBuilder("test2")
+                                                 .timeUnit(TimeUnit.NANOSECONDS)
+                                                 .blockSize(35)
+                                                 .addRecordType(recordTypeDefinition)
+                                                 .build();
+
+        Path seriesDirectory = HorizonDBFiles.getTimeSeriesDirectory(this.configuration,
+                                                                     this.databaseDefinition,
+                                                                     this.definition);
+
+        Files.createDirectories(seriesDirectory);
+
+        SlabAllocator allocator = new SlabAllocator(this.configuration.getMemTimeSeriesSize());
+
+        MemTimeSeries memTimeSeries = new MemTimeSeries(this.configuration, this.definition);
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                                               .setByte(2, 3)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                               .setByte(2, 3)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                               .setByte(2, 1)
+                                                               .build();
+
+        DataBlock block2 = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                                .setTimestampInNanos(0, TIME_IN_NANOS + 13014400)
+                                                                .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                                .setByte(2, 1)
+                                                                .build();
+
+        DataBlock block3 = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                                .setTimestampInNanos(0, TIME_IN_NANOS + 14000000)
+                                                                .setTimestampInMillis(1, TIME_IN_MILLIS + 14)
+                                                                .setByte(2, 2)
+                                                                .newRecord("exchangeState")
+                                                                .setTimestampInNanos(0, TIME_IN_NANOS + 14500000)
+                                                                .setTimestampInMillis(1, TIME_IN_MILLIS + 14)
+                                                                .setByte(2, 3)
+                                                                .build();
+
+        int offset = 0;
+
+        for (DataBlock dataBlock : asList(block, block2, block3)) {
+
+            offset += dataBlock.computeSerializedSize();
+            memTimeSeries = memTimeSeries.write(allocator,
+                                                dataBlock,
+                                                Futures.immediateFuture(new ReplayPosition(1, offset)));
+        }
+
+        try (TimeSeriesFile file = TimeSeriesFile.open(this.configuration,
+                                                       this.databaseDefinition,
+                                                       this.definition,
+                                                       this.metadata)) {
+
+            assertTrue(memTimeSeries.getBlockStatistics().size() > 1);
+
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"));
+
+            Map<Range<Field>, BlockStatistics> statistics = newFile.getBlockStatistics();
+            assertEquals(memTimeSeries.getBlockStatistics().size(), statistics.size());
+            assertEquals(new ArrayList<>(newFile.getBlockPositions().keySet()), new ArrayList<>(statistics.keySet()));
+
+            long count = 0;
+
+            for (Entry<Range<Field>, BlockStatistics> entry : statistics.entrySet()) {
+
+                Range<Field> range = entry.getKey();
+                BlockStatistics blockStatistics = entry.getValue();
+
+                assertEquals(range.lowerEndpoint().getTimestampInNanos(), blockStatistics.getFirstTimestampInNanos());
+                assertEquals(range.upperEndpoint().getTimestampInNanos(), blockStatistics.getLastTimestampInNanos());
+                count += blockStatistics.getCount();
+            }
+
+            assertEquals(6, count);
+        }
+    }
+
     @Test
     public void testAppendWithTwoBlocksWithOverlappingRange() throws IOException, HorizonDBException, InterruptedException {
 
@@ -495,7 +593,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"));
 
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
@@ -600,7 +698,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"));
             
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
@@ -699,7 +797,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries));
+            TimeSeriesFile newFile = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test"));
             
             assertEquals(expectedBlockPositions, newFile.getBlockPositions());
             AssertFiles.assertFileContains(expectedFileContent, file.getPath());
@@ -752,7 +850,7 @@ public class TimeSeriesFileTest {
                                                        this.definition, 
                                                        this.metadata)) {
 
-            try (SeekableFileDataInput input = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries)).newInput()) {
+            try (SeekableFileDataInput input = file.append(Arrays.<TimeSeriesElement> asList(memTimeSeries), new FlushMetrics("test")).newInput()) {
 
                 ReadableBuffer content = input.slice((int) input.size());
                 
@@ -776,6 +874,142 @@ public class TimeSeriesFileTest {
         }
     }
     
+    @Test
+    public void testOpenDoesNotOpenTheFileUntilTheFirstRead() throws Exception {
+
+        TimeSeriesPartitionMetaData partitionMetaData = writeBlock();
+
+        DataFilePool pool = new DataFilePool(this.configuration);
+        pool.start();
+
+        try (TimeSeriesFile file = TimeSeriesFile.open(pool,
+                                                       this.configuration, 
+                                                       this.databaseDefinition, 
+                                                       this.definition, 
+                                                       partitionMetaData)) {
+
+            assertEquals(0, pool.getNumberOfOpenFiles());
+            assertEquals(partitionMetaData.getBlockPositions(), file.getBlockPositions());
+            assertEquals(0, pool.getNumberOfOpenFiles());
+
+            assertEquals(3, countRecords(file.iterator()));
+            assertEquals(1, pool.getNumberOfOpenFiles());
+
+            assertEquals(3, countRecords(file.iterator()));
+            assertEquals(1, pool.getNumberOfOpenFiles());
+
+        } finally {
+
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFileIsNotClosedByThePoolWhileAnInputIsOpen() throws Exception {
+
+        TimeSeriesPartitionMetaData partitionMetaData = writeBlock();
+
+        DataFilePool pool = new DataFilePool(Configuration.newBuilder()
+                                                          .dataDirectory(this.testDirectory)
+                                                          .maximumNumberOfOpenPartitionFiles(1)
+                                                          .build());
+        pool.start();
+
+        try (TimeSeriesFile file = TimeSeriesFile.open(pool,
+                                                       this.configuration, 
+                                                       this.databaseDefinition, 
+                                                       this.definition, 
+                                                       partitionMetaData)) {
+
+            DataFileHandle other = new DataFileHandle(pool, Files.createFile(this.testDirectory.resolve("other.ts")));
+
+            try (SeekableFileDataInput input = file.newInput()) {
+
+                other.acquire(0);
+                other.release();
+
+                assertEquals(2, pool.getNumberOfOpenFiles());
+                assertTrue(input.isReadable());
+                input.readByte();
+            }
+
+            other.acquire(0);
+            other.release();
+
+            assertEquals(1, pool.getNumberOfOpenFiles());
+            assertTrue(other.isOpen());
+
+        } finally {
+
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Writes a block of three records to the file of the partition and returns the partition meta data.
+     * 
+     * @return the partition meta data
+     */
+    private TimeSeriesPartitionMetaData writeBlock() throws IOException, HorizonDBException, InterruptedException {
+
+        SlabAllocator allocator = new SlabAllocator(this.configuration.getMemTimeSeriesSize());
+
+        MemTimeSeries memTimeSeries = new MemTimeSeries(this.configuration, this.definition);
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 12)
+                                                               .setByte(2, 3)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                               .setByte(2, 3)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 13004400)
+                                                               .setTimestampInMillis(1, TIME_IN_MILLIS + 13)
+                                                               .setByte(2, 1)
+                                                               .build();
+
+        memTimeSeries = memTimeSeries.write(allocator, block, Futures.immediateFuture(new ReplayPosition(1, 0)));
+
+        try (TimeSeriesFile file = TimeSeriesFile.open(this.configuration, 
+                                                       this.databaseDefinition, 
+                                                       this.definition, 
+                                                       this.metadata)) {
+
+            TimeSeriesFile newFile = file.append(asList((TimeSeriesElement) memTimeSeries), new FlushMetrics("test"));
+
+            return TimeSeriesPartitionMetaData.newBuilder(this.metadata.getRange())
+                                              .blockPositions(newFile.getBlockPositions())
+                                              .blockStatistics(newFile.getBlockStatistics())
+                                              .fileSize(newFile.size())
+                                              .replayPosition(new ReplayPosition(1, 0))
+                                              .build();
+        }
+    }
+
+    /**
+     * Counts the records of the specified blocks and closes the iterator.
+     * 
+     * @param blocks the blocks
+     * @return the number of records
+     */
+    private int countRecords(ResourceIterator<DataBlock> blocks) throws IOException {
+
+        int count = 0;
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator = new BinaryTimeSeriesRecordIterator(this.definition, 
+                                                                                                    blocks)) {
+            while (iterator.hasNext()) {
+
+                iterator.next();
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Creates a new range of timestamps.
      * 
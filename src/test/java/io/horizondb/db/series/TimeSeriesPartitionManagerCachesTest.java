@@ -20,6 +20,7 @@ import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.HorizonDBFiles;
 import io.horizondb.db.btree.KeyValueIterator;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.io.files.FileUtils;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
@@ -234,7 +235,7 @@ public class TimeSeriesPartitionManagerCachesTest {
                                                                    .setByte(2, 6)
                                                                    .build();
 
-            daxPartition.write(records, Futures.immediateFuture(new ReplayPosition(0, 0)));
+            daxPartition.write(records, Futures.immediateFuture(new ReplayPosition(0, 0)), new OperationMetrics());
 
             partitionManager.sync();
 
@@ -453,7 +454,7 @@ public class TimeSeriesPartitionManagerCachesTest {
                                                                    .setByte(2, 6)
                                                                    .build();
 
-            daxPartition.write(records, Futures.immediateFuture(new ReplayPosition(0, 0)));
+            daxPartition.write(records, Futures.immediateFuture(new ReplayPosition(0, 0)), new OperationMetrics());
 
             PartitionId cacPartitionId = new PartitionId(databaseDefinition, cacDefinition, range);
 
@@ -494,7 +495,7 @@ public class TimeSeriesPartitionManagerCachesTest {
                                                          .setByte(2, 6)
                                                          .build();
 
-            cacPartition.write(records, newFuture());
+            cacPartition.write(records, newFuture(), new OperationMetrics());
 
             partitionManager.sync();
 
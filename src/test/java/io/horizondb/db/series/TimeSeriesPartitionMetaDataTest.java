@@ -0,0 +1,152 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.io.Buffer;
+import io.horizondb.io.buffers.Buffers;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.BlockIterators;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.BlockPosition;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import static io.horizondb.model.schema.FieldType.MILLISECONDS_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesPartitionMetaDataTest {
+
+    /**
+     * The time reference.
+     */
+    private static final long TIME_IN_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-11-26 12:00:00.000"));
+
+    /**
+     * The time range of the first block.
+     */
+    private static final Range<Field> FIRST_BLOCK =
+            MILLISECONDS_TIMESTAMP.range("'2013-11-26 12:00:00.000'", "'2013-11-26 12:30:00.000'");
+
+    /**
+     * The time range of the second block.
+     */
+    private static final Range<Field> SECOND_BLOCK =
+            MILLISECONDS_TIMESTAMP.range("'2013-11-26 12:30:00.000'", "'2013-11-26 13:00:00.000'");
+
+    private TimeSeriesDefinition definition;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition recordTypeDefinition = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                        .addMillisecondTimestampField("timestampInMillis")
+                                                                        .addByteField("status")
+                                                                        .build();
+
+        this.definition = new DatabaseDefinition("test").newTimeSeriesDefinitionBuilder("test")
+                                                        .timeUnit(TimeUnit.NANOSECONDS)
+                                                        .addRecordType(recordTypeDefinition)
+                                                        .build();
+    }
+
+    @Test
+    public void testParseFrom() throws Exception {
+
+        LinkedHashMap<Range<Field>, BlockStatistics> statistics = new LinkedHashMap<>();
+        statistics.put(SECOND_BLOCK, computeStatistics());
+
+        TimeSeriesPartitionMetaData metaData = newMetaData(statistics);
+
+        Buffer buffer = Buffers.allocate(metaData.computeSerializedSize());
+        metaData.writeTo(buffer);
+
+        TimeSeriesPartitionMetaData result = TimeSeriesPartitionMetaData.parseFrom(buffer);
+
+        assertEquals(metaData.getBlockPositions().keySet(), result.getBlockPositions().keySet());
+        assertEquals(statistics, result.getBlockStatistics());
+        assertEquals(metaData.getFileSize(), result.getFileSize());
+    }
+
+    @Test
+    public void testParseFromWithTheLayoutWithoutStatistics() throws Exception {
+
+        TimeSeriesPartitionMetaData metaData = newMetaData(new LinkedHashMap<Range<Field>, BlockStatistics>());
+
+        Buffer buffer = Buffers.allocate(metaData.computeSerializedSize());
+        metaData.writeTo(buffer);
+
+        // Removes the version and the flag of each block to get back the layout written before the statistics
+        buffer.writerIndex(buffer.writerIndex() - 3);
+
+        TimeSeriesPartitionMetaData result = TimeSeriesPartitionMetaData.parseFrom(buffer);
+
+        assertEquals(metaData.getBlockPositions().keySet(), result.getBlockPositions().keySet());
+        assertTrue(result.getBlockStatistics().isEmpty());
+        assertEquals(metaData.getFileSize(), result.getFileSize());
+    }
+
+    private TimeSeriesPartitionMetaData newMetaData(LinkedHashMap<Range<Field>, BlockStatistics> statistics) {
+
+        LinkedHashMap<Range<Field>, BlockPosition> positions = new LinkedHashMap<>();
+        positions.put(FIRST_BLOCK, new BlockPosition(0, 120));
+        positions.put(SECOND_BLOCK, new BlockPosition(120, 80));
+
+        return TimeSeriesPartitionMetaData.newBuilder(MILLISECONDS_TIMESTAMP.range("'2013-11-26'", "'2013-11-27'"))
+                                          .blockPositions(positions)
+                                          .blockStatistics(statistics)
+                                          .replayPosition(new ReplayPosition(1, 2))
+                                          .fileSize(200)
+                                          .build();
+    }
+
+    private BlockStatistics computeStatistics() throws Exception {
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 12000700)
+                                                               .setByte(2, 3)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + 13000900)
+                                                               .setByte(2, 1)
+                                                               .build();
+
+        BlockStatistics.Builder builder = BlockStatistics.newBuilder(this.definition);
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator =
+                new BinaryTimeSeriesRecordIterator(this.definition, BlockIterators.singleton(block))) {
+
+            while (iterator.hasNext()) {
+                builder.add(iterator.next());
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -17,6 +17,8 @@ import io.horizondb.db.Configuration;
 import io.horizondb.db.HorizonDBException;
 import io.horizondb.db.HorizonDBFiles;
 import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
+import io.horizondb.db.metrics.OperationMetrics;
 import io.horizondb.io.files.FileUtils;
 import io.horizondb.model.core.DataBlock;
 import io.horizondb.model.core.Field;
@@ -174,7 +176,7 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 10)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
 
         ResourceIterator<Record> iterator = this.partition.read(ImmutableRangeSet.of(range), 
@@ -235,7 +237,7 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 5)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
 
         records = new DataBlockBuilder(this.def).newRecord("exchangeState")
@@ -244,7 +246,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 10)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2000));
+        this.partition.write(records, newFuture(0, 2000), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
 
         Range<Field> range = MILLISECONDS_TIMESTAMP.range("'2013-11-26 12:32:12'", "'2013-11-26 12:32:14'");
@@ -320,7 +322,7 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 6)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -334,7 +336,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 5)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(2 * MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -443,7 +445,7 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 6)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1)); 
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(memTimeSeriesSize, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -465,7 +467,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 5)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(3 * memTimeSeriesSize, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -475,11 +477,11 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 6)
                                                 .build();
 
-        this.partition.write(records, newFuture(1, 1));
+        this.partition.write(records, newFuture(1, 1), new OperationMetrics());
         assertEquals(3 * memTimeSeriesSize, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
-        this.partition.flush();
+        this.partition.flush(new FlushMetrics("test"));
         assertEquals(Long.valueOf(1), this.partition.getFirstSegmentContainingNonPersistedData());
 
         ResourceIterator<Record> iterator = this.partition.read(ImmutableRangeSet.of(range),
@@ -605,10 +607,10 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 6)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
 
-        this.partition.flush();
+        this.partition.flush(new FlushMetrics("test"));
 
         ResourceIterator<Record> iterator = this.partition.read(ImmutableRangeSet.of(range),
                                                                 Filters.<String> noop(),
@@ -692,7 +694,7 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 6)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(memTimeSeriesSize, this.partition.getMemoryUsage());
 
         records = new DataBlockBuilder(this.def).newRecord("exchangeState")
@@ -713,7 +715,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 5)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(3 * memTimeSeriesSize, this.partition.getMemoryUsage());
 
         records = new DataBlockBuilder(this.def).newRecord("exchangeState")
@@ -722,7 +724,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 6)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 3));
+        this.partition.write(records, newFuture(0, 3), new OperationMetrics());
         assertEquals(3 * memTimeSeriesSize, this.partition.getMemoryUsage());
 
         ResourceIterator<Record> iterator = this.partition.read(ImmutableRangeSet.of(range),
@@ -842,12 +844,12 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 10)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
 
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
         
-        this.partition.forceFlush();
+        this.partition.forceFlush(new FlushMetrics("test"));
 
         assertEquals(0, this.partition.getMemoryUsage());
         assertEquals(null, this.partition.getFirstSegmentContainingNonPersistedData());
@@ -919,11 +921,11 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 10)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
-        this.partition.forceFlush();
+        this.partition.forceFlush(new FlushMetrics("test"));
         assertEquals(0, this.partition.getMemoryUsage());
         assertEquals(null, this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -937,7 +939,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 0)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1026,11 +1028,11 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 10)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
-        this.partition.forceFlush();
+        this.partition.forceFlush(new FlushMetrics("test"));
         assertEquals(0, this.partition.getMemoryUsage());
         assertEquals(null, this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1044,7 +1046,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 0)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1116,11 +1118,11 @@ public class TimeSeriesPartitionTest {
                                                           .setByte(2, 10)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
-        this.partition.forceFlush();
+        this.partition.forceFlush(new FlushMetrics("test"));
         assertEquals(0, this.partition.getMemoryUsage());
         assertEquals(null, this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1134,7 +1136,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 0)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1204,11 +1206,11 @@ public class TimeSeriesPartitionTest {
                                                           .setDouble(2, 12)
                                                           .build();
 
-        this.partition.write(records, newFuture(0, 1));
+        this.partition.write(records, newFuture(0, 1), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
-        this.partition.forceFlush();
+        this.partition.forceFlush(new FlushMetrics("test"));
         assertEquals(0, this.partition.getMemoryUsage());
         assertEquals(null, this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -1222,7 +1224,7 @@ public class TimeSeriesPartitionTest {
                                                 .setByte(2, 0)
                                                 .build();
 
-        this.partition.write(records, newFuture(0, 2));
+        this.partition.write(records, newFuture(0, 2), new OperationMetrics());
         assertEquals(MEMTIMESERIES_SIZE, this.partition.getMemoryUsage());
         assertEquals(Long.valueOf(0), this.partition.getFirstSegmentContainingNonPersistedData());
 
@@ -0,0 +1,673 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series;
+
+import io.horizondb.db.Cancellation;
+import io.horizondb.db.Configuration;
+import io.horizondb.db.HorizonDBException;
+import io.horizondb.db.HorizonDBFiles;
+import io.horizondb.db.commitlog.ReplayPosition;
+import io.horizondb.db.metrics.FlushMetrics;
+import io.horizondb.db.metrics.OperationMetrics;
+import io.horizondb.db.parser.builders.PredicateBuilders;
+import io.horizondb.db.series.aggregations.Aggregate;
+import io.horizondb.db.series.aggregations.AggregateFunction;
+import io.horizondb.db.series.aggregations.Aggregation;
+import io.horizondb.io.files.FileUtils;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Field;
+import io.horizondb.model.core.Predicate;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.filters.Filters;
+import io.horizondb.model.core.projections.NoopProjection;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.DatabaseDefinition;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.util.concurrent.Futures;
+
+import static io.horizondb.model.schema.FieldType.MILLISECONDS_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesTest {
+
+    /**
+     * The time reference.
+     */
+    private static final long TIME_IN_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-11-26 12:00:00.000"));
+
+    /**
+     * The index of the trade record type.
+     */
+    private static final int TRADE = 1;
+
+    /**
+     * The index of the price field within the trade records.
+     */
+    private static final int PRICE = 2;
+
+    /**
+     * The test directory.
+     */
+    private Path testDirectory;
+
+    /**
+     * The time series definition.
+     */
+    private TimeSeriesDefinition definition;
+
+    /**
+     * The partition manager.
+     */
+    private OnDiskTimeSeriesPartitionManager partitionManager;
+
+    /**
+     * The time series under test.
+     */
+    private TimeSeries timeSeries;
+
+    @Before
+    public void setUp() throws Exception {
+
+        this.testDirectory = Files.createTempDirectory(this.getClass().getSimpleName());
+
+        RecordTypeDefinition exchangeStateType = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                     .addMillisecondTimestampField("timestampInMillis")
+                                                                     .addByteField("status")
+                                                                     .build();
+
+        RecordTypeDefinition tradeType = RecordTypeDefinition.newBuilder("trade")
+                                                             .addMillisecondTimestampField("timestampInMillis")
+                                                             .addDecimalField("price")
+                                                             .build();
+
+        DatabaseDefinition databaseDefinition = new DatabaseDefinition("test");
+
+        this.definition = databaseDefinition.newTimeSeriesDefinitionBuilder("test")
+                                            .timeUnit(TimeUnit.NANOSECONDS)
+                                            .addRecordType(exchangeStateType)
+                                            .addRecordType(tradeType)
+                                            .build();
+
+        Configuration configuration = Configuration.newBuilder()
+                                                   .dataDirectory(this.testDirectory.resolve("data"))
+                                                   .partitionReadThreads(1)
+                                                   .partitionReadAhead(1)
+                                                   .build();
+
+        Files.createDirectories(HorizonDBFiles.getTimeSeriesDirectory(configuration,
+                                                                      databaseDefinition,
+                                                                      this.definition));
+
+        this.partitionManager = new OnDiskTimeSeriesPartitionManager(configuration);
+        this.partitionManager.start();
+
+        this.timeSeries = new TimeSeries(databaseDefinition, this.definition, this.partitionManager);
+
+        writeBlocks();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        this.partitionManager.shutdown();
+        FileUtils.forceDelete(this.testDirectory);
+        this.testDirectory = null;
+    }
+
+    @Test
+    public void testAggregatesWithoutGroupBy() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), 0);
+        Predicate predicate = between("'2013-11-26 12:00:00.500'", "'2013-11-26 12:00:03.400'");
+
+        List<Record> expected = aggregate(aggregation, predicate, false);
+
+        assertEquals(1, expected.size());
+        assertEquals(9, expected.get(0).getLong(1));
+
+        assertAggregatesEquals(expected, aggregate(aggregation, predicate, true));
+    }
+
+    @Test
+    public void testAggregatesWithGroupBy() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), TimeUnit.SECONDS.toNanos(1));
+        Predicate predicate = between("'2013-11-26 12:00:00.500'", "'2013-11-26 12:00:03.400'");
+
+        List<Record> expected = aggregate(aggregation, predicate, false);
+
+        assertEquals(4, expected.size());
+
+        assertAggregatesEquals(expected, aggregate(aggregation, predicate, true));
+    }
+
+    @Test
+    public void testAggregatesWithGroupByOverBlocksSpanningSeveralBuckets() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition,
+                                                  newPriceAggregates(),
+                                                  TimeUnit.MILLISECONDS.toNanos(500));
+
+        Predicate predicate = between("'2013-11-26 12:00:00.500'", "'2013-11-26 12:00:03.400'");
+
+        assertAggregatesEquals(aggregate(aggregation, predicate, false), aggregate(aggregation, predicate, true));
+    }
+
+    @Test
+    public void testAggregatesWithoutEdgeBlocks() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), 0);
+        Predicate predicate = between("'2013-11-26 11:00:00.000'", "'2013-11-26 13:00:00.000'");
+
+        List<Record> expected = aggregate(aggregation, predicate, false);
+
+        assertEquals(1, expected.size());
+        assertEquals(11, expected.get(0).getLong(1));
+
+        assertAggregatesEquals(expected, aggregate(aggregation, predicate, true));
+    }
+
+    @Test
+    public void testReadAheadReturnsTheRecordsInOrderAcrossPartitions() throws Exception {
+
+        String[] days = {"2013-11-27", "2013-11-28", "2013-11-29", "2013-11-30"};
+
+        for (int i = 0; i < days.length; i++) {
+            writeAndFlush(newPartitionBlock(days[i], 1000), i % 2 == 0);
+        }
+
+        long previousTimestamp = 0;
+        int count = 0;
+
+        try (ResourceIterator<Record> iterator = readAll("'2013-11-27'", "'2013-12-01'")) {
+
+            TimeSeriesRecord[] records = newRecords();
+
+            while (iterator.hasNext()) {
+
+                long timestamp = toFullRecord(records, iterator.next()).getTimestampInNanos(0);
+
+                assertTrue(timestamp > previousTimestamp);
+                previousTimestamp = timestamp;
+                count++;
+            }
+        }
+
+        assertEquals(4000, count);
+    }
+
+    @Test(timeout = 60000)
+    public void testReadAheadStopsWhenTheIteratorIsClosedEarly() throws Exception {
+
+        int numberOfRecords = 50000;
+
+        writeAndFlush(newPartitionBlock("2013-11-27", numberOfRecords), true);
+        writeAndFlush(newPartitionBlock("2013-11-28", numberOfRecords), true);
+
+        try (ResourceIterator<Record> iterator = readAll("'2013-11-27'", "'2013-11-29'")) {
+
+            assertTrue(iterator.hasNext());
+            iterator.next();
+        }
+
+        // With a single read thread, the following read can only complete if the reads of the closed iterator 
+        // have stopped instead of waiting for their records to be consumed.
+
+        int count = 0;
+
+        try (ResourceIterator<Record> iterator = readAll("'2013-11-27'", "'2013-11-29'")) {
+
+            while (iterator.hasNext()) {
+
+                iterator.next();
+                count++;
+            }
+        }
+
+        assertEquals(2 * numberOfRecords, count);
+    }
+
+    @Test
+    public void testReadInReverseOrderAcrossBlocksAndPartitionsWithLimit() throws Exception {
+
+        writeAndFlush(newPartitionBlock("2013-11-27", 3), true);
+
+        long timeInNanos = TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-11-27 12:00:00.000"));
+
+        List<Record> records = new ArrayList<>();
+
+        try (ResourceIterator<? extends Record> iterator = this.timeSeries.read(new NoopProjection(),
+                                                                                between("'2013-11-26'", "'2013-11-28'"),
+                                                                                true,
+                                                                                6,
+                                                                                null,
+                                                                                new Cancellation())) {
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+            }
+        }
+
+        assertEquals(6, records.size());
+
+        assertTrade(records.get(0), timeInNanos + millis(2), 2);
+        assertTrade(records.get(1), timeInNanos + millis(1), 1);
+        assertTrade(records.get(2), timeInNanos, 0);
+        assertTrade(records.get(3), TIME_IN_NANOS + millis(3600), 8);
+        assertTrade(records.get(4), TIME_IN_NANOS + millis(3300), 17);
+        assertTrade(records.get(5), TIME_IN_NANOS + millis(2800), 15);
+    }
+
+    @Test
+    public void testExplain() throws Exception {
+
+        QueryPlan plan = this.timeSeries.explain(between("'2013-11-26'", "'2013-11-27'"), true);
+
+        assertEquals(0, plan.getDefinition().getRecordTypeIndex(QueryPlan.TIME_RANGE));
+
+        List<Record> records = new ArrayList<>();
+
+        try (ResourceIterator<Record> iterator = plan.iterator()) {
+
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+            }
+        }
+
+        // The time range, the partition, its four blocks and the filter.
+        assertEquals(7, records.size());
+
+        assertEquals(0, records.get(0).getType());
+
+        Record partition = records.get(1);
+
+        assertEquals(1, partition.getType());
+        assertEquals(4, partition.getLong(2));
+        assertEquals(0, partition.getLong(4));
+
+        long[][] blocks = {{100, 900}, {1200, 1800}, {2100, 2800}, {3300, 3600}};
+
+        long bytes = 0;
+        long previousOffset = -1;
+
+        for (int i = 0; i < blocks.length; i++) {
+
+            Record block = records.get(i + 2);
+
+            assertEquals(2, block.getType());
+            assertEquals(TIME_IN_NANOS + millis(blocks[i][0]), block.getTimestampInNanos(0));
+            assertEquals(TIME_IN_NANOS + millis(blocks[i][1]), block.getTimestampInNanos(1));
+            assertTrue(block.getLong(2) > previousOffset);
+
+            previousOffset = block.getLong(2);
+            bytes += block.getLong(3);
+        }
+
+        assertEquals(bytes, partition.getLong(3));
+
+        Record filter = records.get(6);
+
+        assertEquals(3, filter.getType());
+        assertEquals(0, filter.getByte(1));
+    }
+
+    @Test
+    public void testExplainWithResidualFilter() throws Exception {
+
+        QueryPlan plan = this.timeSeries.explain(between("'2013-11-26'", "'2013-11-27'"), false);
+
+        Record filter = null;
+
+        try (ResourceIterator<Record> iterator = plan.iterator()) {
+
+            while (iterator.hasNext()) {
+                filter = iterator.next();
+            }
+        }
+
+        assertEquals(3, filter.getType());
+        assertEquals(1, filter.getByte(1));
+    }
+
+    @Test
+    public void testWriteUpdatesTheLatestRecords() throws Exception {
+
+        TimeSeriesId id = new TimeSeriesId(new DatabaseDefinition("test"), "test");
+        LatestRecords latestRecords = this.partitionManager.getLatestRecordCache().getLatestRecords(id, this.definition);
+
+        int trade = this.definition.getRecordTypeIndex("trade");
+        int exchangeState = this.definition.getRecordTypeIndex("exchangeState");
+
+        assertEquals(TIME_IN_NANOS + millis(100), latestRecords.getFirstRecord(trade).getTimestampInNanos(0));
+        assertEquals(10, latestRecords.getFirstRecord(trade).getDouble(PRICE), 0.0);
+        assertEquals(TIME_IN_NANOS + millis(3600), latestRecords.getLastRecord(trade).getTimestampInNanos(0));
+        assertEquals(8, latestRecords.getLastRecord(trade).getDouble(PRICE), 0.0);
+        assertEquals(TIME_IN_NANOS + millis(1700), latestRecords.getFirstRecord(exchangeState).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + millis(1700), latestRecords.getLastRecord(exchangeState).getTimestampInNanos(0));
+    }
+
+    @Test
+    public void testReadLastSeedsThePartitionsUntilEveryRecordTypeIsFound() throws Exception {
+
+        String[] days = {"2013-11-27", "2013-11-28", "2013-11-29", "2013-11-30", "2013-12-01"};
+
+        for (String day : days) {
+            writeAndFlush(newPartitionBlock(day, 10), true);
+        }
+
+        TimeSeriesId id = new TimeSeriesId(new DatabaseDefinition("test"), "test");
+        LatestRecordCache cache = this.partitionManager.getLatestRecordCache();
+        cache.remove(id);
+
+        assertFalse(cache.getLatestRecords(id, this.definition).isSeeded());
+
+        List<Aggregate> aggregates = Arrays.asList(Aggregate.newInstance(AggregateFunction.LAST,
+                                                                         "last",
+                                                                         TRADE,
+                                                                         PRICE,
+                                                                         FieldType.DECIMAL));
+
+        this.timeSeries.readLast(new Aggregation(this.definition, aggregates, 0)).close();
+
+        LatestRecords latestRecords = cache.getLatestRecords(id, this.definition);
+        assertTrue(latestRecords.isSeeded());
+
+        int exchangeState = this.definition.getRecordTypeIndex("exchangeState");
+        long lastTrade = TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-12-01 12:00:00.000")) + millis(9);
+
+        assertEquals(lastTrade, latestRecords.getLastRecord(TRADE).getTimestampInNanos(0));
+        assertEquals(TIME_IN_NANOS + millis(1700), latestRecords.getLastRecord(exchangeState).getTimestampInNanos(0));
+    }
+
+    /**
+     * Writes the test records as four blocks on disk. The second block is written in two steps to check that
+     * the statistics of a block are kept when more records are appended to it.
+     */
+    private void writeBlocks() throws Exception {
+
+        writeAndFlush(newBlock().newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(100))
+                                .setDouble(PRICE, 10)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(600))
+                                .setDouble(PRICE, 14)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(900))
+                                .setDouble(PRICE, 12)
+                                .build(),
+                      true);
+
+        writeAndFlush(newBlock().newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(1200))
+                                .setDouble(PRICE, 16)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(1500))
+                                .setDouble(PRICE, 11)
+                                .build(),
+                      false);
+
+        writeAndFlush(newBlock().newRecord("exchangeState")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(1700))
+                                .setByte(2, 3)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(1800))
+                                .setDouble(PRICE, 13)
+                                .build(),
+                      true);
+
+        writeAndFlush(newBlock().newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(2100))
+                                .setDouble(PRICE, 20)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(2400))
+                                .setDouble(PRICE, 9)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(2800))
+                                .setDouble(PRICE, 15)
+                                .build(),
+                      true);
+
+        writeAndFlush(newBlock().newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(3300))
+                                .setDouble(PRICE, 17)
+                                .newRecord("trade")
+                                .setTimestampInNanos(0, TIME_IN_NANOS + millis(3600))
+                                .setDouble(PRICE, 8)
+                                .build(),
+                      true);
+    }
+
+    /**
+     * Writes the specified block to the time series and flushes the partitions to which it has been written if
+     * requested.
+     *
+     * @param block the block to write
+     * @param flush <code>true</code> if the partitions must be flushed to the disk
+     */
+    private void writeAndFlush(DataBlock block, boolean flush) throws Exception {
+
+        this.timeSeries.write(block,
+                              Futures.immediateFuture(new ReplayPosition(1, 0)),
+                              false,
+                              new OperationMetrics());
+
+        if (!flush) {
+            return;
+        }
+
+        for (Range<Field> range : block.split(this.definition).asMapOfRanges().keySet()) {
+
+            PartitionId id = new PartitionId(new DatabaseDefinition("test"), this.definition, range);
+            this.partitionManager.getPartitionForWrite(id, this.definition).forceFlush(new FlushMetrics("test"));
+        }
+    }
+
+    /**
+     * Returns a block containing the specified number of trades, one millisecond apart, starting at noon of the 
+     * specified day.
+     *
+     * @param day the day
+     * @param numberOfRecords the number of trades
+     * @return a block containing the specified number of trades.
+     */
+    private DataBlock newPartitionBlock(String day, int numberOfRecords) throws Exception {
+
+        long timeInNanos = TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime(day + " 12:00:00.000"));
+
+        DataBlockBuilder builder = newBlock();
+
+        for (int i = 0; i < numberOfRecords; i++) {
+
+            builder.newRecord("trade")
+                   .setTimestampInNanos(0, timeInNanos + millis(i))
+                   .setDouble(PRICE, i % 100);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Reads all the records between the specified dates.
+     *
+     * @param from the lower bound of the range
+     * @param to the upper bound of the range
+     * @return the records between the specified dates.
+     */
+    private ResourceIterator<Record> readAll(String from, String to) throws IOException, HorizonDBException {
+
+        return this.timeSeries.read(ImmutableRangeSet.of(MILLISECONDS_TIMESTAMP.range(from, to)),
+                                    Filters.<String>noop(),
+                                    Filters.<Record>noop(),
+                                    new Cancellation());
+    }
+
+    /**
+     * Creates a new record for each type of the time series.
+     *
+     * @return a new record for each type of the time series.
+     */
+    private TimeSeriesRecord[] newRecords() {
+
+        TimeSeriesRecord[] records = new TimeSeriesRecord[this.definition.getNumberOfRecordTypes()];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = this.definition.newRecord(i);
+        }
+
+        return records;
+    }
+
+    /**
+     * Rebuilds the full version of the specified record.
+     *
+     * @param records the previous full records
+     * @param record the record read
+     * @return the full version of the specified record.
+     */
+    private static TimeSeriesRecord toFullRecord(TimeSeriesRecord[] records, Record record) throws IOException {
+
+        TimeSeriesRecord fullRecord = records[record.getType()];
+
+        if (record.isDelta()) {
+            fullRecord.add(record);
+        } else {
+            record.copyTo(fullRecord);
+        }
+
+        return fullRecord;
+    }
+
+    /**
+     * Computes the specified aggregates.
+     *
+     * @param aggregation the aggregation
+     * @param predicate the predicate
+     * @param fromStatistics <code>true</code> if the block statistics can be used
+     * @return the aggregated records
+     */
+    private List<Record> aggregate(Aggregation aggregation,
+                                   Predicate predicate,
+                                   boolean fromStatistics) throws IOException, HorizonDBException {
+
+        List<Record> records = new ArrayList<>();
+
+        try (ResourceIterator<? extends Record> iterator =
+                this.timeSeries.read(aggregation, predicate, fromStatistics, new Cancellation())) {
+
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Creates a new timestamp predicate.
+     *
+     * @param from the lower bound of the closed range
+     * @param to the upper bound of the closed range
+     * @return a new timestamp predicate.
+     */
+    private Predicate between(String from, String to) throws HorizonDBException {
+        return PredicateBuilders.between("timestamp", from, to).build(this.definition);
+    }
+
+    /**
+     * Returns a new block builder.
+     *
+     * @return a new block builder.
+     */
+    private DataBlockBuilder newBlock() {
+        return new DataBlockBuilder(this.definition);
+    }
+
+    /**
+     * Checks that the specified aggregated records are equals.
+     */
+    private static void assertAggregatesEquals(List<Record> expected, List<Record> actual) throws IOException {
+
+        assertEquals(expected.size(), actual.size());
+        assertTrue(!expected.isEmpty());
+
+        for (int i = 0, m = expected.size(); i < m; i++) {
+
+            Record expectedRecord = expected.get(i);
+            Record actualRecord = actual.get(i);
+
+            assertEquals(expectedRecord.getTimestampInNanos(0), actualRecord.getTimestampInNanos(0));
+            assertEquals(expectedRecord.getLong(1), actualRecord.getLong(1));
+
+            for (int field = 2; field < 6; field++) {
+                assertEquals(expectedRecord.getDouble(field), actualRecord.getDouble(field), 0.000001);
+            }
+        }
+    }
+
+    /**
+     * Returns the aggregates computed over the trade prices by the tests.
+     */
+    private static List<Aggregate> newPriceAggregates() {
+
+        return Arrays.asList(Aggregate.count("count", TRADE),
+                             Aggregate.newInstance(AggregateFunction.MIN, "min", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.MAX, "max", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.SUM, "sum", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.AVG, "avg", TRADE, PRICE, FieldType.DECIMAL));
+    }
+
+    /**
+     * Checks that the specified record is the full version of the specified trade.
+     *
+     * @param record the record to check
+     * @param timestampInNanos the expected timestamp
+     * @param price the expected price
+     */
+    private void assertTrade(Record record, long timestampInNanos, double price) throws IOException {
+
+        assertFalse(record.isDelta());
+        assertEquals(this.definition.getRecordTypeIndex("trade"), record.getType());
+        assertEquals(timestampInNanos, record.getTimestampInNanos(0));
+        assertEquals(price, record.getDouble(PRICE), 0.0);
+    }
+
+    /**
+     * Converts the specified number of milliseconds into nanoseconds.
+     */
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,417 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.horizondb.db.series.aggregations;
+
+import io.horizondb.db.series.BlockStatistics;
+import io.horizondb.model.core.DataBlock;
+import io.horizondb.model.core.Record;
+import io.horizondb.model.core.ResourceIterator;
+import io.horizondb.model.core.blocks.DataBlockBuilder;
+import io.horizondb.model.core.iterators.BinaryTimeSeriesRecordIterator;
+import io.horizondb.model.core.iterators.BlockIterators;
+import io.horizondb.model.core.records.BinaryTimeSeriesRecord;
+import io.horizondb.model.core.records.TimeSeriesRecord;
+import io.horizondb.model.core.util.TimeUtils;
+import io.horizondb.model.schema.FieldType;
+import io.horizondb.model.schema.RecordTypeDefinition;
+import io.horizondb.model.schema.TimeSeriesDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AggregatingRecordIteratorTest {
+
+    /**
+     * The time reference.
+     */
+    private static final long TIME_IN_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(TimeUtils.parseDateTime("2013-11-26 12:00:00.000"));
+
+    /**
+     * The width of the buckets used by the tests.
+     */
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The index of the trade record type.
+     */
+    private static final int TRADE = 1;
+
+    /**
+     * The index of the price field within the trade records.
+     */
+    private static final int PRICE = 2;
+
+    /**
+     * The time series definition.
+     */
+    private TimeSeriesDefinition definition;
+
+    @Before
+    public void setUp() {
+
+        RecordTypeDefinition exchangeStateType = RecordTypeDefinition.newBuilder("exchangeState")
+                                                                     .addMillisecondTimestampField("timestampInMillis")
+                                                                     .addByteField("status")
+                                                                     .build();
+
+        RecordTypeDefinition tradeType = RecordTypeDefinition.newBuilder("trade")
+                                                             .addMillisecondTimestampField("timestampInMillis")
+                                                             .addDecimalField("price")
+                                                             .build();
+
+        this.definition = TimeSeriesDefinition.newBuilder("test")
+                                              .timeUnit(TimeUnit.NANOSECONDS)
+                                              .addRecordType(exchangeStateType)
+                                              .addRecordType(tradeType)
+                                              .build();
+    }
+
+    @Test
+    public void testAggregatesWithoutGroupBy() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), 0);
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, newRecordIterator())) {
+
+            assertTrue(iterator.hasNext());
+            assertPriceAggregates(iterator.next(), TIME_IN_NANOS + millis(100), 5, 10, 20, 72, 14.4, 10, 16);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testAggregatesWithGroupBy() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), ONE_SECOND);
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, newRecordIterator())) {
+
+            assertTrue(iterator.hasNext());
+            assertPriceAggregates(iterator.next(), TIME_IN_NANOS, 3, 10, 14, 36, 12, 10, 12);
+
+            // The second bucket only contains exchange states and must not be reported.
+
+            assertTrue(iterator.hasNext());
+            assertPriceAggregates(iterator.next(), TIME_IN_NANOS + 2 * ONE_SECOND, 2, 16, 20, 36, 18, 20, 16);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testCountOfAllRecordTypes() throws Exception {
+
+        List<Aggregate> aggregates = Arrays.asList(Aggregate.count("count", Aggregate.ALL_RECORD_TYPES));
+
+        Aggregation aggregation = new Aggregation(this.definition, aggregates, 0);
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, newRecordIterator())) {
+
+            assertTrue(iterator.hasNext());
+            assertEquals(7, iterator.next().getLong(1));
+            assertFalse(iterator.hasNext());
+        }
+
+        aggregation = new Aggregation(this.definition, aggregates, ONE_SECOND);
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, newRecordIterator())) {
+
+            assertEquals(4, iterator.next().getLong(1));
+            assertEquals(1, iterator.next().getLong(1));
+            assertEquals(2, iterator.next().getLong(1));
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testAggregatesWithoutRecords() throws Exception {
+
+        Aggregation aggregation = new Aggregation(this.definition, newPriceAggregates(), 0);
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS)
+                                                               .setByte(2, 3)
+                                                               .build();
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, newRecordIterator(block))) {
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testAggregatesFromStatisticsAndRecords() throws Exception {
+
+        List<Aggregate> aggregates = Arrays.asList(Aggregate.newInstance(AggregateFunction.MIN, "min", TRADE, PRICE,
+                                                                         FieldType.DECIMAL),
+                                                   Aggregate.newInstance(AggregateFunction.SUM, "sum", TRADE, PRICE,
+                                                                         FieldType.DECIMAL),
+                                                   Aggregate.count("count", TRADE));
+
+        Aggregation aggregation = new Aggregation(this.definition, aggregates, ONE_SECOND);
+
+        List<Object> input = new ArrayList<>();
+
+        // The first bucket is made of a block fully within the bucket followed by an edge block.
+        input.add(newStatistics(newTrade(TIME_IN_NANOS + millis(100), 10), newTrade(TIME_IN_NANOS + millis(500), 14)));
+        input.addAll(readRecords(newTrade(TIME_IN_NANOS + millis(900), 12)));
+
+        // The second bucket only contains a block without trades and must not be reported.
+        input.add(newStatistics(newExchangeState(TIME_IN_NANOS + millis(1500), 1)));
+
+        input.add(newStatistics(newTrade(TIME_IN_NANOS + millis(2100), 20), newTrade(TIME_IN_NANOS + millis(2700), 16)));
+
+        try (ResourceIterator<Record> iterator = aggregation.aggregate(this.definition, new ListInput(input))) {
+
+            Record record = iterator.next();
+            assertEquals(TIME_IN_NANOS, record.getTimestampInNanos(0));
+            assertEquals(10, record.getDouble(1), 0.0);
+            assertEquals(36, record.getDouble(2), 0.0);
+            assertEquals(3, record.getLong(3));
+
+            record = iterator.next();
+            assertEquals(TIME_IN_NANOS + 2 * ONE_SECOND, record.getTimestampInNanos(0));
+            assertEquals(16, record.getDouble(1), 0.0);
+            assertEquals(36, record.getDouble(2), 0.0);
+            assertEquals(2, record.getLong(3));
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Returns the aggregates computed on the trade prices.
+     *
+     * @return the aggregates computed on the trade prices.
+     */
+    private static List<Aggregate> newPriceAggregates() {
+
+        return Arrays.asList(Aggregate.count("count", TRADE),
+                             Aggregate.newInstance(AggregateFunction.MIN, "min", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.MAX, "max", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.SUM, "sum", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.AVG, "avg", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.FIRST, "first", TRADE, PRICE, FieldType.DECIMAL),
+                             Aggregate.newInstance(AggregateFunction.LAST, "last", TRADE, PRICE, FieldType.DECIMAL));
+    }
+
+    /**
+     * Checks the values of the aggregates returned by <code>newPriceAggregates</code>.
+     */
+    private static void assertPriceAggregates(Record record,
+                                              long timestamp,
+                                              long count,
+                                              double min,
+                                              double max,
+                                              double sum,
+                                              double avg,
+                                              double first,
+                                              double last) throws IOException {
+
+        assertEquals(timestamp, record.getTimestampInNanos(0));
+        assertEquals(count, record.getLong(1));
+        assertEquals(min, record.getDouble(2), 0.0);
+        assertEquals(max, record.getDouble(3), 0.0);
+        assertEquals(sum, record.getDouble(4), 0.0);
+        assertEquals(avg, record.getDouble(5), 0.000001);
+        assertEquals(first, record.getDouble(6), 0.0);
+        assertEquals(last, record.getDouble(7), 0.0);
+    }
+
+    /**
+     * Returns an iterator over the records used by most of the tests. The first bucket contains three trades and
+     * an exchange state, the second one only an exchange state and the third one two trades.
+     *
+     * @return an iterator over the test records
+     */
+    private ResourceIterator<BinaryTimeSeriesRecord> newRecordIterator() throws IOException {
+
+        DataBlock block = new DataBlockBuilder(this.definition).newRecord("trade")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(100))
+                                                               .setDouble(2, 10)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(200))
+                                                               .setByte(2, 3)
+                                                               .newRecord("trade")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(500))
+                                                               .setDouble(2, 14)
+                                                               .newRecord("trade")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(900))
+                                                               .setDouble(2, 12)
+                                                               .newRecord("exchangeState")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(1500))
+                                                               .setByte(2, 1)
+                                                               .newRecord("trade")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(2100))
+                                                               .setDouble(2, 20)
+                                                               .newRecord("trade")
+                                                               .setTimestampInNanos(0, TIME_IN_NANOS + millis(2700))
+                                                               .setDouble(2, 16)
+                                                               .build();
+
+        return newRecordIterator(block);
+    }
+
+    /**
+     * Returns an iterator over the records of the specified block.
+     *
+     * @param block the block
+     * @return an iterator over the records of the specified block
+     */
+    private ResourceIterator<BinaryTimeSeriesRecord> newRecordIterator(DataBlock block) throws IOException {
+
+        return new BinaryTimeSeriesRecordIterator(this.definition, BlockIterators.singleton(block));
+    }
+
+    /**
+     * Creates a block containing a single trade.
+     */
+    private DataBlock newTrade(long timestamp, double price) throws IOException {
+
+        return new DataBlockBuilder(this.definition).newRecord("trade")
+                                                    .setTimestampInNanos(0, timestamp)
+                                                    .setDouble(2, price)
+                                                    .build();
+    }
+
+    /**
+     * Creates a block containing a single exchange state.
+     */
+    private DataBlock newExchangeState(long timestamp, int status) throws IOException {
+
+        return new DataBlockBuilder(this.definition).newRecord("exchangeState")
+                                                    .setTimestampInNanos(0, timestamp)
+                                                    .setByte(2, status)
+                                                    .build();
+    }
+
+    /**
+     * Returns full copies of the records of the specified block.
+     */
+    private List<Record> readRecords(DataBlock block) throws IOException {
+
+        List<Record> records = new ArrayList<>();
+
+        try (ResourceIterator<BinaryTimeSeriesRecord> iterator = newRecordIterator(block)) {
+
+            while (iterator.hasNext()) {
+
+                BinaryTimeSeriesRecord record = iterator.next();
+                TimeSeriesRecord copy = this.definition.newRecord(record.getType());
+                record.copyTo(copy);
+                records.add(copy);
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Computes the statistics of the records of the specified blocks.
+     */
+    private BlockStatistics newStatistics(DataBlock... blocks) throws IOException {
+
+        BlockStatistics.Builder builder = BlockStatistics.newBuilder(this.definition);
+
+        for (DataBlock block : blocks) {
+
+            try (ResourceIterator<BinaryTimeSeriesRecord> iterator = newRecordIterator(block)) {
+
+                while (iterator.hasNext()) {
+                    builder.add(iterator.next());
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Converts the specified number of milliseconds in nanoseconds.
+     */
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * <code>AggregationInput</code> returning the records and block statistics of a list.
+     */
+    private static final class ListInput implements AggregationInput {
+
+        /**
+         * The records and block statistics.
+         */
+        private final List<Object> elements;
+
+        /**
+         * The index of the current element.
+         */
+        private int index = -1;
+
+        /**
+         * Creates a new <code>ListInput</code>.
+         *
+         * @param elements the records and block statistics
+         */
+        public ListInput(List<Object> elements) {
+            this.elements = elements;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean next() {
+            this.index++;
+            return this.index < this.elements.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockStatistics getStatistics() {
+
+            Object element = this.elements.get(this.index);
+            return (element instanceof BlockStatistics) ? (BlockStatistics) element : null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Record getRecord() {
+
+            Object element = this.elements.get(this.index);
+            return (element instanceof Record) ? (Record) element : null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+        }
+    }
+}